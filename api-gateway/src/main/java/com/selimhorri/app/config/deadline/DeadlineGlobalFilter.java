@@ -0,0 +1,89 @@
+package com.selimhorri.app.config.deadline;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Origin of the request deadline: every routed request leaves the gateway with a relative budget in
+ * {@value #DEADLINE_HEADER}, either the caller's own (capped) or the configured default, and the gateway
+ * answers 504 itself once that budget is spent instead of waiting on the downstream.
+ */
+@Component
+@EnableConfigurationProperties(DeadlineProperties.class)
+@RequiredArgsConstructor
+@Slf4j
+public class DeadlineGlobalFilter implements GlobalFilter, Ordered {
+	
+	public static final String DEADLINE_HEADER = "X-Deadline-Remaining-Ms";
+	
+	private final DeadlineProperties deadlineProperties;
+	
+	@Override
+	public Mono<Void> filter(final ServerWebExchange exchange, final GatewayFilterChain chain) {
+		
+		final Duration budget;
+		try {
+			budget = this.budget(exchange.getRequest().getHeaders().getFirst(DEADLINE_HEADER));
+		}
+		catch (NumberFormatException e) {
+			exchange.getResponse().setStatusCode(HttpStatus.BAD_REQUEST);
+			return exchange.getResponse().setComplete();
+		}
+		
+		if (budget.isZero() || budget.isNegative()) {
+			exchange.getResponse().setStatusCode(HttpStatus.GATEWAY_TIMEOUT);
+			return exchange.getResponse().setComplete();
+		}
+		
+		final ServerWebExchange mutated = exchange.mutate()
+				.request(request -> request.headers(headers -> headers.set(DEADLINE_HEADER, String.valueOf(budget.toMillis()))))
+				.build();
+		
+		return chain.filter(mutated)
+				.timeout(budget)
+				.onErrorResume(TimeoutException.class, e -> {
+					log.info("** Deadline of {} ms exceeded for {} *", budget.toMillis(), exchange.getRequest().getPath());
+					if (exchange.getResponse().isCommitted())
+						return Mono.error(e);
+					exchange.getResponse().setStatusCode(HttpStatus.GATEWAY_TIMEOUT);
+					return exchange.getResponse().setComplete();
+				});
+	}
+	
+	private Duration budget(final String header) {
+		if (header == null || header.isBlank())
+			return this.deadlineProperties.getDefaultTimeout();
+		final long requested = Long.parseLong(header.trim());
+		return Duration.ofMillis(Math.min(requested, this.deadlineProperties.getMaxTimeout().toMillis()));
+	}
+	
+	@Override
+	public int getOrder() {
+		return Ordered.HIGHEST_PRECEDENCE;
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
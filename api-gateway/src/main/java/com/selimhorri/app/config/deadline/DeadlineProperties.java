@@ -0,0 +1,16 @@
+package com.selimhorri.app.config.deadline;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@ConfigurationProperties(prefix = "app.deadline")
+@Data
+public class DeadlineProperties {
+	
+	private Duration defaultTimeout = Duration.ofSeconds(10);
+	private Duration maxTimeout = Duration.ofSeconds(30);
+	
+}
@@ -0,0 +1,49 @@
+package com.selimhorri.app.config.hedging;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket bounding hedged attempts to {@code budgetPercent} of primary traffic.
+ * Every primary request deposits {@code budgetPercent} credits, a hedge withdraws 100.
+ */
+public class HedgingBudget {
+	
+	private static final long HEDGE_COST = 100L;
+	
+	private final long depositPerRequest;
+	private final long maxCredits;
+	private final AtomicLong credits = new AtomicLong();
+	
+	public HedgingBudget(final int budgetPercent, final int maxBurst) {
+		this.depositPerRequest = budgetPercent;
+		this.maxCredits = maxBurst * HEDGE_COST;
+	}
+	
+	public void recordRequest() {
+		this.credits.getAndUpdate(current -> Math.min(this.maxCredits, current + this.depositPerRequest));
+	}
+	
+	public boolean tryAcquire() {
+		long current;
+		do {
+			current = this.credits.get();
+			if (current < HEDGE_COST)
+				return false;
+		}
+		while (!this.credits.compareAndSet(current, current - HEDGE_COST));
+		return true;
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,180 @@
+package com.selimhorri.app.config.hedging;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Route filter issuing a second GET to another instance once the primary attempt exceeds the route's
+ * latency percentile. The first response wins and the slower attempt is cancelled.
+ *
+ * Only GETs matching the configured {@code paths} are hedged, since both attempts are buffered in memory up to
+ * {@code maxResponseSize}; they are meant for bounded single-resource reads such as
+ * {@code /product-service/api/products/{productId:[0-9]+}}. Everything else goes through the regular routing chain.
+ *
+ * A hedge is only sent while the primary attempt is still pending. A hedged GET that gets no response fails with
+ * the primary attempt's error rather than being sent again, so a failing backend does not see extra load. The one exception is a response too large to buffer: the backend
+ * did answer, so the request is routed normally, paid for from the hedging budget like a hedge.
+ */
+@Component
+@Slf4j
+public class HedgingGatewayFilterFactory extends AbstractGatewayFilterFactory<HedgingGatewayFilterFactory.Config> {
+	
+	private static final Set<String> HOP_BY_HOP_HEADERS = Set.of(
+			HttpHeaders.HOST.toLowerCase(),
+			HttpHeaders.CONTENT_LENGTH.toLowerCase(),
+			HttpHeaders.TRANSFER_ENCODING.toLowerCase(),
+			HttpHeaders.CONNECTION.toLowerCase());
+	
+	private final WebClient.Builder webClientBuilder;
+	private final Map<String, LatencyTracker> trackers = new ConcurrentHashMap<>();
+	private final Map<String, HedgingBudget> budgets = new ConcurrentHashMap<>();
+	
+	public HedgingGatewayFilterFactory(final WebClient.Builder webClientBuilder) {
+		super(Config.class);
+		this.webClientBuilder = webClientBuilder;
+	}
+	
+	@Override
+	public GatewayFilter apply(final Config config) {
+		final List<PathPattern> paths = config.getPaths().stream()
+				.map(PathPatternParser.defaultInstance::parse)
+				.collect(Collectors.toUnmodifiableList());
+		final WebClient webClient = this.webClientBuilder.clone()
+				.codecs(codecs -> codecs.defaultCodecs().maxInMemorySize((int) config.getMaxResponseSize().toBytes()))
+				.build();
+		return (exchange, chain) -> {
+			
+			final Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+			if (!HttpMethod.GET.equals(exchange.getRequest().getMethod()) || route == null
+					|| paths.stream().noneMatch(path -> path.matches(exchange.getRequest().getPath().pathWithinApplication())))
+				return chain.filter(exchange);
+			
+			final var tracker = this.trackers.computeIfAbsent(route.getId(),
+					id -> new LatencyTracker(config.getWindowSize(), config.getPercentile()));
+			final var budget = this.budgets.computeIfAbsent(route.getId(),
+					id -> new HedgingBudget(config.getBudgetPercent(), config.getMaxBurst()));
+			budget.recordRequest();
+			
+			final URI target = UriComponentsBuilder.fromUri(exchange.getRequest().getURI())
+					.scheme("http")
+					.host(route.getUri().getHost())
+					.port(route.getUri().getPort())
+					.build(true)
+					.toUri();
+			
+			final AtomicReference<Throwable> primaryError = new AtomicReference<>();
+			final Mono<ResponseEntity<byte[]>> primary = this.attempt(webClient, exchange, target, tracker)
+					.doOnError(primaryError::set);
+			final Mono<ResponseEntity<byte[]>> hedge = Mono.delay(this.hedgeDelay(config, tracker))
+					.filter(tick -> primaryError.get() == null && budget.tryAcquire())
+					.doOnNext(tick -> log.debug("** Hedging GET {} on route {} *", target.getPath(), route.getId()))
+					.flatMap(tick -> this.attempt(webClient, exchange, target, tracker));
+			
+			return Mono.firstWithValue(primary, hedge)
+					.map(Optional::of)
+					.onErrorResume(e -> {
+						// neither attempt produced a response; only a body over the limit may be routed again
+						final Throwable cause = primaryError.get() == null ? e : primaryError.get();
+						if (!(cause instanceof DataBufferLimitException) || !budget.tryAcquire())
+							return Mono.error(cause);
+						log.debug("** Hedged GET {} on route {} got a response over the limit, routing it normally *", 
+								target.getPath(), route.getId());
+						return Mono.just(Optional.empty());
+					})
+					.flatMap(response -> response.isPresent() 
+							? this.write(exchange, response.get()) 
+							: chain.filter(exchange));
+		};
+	}
+	
+	private Duration hedgeDelay(final Config config, final LatencyTracker tracker) {
+		final long percentileMillis = tracker.percentileMillis();
+		if (percentileMillis < 0)
+			return config.getMaxDelay();
+		return Duration.ofMillis(Math.max(config.getMinDelay().toMillis(),
+				Math.min(config.getMaxDelay().toMillis(), percentileMillis)));
+	}
+	
+	private Mono<ResponseEntity<byte[]>> attempt(final WebClient webClient, final ServerWebExchange exchange, 
+			final URI target, final LatencyTracker tracker) {
+		return Mono.defer(() -> {
+			final long start = System.nanoTime();
+			return webClient.get()
+					.uri(target)
+					.headers(headers -> exchange.getRequest().getHeaders().forEach((name, values) -> {
+						if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase()))
+							headers.addAll(name, values);
+					}))
+					.exchangeToMono(clientResponse -> clientResponse.toEntity(byte[].class))
+					.doOnNext(response -> tracker.record((System.nanoTime() - start) / 1_000_000L));
+		});
+	}
+	
+	private Mono<Void> write(final ServerWebExchange exchange, final ResponseEntity<byte[]> response) {
+		final var serverResponse = exchange.getResponse();
+		serverResponse.setStatusCode(response.getStatusCode());
+		response.getHeaders().forEach((name, values) -> {
+			if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase()))
+				serverResponse.getHeaders().put(name, values);
+		});
+		final byte[] body = response.getBody() == null ? new byte[0] : response.getBody();
+		final DataBuffer buffer = serverResponse.bufferFactory().wrap(body);
+		return serverResponse.writeWith(Mono.just(buffer));
+	}
+	
+	@Data
+	public static class Config {
+		
+		private double percentile = 95.0;
+		private int windowSize = 1024;
+		private Duration minDelay = Duration.ofMillis(10);
+		private Duration maxDelay = Duration.ofMillis(500);
+		private int budgetPercent = 10;
+		private int maxBurst = 10;
+		private List<String> paths = new ArrayList<>();
+		private DataSize maxResponseSize = DataSize.ofMegabytes(4);
+		
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
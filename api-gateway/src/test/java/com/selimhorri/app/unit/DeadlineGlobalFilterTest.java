@@ -0,0 +1,94 @@
+package com.selimhorri.app.unit;
+
+import com.selimhorri.app.config.deadline.DeadlineGlobalFilter;
+import com.selimhorri.app.config.deadline.DeadlineProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeadlineGlobalFilterTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final AtomicReference<String> forwardedBudget = new AtomicReference<>();
+    private final GatewayFilterChain chain = exchange -> {
+        forwardedBudget.set(exchange.getRequest().getHeaders().getFirst(DeadlineGlobalFilter.DEADLINE_HEADER));
+        return Mono.empty();
+    };
+
+    private DeadlineGlobalFilter filter;
+
+    @BeforeEach
+    void setup() {
+        final DeadlineProperties properties = new DeadlineProperties();
+        properties.setDefaultTimeout(Duration.ofSeconds(2));
+        properties.setMaxTimeout(Duration.ofSeconds(5));
+        filter = new DeadlineGlobalFilter(properties);
+    }
+
+    @Test
+    void testFilter_withoutHeader_forwardsDefaultBudget() {
+        filter.filter(exchange(null), chain).block(TIMEOUT);
+
+        assertEquals("2000", forwardedBudget.get());
+    }
+
+    @Test
+    void testFilter_headerAboveMax_isClampedToMax() {
+        filter.filter(exchange("60000"), chain).block(TIMEOUT);
+
+        assertEquals("5000", forwardedBudget.get());
+    }
+
+    @Test
+    void testFilter_headerWithinMax_isKept() {
+        filter.filter(exchange(" 1500 "), chain).block(TIMEOUT);
+
+        assertEquals("1500", forwardedBudget.get());
+    }
+
+    @Test
+    void testFilter_spentBudget_answers504WithoutRouting() {
+        final MockServerWebExchange exchange = exchange("0");
+
+        filter.filter(exchange, chain).block(TIMEOUT);
+
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, exchange.getResponse().getStatusCode());
+        assertNull(forwardedBudget.get());
+    }
+
+    @Test
+    void testFilter_invalidHeader_answers400() {
+        final MockServerWebExchange exchange = exchange("soon");
+
+        filter.filter(exchange, chain).block(TIMEOUT);
+
+        assertEquals(HttpStatus.BAD_REQUEST, exchange.getResponse().getStatusCode());
+        assertNull(forwardedBudget.get());
+    }
+
+    @Test
+    void testFilter_downstreamSlowerThanBudget_answers504() {
+        final MockServerWebExchange exchange = exchange("100");
+
+        filter.filter(exchange, ignored -> Mono.never()).block(TIMEOUT);
+
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, exchange.getResponse().getStatusCode());
+    }
+
+    private static MockServerWebExchange exchange(final String budget) {
+        final MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/product-service/api/products/1");
+        if (budget != null)
+            request.header(DeadlineGlobalFilter.DEADLINE_HEADER, budget);
+        return MockServerWebExchange.from(request);
+    }
+}
@@ -0,0 +1,36 @@
+package com.selimhorri.app.unit;
+
+import com.selimhorri.app.config.hedging.HedgingBudget;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HedgingBudgetTest {
+
+    @Test
+    void givenTenPercentBudget_whenRequestsArrive_thenOneHedgePerTenRequestsIsAllowed() {
+        final HedgingBudget budget = new HedgingBudget(10, 10);
+        assertFalse(budget.tryAcquire());
+
+        for (int i = 0; i < 9; i++)
+            budget.recordRequest();
+        assertFalse(budget.tryAcquire());
+
+        budget.recordRequest();
+        assertTrue(budget.tryAcquire());
+        assertFalse(budget.tryAcquire());
+    }
+
+    @Test
+    void givenIdleRoute_whenCreditsAccumulate_thenBurstIsCapped() {
+        final HedgingBudget budget = new HedgingBudget(50, 3);
+        for (int i = 0; i < 1_000; i++)
+            budget.recordRequest();
+
+        int hedges = 0;
+        while (budget.tryAcquire())
+            hedges++;
+        assertEquals(3, hedges);
+    }
+
+}
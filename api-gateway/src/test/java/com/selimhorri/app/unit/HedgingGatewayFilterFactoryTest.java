@@ -0,0 +1,143 @@
+package com.selimhorri.app.unit;
+
+import com.selimhorri.app.config.hedging.HedgingGatewayFilterFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the filter against a local downstream whose first response to a product read is slow, and checks which
+ * requests are hedged and which are left to the routing chain.
+ */
+class HedgingGatewayFilterFactoryTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final AtomicInteger productReads = new AtomicInteger();
+    private final AtomicInteger routed = new AtomicInteger();
+    private final GatewayFilterChain chain = exchange -> {
+        routed.incrementAndGet();
+        return Mono.empty();
+    };
+
+    private DisposableServer downstream;
+    private HedgingGatewayFilterFactory.Config config;
+    private GatewayFilter filter;
+
+    @BeforeEach
+    void setup() {
+        downstream = HttpServer.create()
+                .port(0)
+                .route(routes -> routes
+                        .get("/product-service/api/products/{productId}", (request, response) -> {
+                            final Duration delay = productReads.incrementAndGet() == 1 ? Duration.ofSeconds(3) : Duration.ZERO;
+                            return response.sendString(Mono.delay(delay).thenReturn("{\"productId\":" + request.param("productId") + "}"));
+                        })
+                        .get("/product-service/api/products/large/{size}", (request, response) ->
+                                response.sendString(Mono.just("x".repeat(Integer.parseInt(request.param("size")))))))
+                .bindNow();
+
+        config = new HedgingGatewayFilterFactory.Config();
+        config.setPaths(List.of("/product-service/api/products/{productId:[0-9]+}", "/product-service/api/products/large/*"));
+        config.setMinDelay(Duration.ofMillis(50));
+        config.setMaxDelay(Duration.ofMillis(50));
+        config.setBudgetPercent(100);
+        config.setMaxResponseSize(DataSize.ofKilobytes(512));
+        filter = new HedgingGatewayFilterFactory(WebClient.builder()).apply(config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        downstream.disposeNow();
+    }
+
+    @Test
+    void givenSlowPrimary_whenHedgedPathIsRead_thenTheHedgeAnswers() {
+        final MockServerWebExchange exchange = exchange("/product-service/api/products/7");
+
+        filter.filter(exchange, chain).block(TIMEOUT);
+
+        assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+        assertEquals("{\"productId\":7}", exchange.getResponse().getBodyAsString().block(TIMEOUT));
+        assertEquals(2, productReads.get());
+        assertEquals(0, routed.get());
+    }
+
+    @Test
+    void givenListOrUnlistedPath_whenRead_thenItIsRoutedNormally() {
+        filter.filter(exchange("/product-service/api/products"), chain).block(TIMEOUT);
+        filter.filter(exchange("/product-service/api/products/changes"), chain).block(TIMEOUT);
+        filter.filter(exchange("/order-service/api/orders/7"), chain).block(TIMEOUT);
+
+        assertEquals(3, routed.get());
+        assertEquals(0, productReads.get());
+    }
+
+    @Test
+    void givenResponseAboveTheDefaultCodecLimit_whenHedged_thenItIsBufferedUpToMaxResponseSize() {
+        final MockServerWebExchange exchange = exchange("/product-service/api/products/large/" + 300 * 1024);
+
+        filter.filter(exchange, chain).block(TIMEOUT);
+
+        assertEquals(300 * 1024, exchange.getResponse().getBodyAsString().block(TIMEOUT).length());
+        assertEquals(0, routed.get());
+    }
+
+    @Test
+    void givenResponseOverMaxResponseSize_whenHedged_thenItFallsThroughToTheChain() {
+        config.setMinDelay(Duration.ofSeconds(1));
+        config.setMaxDelay(Duration.ofSeconds(1));
+        filter = new HedgingGatewayFilterFactory(WebClient.builder()).apply(config);
+
+        filter.filter(exchange("/product-service/api/products/large/" + 600 * 1024), chain).block(TIMEOUT);
+
+        assertEquals(1, routed.get());
+    }
+
+    @Test
+    void givenRefusedConnection_whenHedged_thenThePrimaryErrorIsReturnedWithoutRouting() {
+        final int port = downstream.port();
+        downstream.disposeNow();
+        config.setBudgetPercent(0);
+        filter = new HedgingGatewayFilterFactory(WebClient.builder()).apply(config);
+
+        assertThrows(WebClientRequestException.class,
+                () -> filter.filter(exchange("http://localhost:" + port, "/product-service/api/products/7"), chain).block(TIMEOUT));
+        assertEquals(0, routed.get());
+    }
+
+    private MockServerWebExchange exchange(final String path) {
+        return exchange("http://localhost:" + downstream.port(), path);
+    }
+
+    private static MockServerWebExchange exchange(final String routeUri, final String path) {
+        final MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(path).build());
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, Route.async()
+                .id("PRODUCT-SERVICE")
+                .uri(URI.create(routeUri))
+                .predicate(serverWebExchange -> true)
+                .build());
+        return exchange;
+    }
+
+}
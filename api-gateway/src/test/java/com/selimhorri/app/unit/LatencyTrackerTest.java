@@ -0,0 +1,41 @@
+package com.selimhorri.app.unit;
+
+import com.selimhorri.app.config.hedging.LatencyTracker;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyTrackerTest {
+
+    @Test
+    void givenTooFewSamples_whenPercentile_thenItIsUnknown() {
+        final LatencyTracker tracker = new LatencyTracker(128, 95.0);
+        for (int i = 0; i < 63; i++)
+            tracker.record(10);
+
+        assertEquals(-1, tracker.percentileMillis());
+    }
+
+    @Test
+    void givenSamples_whenPercentile_thenItIsTakenOverTheWindow() {
+        final LatencyTracker tracker = new LatencyTracker(100, 95.0);
+        for (int i = 1; i <= 128; i++)
+            tracker.record(i);
+
+        // the window holds 29..128 after wrapping, the 95th of those is 123
+        assertEquals(123, tracker.percentileMillis());
+    }
+
+    @Test
+    void givenLatencyShift_whenWindowWraps_thenOldSamplesAreForgotten() {
+        final LatencyTracker tracker = new LatencyTracker(64, 50.0);
+        for (int i = 0; i < 64; i++)
+            tracker.record(500);
+        assertEquals(500, tracker.percentileMillis());
+
+        for (int i = 0; i < 64; i++)
+            tracker.record(5);
+        assertEquals(5, tracker.percentileMillis());
+    }
+
+}
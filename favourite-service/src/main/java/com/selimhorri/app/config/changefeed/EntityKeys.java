@@ -0,0 +1,93 @@
+package com.selimhorri.app.config.changefeed;
+
+import java.lang.reflect.Field;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import javax.persistence.Id;
+
+/**
+ * String form of entity ids shared by change feeds and tombstones: the {@link Id} fields in declaration
+ * order, joined with commas, e.g. {@code 42} or {@code 3,17} for a composite key.
+ */
+public final class EntityKeys {
+	
+	private static final String SEPARATOR = ",";
+	private static final Map<Class<?>, List<Field>> ID_FIELDS = new ConcurrentHashMap<>();
+	
+	private EntityKeys() {
+		
+	}
+	
+	public static String type(final Class<?> entityClass) {
+		return entityClass.getSimpleName();
+	}
+	
+	public static List<Field> idFields(final Class<?> entityClass) {
+		return ID_FIELDS.computeIfAbsent(entityClass, type -> {
+			final List<Field> fields = Arrays.stream(type.getDeclaredFields())
+					.filter(field -> field.isAnnotationPresent(Id.class))
+					.collect(Collectors.toUnmodifiableList());
+			fields.forEach(field -> field.setAccessible(true));
+			return fields;
+		});
+	}
+	
+	public static String format(final Object entity) {
+		return idFields(entity.getClass()).stream()
+				.map(field -> {
+					try {
+						return String.valueOf(field.get(entity));
+					}
+					catch (IllegalAccessException e) {
+						throw new IllegalStateException(e);
+					}
+				})
+				.collect(Collectors.joining(SEPARATOR));
+	}
+	
+	public static Object[] parse(final Class<?> entityClass, final String key) {
+		final List<Field> fields = idFields(entityClass);
+		final String[] values = key.split(SEPARATOR, -1);
+		if (values.length != fields.size())
+			throw new IllegalArgumentException(String.format("Expected %d key parts in %s", fields.size(), key));
+		final Object[] parsed = new Object[values.length];
+		for (int i = 0; i < values.length; i++)
+			parsed[i] = parseValue(fields.get(i).getType(), values[i]);
+		return parsed;
+	}
+	
+	private static Object parseValue(final Class<?> type, final String value) {
+		if (type == Integer.class)
+			return Integer.valueOf(value);
+		if (type == Long.class)
+			return Long.valueOf(value);
+		if (type == LocalDateTime.class)
+			return LocalDateTime.parse(value);
+		if (type == LocalDate.class)
+			return LocalDate.parse(value);
+		if (type == Instant.class)
+			return Instant.parse(value);
+		if (type == String.class)
+			return value;
+		throw new IllegalArgumentException(String.format("Unsupported key type %s", type.getSimpleName()));
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,45 @@
+package com.selimhorri.app.config.changefeed;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import javax.persistence.PostRemove;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.selimhorri.app.domain.AbstractMappedEntity;
+
+/**
+ * Records a tombstone for every entity deleted through JPA, in the deleting transaction, so change feeds can
+ * report deletes. Bulk deletes issued as queries bypass it.
+ */
+public class TombstoneEntityListener {
+	
+	private static final String INSERT_TOMBSTONE =
+			"INSERT INTO tombstones (entity_type, entity_id, deleted_at) VALUES (?, ?, ?)";
+	
+	private final ObjectProvider<JdbcTemplate> jdbcTemplate;
+	
+	public TombstoneEntityListener(final ObjectProvider<JdbcTemplate> jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+	
+	@PostRemove
+	public void recordTombstone(final AbstractMappedEntity entity) {
+		this.jdbcTemplate.getObject().update(INSERT_TOMBSTONE, EntityKeys.type(entity.getClass()),
+				EntityKeys.format(entity), Timestamp.from(Instant.now()));
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,9 @@
+package com.selimhorri.app.config.client;
+
+public enum LookupMode {
+	
+	SINGLE,
+	BATCH,
+	STREAM;
+	
+}
@@ -0,0 +1,60 @@
+package com.selimhorri.app.config.datasource;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replicas[0].url")
+@EnableConfigurationProperties(ReplicaRoutingProperties.class)
+public class ReplicaRoutingConfig {
+	
+	@Bean(destroyMethod = "close")
+	public ReplicaHealthChecker replicaHealthCheckerBean(final DataSourceProperties dataSourceProperties, 
+			final ReplicaRoutingProperties properties) {
+		
+		final Map<String, DataSource> replicas = new LinkedHashMap<>();
+		for (int i = 0; i < properties.getReplicas().size(); i++) {
+			final var replica = properties.getReplicas().get(i);
+			replicas.put("replica-" + i, DataSourceBuilder.create()
+					.url(replica.getUrl())
+					.username(replica.getUsername())
+					.password(replica.getPassword())
+					.build());
+		}
+		
+		final var replicaHealthChecker = new ReplicaHealthChecker(new ReplicaRoutingDataSource(
+				dataSourceProperties.initializeDataSourceBuilder().build(), replicas), properties);
+		replicaHealthChecker.start();
+		return replicaHealthChecker;
+	}
+	
+	@Bean
+	@Primary
+	public DataSource dataSource(final ReplicaHealthChecker replicaHealthChecker) {
+		return new LazyConnectionDataSourceProxy(replicaHealthChecker.getRoutingDataSource());
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,30 @@
+package com.selimhorri.app.config.datasource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@ConfigurationProperties(prefix = "app.datasource")
+@Data
+public class ReplicaRoutingProperties {
+	
+	private List<Replica> replicas = new ArrayList<>();
+	private Duration replicaMaxLag = Duration.ofSeconds(5);
+	private Duration replicaCheckInterval = Duration.ofSeconds(5);
+	private String replicaLagQuery;
+	private String replicaLagColumn;
+	
+	@Data
+	public static class Replica {
+		
+		private String url;
+		private String username;
+		private String password;
+		
+	}
+	
+}
@@ -0,0 +1,48 @@
+package com.selimhorri.app.config.deadline;
+
+import java.util.OptionalLong;
+
+import com.selimhorri.app.exception.wrapper.DeadlineExceededException;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Holds the absolute deadline (local monotonic clock) of the request served by the current thread.
+ * Deadlines travel between hops as the remaining budget in millis, so hosts need no synchronized clocks.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class DeadlineContext {
+	
+	public static final String DEADLINE_HEADER = "X-Deadline-Remaining-Ms";
+	
+	private static final ThreadLocal<Long> DEADLINE_NANOS = new ThreadLocal<>();
+	
+	public static void setRemainingMillis(final long remainingMillis) {
+		DEADLINE_NANOS.set(System.nanoTime() + remainingMillis * 1_000_000L);
+	}
+	
+	public static OptionalLong remainingMillis() {
+		final Long deadlineNanos = DEADLINE_NANOS.get();
+		if (deadlineNanos == null)
+			return OptionalLong.empty();
+		return OptionalLong.of(Math.max(0L, (deadlineNanos - System.nanoTime()) / 1_000_000L));
+	}
+	
+	public static boolean isExpired() {
+		final OptionalLong remaining = remainingMillis();
+		return remaining.isPresent() && remaining.getAsLong() <= 0L;
+	}
+	
+	public static void checkNotExpired(final String operation) {
+		if (isExpired())
+			throw new DeadlineExceededException(String.format("Deadline exceeded before %s", operation));
+	}
+	
+	public static void clear() {
+		DEADLINE_NANOS.remove();
+	}
+	
+	
+	
+}
@@ -0,0 +1,249 @@
+package com.selimhorri.app.config.idempotency;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Optional;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import com.selimhorri.app.config.deadline.DeadlineContext;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Makes POST and PUT requests carrying an {@code Idempotency-Key} header safe to retry. The first request
+ * with a key runs and its response is stored; a retry with the same key and the same method, path and body
+ * gets that response replayed, while a retry that arrives while the first is still running waits for it up
+ * to the configured bound (or the request deadline) instead of running twice. Reusing a key for a different
+ * request is rejected. Server errors are not stored, so a request that failed that way can be retried.
+ * 
+ * Runs inside the concurrency limit and outside the SQL instrumentation, so the store's own statements are
+ * not counted against the route. A duplicate that waits for the first request keeps its concurrency permit
+ * while it sleeps; that is intended, since the wait is bounded and a burst of retries should be shed by the
+ * limit rather than pile up waiting threads outside it.
+ */
+@Order(Ordered.HIGHEST_PRECEDENCE + 15)
+@Slf4j
+public class IdempotencyFilter extends OncePerRequestFilter {
+	
+	public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+	public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+	private static final int MAX_KEY_LENGTH = 128;
+	private static final long MAX_POLL_MILLIS = 200;
+	
+	private final IdempotencyStore idempotencyStore;
+	private final IdempotencyProperties properties;
+	
+	public IdempotencyFilter(final IdempotencyStore idempotencyStore, final IdempotencyProperties properties) {
+		this.idempotencyStore = idempotencyStore;
+		this.properties = properties;
+	}
+	
+	@Override
+	protected boolean shouldNotFilter(final HttpServletRequest request) {
+		return request.getServletPath().startsWith("/actuator") 
+				|| !(HttpMethod.POST.matches(request.getMethod()) || HttpMethod.PUT.matches(request.getMethod())) 
+				|| request.getHeader(IDEMPOTENCY_KEY_HEADER) == null;
+	}
+	
+	@Override
+	protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response, 
+			final FilterChain filterChain) throws ServletException, IOException {
+		
+		final String key = request.getHeader(IDEMPOTENCY_KEY_HEADER).trim();
+		if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+			response.sendError(HttpStatus.BAD_REQUEST.value(), "Invalid " + IDEMPOTENCY_KEY_HEADER + " header");
+			return;
+		}
+		
+		final long maxBodyBytes = this.properties.getMaxBodySize().toBytes();
+		final byte[] body = request.getInputStream().readNBytes((int) maxBodyBytes + 1);
+		if (body.length > maxBodyBytes) {
+			response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value(), "Request body too large for an idempotent request");
+			return;
+		}
+		final String fingerprint = fingerprint(request, body);
+		
+		final long waitUntil = System.currentTimeMillis() 
+				+ Math.min(this.properties.getMaxWait().toMillis(), DeadlineContext.remainingMillis().orElse(Long.MAX_VALUE));
+		long pollMillis = 10;
+		while (true) {
+			
+			final Optional<String> owner = this.idempotencyStore.claim(key, fingerprint);
+			if (owner.isPresent()) {
+				this.execute(key, owner.get(), new CachedBodyRequest(request, body), response, filterChain);
+				return;
+			}
+			
+			// an entry released or swept between the claim and this read is claimed again after the pause below
+			final Optional<IdempotencyStore.Entry> entry = this.idempotencyStore.find(key);
+			if (entry.isPresent() && !entry.get().getFingerprint().equals(fingerprint)) {
+				response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(), 
+						IDEMPOTENCY_KEY_HEADER + " was already used for a different request");
+				return;
+			}
+			if (entry.isPresent() && entry.get().isCompleted()) {
+				log.info("*** Replaying {} {} for idempotency key {} *", request.getMethod(), request.getRequestURI(), key);
+				replay(entry.get(), response);
+				return;
+			}
+			if (System.currentTimeMillis() >= waitUntil) {
+				log.warn("** Gave up waiting for in-flight request with idempotency key {} *", key);
+				response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+				response.sendError(HttpStatus.CONFLICT.value(), "A request with this " + IDEMPOTENCY_KEY_HEADER + " is in progress");
+				return;
+			}
+			
+			try {
+				Thread.sleep(Math.min(pollMillis, Math.max(1, waitUntil - System.currentTimeMillis())));
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Interrupted");
+				return;
+			}
+			pollMillis = Math.min(MAX_POLL_MILLIS, pollMillis * 2);
+		}
+	}
+	
+	private void execute(final String key, final String owner, final HttpServletRequest request, 
+			final HttpServletResponse response, final FilterChain filterChain) throws ServletException, IOException {
+		
+		final var responseWrapper = new ContentCachingResponseWrapper(response);
+		boolean stored = false;
+		try {
+			filterChain.doFilter(request, responseWrapper);
+			if (responseWrapper.getStatus() < HttpStatus.INTERNAL_SERVER_ERROR.value() 
+					&& responseWrapper.getContentSize() <= this.properties.getMaxBodySize().toBytes())
+				stored = this.idempotencyStore.complete(key, owner, responseWrapper.getStatus(), 
+						responseWrapper.getContentType(), responseWrapper.getContentAsByteArray());
+		}
+		finally {
+			if (!stored)
+				this.idempotencyStore.release(key, owner);
+			responseWrapper.copyBodyToResponse();
+		}
+	}
+	
+	private static void replay(final IdempotencyStore.Entry entry, final HttpServletResponse response) throws IOException {
+		response.setStatus(entry.getResponseStatus());
+		response.setHeader(REPLAYED_HEADER, "true");
+		if (entry.getResponseContentType() != null)
+			response.setContentType(entry.getResponseContentType());
+		if (entry.getResponseBody() != null) {
+			response.setContentLength(entry.getResponseBody().length);
+			response.getOutputStream().write(entry.getResponseBody());
+		}
+	}
+	
+	private static String fingerprint(final HttpServletRequest request, final byte[] body) {
+		try {
+			final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			final String query = request.getQueryString() == null ? "" : "?" + request.getQueryString();
+			digest.update((request.getMethod() + " " + request.getRequestURI() + query + "\n").getBytes(StandardCharsets.UTF_8));
+			digest.update(body);
+			final StringBuilder hex = new StringBuilder();
+			for (final byte b : digest.digest())
+				hex.append(String.format("%02x", b));
+			return hex.toString();
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * Serves the body that was already read for the fingerprint to the rest of the chain.
+	 */
+	private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+		
+		private final byte[] body;
+		
+		private CachedBodyRequest(final HttpServletRequest request, final byte[] body) {
+			super(request);
+			this.body = body;
+		}
+		
+		@Override
+		public ServletInputStream getInputStream() {
+			final var inputStream = new ByteArrayInputStream(this.body);
+			return new ServletInputStream() {
+				
+				@Override
+				public int read() {
+					return inputStream.read();
+				}
+				
+				@Override
+				public int read(final byte[] buffer, final int offset, final int length) {
+					return inputStream.read(buffer, offset, length);
+				}
+				
+				@Override
+				public boolean isFinished() {
+					return inputStream.available() == 0;
+				}
+				
+				@Override
+				public boolean isReady() {
+					return true;
+				}
+				
+				@Override
+				public void setReadListener(final ReadListener readListener) {
+					throw new IllegalStateException("async IO not supported");
+				}
+				
+			};
+		}
+		
+		@Override
+		public BufferedReader getReader() throws IOException {
+			return new BufferedReader(new InputStreamReader(this.getInputStream(), 
+					this.getCharacterEncoding() == null ? StandardCharsets.UTF_8.name() : this.getCharacterEncoding()));
+		}
+		
+		@Override
+		public int getContentLength() {
+			return this.body.length;
+		}
+		
+		@Override
+		public long getContentLengthLong() {
+			return this.body.length;
+		}
+		
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,94 @@
+package com.selimhorri.app.config.limit;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@Slf4j
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+	
+	private final AdaptiveConcurrencyLimit adaptiveConcurrencyLimit;
+	private final ConcurrencyLimitProperties properties;
+	private final Map<RequestPriority, Counter> rejections = new EnumMap<>(RequestPriority.class);
+	private final AntPathMatcher pathMatcher = new AntPathMatcher();
+	
+	public ConcurrencyLimitFilter(final AdaptiveConcurrencyLimit adaptiveConcurrencyLimit, 
+			final ConcurrencyLimitProperties properties, final MeterRegistry meterRegistry) {
+		this.adaptiveConcurrencyLimit = adaptiveConcurrencyLimit;
+		this.properties = properties;
+		for (final RequestPriority priority : RequestPriority.values())
+			this.rejections.put(priority, Counter.builder("http.server.concurrency.rejected")
+					.tag("priority", priority.name())
+					.register(meterRegistry));
+	}
+	
+	@Override
+	protected boolean shouldNotFilter(final HttpServletRequest request) {
+		return request.getServletPath().startsWith("/actuator");
+	}
+	
+	@Override
+	protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response, 
+			final FilterChain filterChain) throws ServletException, IOException {
+		
+		final RequestPriority priority = this.priorityOf(request);
+		if (!this.adaptiveConcurrencyLimit.tryAcquire(priority)) {
+			log.warn("** Shedding {} {} with priority {}, limit {} reached *", 
+					request.getMethod(), request.getRequestURI(), priority, this.adaptiveConcurrencyLimit.getLimit());
+			this.rejections.get(priority).increment();
+			response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+			response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Service overloaded, retry later");
+			return;
+		}
+		
+		final long start = System.nanoTime();
+		boolean dropped = true;
+		try {
+			filterChain.doFilter(request, response);
+			dropped = response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+		}
+		finally {
+			this.adaptiveConcurrencyLimit.release(System.nanoTime() - start, dropped);
+		}
+	}
+	
+	private RequestPriority priorityOf(final HttpServletRequest request) {
+		if (!HttpMethod.GET.matches(request.getMethod()))
+			return RequestPriority.CRITICAL;
+		return this.properties.getCriticalPaths().stream()
+				.anyMatch(pattern -> this.pathMatcher.match(pattern, request.getServletPath())) 
+						? RequestPriority.CRITICAL 
+						: RequestPriority.BEST_EFFORT;
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,116 @@
+package com.selimhorri.app.config.membership;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.selimhorri.app.config.recommendation.IntIntMap;
+import com.selimhorri.app.repository.FavouriteRepository;
+
+/**
+ * Per-user sets of favourited product ids, loaded on first use with a single query, so membership checks are
+ * primitive hash lookups. Users are evicted least recently used beyond {@code max-users}, and a set older than
+ * {@code ttl} is reloaded to pick up other instances' writes.
+ *
+ * This instance's own writes evict the user's set once they commit rather than patching it, since a set loaded
+ * between the commit and this notice already holds the write. A set loaded while a write is being noticed may
+ * miss it, so such a load answers its own request but is not kept.
+ */
+public class FavouriteMembershipCache {
+	
+	private final FavouriteRepository favouriteRepository;
+	private final FavouriteMembershipProperties properties;
+	private final AtomicLong writes = new AtomicLong();
+	private final Map<Integer, Entry> users;
+	
+	public FavouriteMembershipCache(final FavouriteRepository favouriteRepository, 
+			final FavouriteMembershipProperties properties) {
+		this.favouriteRepository = favouriteRepository;
+		this.properties = properties;
+		this.users = new LinkedHashMap<>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<Integer, Entry> eldest) {
+				return this.size() > properties.getMaxUsers();
+			}
+		};
+	}
+	
+	/**
+	 * Returns the given product ids the user has favourited, in request order.
+	 */
+	public List<Integer> retainFavourited(final Integer userId, final Collection<Integer> productIds) {
+		synchronized (this) {
+			final Entry entry = this.users.get(userId);
+			if (entry != null && !entry.isExpired(this.properties.getTtl().toNanos()))
+				return retain(entry.productIds, productIds);
+		}
+		
+		final long writesBefore = this.writes.get();
+		final IntIntMap loaded = new IntIntMap();
+		this.favouriteRepository.findProductIdsByUserId(userId).forEach(productId -> loaded.add(productId, 1));
+		synchronized (this) {
+			if (this.writes.get() == writesBefore)
+				this.users.put(userId, new Entry(loaded));
+			return retain(loaded, productIds);
+		}
+	}
+	
+	public void added(final Integer userId, final Integer productId) {
+		this.evict(userId);
+	}
+	
+	public void removed(final Integer userId, final Integer productId) {
+		this.evict(userId);
+	}
+	
+	public synchronized int size() {
+		return this.users.size();
+	}
+	
+	private void evict(final Integer userId) {
+		this.writes.incrementAndGet();
+		synchronized (this) {
+			this.users.remove(userId);
+		}
+	}
+	
+	private static List<Integer> retain(final IntIntMap favourited, final Collection<Integer> productIds) {
+		final List<Integer> retained = new ArrayList<>();
+		for (final Integer productId : productIds)
+			if (productId != null && productId != 0 && favourited.contains(productId))
+				retained.add(productId);
+		return retained;
+	}
+	
+	private static final class Entry {
+		
+		private final IntIntMap productIds;
+		private final long loadedAt = System.nanoTime();
+		
+		private Entry(final IntIntMap productIds) {
+			this.productIds = productIds;
+		}
+		
+		private boolean isExpired(final long ttlNanos) {
+			return System.nanoTime() - this.loadedAt > ttlNanos;
+		}
+		
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,31 @@
+package com.selimhorri.app.config.membership;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.selimhorri.app.repository.FavouriteRepository;
+
+@Configuration
+@EnableConfigurationProperties(FavouriteMembershipProperties.class)
+public class FavouriteMembershipConfig {
+	
+	@Bean
+	public FavouriteMembershipCache favouriteMembershipCacheBean(final FavouriteRepository favouriteRepository, 
+			final FavouriteMembershipProperties properties) {
+		return new FavouriteMembershipCache(favouriteRepository, properties);
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
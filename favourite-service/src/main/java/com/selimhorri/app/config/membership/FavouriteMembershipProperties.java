@@ -0,0 +1,26 @@
+package com.selimhorri.app.config.membership;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@ConfigurationProperties(prefix = "app.favourite-membership")
+@Data
+public class FavouriteMembershipProperties {
+	
+	private int maxUsers = 10_000;
+	private Duration ttl = Duration.ofMinutes(5);
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,171 @@
+package com.selimhorri.app.config.popularity;
+
+import java.io.Closeable;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.selimhorri.app.dto.PopularProductDto;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Tracks newly added favourites in a ring of time buckets, one {@link SpaceSavingSketch} each, and
+ * periodically merges the buckets covering every configured window into a ranked snapshot, so a popular
+ * products read only slices a precomputed list. A window covers whole buckets, so it may reach back up to one
+ * bucket width further than asked. Counts are per instance and rebuilt from {@code favourites} on start.
+ */
+@Slf4j
+public class PopularProductTracker implements Closeable {
+	
+	private final PopularityProperties properties;
+	private final Clock clock;
+	private final long bucketMillis;
+	private final long[] bucketIndexes;
+	private final SpaceSavingSketch[] buckets;
+	private final List<Duration> windows;
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		final var thread = new Thread(runnable, "popular-product-tracker");
+		thread.setDaemon(true);
+		return thread;
+	});
+	
+	private volatile Map<Duration, List<PopularProductDto>> snapshots = Map.of();
+	
+	public PopularProductTracker(final PopularityProperties properties, final Clock clock) {
+		this.properties = properties;
+		this.clock = clock;
+		this.bucketMillis = properties.getBucketWidth().toMillis();
+		this.windows = properties.getWindows().stream()
+				.sorted()
+				.distinct()
+				.collect(Collectors.toUnmodifiableList());
+		final Duration longest = this.windows.get(this.windows.size() - 1);
+		final int bucketCount = (int) ((longest.toMillis() + this.bucketMillis - 1) / this.bucketMillis) + 1;
+		this.bucketIndexes = new long[bucketCount];
+		this.buckets = new SpaceSavingSketch[bucketCount];
+		for (int i = 0; i < bucketCount; i++) {
+			this.bucketIndexes[i] = -1;
+			this.buckets[i] = new SpaceSavingSketch(properties.getSketchCapacity());
+		}
+	}
+	
+	/**
+	 * Replays favourites liked within the longest window, then refreshes the snapshots.
+	 */
+	public void warmUp(final JdbcTemplate jdbcTemplate) {
+		final Instant since = this.clock.instant().minus(this.windows.get(this.windows.size() - 1));
+		jdbcTemplate.query("SELECT product_id, like_date FROM favourites WHERE like_date >= ?",
+				resultSet -> {
+					this.record(resultSet.getInt("product_id"), resultSet.getTimestamp("like_date").toInstant());
+				}, Timestamp.from(since));
+		this.refresh();
+		log.info("*** Popular products warmed up from favourites since {} *", since);
+	}
+	
+	public void start() {
+		final long intervalMillis = this.properties.getRefreshInterval().toMillis();
+		this.scheduler.scheduleWithFixedDelay(() -> {
+			try {
+				this.refresh();
+			}
+			catch (RuntimeException e) {
+				log.warn("** Popular products refresh failed: {} *", e.getMessage());
+			}
+		}, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+	}
+	
+	public boolean isTracked(final Duration window) {
+		return this.windows.contains(window);
+	}
+	
+	public List<Duration> getWindows() {
+		return this.windows;
+	}
+	
+	public synchronized void record(final Integer productId, final Instant likedAt) {
+		final long index = likedAt.toEpochMilli() / this.bucketMillis;
+		if (index <= this.currentIndex() - this.buckets.length)
+			return;
+		final int slot = (int) Math.floorMod(index, (long) this.buckets.length);
+		if (this.bucketIndexes[slot] > index)
+			return;
+		if (this.bucketIndexes[slot] < index) {
+			this.buckets[slot].clear();
+			this.bucketIndexes[slot] = index;
+		}
+		this.buckets[slot].offer(productId, 1);
+	}
+	
+	/**
+	 * Returns the {@code k} most favourited products in the window as of the last refresh.
+	 */
+	public List<PopularProductDto> top(final Duration window, final int k) {
+		final List<PopularProductDto> snapshot = this.snapshots.getOrDefault(window, List.of());
+		return snapshot.subList(0, Math.min(k, snapshot.size()));
+	}
+	
+	public void refresh() {
+		final long current = this.currentIndex();
+		final SpaceSavingSketch merged = new SpaceSavingSketch(this.properties.getSketchCapacity());
+		final Map<Duration, List<PopularProductDto>> refreshed = new HashMap<>();
+		int window = 0;
+		for (int i = 0; i < this.buckets.length && window < this.windows.size(); i++) {
+			final long index = current - i;
+			synchronized (this) {
+				final int slot = (int) Math.floorMod(index, (long) this.buckets.length);
+				if (this.bucketIndexes[slot] == index)
+					merged.merge(this.buckets[slot]);
+			}
+			// a window of n bucket widths covers the current bucket and the n before it
+			while (window < this.windows.size() && this.bucketsCovered(this.windows.get(window)) == i + 1)
+				refreshed.put(this.windows.get(window++), snapshot(merged, this.properties.getMaxK()));
+		}
+		this.snapshots = Map.copyOf(refreshed);
+	}
+	
+	@Override
+	public void close() {
+		this.scheduler.shutdownNow();
+	}
+	
+	private long currentIndex() {
+		return this.clock.millis() / this.bucketMillis;
+	}
+	
+	private int bucketsCovered(final Duration window) {
+		return (int) ((window.toMillis() + this.bucketMillis - 1) / this.bucketMillis) + 1;
+	}
+	
+	private static List<PopularProductDto> snapshot(final SpaceSavingSketch sketch, final int k) {
+		return sketch.top(k).stream()
+				.map(entry -> PopularProductDto.builder()
+						.productId((int) entry[0])
+						.favouriteCount(entry[1])
+						.build())
+				.collect(Collectors.toUnmodifiableList());
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,35 @@
+package com.selimhorri.app.config.popularity;
+
+import java.time.Clock;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Configuration
+@EnableConfigurationProperties(PopularityProperties.class)
+public class PopularityConfig {
+	
+	@Bean(destroyMethod = "close")
+	public PopularProductTracker popularProductTrackerBean(final PopularityProperties properties, 
+			final JdbcTemplate jdbcTemplate) {
+		final var popularProductTracker = new PopularProductTracker(properties, Clock.systemUTC());
+		popularProductTracker.warmUp(jdbcTemplate);
+		popularProductTracker.start();
+		return popularProductTracker;
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
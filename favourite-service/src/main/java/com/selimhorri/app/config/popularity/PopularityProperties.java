@@ -0,0 +1,31 @@
+package com.selimhorri.app.config.popularity;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@ConfigurationProperties(prefix = "app.popularity")
+@Data
+public class PopularityProperties {
+	
+	private List<Duration> windows = List.of(Duration.ofHours(1), Duration.ofHours(6), Duration.ofHours(24));
+	private Duration bucketWidth = Duration.ofMinutes(15);
+	private int sketchCapacity = 500;
+	private int defaultK = 10;
+	private int maxK = 100;
+	private Duration refreshInterval = Duration.ofSeconds(5);
+	
+}
+
+
+
+
+
+
+
+
+
+
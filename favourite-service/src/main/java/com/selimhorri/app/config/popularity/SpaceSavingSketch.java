@@ -0,0 +1,99 @@
+package com.selimhorri.app.config.popularity;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Space-Saving heavy hitters over product ids: keeps at most {@code capacity} counters, and a new product
+ * evicts the smallest one and inherits its count. Any product whose true count exceeds {@code total / capacity}
+ * is guaranteed to be tracked, and a reported count overestimates by at most the count it inherited.
+ * Not thread safe.
+ */
+public class SpaceSavingSketch {
+	
+	private static final Comparator<Counter> BY_COUNT = Comparator.comparingLong((Counter counter) -> counter.count)
+			.thenComparing(counter -> counter.productId);
+	
+	private final int capacity;
+	private final Map<Integer, Counter> counters = new HashMap<>();
+	private final TreeSet<Counter> ordered = new TreeSet<>(BY_COUNT);
+	
+	public SpaceSavingSketch(final int capacity) {
+		this.capacity = capacity;
+	}
+	
+	public void offer(final Integer productId, final long count) {
+		Counter counter = this.counters.get(productId);
+		if (counter == null) {
+			long error = 0;
+			if (this.counters.size() >= this.capacity) {
+				final Counter evicted = this.ordered.pollFirst();
+				this.counters.remove(evicted.productId);
+				error = evicted.count;
+			}
+			counter = new Counter(productId, error);
+			this.counters.put(productId, counter);
+		}
+		else {
+			this.ordered.remove(counter);
+		}
+		counter.count += count;
+		this.ordered.add(counter);
+	}
+	
+	public void merge(final SpaceSavingSketch other) {
+		other.counters.values().forEach(counter -> this.offer(counter.productId, counter.count));
+	}
+	
+	public void clear() {
+		this.counters.clear();
+		this.ordered.clear();
+	}
+	
+	public boolean isEmpty() {
+		return this.counters.isEmpty();
+	}
+	
+	/**
+	 * Returns up to {@code k} {@code [productId, count]} pairs, highest count first.
+	 */
+	public List<long[]> top(final int k) {
+		final List<long[]> top = new ArrayList<>(Math.min(k, this.counters.size()));
+		final Iterator<Counter> iterator = this.ordered.descendingIterator();
+		while (top.size() < k && iterator.hasNext()) {
+			final Counter counter = iterator.next();
+			top.add(new long[] { counter.productId, counter.count });
+		}
+		return top;
+	}
+	
+	private static final class Counter {
+		
+		private final Integer productId;
+		private long count;
+		
+		private Counter(final Integer productId, final long count) {
+			this.productId = productId;
+			this.count = count;
+		}
+		
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,164 @@
+package com.selimhorri.app.config.recommendation;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sparse item-to-item co-occurrence counts: two products co-occur once for every group (a user's favourites,
+ * an order's items) containing both. Group memberships and neighbour counts live in {@link IntIntMap}s, and
+ * {@link #refresh(int)} turns the neighbours of every product touched since the last refresh into a ranked
+ * {@link Recommendations} array, so lookups are a single map read. Neighbours are ranked by cosine similarity,
+ * {@code co(a, b) / sqrt(groups(a) * groups(b))}, which keeps universally popular products from topping
+ * every list; a list is only re-scored when its own product or one of its pairs changes.
+ */
+public class CooccurrenceIndex {
+	
+	private final Map<Long, IntIntMap> groups = new HashMap<>();
+	private final Map<Integer, IntIntMap> neighbours = new HashMap<>();
+	private final IntIntMap occurrences = new IntIntMap();
+	private final IntIntMap dirty = new IntIntMap();
+	private final Map<Integer, Recommendations> recommendations = new ConcurrentHashMap<>();
+	
+	public synchronized void add(final long group, final int productId) {
+		final IntIntMap members = this.groups.computeIfAbsent(group, key -> new IntIntMap());
+		if (members.contains(productId))
+			return;
+		members.forEach((other, present) -> this.pair(productId, other, 1));
+		members.add(productId, 1);
+		this.occurrences.add(productId, 1);
+		this.markDirty(productId);
+	}
+	
+	public synchronized void remove(final long group, final int productId) {
+		final IntIntMap members = this.groups.get(group);
+		if (members == null || !members.contains(productId))
+			return;
+		members.add(productId, -1);
+		members.forEach((other, present) -> this.pair(productId, other, -1));
+		if (members.isEmpty())
+			this.groups.remove(group);
+		this.occurrences.add(productId, -1);
+		this.markDirty(productId);
+	}
+	
+	/**
+	 * Re-ranks the neighbours of every product changed since the last refresh, keeping the best {@code limit}.
+	 */
+	public synchronized int refresh(final int limit) {
+		final int[] changed = this.dirty.keys();
+		this.dirty.clear();
+		for (final int productId : changed) {
+			final IntIntMap counts = this.neighbours.get(productId);
+			if (counts == null)
+				this.recommendations.remove(productId);
+			else
+				this.recommendations.put(productId, this.rank(productId, counts, limit));
+		}
+		return changed.length;
+	}
+	
+	public Recommendations find(final int productId) {
+		return this.recommendations.getOrDefault(productId, Recommendations.EMPTY);
+	}
+	
+	public synchronized int size() {
+		return this.neighbours.size();
+	}
+	
+	private void pair(final int a, final int b, final int delta) {
+		this.count(a, b, delta);
+		this.count(b, a, delta);
+		this.markDirty(b);
+	}
+	
+	private void markDirty(final int productId) {
+		if (!this.dirty.contains(productId))
+			this.dirty.add(productId, 1);
+	}
+	
+	private void count(final int productId, final int neighbour, final int delta) {
+		final IntIntMap counts = this.neighbours.computeIfAbsent(productId, key -> new IntIntMap());
+		counts.add(neighbour, delta);
+		if (counts.isEmpty())
+			this.neighbours.remove(productId);
+	}
+	
+	/**
+	 * Keeps the top {@code limit} neighbours by insertion into small sorted arrays, which beats sorting all
+	 * neighbours when, as usual, there are far more of them than recommendations served.
+	 */
+	private Recommendations rank(final int productId, final IntIntMap counts, final int limit) {
+		final int[] productIds = new int[Math.min(limit, counts.size())];
+		final int[] coOccurrences = new int[productIds.length];
+		final float[] scores = new float[productIds.length];
+		final int[] size = { 0 };
+		final double occurrences = Math.max(1, this.occurrences.get(productId));
+		counts.forEach((neighbour, count) -> {
+			final float score = (float) (count / Math.sqrt(occurrences * Math.max(1, this.occurrences.get(neighbour))));
+			int position = size[0];
+			while (position > 0 && (scores[position - 1] < score
+					|| (scores[position - 1] == score && productIds[position - 1] > neighbour)))
+				position--;
+			if (position >= productIds.length)
+				return;
+			final int moved = Math.min(size[0], productIds.length - 1) - position;
+			System.arraycopy(productIds, position, productIds, position + 1, moved);
+			System.arraycopy(coOccurrences, position, coOccurrences, position + 1, moved);
+			System.arraycopy(scores, position, scores, position + 1, moved);
+			productIds[position] = neighbour;
+			coOccurrences[position] = count;
+			scores[position] = score;
+			size[0] = Math.min(size[0] + 1, productIds.length);
+		});
+		return new Recommendations(productIds, coOccurrences, scores);
+	}
+	
+	/**
+	 * Ranked neighbours of one product as parallel primitive arrays, best first. Immutable once published.
+	 */
+	public static final class Recommendations {
+		
+		public static final Recommendations EMPTY = new Recommendations(new int[0], new int[0], new float[0]);
+		
+		private final int[] productIds;
+		private final int[] coOccurrences;
+		private final float[] scores;
+		
+		private Recommendations(final int[] productIds, final int[] coOccurrences, final float[] scores) {
+			this.productIds = productIds;
+			this.coOccurrences = coOccurrences;
+			this.scores = scores;
+		}
+		
+		public int size() {
+			return this.productIds.length;
+		}
+		
+		public int productId(final int i) {
+			return this.productIds[i];
+		}
+		
+		public int coOccurrences(final int i) {
+			return this.coOccurrences[i];
+		}
+		
+		public float score(final int i) {
+			return this.scores[i];
+		}
+		
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,159 @@
+package com.selimhorri.app.config.recommendation;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing {@code int -> int} counter map over two flat arrays, with linear probing and backward-shift
+ * deletion so no tombstones build up. Keys must be non-zero; a key whose value drops to zero is removed, so
+ * the map also serves as an int set. Not thread safe.
+ */
+public class IntIntMap {
+	
+	private static final int FREE = 0;
+	private static final int MIN_CAPACITY = 4;
+	
+	private int[] keys;
+	private int[] values;
+	private int mask;
+	private int size;
+	
+	public IntIntMap() {
+		this(MIN_CAPACITY);
+	}
+	
+	public IntIntMap(final int expectedSize) {
+		final int capacity = Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, expectedSize * 2 - 1)) << 1);
+		this.keys = new int[capacity];
+		this.values = new int[capacity];
+		this.mask = capacity - 1;
+	}
+	
+	public int get(final int key) {
+		for (int slot = slot(key, this.mask); ; slot = (slot + 1) & this.mask) {
+			if (this.keys[slot] == key)
+				return this.values[slot];
+			if (this.keys[slot] == FREE)
+				return 0;
+		}
+	}
+	
+	public boolean contains(final int key) {
+		return this.get(key) != 0;
+	}
+	
+	/**
+	 * Adds {@code delta} to the value of {@code key} and returns the new value, removing the key at zero.
+	 */
+	public int add(final int key, final int delta) {
+		if (key == FREE)
+			throw new IllegalArgumentException("Key must be non-zero");
+		int slot = slot(key, this.mask);
+		for (; this.keys[slot] != FREE; slot = (slot + 1) & this.mask) {
+			if (this.keys[slot] == key) {
+				final int value = this.values[slot] + delta;
+				if (value == 0)
+					this.removeAt(slot);
+				else
+					this.values[slot] = value;
+				return value;
+			}
+		}
+		if (delta == 0)
+			return 0;
+		this.keys[slot] = key;
+		this.values[slot] = delta;
+		if (++this.size > (this.mask + 1) * 3 / 4)
+			this.rehash((this.mask + 1) * 2);
+		return delta;
+	}
+	
+	public int size() {
+		return this.size;
+	}
+	
+	public void clear() {
+		Arrays.fill(this.keys, FREE);
+		Arrays.fill(this.values, 0);
+		this.size = 0;
+	}
+	
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+	
+	public void forEach(final IntIntConsumer consumer) {
+		for (int slot = 0; slot < this.keys.length; slot++)
+			if (this.keys[slot] != FREE)
+				consumer.accept(this.keys[slot], this.values[slot]);
+	}
+	
+	public int[] keys() {
+		final int[] present = new int[this.size];
+		int i = 0;
+		for (final int key : this.keys)
+			if (key != FREE)
+				present[i++] = key;
+		return present;
+	}
+	
+	private void removeAt(int slot) {
+		this.size--;
+		for (int next = (slot + 1) & this.mask; this.keys[next] != FREE; next = (next + 1) & this.mask) {
+			final int home = slot(this.keys[next], this.mask);
+			// move the entry back unless its home lies cyclically in (slot, next]
+			final boolean stays = slot <= next ? slot < home && home <= next : slot < home || home <= next;
+			if (!stays) {
+				this.keys[slot] = this.keys[next];
+				this.values[slot] = this.values[next];
+				slot = next;
+			}
+		}
+		this.keys[slot] = FREE;
+		this.values[slot] = 0;
+	}
+	
+	private void rehash(final int capacity) {
+		final int[] oldKeys = this.keys;
+		final int[] oldValues = this.values;
+		this.keys = new int[capacity];
+		this.values = new int[capacity];
+		this.mask = capacity - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] == FREE)
+				continue;
+			int slot = slot(oldKeys[i], this.mask);
+			while (this.keys[slot] != FREE)
+				slot = (slot + 1) & this.mask;
+			this.keys[slot] = oldKeys[i];
+			this.values[slot] = oldValues[i];
+		}
+	}
+	
+	private static int slot(final int key, final int mask) {
+		final int hash = key * 0x9E3779B9;
+		return (hash ^ (hash >>> 16)) & mask;
+	}
+	
+	@Override
+	public String toString() {
+		return String.format("IntIntMap[size=%d, capacity=%d]", this.size, this.keys.length);
+	}
+	
+	@FunctionalInterface
+	public interface IntIntConsumer {
+		void accept(final int key, final int value);
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
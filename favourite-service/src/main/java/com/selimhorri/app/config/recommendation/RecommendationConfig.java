@@ -0,0 +1,44 @@
+package com.selimhorri.app.config.recommendation;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestTemplate;
+
+import com.selimhorri.app.repository.FavouriteRepository;
+import com.selimhorri.app.service.ChangeFeedService;
+
+@Configuration
+@EnableConfigurationProperties(RecommendationProperties.class)
+public class RecommendationConfig {
+	
+	@Bean
+	public CooccurrenceIndex cooccurrenceIndexBean() {
+		return new CooccurrenceIndex();
+	}
+	
+	@Bean(destroyMethod = "close")
+	@ConditionalOnProperty(name = "app.recommendation.enabled", havingValue = "true", matchIfMissing = true)
+	public RecommendationRefresher recommendationRefresherBean(final CooccurrenceIndex cooccurrenceIndex, 
+			final ChangeFeedService changeFeedService, final FavouriteRepository favouriteRepository, 
+			final RestTemplate restTemplate, final RecommendationProperties properties) {
+		final var recommendationRefresher = new RecommendationRefresher(cooccurrenceIndex, changeFeedService, 
+				favouriteRepository, restTemplate, properties);
+		recommendationRefresher.start();
+		return recommendationRefresher;
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
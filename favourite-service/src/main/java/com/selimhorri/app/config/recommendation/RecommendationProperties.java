@@ -0,0 +1,30 @@
+package com.selimhorri.app.config.recommendation;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@ConfigurationProperties(prefix = "app.recommendation")
+@Data
+public class RecommendationProperties {
+	
+	private boolean enabled = true;
+	private boolean includeOrderItems = true;
+	private Duration refreshInterval = Duration.ofSeconds(30);
+	private int batchSize = 1000;
+	private int maxRecommendations = 20;
+	private int defaultLimit = 10;
+	
+}
+
+
+
+
+
+
+
+
+
+
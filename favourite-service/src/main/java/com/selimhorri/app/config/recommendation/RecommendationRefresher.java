@@ -0,0 +1,144 @@
+package com.selimhorri.app.config.recommendation;
+
+import java.io.Closeable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.selimhorri.app.constant.AppConstant;
+import com.selimhorri.app.domain.Favourite;
+import com.selimhorri.app.dto.ChangeDto;
+import com.selimhorri.app.dto.ChangeType;
+import com.selimhorri.app.dto.response.collection.ChangeFeedResponse;
+import com.selimhorri.app.repository.FavouriteRepository;
+import com.selimhorri.app.service.ChangeFeedService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Feeds the {@link CooccurrenceIndex} from the favourites change feed and the shipping-service order items
+ * change feed, remembering both cursors so every tick only applies rows changed since the previous one. The
+ * first tick replays both feeds from the beginning. A user's favourites form one group and an order's items
+ * another; change ids carry the keys needed, {@code userId,productId,likeDate} and {@code productId,orderId}.
+ */
+@Slf4j
+public class RecommendationRefresher implements Closeable {
+	
+	private static final long FAVOURITES = 1L << 32;
+	private static final long ORDERS = 2L << 32;
+	
+	private final CooccurrenceIndex cooccurrenceIndex;
+	private final ChangeFeedService changeFeedService;
+	private final FavouriteRepository favouriteRepository;
+	private final RestTemplate restTemplate;
+	private final RecommendationProperties properties;
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		final var thread = new Thread(runnable, "recommendation-refresher");
+		thread.setDaemon(true);
+		return thread;
+	});
+	
+	private String favouritesCursor;
+	private String orderItemsCursor;
+	
+	public RecommendationRefresher(final CooccurrenceIndex cooccurrenceIndex, final ChangeFeedService changeFeedService, 
+			final FavouriteRepository favouriteRepository, final RestTemplate restTemplate, 
+			final RecommendationProperties properties) {
+		this.cooccurrenceIndex = cooccurrenceIndex;
+		this.changeFeedService = changeFeedService;
+		this.favouriteRepository = favouriteRepository;
+		this.restTemplate = restTemplate;
+		this.properties = properties;
+	}
+	
+	public void start() {
+		final long intervalMillis = this.properties.getRefreshInterval().toMillis();
+		this.scheduler.scheduleWithFixedDelay(this::refresh, 0, intervalMillis, TimeUnit.MILLISECONDS);
+	}
+	
+	public synchronized void refresh() {
+		try {
+			this.applyFavourites();
+		}
+		catch (RuntimeException e) {
+			log.warn("** Recommendation refresh from favourites failed: {} *", e.getMessage());
+		}
+		if (this.properties.isIncludeOrderItems()) {
+			try {
+				this.applyOrderItems();
+			}
+			catch (RuntimeException e) {
+				log.warn("** Recommendation refresh from order items failed: {} *", e.getMessage());
+			}
+		}
+		final int refreshed = this.cooccurrenceIndex.refresh(this.properties.getMaxRecommendations());
+		if (refreshed > 0)
+			log.info("*** Recommendations refreshed for {} products *", refreshed);
+	}
+	
+	@Override
+	public void close() {
+		this.scheduler.shutdownNow();
+	}
+	
+	private void applyFavourites() {
+		ChangeFeedResponse<Void> page;
+		do {
+			page = this.changeFeedService.findChanges(Favourite.class, favourite -> null, null, 
+					this.favouritesCursor, this.properties.getBatchSize());
+			for (final ChangeDto<Void> change : page.getCollection()) {
+				final String[] key = change.getId().split(",");
+				final int userId = Integer.parseInt(key[0]);
+				final int productId = Integer.parseInt(key[1]);
+				if (change.getType() == ChangeType.UPSERT)
+					this.cooccurrenceIndex.add(FAVOURITES | userId, productId);
+				else if (!this.favouriteRepository.existsByUserIdAndProductId(userId, productId))
+					this.cooccurrenceIndex.remove(FAVOURITES | userId, productId);
+			}
+			this.favouritesCursor = page.getNextCursor();
+		}
+		while (page.isHasMore());
+	}
+	
+	private void applyOrderItems() {
+		JsonNode page;
+		do {
+			final UriComponentsBuilder uri = UriComponentsBuilder
+					.fromHttpUrl(AppConstant.DiscoveredDomainsApi.SHIPPING_SERVICE_API_URL + "/changes")
+					.queryParam("limit", this.properties.getBatchSize());
+			if (this.orderItemsCursor != null)
+				uri.queryParam("cursor", this.orderItemsCursor);
+			page = this.restTemplate.getForObject(uri.toUriString(), JsonNode.class);
+			if (page == null)
+				return;
+			for (final JsonNode change : page.path("collection")) {
+				final String[] key = change.path("id").asText().split(",");
+				final int productId = Integer.parseInt(key[0]);
+				final int orderId = Integer.parseInt(key[1]);
+				if (ChangeType.UPSERT.name().equals(change.path("type").asText()))
+					this.cooccurrenceIndex.add(ORDERS | orderId, productId);
+				else
+					this.cooccurrenceIndex.remove(ORDERS | orderId, productId);
+			}
+			this.orderItemsCursor = page.path("nextCursor").asText();
+		}
+		while (page.path("hasMore").asBoolean());
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
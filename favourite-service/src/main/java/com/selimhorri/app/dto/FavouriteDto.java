@@ -2,6 +2,7 @@ package com.selimhorri.app.dto;
 
 import java.io.Serializable;
 import java.time.LocalDateTime;
+import java.util.Set;
 
 import javax.validation.constraints.NotNull;
 
@@ -31,6 +32,10 @@ public class FavouriteDto implements Serializable {
 	
 	private static final long serialVersionUID = 1L;
 	
+	public static final String USER = "user";
+	public static final String PRODUCT = "product";
+	public static final Set<String> RELATIONS = Set.of(USER, PRODUCT);
+	
 	@NotNull(message = "Field must not be NULL")
 	private Integer userId;
 	
@@ -44,11 +49,11 @@ public class FavouriteDto implements Serializable {
 	@DateTimeFormat(pattern = AppConstant.LOCAL_DATE_TIME_FORMAT)
 	private LocalDateTime likeDate;
 	
-	@JsonProperty("user")
+	@JsonProperty(USER)
 	@JsonInclude(Include.NON_NULL)
 	private UserDto userDto;
 	
-	@JsonProperty("product")
+	@JsonProperty(PRODUCT)
 	@JsonInclude(Include.NON_NULL)
 	private ProductDto productDto;
 	
@@ -1,8 +1,10 @@
 package com.selimhorri.app.exception;
 
+import java.net.SocketTimeoutException;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -10,9 +12,14 @@ import org.springframework.validation.BindException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.client.ResourceAccessException;
 
 import com.selimhorri.app.exception.payload.ExceptionMsg;
+import com.selimhorri.app.exception.wrapper.DeadlineExceededException;
 import com.selimhorri.app.exception.wrapper.FavouriteNotFoundException;
+import com.selimhorri.app.exception.wrapper.InvalidCursorException;
+import com.selimhorri.app.exception.wrapper.InvalidFieldSelectionException;
+import com.selimhorri.app.exception.wrapper.InvalidPopularityWindowException;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -42,6 +49,9 @@ public class ApiExceptionHandler {
 	
 	@ExceptionHandler(value = {
 		FavouriteNotFoundException.class,
+		InvalidCursorException.class,
+		InvalidFieldSelectionException.class,
+		InvalidPopularityWindowException.class,
 	})
 	public <T extends RuntimeException> ResponseEntity<ExceptionMsg> handleApiRequestException(final T e) {
 		
@@ -57,6 +67,47 @@ public class ApiExceptionHandler {
 					.build(), badRequest);
 	}
 	
+	@ExceptionHandler(value = {
+		DeadlineExceededException.class,
+		QueryTimeoutException.class,
+	})
+	public <T extends RuntimeException> ResponseEntity<ExceptionMsg> handleDeadlineExceededException(final T e) {
+		
+		log.info("**ApiExceptionHandler controller, handle deadline exceeded*\n");
+		final var gatewayTimeout = HttpStatus.GATEWAY_TIMEOUT;
+		
+		return new ResponseEntity<>(
+				ExceptionMsg.builder()
+					.msg("#### " + e.getMessage() + "! ####")
+					.httpStatus(gatewayTimeout)
+					.timestamp(ZonedDateTime
+							.now(ZoneId.systemDefault()))
+					.build(), gatewayTimeout);
+	}
+	
+	/**
+	 * An outbound call that ran out of time, usually because its timeouts were shrunk to the request budget,
+	 * is a deadline failure; any other I/O failure means the downstream service could not be reached.
+	 */
+	@ExceptionHandler(value = {
+		ResourceAccessException.class,
+	})
+	public ResponseEntity<ExceptionMsg> handleResourceAccessException(final ResourceAccessException e) {
+		
+		log.info("**ApiExceptionHandler controller, handle resource access exception*\n");
+		final var httpStatus = e.getCause() instanceof SocketTimeoutException 
+				? HttpStatus.GATEWAY_TIMEOUT 
+				: HttpStatus.SERVICE_UNAVAILABLE;
+		
+		return new ResponseEntity<>(
+				ExceptionMsg.builder()
+					.msg("#### " + e.getMessage() + "! ####")
+					.httpStatus(httpStatus)
+					.timestamp(ZonedDateTime
+							.now(ZoneId.systemDefault()))
+					.build(), httpStatus);
+	}
+	
 	
 	
 }
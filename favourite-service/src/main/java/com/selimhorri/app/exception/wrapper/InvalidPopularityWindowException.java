@@ -0,0 +1,35 @@
+package com.selimhorri.app.exception.wrapper;
+
+public class InvalidPopularityWindowException extends RuntimeException {
+	
+	private static final long serialVersionUID = 1L;
+	
+	public InvalidPopularityWindowException() {
+		super();
+	}
+	
+	public InvalidPopularityWindowException(String message, Throwable cause) {
+		super(message, cause);
+	}
+	
+	public InvalidPopularityWindowException(String message) {
+		super(message);
+	}
+	
+	public InvalidPopularityWindowException(Throwable cause) {
+		super(cause);
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
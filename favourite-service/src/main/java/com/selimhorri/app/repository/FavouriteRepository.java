@@ -1,12 +1,20 @@
 package com.selimhorri.app.repository;
 
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.selimhorri.app.domain.Favourite;
 import com.selimhorri.app.domain.id.FavouriteId;
 
 public interface FavouriteRepository extends JpaRepository<Favourite, FavouriteId> {
 	
+	boolean existsByUserIdAndProductId(final Integer userId, final Integer productId);
+	
+	@Query("SELECT f.productId FROM Favourite f WHERE f.userId = :userId")
+	List<Integer> findProductIdsByUserId(@Param("userId") final Integer userId);
 	
 	
 }
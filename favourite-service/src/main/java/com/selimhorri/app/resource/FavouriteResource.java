@@ -1,7 +1,10 @@
 package com.selimhorri.app.resource;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Set;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
@@ -14,12 +17,20 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.selimhorri.app.constant.AppConstant;
+import com.selimhorri.app.domain.Favourite;
 import com.selimhorri.app.domain.id.FavouriteId;
 import com.selimhorri.app.dto.FavouriteDto;
+import com.selimhorri.app.dto.PopularProductDto;
+import com.selimhorri.app.dto.response.collection.ChangeFeedResponse;
 import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+import com.selimhorri.app.helper.FavouriteMappingHelper;
+import com.selimhorri.app.helper.FieldSelectionHelper;
+import com.selimhorri.app.service.ChangeFeedService;
 import com.selimhorri.app.service.FavouriteService;
 
 import lombok.RequiredArgsConstructor;
@@ -32,11 +43,47 @@ import lombok.extern.slf4j.Slf4j;
 public class FavouriteResource {
 	
 	private final FavouriteService favouriteService;
+	private final ChangeFeedService changeFeedService;
+	private final ObjectMapper objectMapper;
 	
 	@GetMapping
-	public ResponseEntity<DtoCollectionResponse<FavouriteDto>> findAll() {
+	public ResponseEntity<DtoCollectionResponse<?>> findAll(
+			@RequestParam(name = "expand", required = false) final String expand,
+			@RequestParam(name = "fields", required = false) final String fields) {
 		log.info("*** FavouriteDto List, controller; fetch all favourites *");
-		return ResponseEntity.ok(new DtoCollectionResponse<>(this.favouriteService.findAll()));
+		final Set<String> selectedFields = FieldSelectionHelper.fields(this.objectMapper, FavouriteDto.class, fields);
+		final List<FavouriteDto> favouriteDtos = this.favouriteService.findAll(
+				FieldSelectionHelper.relations(FieldSelectionHelper.parse(expand), selectedFields, FavouriteDto.RELATIONS));
+		return ResponseEntity.ok(new DtoCollectionResponse<>(
+				FieldSelectionHelper.select(this.objectMapper, favouriteDtos, selectedFields)));
+	}
+	
+	@GetMapping("/changes")
+	public ResponseEntity<ChangeFeedResponse<FavouriteDto>> findChanges(
+			@RequestParam(name = "since", required = false) final Instant since,
+			@RequestParam(name = "cursor", required = false) final String cursor,
+			@RequestParam(name = "limit", required = false) final Integer limit) {
+		log.info("*** ChangeFeedResponse, resource; fetch favourite changes *");
+		return ResponseEntity.ok(this.changeFeedService.findChanges(Favourite.class, FavouriteMappingHelper::map, since, cursor, limit));
+	}
+	
+	@GetMapping("/popular")
+	public ResponseEntity<DtoCollectionResponse<PopularProductDto>> findPopular(
+			@RequestParam(name = "window", required = false) final String window,
+			@RequestParam(name = "k", required = false) final Integer k) {
+		log.info("*** PopularProductDto List, resource; fetch popular products *");
+		return ResponseEntity.ok(new DtoCollectionResponse<>(this.favouriteService.findPopular(window, k)));
+	}
+	
+	@PostMapping("/user/{userId}/contains")
+	public ResponseEntity<DtoCollectionResponse<Integer>> findFavouritedProductIds(
+			@PathVariable("userId") final String userId,
+			@RequestBody 
+			@NotNull(message = "Input must not be NULL!") 
+			@Valid final List<Integer> productIds) {
+		log.info("*** Integer List, resource; fetch favourited product ids by user id *");
+		return ResponseEntity.ok(new DtoCollectionResponse<>(
+				this.favouriteService.findFavouritedProductIds(Integer.parseInt(userId), productIds)));
 	}
 	
 	@GetMapping("/{userId}/{productId}/{likeDate}")
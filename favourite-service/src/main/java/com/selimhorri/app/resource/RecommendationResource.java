@@ -0,0 +1,46 @@
+package com.selimhorri.app.resource;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.selimhorri.app.dto.RecommendationDto;
+import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+import com.selimhorri.app.service.RecommendationService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@RestController
+@RequestMapping("/api/recommendations")
+@Slf4j
+@RequiredArgsConstructor
+public class RecommendationResource {
+	
+	private final RecommendationService recommendationService;
+	
+	@GetMapping("/{productId}")
+	public ResponseEntity<DtoCollectionResponse<RecommendationDto>> findByProductId(
+			@PathVariable("productId") final String productId,
+			@RequestParam(name = "limit", required = false) final Integer limit) {
+		log.info("*** RecommendationDto List, resource; fetch recommendations by product id *");
+		return ResponseEntity.ok(new DtoCollectionResponse<>(
+				this.recommendationService.findByProductId(Integer.parseInt(productId), limit)));
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -1,16 +1,21 @@
 package com.selimhorri.app.service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 import com.selimhorri.app.domain.id.FavouriteId;
 import com.selimhorri.app.dto.FavouriteDto;
+import com.selimhorri.app.dto.PopularProductDto;
 
 public interface FavouriteService {
 	
-	List<FavouriteDto> findAll();
+	List<FavouriteDto> findAll(final Set<String> relations);
 	FavouriteDto findById(final FavouriteId favouriteId);
 	FavouriteDto save(final FavouriteDto favouriteDto);
 	FavouriteDto update(final FavouriteDto favouriteDto);
 	void deleteById(final FavouriteId favouriteId);
+	List<PopularProductDto> findPopular(final String window, final Integer k);
+	List<Integer> findFavouritedProductIds(final Integer userId, final Collection<Integer> productIds);
 	
 }
@@ -0,0 +1,11 @@
+package com.selimhorri.app.service;
+
+import java.util.List;
+
+import com.selimhorri.app.dto.RecommendationDto;
+
+public interface RecommendationService {
+	
+	List<RecommendationDto> findByProductId(final Integer productId, final Integer limit);
+	
+}
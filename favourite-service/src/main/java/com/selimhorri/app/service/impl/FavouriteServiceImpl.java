@@ -1,19 +1,35 @@
 package com.selimhorri.app.service.impl;
 
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
-import javax.transaction.Transactional;
-
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
-
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.selimhorri.app.client.LookupClient;
+import com.selimhorri.app.config.membership.FavouriteMembershipCache;
+import com.selimhorri.app.config.popularity.PopularProductTracker;
+import com.selimhorri.app.config.popularity.PopularityProperties;
 import com.selimhorri.app.constant.AppConstant;
+import com.selimhorri.app.domain.Favourite;
 import com.selimhorri.app.domain.id.FavouriteId;
 import com.selimhorri.app.dto.FavouriteDto;
+import com.selimhorri.app.dto.PopularProductDto;
 import com.selimhorri.app.dto.ProductDto;
 import com.selimhorri.app.dto.UserDto;
 import com.selimhorri.app.exception.wrapper.FavouriteNotFoundException;
+import com.selimhorri.app.exception.wrapper.InvalidPopularityWindowException;
 import com.selimhorri.app.helper.FavouriteMappingHelper;
 import com.selimhorri.app.repository.FavouriteRepository;
 import com.selimhorri.app.service.FavouriteService;
@@ -27,22 +43,44 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class FavouriteServiceImpl implements FavouriteService {
 	
+	private static final String INCREMENT_COUNT = "UPDATE product_favourite_counts "
+			+ "SET favourite_count = favourite_count + ?, updated_at = LOCALTIMESTAMP WHERE product_id = ?";
+	private static final String INSERT_COUNT = "INSERT INTO product_favourite_counts "
+			+ "(product_id, favourite_count, updated_at) VALUES (?, ?, LOCALTIMESTAMP)";
+	private static final String FIND_TOP_COUNTS = "SELECT product_id, favourite_count FROM product_favourite_counts "
+			+ "WHERE favourite_count > 0 ORDER BY favourite_count DESC, product_id LIMIT ?";
+	
 	private final FavouriteRepository favouriteRepository;
 	private final RestTemplate restTemplate;
+	private final LookupClient lookupClient;
+	private final JdbcTemplate jdbcTemplate;
+	private final PopularProductTracker popularProductTracker;
+	private final PopularityProperties popularityProperties;
+	private final FavouriteMembershipCache favouriteMembershipCache;
 	
+	/**
+	 * Looks up users and products only for the requested relations.
+	 */
 	@Override
-	public List<FavouriteDto> findAll() {
+	@Transactional(readOnly = true)
+	public List<FavouriteDto> findAll(final Set<String> relations) {
 		log.info("*** FavouriteDto List, service; fetch all favourites *");
-		return this.favouriteRepository.findAll()
+		final List<FavouriteDto> favouriteDtos = this.favouriteRepository.findAll()
 				.stream()
 					.map(FavouriteMappingHelper::map)
+					.collect(Collectors.toUnmodifiableList());
+		final Map<Integer, UserDto> userDtos = !relations.contains(FavouriteDto.USER) ? Map.of() : this.lookupClient.findAllByIds(
+				AppConstant.DiscoveredDomainsApi.USER_SERVICE_API_URL, 
+				favouriteDtos.stream().map(FavouriteDto::getUserId).collect(Collectors.toSet()), 
+				UserDto.class, UserDto::getUserId);
+		final Map<Integer, ProductDto> productDtos = !relations.contains(FavouriteDto.PRODUCT) ? Map.of() : this.lookupClient.findAllByIds(
+				AppConstant.DiscoveredDomainsApi.PRODUCT_SERVICE_API_URL, 
+				favouriteDtos.stream().map(FavouriteDto::getProductId).collect(Collectors.toSet()), 
+				ProductDto.class, ProductDto::getProductId);
+		return favouriteDtos.stream()
 					.map(f -> {
-						f.setUserDto(this.restTemplate
-								.getForObject(AppConstant.DiscoveredDomainsApi
-										.USER_SERVICE_API_URL + "/" + f.getUserId(), UserDto.class));
-						f.setProductDto(this.restTemplate
-								.getForObject(AppConstant.DiscoveredDomainsApi
-										.PRODUCT_SERVICE_API_URL + "/" + f.getProductId(), ProductDto.class));
+						f.setUserDto(userDtos.get(f.getUserId()));
+						f.setProductDto(productDtos.get(f.getProductId()));
 						return f;
 					})
 					.distinct()
@@ -50,6 +88,7 @@ public class FavouriteServiceImpl implements FavouriteService {
 	}
 	
 	@Override
+	@Transactional(readOnly = true)
 	public FavouriteDto findById(final FavouriteId favouriteId) {
 		log.info("*** FavouriteDto, service; fetch favourite by id *");
 		return this.favouriteRepository.findById(favouriteId)
@@ -69,19 +108,95 @@ public class FavouriteServiceImpl implements FavouriteService {
 	
 	@Override
 	public FavouriteDto save(final FavouriteDto favouriteDto) {
-		return FavouriteMappingHelper.map(this.favouriteRepository
-				.save(FavouriteMappingHelper.map(favouriteDto)));
+		final Favourite favourite = FavouriteMappingHelper.map(favouriteDto);
+		final boolean added = !this.favouriteRepository.existsById(
+				new FavouriteId(favourite.getUserId(), favourite.getProductId(), favourite.getLikeDate()));
+		final FavouriteDto saved = FavouriteMappingHelper.map(this.favouriteRepository.save(favourite));
+		if (added) {
+			this.addToCount(saved.getProductId(), 1);
+			this.afterCommit(() -> {
+				this.favouriteMembershipCache.added(saved.getUserId(), saved.getProductId());
+				this.popularProductTracker.record(saved.getProductId(), 
+						saved.getLikeDate().atZone(ZoneId.systemDefault()).toInstant());
+			});
+		}
+		return saved;
 	}
 	
+	/**
+	 * Every column of a favourite is part of its id, so an update of an id that does not exist yet creates
+	 * it and goes through the same counting as {@link #save(FavouriteDto)}.
+	 */
 	@Override
 	public FavouriteDto update(final FavouriteDto favouriteDto) {
-		return FavouriteMappingHelper.map(this.favouriteRepository
-				.save(FavouriteMappingHelper.map(favouriteDto)));
+		return this.save(favouriteDto);
 	}
 	
 	@Override
 	public void deleteById(final FavouriteId favouriteId) {
 		this.favouriteRepository.deleteById(favouriteId);
+		this.addToCount(favouriteId.getProductId(), -1);
+		this.afterCommit(() -> this.favouriteMembershipCache.removed(favouriteId.getUserId(), favouriteId.getProductId()));
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public List<Integer> findFavouritedProductIds(final Integer userId, final Collection<Integer> productIds) {
+		log.info("*** Integer List, service; fetch favourited product ids by user id *");
+		return this.favouriteMembershipCache.retainFavourited(userId, productIds);
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public List<PopularProductDto> findPopular(final String window, final Integer k) {
+		log.info("*** PopularProductDto List, service; fetch popular products *");
+		final int size = k == null
+				? this.popularityProperties.getDefaultK()
+				: Math.max(1, Math.min(this.popularityProperties.getMaxK(), k));
+		if (window == null || "all".equals(window))
+			return this.jdbcTemplate.query(FIND_TOP_COUNTS, (resultSet, rowNum) -> PopularProductDto.builder()
+					.productId(resultSet.getInt("product_id"))
+					.favouriteCount(resultSet.getLong("favourite_count"))
+					.build(), size);
+		
+		final Duration duration;
+		try {
+			duration = DurationStyle.detectAndParse(window);
+		}
+		catch (IllegalArgumentException e) {
+			throw new InvalidPopularityWindowException(String.format("Invalid window: %s", window), e);
+		}
+		if (!this.popularProductTracker.isTracked(duration))
+			throw new InvalidPopularityWindowException(String
+					.format("Window %s is not tracked, use one of %s or all", window, this.popularProductTracker.getWindows()));
+		return this.popularProductTracker.top(duration, size);
+	}
+	
+	/**
+	 * Counter rows are created on first use; a concurrent first insert loses to the other and retries the update.
+	 */
+	private void addToCount(final Integer productId, final int delta) {
+		if (this.jdbcTemplate.update(INCREMENT_COUNT, delta, productId) > 0)
+			return;
+		try {
+			this.jdbcTemplate.update(INSERT_COUNT, productId, Math.max(0, delta));
+		}
+		catch (DuplicateKeyException e) {
+			this.jdbcTemplate.update(INCREMENT_COUNT, delta, productId);
+		}
+	}
+	
+	private void afterCommit(final Runnable action) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
 	}
 	
 	
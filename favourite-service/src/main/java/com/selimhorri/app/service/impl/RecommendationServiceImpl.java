@@ -0,0 +1,54 @@
+package com.selimhorri.app.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+
+import com.selimhorri.app.config.recommendation.CooccurrenceIndex;
+import com.selimhorri.app.config.recommendation.CooccurrenceIndex.Recommendations;
+import com.selimhorri.app.config.recommendation.RecommendationProperties;
+import com.selimhorri.app.dto.RecommendationDto;
+import com.selimhorri.app.service.RecommendationService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class RecommendationServiceImpl implements RecommendationService {
+	
+	private final CooccurrenceIndex cooccurrenceIndex;
+	private final RecommendationProperties recommendationProperties;
+	
+	@Override
+	public List<RecommendationDto> findByProductId(final Integer productId, final Integer limit) {
+		log.info("*** RecommendationDto List, service; fetch recommendations by product id *");
+		final Recommendations recommendations = this.cooccurrenceIndex.find(productId);
+		final int size = Math.min(recommendations.size(), limit == null
+				? this.recommendationProperties.getDefaultLimit()
+				: Math.max(1, limit));
+		final List<RecommendationDto> recommendationDtos = new ArrayList<>(size);
+		for (int i = 0; i < size; i++)
+			recommendationDtos.add(RecommendationDto.builder()
+					.productId(recommendations.productId(i))
+					.coOccurrences(recommendations.coOccurrences(i))
+					.score((double) recommendations.score(i))
+					.build());
+		return recommendationDtos;
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,14 @@
+
+CREATE TABLE tombstones (
+	tombstone_id BIGINT NOT NULL PRIMARY KEY AUTO_INCREMENT,
+	entity_type VARCHAR(64) NOT NULL,
+	entity_id VARCHAR(255) NOT NULL,
+	deleted_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_tombstones_type_deleted ON tombstones (entity_type, deleted_at, tombstone_id);
+
+UPDATE favourites SET updated_at = created_at WHERE updated_at IS NULL;
+
+CREATE INDEX idx_favourites_updated ON favourites (updated_at, user_id, product_id, like_date);
+
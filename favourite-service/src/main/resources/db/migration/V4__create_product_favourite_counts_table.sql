@@ -0,0 +1,14 @@
+
+CREATE TABLE product_favourite_counts (
+	product_id INT(11) NOT NULL PRIMARY KEY,
+	favourite_count BIGINT NOT NULL,
+	updated_at TIMESTAMP
+);
+
+INSERT INTO product_favourite_counts (product_id, favourite_count, updated_at)
+	SELECT product_id, COUNT(*), LOCALTIMESTAMP FROM favourites GROUP BY product_id;
+
+CREATE INDEX idx_product_favourite_counts_count ON product_favourite_counts (favourite_count, product_id);
+
+CREATE INDEX idx_favourites_like_date ON favourites (like_date);
+
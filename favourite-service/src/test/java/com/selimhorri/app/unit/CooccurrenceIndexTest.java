@@ -0,0 +1,111 @@
+package com.selimhorri.app.unit;
+
+import com.selimhorri.app.config.recommendation.CooccurrenceIndex;
+import com.selimhorri.app.config.recommendation.CooccurrenceIndex.Recommendations;
+import com.selimhorri.app.config.recommendation.IntIntMap;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CooccurrenceIndexTest {
+
+    private static final Logger log = LoggerFactory.getLogger(CooccurrenceIndexTest.class);
+
+    @Test
+    void givenRandomOperations_whenComparedWithHashMap_thenIntIntMapAgrees() {
+        final IntIntMap map = new IntIntMap();
+        final Map<Integer, Integer> expected = new HashMap<>();
+        final Random random = new Random(11);
+        for (int i = 0; i < 200_000; i++) {
+            final int key = 1 + random.nextInt(2_000);
+            final int delta = random.nextInt(3) - 1;
+            final int value = map.add(key, delta);
+            final int merged = expected.getOrDefault(key, 0) + delta;
+            if (merged == 0)
+                expected.remove(key);
+            else
+                expected.put(key, merged);
+            assertEquals(merged, value);
+        }
+        assertEquals(expected.size(), map.size());
+        expected.forEach((key, value) -> assertEquals(value, map.get(key)));
+        map.forEach((key, value) -> assertEquals(expected.get(key), value));
+    }
+
+    @Test
+    void givenGroups_whenRefreshed_thenNeighboursAreRankedByCosineSimilarity() {
+        final CooccurrenceIndex index = new CooccurrenceIndex();
+        // 1 and 2 always appear together, 3 appears with 1 once but is everywhere
+        index.add(1, 1);
+        index.add(1, 2);
+        index.add(2, 1);
+        index.add(2, 2);
+        index.add(2, 3);
+        for (long group = 3; group < 10; group++)
+            index.add(group, 3);
+        index.refresh(10);
+
+        final Recommendations recommendations = index.find(1);
+        assertEquals(2, recommendations.size());
+        assertEquals(2, recommendations.productId(0));
+        assertEquals(2, recommendations.coOccurrences(0));
+        assertEquals(1.0f, recommendations.score(0), 1e-6);
+        assertEquals(3, recommendations.productId(1));
+        assertEquals(1, recommendations.coOccurrences(1));
+        assertEquals(0, index.find(42).size());
+    }
+
+    @Test
+    void givenRemovals_whenRefreshed_thenPairsAreForgotten() {
+        final CooccurrenceIndex index = new CooccurrenceIndex();
+        index.add(1, 1);
+        index.add(1, 2);
+        index.add(1, 2);
+        index.refresh(10);
+        assertEquals(1, index.find(1).coOccurrences(0));
+
+        index.remove(1, 2);
+        index.refresh(10);
+
+        assertEquals(0, index.find(1).size());
+        assertEquals(0, index.find(2).size());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void givenLargeIndex_whenLookedUp_thenTopNeighboursAreServedWithinMicroseconds() {
+        final CooccurrenceIndex index = new CooccurrenceIndex();
+        final Random random = new Random(3);
+        for (long group = 0; group < 20_000; group++) {
+            final int items = 2 + random.nextInt(6);
+            for (int i = 0; i < items; i++)
+                index.add(group, 1 + (int) Math.abs(random.nextGaussian() * 400));
+        }
+        index.refresh(20);
+
+        final List<Integer> productIds = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++)
+            productIds.add(1 + random.nextInt(1_000));
+        long served = 0;
+        final long start = System.nanoTime();
+        for (final int productId : productIds)
+            served += index.find(productId).size();
+        final double micros = (System.nanoTime() - start) / 1_000.0 / productIds.size();
+        log.debug(String.format("co-occurrence lookup %d products  %8.3f us/lookup", index.size(), micros));
+
+        assertTrue(served > 0);
+        assertTrue(index.find(1).size() <= 20);
+        assertTrue(micros < 100);
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.selimhorri.app.unit;
+
+import com.selimhorri.app.config.membership.FavouriteMembershipCache;
+import com.selimhorri.app.config.membership.FavouriteMembershipProperties;
+import com.selimhorri.app.repository.FavouriteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class FavouriteMembershipCacheTest {
+
+    private FavouriteRepository favouriteRepository;
+    private FavouriteMembershipProperties properties;
+    private FavouriteMembershipCache cache;
+
+    @BeforeEach
+    void setup() {
+        favouriteRepository = mock(FavouriteRepository.class);
+        properties = new FavouriteMembershipProperties();
+        properties.setMaxUsers(2);
+        cache = new FavouriteMembershipCache(favouriteRepository, properties);
+        when(favouriteRepository.findProductIdsByUserId(1)).thenReturn(List.of(10, 20, 20, 30));
+    }
+
+    @Test
+    void givenProductPage_whenChecked_thenFavouritedIdsAreReturnedFromOneLoad() {
+        final List<Integer> page = new ArrayList<>();
+        for (int productId = 1; productId <= 100; productId++)
+            page.add(productId);
+
+        assertEquals(List.of(10, 20, 30), cache.retainFavourited(1, page));
+        assertEquals(List.of(30, 10), cache.retainFavourited(1, List.of(30, 5, 10)));
+        verify(favouriteRepository, times(1)).findProductIdsByUserId(1);
+    }
+
+    @Test
+    void givenWrites_whenChecked_thenCachedSetIsReloaded() {
+        cache.retainFavourited(1, List.of());
+
+        cache.added(1, 40);
+        when(favouriteRepository.findProductIdsByUserId(1)).thenReturn(List.of(20, 30, 40));
+
+        assertEquals(List.of(20, 40), cache.retainFavourited(1, List.of(10, 20, 40, 99)));
+        verify(favouriteRepository, times(2)).findProductIdsByUserId(1);
+    }
+
+    @Test
+    void givenLoadAfterCommitButBeforeNotice_whenFavouriteIsDeleted_thenItIsNoLongerReported() {
+        when(favouriteRepository.findProductIdsByUserId(1)).thenReturn(List.of(10, 40));
+        assertEquals(List.of(40), cache.retainFavourited(1, List.of(40)));
+        cache.added(1, 40);
+
+        when(favouriteRepository.findProductIdsByUserId(1)).thenReturn(List.of(10));
+        cache.removed(1, 40);
+
+        assertEquals(List.of(), cache.retainFavourited(1, List.of(40)));
+    }
+
+    @Test
+    void givenWriteDuringLoad_whenChecked_thenLoadedSetIsNotKept() {
+        when(favouriteRepository.findProductIdsByUserId(2)).thenAnswer(invocation -> {
+            cache.added(2, 7);
+            return List.of(5);
+        });
+
+        assertEquals(List.of(5), cache.retainFavourited(2, List.of(5, 7)));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void givenMoreUsersThanCapacityOrExpiredSets_whenChecked_thenSetsAreReloaded() {
+        cache.retainFavourited(1, List.of());
+        cache.retainFavourited(2, List.of());
+        cache.retainFavourited(3, List.of());
+        assertEquals(2, cache.size());
+
+        cache.retainFavourited(1, List.of());
+        verify(favouriteRepository, times(2)).findProductIdsByUserId(1);
+
+        properties.setTtl(Duration.ZERO);
+        cache.retainFavourited(3, List.of());
+        verify(favouriteRepository, times(2)).findProductIdsByUserId(3);
+    }
+
+}
@@ -1,11 +1,18 @@
 package com.selimhorri.app.unit;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.selimhorri.app.client.LookupClient;
+import com.selimhorri.app.config.client.ClientProperties;
+import com.selimhorri.app.config.membership.FavouriteMembershipCache;
+import com.selimhorri.app.config.popularity.PopularProductTracker;
+import com.selimhorri.app.config.popularity.PopularityProperties;
 import com.selimhorri.app.domain.Favourite;
 import com.selimhorri.app.domain.id.FavouriteId;
 import com.selimhorri.app.dto.FavouriteDto;
 import com.selimhorri.app.dto.ProductDto;
 import com.selimhorri.app.dto.UserDto;
 import com.selimhorri.app.exception.wrapper.FavouriteNotFoundException;
+import com.selimhorri.app.exception.wrapper.InvalidPopularityWindowException;
 import com.selimhorri.app.helper.FavouriteMappingHelper;
 import com.selimhorri.app.repository.FavouriteRepository;
 import com.selimhorri.app.service.impl.FavouriteServiceImpl;
@@ -14,11 +21,13 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -31,6 +40,15 @@ class FavouriteServiceImplTest {
     @Mock
     private RestTemplate restTemplate;
 
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PopularProductTracker popularProductTracker;
+
+    @Mock
+    private FavouriteMembershipCache favouriteMembershipCache;
+
     @InjectMocks
     private FavouriteServiceImpl favouriteService;
 
@@ -43,8 +61,12 @@ class FavouriteServiceImplTest {
     @BeforeEach
     void setup() {
         MockitoAnnotations.openMocks(this);
+        favouriteService = new FavouriteServiceImpl(favouriteRepository, restTemplate,
+                new LookupClient(restTemplate, new ObjectMapper(), new ClientProperties()),
+                jdbcTemplate, popularProductTracker, new PopularityProperties(), favouriteMembershipCache);
 
         LocalDateTime likeDate = LocalDateTime.now();
+        favouriteId = new FavouriteId(1, 10, likeDate);
 
         favourite = Favourite.builder()
                 .userId(1)
@@ -80,7 +102,7 @@ class FavouriteServiceImplTest {
         when(restTemplate.getForObject(anyString(), eq(UserDto.class))).thenReturn(userDto);
         when(restTemplate.getForObject(anyString(), eq(ProductDto.class))).thenReturn(productDto);
 
-        List<FavouriteDto> result = favouriteService.findAll();
+        List<FavouriteDto> result = favouriteService.findAll(FavouriteDto.RELATIONS);
 
         assertFalse(result.isEmpty());
         assertEquals(1, result.size());
@@ -91,6 +113,18 @@ class FavouriteServiceImplTest {
         verify(favouriteRepository, times(1)).findAll();
     }
 
+    @Test
+    void testFindAll_onlyRequestedRelationsAreLookedUp() {
+        when(favouriteRepository.findAll()).thenReturn(List.of(favourite));
+        when(restTemplate.getForObject(anyString(), eq(ProductDto.class))).thenReturn(productDto);
+
+        List<FavouriteDto> result = favouriteService.findAll(Set.of(FavouriteDto.PRODUCT));
+
+        assertNull(result.get(0).getUserDto());
+        assertEquals("Laptop", result.get(0).getProductDto().getProductTitle());
+        verify(restTemplate, never()).getForObject(anyString(), eq(UserDto.class));
+    }
+
     @Test
     void testFindById_success() {
         when(favouriteRepository.findById(favouriteId)).thenReturn(Optional.of(favourite));
@@ -128,6 +162,30 @@ class FavouriteServiceImplTest {
         assertEquals(1, result.getUserId());
         assertEquals(10, result.getProductId());
         verify(favouriteRepository, times(1)).save(any(Favourite.class));
+        verify(jdbcTemplate).update(contains("UPDATE product_favourite_counts"), eq(1), eq(10));
+        verify(popularProductTracker).record(eq(10), any());
+        verify(favouriteMembershipCache).added(1, 10);
+    }
+
+    @Test
+    void testSave_existingFavourite_doesNotCountTwice() {
+        when(favouriteRepository.existsById(any(FavouriteId.class))).thenReturn(true);
+        when(favouriteRepository.save(any(Favourite.class))).thenReturn(favourite);
+
+        favouriteService.save(favouriteDto);
+
+        verifyNoInteractions(jdbcTemplate, popularProductTracker, favouriteMembershipCache);
+    }
+
+    @Test
+    void testUpdate_newFavourite_isCounted() {
+        when(favouriteRepository.save(any(Favourite.class))).thenReturn(favourite);
+
+        favouriteService.update(favouriteDto);
+
+        verify(jdbcTemplate).update(contains("UPDATE product_favourite_counts"), eq(1), eq(10));
+        verify(popularProductTracker).record(eq(10), any());
+        verify(favouriteMembershipCache).added(1, 10);
     }
 
     @Test
@@ -137,5 +195,15 @@ class FavouriteServiceImplTest {
         favouriteService.deleteById(favouriteId);
 
         verify(favouriteRepository, times(1)).deleteById(favouriteId);
+        verify(jdbcTemplate).update(contains("UPDATE product_favourite_counts"), eq(-1), eq(10));
+        verify(favouriteMembershipCache).removed(1, 10);
+    }
+
+    @Test
+    void testFindPopular_untrackedWindow() {
+        when(popularProductTracker.isTracked(any())).thenReturn(false);
+
+        assertThrows(InvalidPopularityWindowException.class, () -> favouriteService.findPopular("3h", 5));
+        assertThrows(InvalidPopularityWindowException.class, () -> favouriteService.findPopular("yesterday", 5));
     }
 }
\ No newline at end of file
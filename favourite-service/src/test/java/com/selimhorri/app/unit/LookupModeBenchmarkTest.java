@@ -0,0 +1,188 @@
+package com.selimhorri.app.unit;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.selimhorri.app.client.LookupClient;
+import com.selimhorri.app.config.client.ClientProperties;
+import com.selimhorri.app.config.client.LookupMode;
+import com.selimhorri.app.config.membership.FavouriteMembershipCache;
+import com.selimhorri.app.config.popularity.PopularProductTracker;
+import com.selimhorri.app.config.popularity.PopularityProperties;
+import com.selimhorri.app.domain.Favourite;
+import com.selimhorri.app.dto.FavouriteDto;
+import com.selimhorri.app.dto.ProductDto;
+import com.selimhorri.app.dto.UserDto;
+import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+import com.selimhorri.app.repository.FavouriteRepository;
+import com.selimhorri.app.service.impl.FavouriteServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the favourite enrichment concurrently against a simulated peer that charges a fixed round trip per
+ * request, comparing per-id GETs with the batch and streaming lookups. Prints throughput and calls made.
+ */
+class LookupModeBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(LookupModeBenchmarkTest.class);
+
+    private static final int FAVOURITES = 40;
+    private static final int CALLERS = 32;
+    private static final int OPERATIONS = 128;
+    private static final long ROUND_TRIP_MILLIS = 2;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private FavouriteRepository favouriteRepository;
+    private RestTemplate restTemplate;
+
+    @BeforeEach
+    void setup() {
+        favouriteRepository = mock(FavouriteRepository.class);
+        when(favouriteRepository.findAll()).thenReturn(IntStream.rangeClosed(1, FAVOURITES)
+                .mapToObj(i -> Favourite.builder()
+                        .userId(i)
+                        .productId(1000 + i)
+                        .likeDate(LocalDateTime.of(2024, 1, 1, 12, 0).plusMinutes(i))
+                        .build())
+                .collect(Collectors.toList()));
+        restTemplate = new RestTemplate(simulatedPeer());
+    }
+
+    @Test
+    void testAllModesEnrichEveryFavourite() {
+        for (final LookupMode mode : LookupMode.values()) {
+            final List<FavouriteDto> favourites = service(mode).findAll(FavouriteDto.RELATIONS);
+
+            assertEquals(FAVOURITES, favourites.size());
+            favourites.forEach(f -> {
+                assertEquals(f.getUserId(), f.getUserDto().getUserId());
+                assertEquals(f.getProductId(), f.getProductDto().getProductId());
+            });
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void testBatchLookupsOutperformSingleLookupsUnderConcurrency() throws Exception {
+        final double single = throughput(LookupMode.SINGLE);
+        final double batch = throughput(LookupMode.BATCH);
+        final double stream = throughput(LookupMode.STREAM);
+
+        assertTrue(batch > single);
+        assertTrue(stream > single);
+    }
+
+    private double throughput(final LookupMode mode) throws Exception {
+        final FavouriteServiceImpl favouriteService = service(mode);
+        final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        calls.set(0);
+        try {
+            final long start = System.nanoTime();
+            final List<Future<List<FavouriteDto>>> results = new ArrayList<>();
+            for (int i = 0; i < OPERATIONS; i++)
+                results.add(executor.submit(() -> favouriteService.findAll(FavouriteDto.RELATIONS)));
+            for (final Future<List<FavouriteDto>> result : results)
+                assertEquals(FAVOURITES, result.get().size());
+            final double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+            final double opsPerSecond = OPERATIONS / seconds;
+            log.debug(String.format("%-6s %3d callers  %8.1f ops/s  %5d peer calls", mode, CALLERS, opsPerSecond, calls.get()));
+            return opsPerSecond;
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private FavouriteServiceImpl service(final LookupMode mode) {
+        final ClientProperties clientProperties = new ClientProperties();
+        clientProperties.setLookupMode(mode);
+        return new FavouriteServiceImpl(favouriteRepository, restTemplate,
+                new LookupClient(restTemplate, objectMapper, clientProperties),
+                mock(JdbcTemplate.class), mock(PopularProductTracker.class), new PopularityProperties(),
+                mock(FavouriteMembershipCache.class));
+    }
+
+    private ClientHttpRequestFactory simulatedPeer() {
+        return (uri, method) -> new MockClientHttpRequest(method, uri) {
+            @Override
+            protected ClientHttpResponse executeInternal() throws IOException {
+                calls.incrementAndGet();
+                try {
+                    Thread.sleep(ROUND_TRIP_MILLIS);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+                return respond(method, uri, getBodyAsBytes());
+            }
+        };
+    }
+
+    private ClientHttpResponse respond(final HttpMethod method, final URI uri, final byte[] body) throws IOException {
+        final String path = uri.getPath();
+        final boolean users = path.contains("/api/users");
+        final MockClientHttpResponse response;
+
+        if (method == HttpMethod.GET) {
+            final int id = Integer.parseInt(path.substring(path.lastIndexOf('/') + 1));
+            response = new MockClientHttpResponse(objectMapper.writeValueAsBytes(dto(users, id)), HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            return response;
+        }
+
+        final List<Object> dtos = objectMapper.readValue(body, new TypeReference<List<Integer>>() {})
+                .stream()
+                .map(id -> dto(users, id))
+                .collect(Collectors.toList());
+        if (path.endsWith("/stream")) {
+            final StringBuilder lines = new StringBuilder();
+            for (final Object dto : dtos)
+                lines.append(objectMapper.writeValueAsString(dto)).append('\n');
+            response = new MockClientHttpResponse(lines.toString().getBytes(), HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_NDJSON);
+        }
+        else {
+            response = new MockClientHttpResponse(objectMapper.writeValueAsBytes(new DtoCollectionResponse<>(dtos)), HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        }
+        return response;
+    }
+
+    private Object dto(final boolean users, final int id) {
+        if (users)
+            return UserDto.builder().userId(id).firstName("First" + id).lastName("Last" + id).email(id + "@example.com").build();
+        return ProductDto.builder().productId(id).productTitle("Product " + id).sku("SKU-" + id).priceUnit(9.99 + id).quantity(id % 100).build();
+    }
+
+}
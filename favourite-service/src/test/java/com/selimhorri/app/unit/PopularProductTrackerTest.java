@@ -0,0 +1,119 @@
+package com.selimhorri.app.unit;
+
+import com.selimhorri.app.config.popularity.PopularProductTracker;
+import com.selimhorri.app.config.popularity.PopularityProperties;
+import com.selimhorri.app.config.popularity.SpaceSavingSketch;
+import com.selimhorri.app.dto.PopularProductDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PopularProductTrackerTest {
+
+    private static final Instant START = Instant.parse("2024-03-01T12:00:00Z");
+
+    private MutableClock clock;
+    private PopularProductTracker tracker;
+
+    @BeforeEach
+    void setup() {
+        final PopularityProperties properties = new PopularityProperties();
+        properties.setWindows(List.of(Duration.ofHours(1), Duration.ofHours(24)));
+        properties.setBucketWidth(Duration.ofMinutes(15));
+        properties.setSketchCapacity(50);
+        clock = new MutableClock(START);
+        tracker = new PopularProductTracker(properties, clock);
+    }
+
+    @Test
+    void givenSkewedStream_whenSketched_thenHeavyHittersAreRankedFirst() {
+        final SpaceSavingSketch sketch = new SpaceSavingSketch(20);
+        final Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            // products 1..5 take half the traffic, the rest is spread over 1000 products
+            final int productId = random.nextBoolean() ? 1 + random.nextInt(5) : 100 + random.nextInt(1000);
+            sketch.offer(productId, productId <= 5 ? 6 - productId : 1);
+        }
+
+        final List<Long> top = sketch.top(5).stream().map(entry -> entry[0]).collect(Collectors.toList());
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), top);
+    }
+
+    @Test
+    void givenFavouritesOverTime_whenRefreshed_thenEachWindowRanksOnlyItsOwnBuckets() {
+        record(7, 10, START.minus(Duration.ofHours(5)));
+        record(8, 3, START.minus(Duration.ofMinutes(20)));
+        record(9, 2, START.minus(Duration.ofMinutes(1)));
+        record(7, 1, START.minus(Duration.ofDays(2)));
+
+        tracker.refresh();
+
+        assertEquals(List.of(8, 9), ids(tracker.top(Duration.ofHours(1), 10)));
+        assertEquals(List.of(7, 8, 9), ids(tracker.top(Duration.ofHours(24), 10)));
+        assertEquals(10L, tracker.top(Duration.ofHours(24), 1).get(0).getFavouriteCount());
+        assertEquals(1, tracker.top(Duration.ofHours(24), 1).size());
+    }
+
+    @Test
+    void givenTimePasses_whenRefreshed_thenExpiredBucketsDropOut() {
+        record(8, 3, START);
+        tracker.refresh();
+        assertEquals(List.of(8), ids(tracker.top(Duration.ofHours(1), 10)));
+
+        clock.advance(Duration.ofHours(2));
+        record(9, 1, clock.instant());
+        tracker.refresh();
+
+        assertEquals(List.of(9), ids(tracker.top(Duration.ofHours(1), 10)));
+        assertEquals(List.of(8, 9), ids(tracker.top(Duration.ofHours(24), 10)));
+    }
+
+    private void record(final int productId, final int times, final Instant at) {
+        for (int i = 0; i < times; i++)
+            tracker.record(productId, at);
+    }
+
+    private static List<Integer> ids(final List<PopularProductDto> popular) {
+        return popular.stream().map(PopularProductDto::getProductId).collect(Collectors.toList());
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        private MutableClock(final Instant now) {
+            this.now = now;
+        }
+
+        private void advance(final Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(final ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+    }
+
+}
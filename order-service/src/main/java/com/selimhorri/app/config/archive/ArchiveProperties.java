@@ -0,0 +1,19 @@
+package com.selimhorri.app.config.archive;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@ConfigurationProperties(prefix = "app.archive")
+@Data
+public class ArchiveProperties {
+	
+	private boolean enabled = false;
+	private Duration minAge = Duration.ofDays(365);
+	private int batchSize = 500;
+	private int maxBatchesPerRun = 20;
+	private Duration interval = Duration.ofHours(1);
+	
+}
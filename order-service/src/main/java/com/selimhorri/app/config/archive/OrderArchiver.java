@@ -0,0 +1,139 @@
+package com.selimhorri.app.config.archive;
+
+import java.io.Closeable;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.selimhorri.app.domain.Cart;
+import com.selimhorri.app.domain.Order;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Moves orders older than the configured age from {@code orders} to {@code orders_archive} in bounded
+ * batches, each in its own transaction, so a pass never locks more than one batch of rows. Archived orders
+ * are only read back by id: they drop out of listings, user history and the change feed without tombstones.
+ */
+@Slf4j
+public class OrderArchiver implements Closeable {
+	
+	private static final String COLUMNS = "order_id, cart_id, order_date, order_desc, order_fee, created_at, updated_at";
+	
+	private final NamedParameterJdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final ArchiveProperties properties;
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		final var thread = new Thread(runnable, "order-archiver");
+		thread.setDaemon(true);
+		return thread;
+	});
+	
+	public OrderArchiver(final NamedParameterJdbcTemplate jdbcTemplate, final TransactionTemplate transactionTemplate,
+			final ArchiveProperties properties) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = transactionTemplate;
+		this.properties = properties;
+	}
+	
+	public void start() {
+		final long intervalMillis = this.properties.getInterval().toMillis();
+		this.scheduler.scheduleWithFixedDelay(() -> {
+			try {
+				this.archive();
+			}
+			catch (RuntimeException e) {
+				log.warn("** Order archival failed: {} *", e.getMessage());
+			}
+		}, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * Archives at most {@code maxBatchesPerRun} batches and returns how many orders were moved.
+	 */
+	public int archive() {
+		final Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(this.properties.getMinAge()));
+		int archived = 0;
+		for (int batch = 0; batch < this.properties.getMaxBatchesPerRun(); batch++) {
+			final int moved = this.transactionTemplate.execute(status -> this.archiveBatch(cutoff));
+			archived += moved;
+			if (moved < this.properties.getBatchSize())
+				break;
+		}
+		if (archived > 0)
+			log.info("*** Archived {} orders dated before {} *", archived, cutoff);
+		return archived;
+	}
+	
+	public Optional<Order> findArchived(final Integer orderId) {
+		return this.jdbcTemplate.query("SELECT " + COLUMNS + " FROM orders_archive WHERE order_id = :orderId",
+				Map.of("orderId", orderId), (resultSet, rowNum) -> map(resultSet))
+				.stream()
+				.findFirst();
+	}
+	
+	public List<Order> findArchived(final Collection<Integer> orderIds) {
+		if (orderIds.isEmpty())
+			return List.of();
+		return this.jdbcTemplate.query("SELECT " + COLUMNS + " FROM orders_archive WHERE order_id IN (:orderIds)",
+				Map.of("orderIds", orderIds), (resultSet, rowNum) -> map(resultSet));
+	}
+	
+	@Override
+	public void close() {
+		this.scheduler.shutdownNow();
+	}
+	
+	private int archiveBatch(final Timestamp cutoff) {
+		final List<Integer> orderIds = this.jdbcTemplate.queryForList("SELECT order_id FROM orders "
+				+ "WHERE order_date < :cutoff ORDER BY order_date, order_id LIMIT :limit FOR UPDATE",
+				Map.of("cutoff", cutoff, "limit", this.properties.getBatchSize()), Integer.class);
+		if (orderIds.isEmpty())
+			return 0;
+		this.jdbcTemplate.update("INSERT INTO orders_archive (" + COLUMNS + ", archived_at) SELECT " + COLUMNS
+				+ ", LOCALTIMESTAMP FROM orders WHERE order_id IN (:orderIds)", Map.of("orderIds", orderIds));
+		return this.jdbcTemplate.update("DELETE FROM orders WHERE order_id IN (:orderIds)", Map.of("orderIds", orderIds));
+	}
+	
+	private static Order map(final ResultSet resultSet) throws SQLException {
+		final Timestamp orderDate = resultSet.getTimestamp("order_date");
+		final Timestamp createdAt = resultSet.getTimestamp("created_at");
+		final Timestamp updatedAt = resultSet.getTimestamp("updated_at");
+		final Order order = Order.builder()
+				.orderId(resultSet.getInt("order_id"))
+				.orderDate(orderDate == null ? null : orderDate.toLocalDateTime())
+				.orderDesc(resultSet.getString("order_desc"))
+				.orderFee(resultSet.getObject("order_fee") == null ? null : resultSet.getDouble("order_fee"))
+				.cart(Cart.builder()
+						.cartId(resultSet.getObject("cart_id", Integer.class))
+						.build())
+				.build();
+		order.setCreatedAt(createdAt == null ? null : createdAt.toInstant());
+		order.setUpdatedAt(updatedAt == null ? null : updatedAt.toInstant());
+		return order;
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
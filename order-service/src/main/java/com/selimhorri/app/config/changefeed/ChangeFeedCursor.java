@@ -0,0 +1,48 @@
+package com.selimhorri.app.config.changefeed;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Position in a change feed: the last row returned, as {@code (updated_at, key)}, and the last tombstone
+ * returned, as {@code (deleted_at, tombstone_id)}. A missing key or id means "everything after the timestamp".
+ */
+@Data
+@AllArgsConstructor
+public class ChangeFeedCursor {
+	
+	private static final String SEPARATOR = "|";
+	
+	private Instant rowChangedAt;
+	private String rowKey;
+	private Instant tombstoneChangedAt;
+	private Long tombstoneId;
+	
+	public static ChangeFeedCursor since(final Instant since) {
+		return new ChangeFeedCursor(since, null, since, null);
+	}
+	
+	public Instant getWatermark() {
+		return this.rowChangedAt.isAfter(this.tombstoneChangedAt) ? this.rowChangedAt : this.tombstoneChangedAt;
+	}
+	
+	public String encode() {
+		final String value = String.join(SEPARATOR, this.rowChangedAt.toString(), this.rowKey == null ? "" : this.rowKey,
+				this.tombstoneChangedAt.toString(), this.tombstoneId == null ? "" : this.tombstoneId.toString());
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	public static ChangeFeedCursor decode(final String cursor) {
+		final String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+				.split("\\" + SEPARATOR, -1);
+		if (parts.length != 4)
+			throw new IllegalArgumentException("Malformed change feed cursor");
+		return new ChangeFeedCursor(Instant.parse(parts[0]), parts[1].isEmpty() ? null : parts[1],
+				Instant.parse(parts[2]), parts[3].isEmpty() ? null : Long.valueOf(parts[3]));
+	}
+	
+}
@@ -0,0 +1,17 @@
+package com.selimhorri.app.config.changefeed;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@ConfigurationProperties(prefix = "app.change-feed")
+@Data
+public class ChangeFeedProperties {
+	
+	private Duration commitLag = Duration.ofSeconds(2);
+	private int defaultLimit = 100;
+	private int maxLimit = 1000;
+	
+}
@@ -0,0 +1,89 @@
+package com.selimhorri.app.config.datasource;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends connections for read-only transactions round robin to the replicas currently marked healthy and
+ * everything else, including reads while no replica is healthy, to the primary. Only correct behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, so that the connection is
+ * fetched after the transaction's read-only flag has been bound.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+	
+	public static final String PRIMARY = "primary";
+	
+	private final DataSource primary;
+	private final Map<String, DataSource> replicas;
+	private final Set<String> healthyReplicas = ConcurrentHashMap.newKeySet();
+	private final AtomicInteger next = new AtomicInteger();
+	
+	public ReplicaRoutingDataSource(final DataSource primary, final Map<String, DataSource> replicas) {
+		this.primary = primary;
+		this.replicas = Map.copyOf(replicas);
+		final Map<Object, Object> targets = new HashMap<>(replicas);
+		targets.put(PRIMARY, primary);
+		this.setTargetDataSources(targets);
+		this.setDefaultTargetDataSource(primary);
+		this.afterPropertiesSet();
+	}
+	
+	@Override
+	protected Object determineCurrentLookupKey() {
+		if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly())
+			return PRIMARY;
+		final List<String> healthy = this.replicas.keySet().stream()
+				.filter(this.healthyReplicas::contains)
+				.sorted()
+				.collect(Collectors.toUnmodifiableList());
+		if (healthy.isEmpty())
+			return PRIMARY;
+		return healthy.get(Math.floorMod(this.next.getAndIncrement(), healthy.size()));
+	}
+	
+	public Map<String, DataSource> getReplicas() {
+		return this.replicas;
+	}
+	
+	public boolean setReplicaHealthy(final String replica, final boolean healthy) {
+		return healthy ? this.healthyReplicas.add(replica) : this.healthyReplicas.remove(replica);
+	}
+	
+	public Set<String> getHealthyReplicas() {
+		return Set.copyOf(this.healthyReplicas);
+	}
+	
+	@Override
+	public void close() throws IOException {
+		for (final DataSource replica : this.replicas.values())
+			if (replica instanceof Closeable)
+				((Closeable) replica).close();
+		if (this.primary instanceof Closeable)
+			((Closeable) this.primary).close();
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,17 @@
+package com.selimhorri.app.config.datasource;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@ConfigurationProperties(prefix = "app.sql-instrumentation")
+@Data
+public class SqlInstrumentationProperties {
+	
+	private boolean enabled = true;
+	private Duration slowQueryThreshold = Duration.ofMillis(200);
+	private int repeatedStatementThreshold = 5;
+	
+}
@@ -0,0 +1,72 @@
+package com.selimhorri.app.config.datasource;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+/**
+ * Times every JDBC execution, attributes it to the current request and writes slow statements to the
+ * structured {@code sql.slow} log.
+ */
+@Slf4j(topic = "sql.slow")
+@RequiredArgsConstructor
+public class SqlStatementListener implements QueryExecutionListener {
+	
+	private final SqlInstrumentationProperties properties;
+	private final MeterRegistry meterRegistry;
+	
+	@Override
+	public void beforeQuery(final ExecutionInfo execInfo, final List<QueryInfo> queryInfoList) {
+	}
+	
+	@Override
+	public void afterQuery(final ExecutionInfo execInfo, final List<QueryInfo> queryInfoList) {
+		
+		final long elapsedMillis = execInfo.getElapsedTime();
+		final String route = RequestStatementStats.currentRoute();
+		final RequestStatementStats stats = RequestStatementStats.current();
+		
+		for (final QueryInfo queryInfo : queryInfoList) {
+			final String sql = queryInfo.getQuery();
+			if (stats != null)
+				stats.record(sql, elapsedMillis);
+			Timer.builder("db.statement")
+					.description("JDBC statement execution time")
+					.tag("route", route)
+					.tag("operation", operation(sql))
+					.publishPercentileHistogram()
+					.register(this.meterRegistry)
+					.record(elapsedMillis, TimeUnit.MILLISECONDS);
+		}
+		
+		if (elapsedMillis >= this.properties.getSlowQueryThreshold().toMillis())
+			log.warn("slow_query route=\"{}\" elapsed_ms={} batch_size={} success={} sql=\"{}\"",
+					route, elapsedMillis, execInfo.getBatchSize(), execInfo.isSuccess(),
+					RequestStatementStats.normalize(queryInfoList.isEmpty() ? "" : queryInfoList.get(0).getQuery()));
+	}
+	
+	private static String operation(final String sql) {
+		return RequestStatementStats.stripLeadingComments(sql).split("\\s", 2)[0].toLowerCase(Locale.ROOT);
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,56 @@
+package com.selimhorri.app.config.deadline;
+
+import java.util.OptionalLong;
+
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.DelegatingTransactionDefinition;
+
+/**
+ * Caps the transaction timeout to the remaining request budget. Hibernate applies the transaction
+ * timeout as JDBC query timeout, so statements of a request that ran out of time are cancelled.
+ */
+public class DeadlineAwareJpaTransactionManager extends JpaTransactionManager {
+	
+	private static final long serialVersionUID = 1L;
+	
+	@Override
+	protected void doBegin(final Object transaction, final TransactionDefinition definition) {
+		
+		final OptionalLong remainingMillis = DeadlineContext.remainingMillis();
+		if (remainingMillis.isEmpty()) {
+			super.doBegin(transaction, definition);
+			return;
+		}
+		
+		DeadlineContext.checkNotExpired("opening transaction");
+		final int remainingSeconds = (int) Math.max(1L, (remainingMillis.getAsLong() + 999L) / 1000L);
+		final int timeout = definition.getTimeout() == TransactionDefinition.TIMEOUT_DEFAULT 
+				? remainingSeconds 
+				: Math.min(definition.getTimeout(), remainingSeconds);
+		
+		super.doBegin(transaction, new DelegatingTransactionDefinition(definition) {
+			
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			public int getTimeout() {
+				return timeout;
+			}
+			
+		});
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
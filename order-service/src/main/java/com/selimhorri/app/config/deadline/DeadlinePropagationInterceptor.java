@@ -0,0 +1,33 @@
+package com.selimhorri.app.config.deadline;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+public class DeadlinePropagationInterceptor implements ClientHttpRequestInterceptor {
+	
+	@Override
+	public ClientHttpResponse intercept(final HttpRequest request, final byte[] body, 
+			final ClientHttpRequestExecution execution) throws IOException {
+		DeadlineContext.checkNotExpired(request.getMethod() + " " + request.getURI());
+		DeadlineContext.remainingMillis().ifPresent(remaining -> request.getHeaders()
+				.set(DeadlineContext.DEADLINE_HEADER, String.valueOf(remaining)));
+		return execution.execute(request, body);
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
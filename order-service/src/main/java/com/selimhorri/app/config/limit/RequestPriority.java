@@ -0,0 +1,8 @@
+package com.selimhorri.app.config.limit;
+
+public enum RequestPriority {
+	
+	CRITICAL,
+	BEST_EFFORT;
+	
+}
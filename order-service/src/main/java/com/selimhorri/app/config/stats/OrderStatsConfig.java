@@ -0,0 +1,38 @@
+package com.selimhorri.app.config.stats;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Configuration
+@EnableConfigurationProperties(OrderStatsProperties.class)
+public class OrderStatsConfig {
+	
+	@Bean(destroyMethod = "close")
+	public OrderStatsRollup orderStatsRollupBean(final OrderStatsProperties properties, final JdbcTemplate jdbcTemplate, 
+			final PlatformTransactionManager transactionManager) {
+		
+		final var orderStatsRollup = new OrderStatsRollup(jdbcTemplate, new TransactionTemplate(transactionManager), properties);
+		orderStatsRollup.initialise();
+		if (properties.isBackfillEnabled())
+			orderStatsRollup.start();
+		
+		return orderStatsRollup;
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
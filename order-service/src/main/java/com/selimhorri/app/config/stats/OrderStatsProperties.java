@@ -0,0 +1,15 @@
+package com.selimhorri.app.config.stats;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@ConfigurationProperties(prefix = "app.order-stats")
+@Data
+public class OrderStatsProperties {
+	
+	private boolean backfillEnabled = true;
+	private int backfillChunkSize = 1000;
+	private int maxBuckets = 2000;
+	
+}
@@ -0,0 +1,229 @@
+package com.selimhorri.app.config.stats;
+
+import java.io.Closeable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps hourly and daily order count and revenue rollups in step with {@code orders}. Writes apply the
+ * difference between an order's figures before and after the change in the same transaction as the order.
+ *
+ * Orders that existed when the rollups were introduced are folded in by a chunked backfill over ids up to a
+ * fixed watermark, archived orders included. Until it finishes, writes lock the checkpoint row and skip
+ * orders the backfill has not reached yet, since it will read their committed figures when it gets there.
+ */
+@Slf4j
+public class OrderStatsRollup implements Closeable {
+	
+	private static final int BACKFILL_ID = 1;
+	private static final String FIND_FIGURES = "SELECT order_date, order_fee FROM orders WHERE order_id = ?";
+	private static final String FIND_BACKFILL_CHUNK = "SELECT order_id, order_date, order_fee FROM orders "
+			+ "WHERE order_id > ? AND order_id <= ? "
+			+ "UNION ALL SELECT order_id, order_date, order_fee FROM orders_archive "
+			+ "WHERE order_id > ? AND order_id <= ? "
+			+ "ORDER BY order_id LIMIT ?";
+	
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final OrderStatsProperties properties;
+	private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+		final var thread = new Thread(runnable, "order-stats-backfill");
+		thread.setDaemon(true);
+		return thread;
+	});
+	
+	private volatile boolean backfilled;
+	
+	public OrderStatsRollup(final JdbcTemplate jdbcTemplate, final TransactionTemplate transactionTemplate,
+			final OrderStatsProperties properties) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = transactionTemplate;
+		this.properties = properties;
+	}
+	
+	/**
+	 * Pins the backfill watermark to the newest order on first start; later orders are only counted by writes.
+	 */
+	public void initialise() {
+		this.jdbcTemplate.update("UPDATE order_stats_backfill SET watermark = "
+				+ "(SELECT COALESCE(MAX(order_id), 0) FROM (SELECT order_id FROM orders UNION ALL SELECT order_id FROM orders_archive) o) "
+				+ "WHERE backfill_id = ? AND watermark IS NULL", BACKFILL_ID);
+		this.backfilled = this.jdbcTemplate.queryForObject(
+				"SELECT completed FROM order_stats_backfill WHERE backfill_id = ?", Boolean.class, BACKFILL_ID);
+	}
+	
+	public void start() {
+		if (!this.backfilled)
+			this.executor.execute(() -> {
+				try {
+					this.backfill();
+				}
+				catch (RuntimeException e) {
+					log.warn("** Order stats backfill stopped: {} *", e.getMessage());
+				}
+			});
+	}
+	
+	/**
+	 * Reads an order's current figures under a row lock; call before changing the order.
+	 */
+	public Figures before(final Integer orderId) {
+		if (orderId == null)
+			return Figures.NONE;
+		return this.jdbcTemplate.query(FIND_FIGURES + " FOR UPDATE", resultSet -> resultSet.next() 
+				? figures(resultSet.getTimestamp("order_date"), resultSet.getBigDecimal("order_fee")) 
+				: Figures.NONE, orderId);
+	}
+	
+	/**
+	 * Applies the difference between the given figures and the order's flushed figures to every rollup.
+	 */
+	public void changed(final Integer orderId, final Figures before) {
+		final Figures after = this.jdbcTemplate.query(FIND_FIGURES, resultSet -> resultSet.next() 
+				? figures(resultSet.getTimestamp("order_date"), resultSet.getBigDecimal("order_fee")) 
+				: Figures.NONE, orderId);
+		if (before.equals(after) || !this.covers(orderId))
+			return;
+		for (final StatsGranularity granularity : StatsGranularity.values()) {
+			if (before.orderDate != null)
+				this.add(granularity, granularity.bucketOf(before.orderDate), -1, before.orderFee.negate());
+			if (after.orderDate != null)
+				this.add(granularity, granularity.bucketOf(after.orderDate), 1, after.orderFee);
+		}
+	}
+	
+	/**
+	 * Folds every order up to the watermark into the rollups, one checkpointed chunk per transaction.
+	 */
+	public void backfill() {
+		long orders = 0;
+		int folded;
+		do {
+			folded = this.transactionTemplate.execute(status -> this.backfillChunk());
+			orders += folded;
+		}
+		while (folded == this.properties.getBackfillChunkSize());
+		if (orders > 0)
+			log.info("*** Order stats backfill completed; {} orders folded in *", orders);
+		this.backfilled = true;
+	}
+	
+	@Override
+	public void close() {
+		this.executor.shutdownNow();
+	}
+	
+	private int backfillChunk() {
+		final Map<String, Object> checkpoint = this.jdbcTemplate.queryForMap("SELECT watermark, cursor_order_id, completed "
+				+ "FROM order_stats_backfill WHERE backfill_id = ? FOR UPDATE", BACKFILL_ID);
+		if (Boolean.TRUE.equals(checkpoint.get("completed")))
+			return 0;
+		final int watermark = ((Number) checkpoint.get("watermark")).intValue();
+		final int cursor = ((Number) checkpoint.get("cursor_order_id")).intValue();
+		final int chunkSize = this.properties.getBackfillChunkSize();
+		
+		final Map<StatsGranularity, Map<LocalDateTime, Bucket>> buckets = new HashMap<>();
+		final List<Integer> orderIds = this.jdbcTemplate.query(FIND_BACKFILL_CHUNK, (resultSet, rowNum) -> {
+			final Figures figures = figures(resultSet.getTimestamp("order_date"), resultSet.getBigDecimal("order_fee"));
+			for (final StatsGranularity granularity : StatsGranularity.values())
+				buckets.computeIfAbsent(granularity, key -> new HashMap<>())
+						.computeIfAbsent(granularity.bucketOf(figures.orderDate), key -> new Bucket(0, BigDecimal.ZERO))
+						.add(figures.orderFee);
+			return resultSet.getInt("order_id");
+		}, cursor, watermark, cursor, watermark, chunkSize);
+		
+		buckets.forEach((granularity, rollup) -> rollup.forEach((bucketStart, bucket) -> 
+				this.add(granularity, bucketStart, bucket.orderCount, bucket.revenue)));
+		
+		final boolean completed = orderIds.size() < chunkSize;
+		this.jdbcTemplate.update("UPDATE order_stats_backfill SET cursor_order_id = ?, completed = ? WHERE backfill_id = ?",
+				orderIds.isEmpty() ? cursor : orderIds.get(orderIds.size() - 1), completed, BACKFILL_ID);
+		return orderIds.size();
+	}
+	
+	private boolean covers(final Integer orderId) {
+		if (this.backfilled)
+			return true;
+		final Map<String, Object> checkpoint = this.jdbcTemplate.queryForMap("SELECT watermark, cursor_order_id, completed "
+				+ "FROM order_stats_backfill WHERE backfill_id = ? FOR UPDATE", BACKFILL_ID);
+		if (Boolean.TRUE.equals(checkpoint.get("completed"))) {
+			this.backfilled = true;
+			return true;
+		}
+		return orderId <= ((Number) checkpoint.get("cursor_order_id")).intValue() 
+				|| orderId > ((Number) checkpoint.get("watermark")).intValue();
+	}
+	
+	private void add(final StatsGranularity granularity, final LocalDateTime bucketStart, final long orderCount,
+			final BigDecimal revenue) {
+		final Timestamp bucket = Timestamp.valueOf(bucketStart);
+		final String increment = "UPDATE " + granularity.getTable() + " SET order_count = order_count + ?, "
+				+ "revenue = revenue + ? WHERE bucket_start = ?";
+		if (this.jdbcTemplate.update(increment, orderCount, revenue, bucket) > 0)
+			return;
+		try {
+			this.jdbcTemplate.update("INSERT INTO " + granularity.getTable() + " (bucket_start, order_count, revenue) "
+					+ "VALUES (?, ?, ?)", bucket, orderCount, revenue);
+		}
+		catch (DuplicateKeyException e) {
+			this.jdbcTemplate.update(increment, orderCount, revenue, bucket);
+		}
+	}
+	
+	private static Figures figures(final Timestamp orderDate, final BigDecimal orderFee) {
+		return new Figures(orderDate == null ? null : orderDate.toLocalDateTime(), 
+				(orderFee == null ? BigDecimal.ZERO : orderFee).setScale(2, RoundingMode.HALF_UP));
+	}
+	
+	@AllArgsConstructor
+	@EqualsAndHashCode
+	public static final class Figures {
+		
+		private static final Figures NONE = new Figures(null, BigDecimal.ZERO.setScale(2));
+		
+		private final LocalDateTime orderDate;
+		private final BigDecimal orderFee;
+		
+	}
+	
+	@AllArgsConstructor
+	private static final class Bucket {
+		
+		private long orderCount;
+		private BigDecimal revenue;
+		
+		private void add(final BigDecimal orderFee) {
+			this.orderCount++;
+			this.revenue = this.revenue.add(orderFee);
+		}
+		
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
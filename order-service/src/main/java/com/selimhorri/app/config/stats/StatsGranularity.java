@@ -0,0 +1,23 @@
+package com.selimhorri.app.config.stats;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+@Getter
+public enum StatsGranularity {
+	
+	HOUR("order_stats_hourly", ChronoUnit.HOURS),
+	DAY("order_stats_daily", ChronoUnit.DAYS);
+	
+	private final String table;
+	private final ChronoUnit unit;
+	
+	public LocalDateTime bucketOf(final LocalDateTime dateTime) {
+		return dateTime.truncatedTo(this.unit);
+	}
+	
+}
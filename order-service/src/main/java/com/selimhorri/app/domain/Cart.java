@@ -20,12 +20,14 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @Entity
 @Table(name = "carts")
 @NoArgsConstructor
 @AllArgsConstructor
 @EqualsAndHashCode(callSuper = true, exclude = {"orders"})
+@ToString(exclude = {"orders"})
 @Data
 @Builder
 public final class Cart extends AbstractMappedEntity implements Serializable {
@@ -0,0 +1,41 @@
+package com.selimhorri.app.dto.response.collection;
+
+import java.util.Collection;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.selimhorri.app.dto.OrderDto;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * A page of a user's order history, newest first. {@code nextBefore} is absent on the last page.
+ */
+@NoArgsConstructor
+@Data
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class OrderPageResponse extends DtoCollectionResponse<OrderDto> {
+	
+	@JsonInclude(Include.NON_NULL)
+	private String nextBefore;
+	
+	public OrderPageResponse(final Collection<OrderDto> collection, final String nextBefore) {
+		super(collection);
+		this.nextBefore = nextBefore;
+	}
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,35 @@
+package com.selimhorri.app.exception.wrapper;
+
+public class ArchivedOrderException extends RuntimeException {
+	
+	private static final long serialVersionUID = 1L;
+	
+	public ArchivedOrderException() {
+		super();
+	}
+	
+	public ArchivedOrderException(String message, Throwable cause) {
+		super(message, cause);
+	}
+	
+	public ArchivedOrderException(String message) {
+		super(message);
+	}
+	
+	public ArchivedOrderException(Throwable cause) {
+		super(cause);
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
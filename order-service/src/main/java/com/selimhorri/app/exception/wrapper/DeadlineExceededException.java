@@ -0,0 +1,25 @@
+package com.selimhorri.app.exception.wrapper;
+
+public class DeadlineExceededException extends RuntimeException {
+	
+	private static final long serialVersionUID = 1L;
+	
+	public DeadlineExceededException() {
+		super();
+	}
+	
+	public DeadlineExceededException(String message, Throwable cause) {
+		super(message, cause);
+	}
+	
+	public DeadlineExceededException(String message) {
+		super(message);
+	}
+	
+	public DeadlineExceededException(Throwable cause) {
+		super(cause);
+	}
+	
+	
+	
+}
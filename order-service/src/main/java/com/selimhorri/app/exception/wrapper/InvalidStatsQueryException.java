@@ -0,0 +1,35 @@
+package com.selimhorri.app.exception.wrapper;
+
+public class InvalidStatsQueryException extends RuntimeException {
+	
+	private static final long serialVersionUID = 1L;
+	
+	public InvalidStatsQueryException() {
+		super();
+	}
+	
+	public InvalidStatsQueryException(String message, Throwable cause) {
+		super(message, cause);
+	}
+	
+	public InvalidStatsQueryException(String message) {
+		super(message);
+	}
+	
+	public InvalidStatsQueryException(Throwable cause) {
+		super(cause);
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
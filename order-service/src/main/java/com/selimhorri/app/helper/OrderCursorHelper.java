@@ -0,0 +1,47 @@
+package com.selimhorri.app.helper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import com.selimhorri.app.domain.Order;
+import com.selimhorri.app.exception.wrapper.InvalidCursorException;
+
+/**
+ * Opaque keyset cursors for order history: the date and id of the last order of a page, base64url encoded.
+ */
+public interface OrderCursorHelper {
+	
+	public static String encode(final Order order) {
+		final String key = order.getOrderDate() + "|" + order.getOrderId();
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	/**
+	 * Returns {@code [orderDate, orderId]}.
+	 */
+	public static Object[] decode(final String cursor) {
+		try {
+			final String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			final int separator = key.lastIndexOf('|');
+			return new Object[] { LocalDateTime.parse(key.substring(0, separator)), Integer.valueOf(key.substring(separator + 1)) };
+		}
+		catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeException e) {
+			throw new InvalidCursorException(String.format("Invalid cursor: %s", cursor), e);
+		}
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
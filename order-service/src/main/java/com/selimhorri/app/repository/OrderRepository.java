@@ -1,11 +1,31 @@
 package com.selimhorri.app.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.selimhorri.app.domain.Order;
 
 public interface OrderRepository extends JpaRepository<Order, Integer> {
 	
+	@Query("SELECT o FROM Order o JOIN FETCH o.cart WHERE o.orderId IN :orderIds")
+	List<Order> findAllByIds(@Param("orderIds") final Collection<Integer> orderIds);
+	
+	@Query("SELECT o FROM Order o JOIN FETCH o.cart c WHERE c.userId = :userId "
+			+ "ORDER BY o.orderDate DESC, o.orderId DESC")
+	List<Order> findHistory(@Param("userId") final Integer userId, final Pageable pageable);
+	
+	@Query("SELECT o FROM Order o JOIN FETCH o.cart c WHERE c.userId = :userId "
+			+ "AND (o.orderDate < :orderDate OR (o.orderDate = :orderDate AND o.orderId < :orderId)) "
+			+ "ORDER BY o.orderDate DESC, o.orderId DESC")
+	List<Order> findHistoryBefore(@Param("userId") final Integer userId, @Param("orderDate") final LocalDateTime orderDate,
+			@Param("orderId") final Integer orderId, final Pageable pageable);
+	
 	
 	
 }
@@ -1,5 +1,7 @@
 package com.selimhorri.app.resource;
 
+import java.time.Instant;
+
 import javax.validation.Valid;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
@@ -12,11 +14,16 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.selimhorri.app.domain.Cart;
 import com.selimhorri.app.dto.CartDto;
+import com.selimhorri.app.dto.response.collection.ChangeFeedResponse;
 import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+import com.selimhorri.app.helper.CartMappingHelper;
 import com.selimhorri.app.service.CartService;
+import com.selimhorri.app.service.ChangeFeedService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -28,6 +35,7 @@ import lombok.extern.slf4j.Slf4j;
 public class CartResource {
 	
 	private final CartService cartService;
+	private final ChangeFeedService changeFeedService;
 	
 	@GetMapping
 	public ResponseEntity<DtoCollectionResponse<CartDto>> findAll() {
@@ -35,6 +43,15 @@ public class CartResource {
 		return ResponseEntity.ok(new DtoCollectionResponse<>(this.cartService.findAll()));
 	}
 	
+	@GetMapping("/changes")
+	public ResponseEntity<ChangeFeedResponse<CartDto>> findChanges(
+			@RequestParam(name = "since", required = false) final Instant since,
+			@RequestParam(name = "cursor", required = false) final String cursor,
+			@RequestParam(name = "limit", required = false) final Integer limit) {
+		log.info("*** ChangeFeedResponse, resource; fetch cart changes *");
+		return ResponseEntity.ok(this.changeFeedService.findChanges(Cart.class, CartMappingHelper::map, since, cursor, limit));
+	}
+	
 	@GetMapping("/{cartId}")
 	public ResponseEntity<CartDto> findById(
 			@PathVariable("cartId") 
@@ -1,9 +1,14 @@
 package com.selimhorri.app.resource;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
 import javax.validation.Valid;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,11 +17,20 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.selimhorri.app.constant.AppConstant;
+import com.selimhorri.app.domain.Order;
 import com.selimhorri.app.dto.OrderDto;
+import com.selimhorri.app.dto.OrderStatsDto;
+import com.selimhorri.app.dto.response.collection.ChangeFeedResponse;
 import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+import com.selimhorri.app.dto.response.collection.OrderPageResponse;
+import com.selimhorri.app.helper.OrderMappingHelper;
+import com.selimhorri.app.service.ChangeFeedService;
 import com.selimhorri.app.service.OrderService;
+import com.selimhorri.app.service.OrderStatsService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -28,6 +42,8 @@ import lombok.extern.slf4j.Slf4j;
 public class OrderResource {
 	
 	private final OrderService orderService;
+	private final ChangeFeedService changeFeedService;
+	private final OrderStatsService orderStatsService;
 	
 	@GetMapping
 	public ResponseEntity<DtoCollectionResponse<OrderDto>> findAll() {
@@ -35,6 +51,26 @@ public class OrderResource {
 		return ResponseEntity.ok(new DtoCollectionResponse<>(this.orderService.findAll()));
 	}
 	
+	@GetMapping("/changes")
+	public ResponseEntity<ChangeFeedResponse<OrderDto>> findChanges(
+			@RequestParam(name = "since", required = false) final Instant since,
+			@RequestParam(name = "cursor", required = false) final String cursor,
+			@RequestParam(name = "limit", required = false) final Integer limit) {
+		log.info("*** ChangeFeedResponse, resource; fetch order changes *");
+		return ResponseEntity.ok(this.changeFeedService.findChanges(Order.class, OrderMappingHelper::map, since, cursor, limit));
+	}
+	
+	@GetMapping("/stats")
+	public ResponseEntity<DtoCollectionResponse<OrderStatsDto>> findStats(
+			@RequestParam(name = "from") 
+			@DateTimeFormat(pattern = AppConstant.LOCAL_DATE_TIME_FORMAT) final LocalDateTime from,
+			@RequestParam(name = "to") 
+			@DateTimeFormat(pattern = AppConstant.LOCAL_DATE_TIME_FORMAT) final LocalDateTime to,
+			@RequestParam(name = "granularity", required = false) final String granularity) {
+		log.info("*** OrderStatsDto List, resource; fetch order stats *");
+		return ResponseEntity.ok(new DtoCollectionResponse<>(this.orderStatsService.findStats(from, to, granularity)));
+	}
+	
 	@GetMapping("/{orderId}")
 	public ResponseEntity<OrderDto> findById(
 			@PathVariable("orderId") 
@@ -44,6 +80,26 @@ public class OrderResource {
 		return ResponseEntity.ok(this.orderService.findById(Integer.parseInt(orderId)));
 	}
 	
+	@PostMapping("/batch")
+	public ResponseEntity<DtoCollectionResponse<OrderDto>> findAllByIds(
+			@RequestBody 
+			@NotNull(message = "Input must not be NULL") 
+			@Valid final List<Integer> orderIds) {
+		log.info("*** OrderDto List, resource; fetch orders by ids *");
+		return ResponseEntity.ok(new DtoCollectionResponse<>(this.orderService.findAllByIds(orderIds)));
+	}
+	
+	@GetMapping("/user/{userId}")
+	public ResponseEntity<OrderPageResponse> findAllByUserId(
+			@PathVariable("userId") 
+			@NotBlank(message = "Input must not be blank") 
+			@Valid final String userId,
+			@RequestParam(name = "before", required = false) final String before,
+			@RequestParam(name = "limit", required = false) final Integer limit) {
+		log.info("*** OrderPageResponse, resource; fetch orders by user id *");
+		return ResponseEntity.ok(this.orderService.findAllByUserId(Integer.parseInt(userId), before, limit));
+	}
+	
 	@PostMapping
 	public ResponseEntity<OrderDto> save(
 			@RequestBody 
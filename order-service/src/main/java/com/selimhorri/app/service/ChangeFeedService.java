@@ -0,0 +1,14 @@
+package com.selimhorri.app.service;
+
+import java.time.Instant;
+import java.util.function.Function;
+
+import com.selimhorri.app.domain.AbstractMappedEntity;
+import com.selimhorri.app.dto.response.collection.ChangeFeedResponse;
+
+public interface ChangeFeedService {
+	
+	<E extends AbstractMappedEntity, D> ChangeFeedResponse<D> findChanges(final Class<E> entityClass,
+			final Function<E, D> mapper, final Instant since, final String cursor, final Integer limit);
+	
+}
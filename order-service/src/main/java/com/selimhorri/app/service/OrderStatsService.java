@@ -0,0 +1,12 @@
+package com.selimhorri.app.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.selimhorri.app.dto.OrderStatsDto;
+
+public interface OrderStatsService {
+	
+	List<OrderStatsDto> findStats(final LocalDateTime from, final LocalDateTime to, final String granularity);
+	
+}
@@ -3,10 +3,9 @@ package com.selimhorri.app.service.impl;
 import java.util.List;
 import java.util.stream.Collectors;
 
-import javax.transaction.Transactional;
-
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.selimhorri.app.constant.AppConstant;
 import com.selimhorri.app.dto.CartDto;
@@ -29,6 +28,7 @@ public class CartServiceImpl implements CartService {
 	private final RestTemplate restTemplate;
 	
 	@Override
+	@Transactional(readOnly = true)
 	public List<CartDto> findAll() {
 		log.info("*** CartDto List, service; fetch all carts *");
 		return this.cartRepository.findAll()
@@ -44,6 +44,7 @@ public class CartServiceImpl implements CartService {
 	}
 	
 	@Override
+	@Transactional(readOnly = true)
 	public CartDto findById(final Integer cartId) {
 		log.info("*** CartDto, service; fetch cart by id *");
 		return this.cartRepository.findById(cartId)
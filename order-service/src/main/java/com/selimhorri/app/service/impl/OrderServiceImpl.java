@@ -1,14 +1,27 @@
 package com.selimhorri.app.service.impl;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
-import javax.transaction.Transactional;
-
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.selimhorri.app.config.archive.OrderArchiver;
+import com.selimhorri.app.config.stats.OrderStatsRollup;
+import com.selimhorri.app.config.stats.OrderStatsRollup.Figures;
+import com.selimhorri.app.domain.Order;
 import com.selimhorri.app.dto.OrderDto;
+import com.selimhorri.app.dto.response.collection.OrderPageResponse;
+import com.selimhorri.app.exception.wrapper.ArchivedOrderException;
+import com.selimhorri.app.exception.wrapper.BatchSizeExceededException;
 import com.selimhorri.app.exception.wrapper.OrderNotFoundException;
+import com.selimhorri.app.helper.OrderCursorHelper;
 import com.selimhorri.app.helper.OrderMappingHelper;
 import com.selimhorri.app.repository.OrderRepository;
 import com.selimhorri.app.service.OrderService;
@@ -22,9 +35,16 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class OrderServiceImpl implements OrderService {
 	
+	private static final int DEFAULT_PAGE_SIZE = 20;
+	private static final int MAX_PAGE_SIZE = 100;
+	private static final int MAX_BATCH_SIZE = 1000;
+	
 	private final OrderRepository orderRepository;
+	private final OrderArchiver orderArchiver;
+	private final OrderStatsRollup orderStatsRollup;
 	
 	@Override
+	@Transactional(readOnly = true)
 	public List<OrderDto> findAll() {
 		log.info("*** OrderDto List, service; fetch all orders *");
 		return this.orderRepository.findAll()
@@ -35,39 +55,131 @@ public class OrderServiceImpl implements OrderService {
 	}
 	
 	@Override
+	@Transactional(readOnly = true)
 	public OrderDto findById(final Integer orderId) {
 		log.info("*** OrderDto, service; fetch order by id *");
 		return this.orderRepository.findById(orderId)
+				.or(() -> this.orderArchiver.findArchived(orderId))
 				.map(OrderMappingHelper::map)
 				.orElseThrow(() -> new OrderNotFoundException(String
 						.format("Order with id: %d not found", orderId)));
 	}
 	
+	/**
+	 * Resolves live orders with their carts in one query and looks the remaining ids up in the archive;
+	 * unknown ids are left out. More than {@value #MAX_BATCH_SIZE} distinct ids are rejected rather than sent
+	 * to the database as one {@code IN} list.
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<OrderDto> findAllByIds(final Collection<Integer> orderIds) {
+		log.info("*** OrderDto List, service; fetch orders by ids *");
+		final Set<Integer> distinctIds = new LinkedHashSet<>(orderIds);
+		distinctIds.remove(null);
+		if (distinctIds.size() > MAX_BATCH_SIZE)
+			throw new BatchSizeExceededException(String.format("At most %d order ids can be fetched at once, got %d", 
+					MAX_BATCH_SIZE, distinctIds.size()));
+		if (distinctIds.isEmpty())
+			return List.of();
+		
+		final List<Order> orders = new ArrayList<>(this.orderRepository.findAllByIds(distinctIds));
+		orders.forEach(order -> distinctIds.remove(order.getOrderId()));
+		orders.addAll(this.orderArchiver.findArchived(distinctIds));
+		return orders.stream()
+					.map(OrderMappingHelper::map)
+					.collect(Collectors.toUnmodifiableList());
+	}
+	
+	/**
+	 * Keyset page of a user's orders, newest first, fetched one row past the limit to know whether another
+	 * page exists. The user's carts are found by {@code user_id} and their orders walked by
+	 * {@code (cart_id, order_date, order_id)}, so the cost follows the page size rather than the history size.
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public OrderPageResponse findAllByUserId(final Integer userId, final String before, final Integer limit) {
+		log.info("*** OrderPageResponse, service; fetch orders by user id *");
+		
+		final int size = limit == null 
+				? DEFAULT_PAGE_SIZE 
+				: Math.max(1, Math.min(MAX_PAGE_SIZE, limit));
+		final PageRequest pageRequest = PageRequest.of(0, size + 1);
+		
+		final List<Order> orders;
+		if (before == null) {
+			orders = this.orderRepository.findHistory(userId, pageRequest);
+		}
+		else {
+			final Object[] key = OrderCursorHelper.decode(before);
+			orders = this.orderRepository.findHistoryBefore(userId, (LocalDateTime) key[0], (Integer) key[1], pageRequest);
+		}
+		
+		final String nextBefore = orders.size() > size 
+				? OrderCursorHelper.encode(orders.get(size - 1)) 
+				: null;
+		return new OrderPageResponse(orders.stream()
+					.limit(size)
+					.map(OrderMappingHelper::map)
+					.collect(Collectors.toUnmodifiableList()), nextBefore);
+	}
+	
 	@Override
 	public OrderDto save(final OrderDto orderDto) {
 		log.info("*** OrderDto, service; save order *");
-		return OrderMappingHelper.map(this.orderRepository
-				.save(OrderMappingHelper.map(orderDto)));
+		return OrderMappingHelper.map(this.saveAndRollUp(OrderMappingHelper.map(orderDto)));
 	}
 	
 	@Override
 	public OrderDto update(final OrderDto orderDto) {
 		log.info("*** OrderDto, service; update order *");
-		return OrderMappingHelper.map(this.orderRepository
-				.save(OrderMappingHelper.map(orderDto)));
+		this.checkNotArchived(orderDto.getOrderId());
+		return OrderMappingHelper.map(this.saveAndRollUp(OrderMappingHelper.map(orderDto)));
 	}
 	
 	@Override
 	public OrderDto update(final Integer orderId, final OrderDto orderDto) {
 		log.info("*** OrderDto, service; update order with orderId *");
-		return OrderMappingHelper.map(this.orderRepository
-				.save(OrderMappingHelper.map(this.findById(orderId))));
+		return OrderMappingHelper.map(this.saveAndRollUp(this.findLive(orderId)));
 	}
 	
 	@Override
 	public void deleteById(final Integer orderId) {
 		log.info("*** Void, service; delete order by id *");
-		this.orderRepository.delete(OrderMappingHelper.map(this.findById(orderId)));
+		final Order order = this.findLive(orderId);
+		final Figures before = this.orderStatsRollup.before(orderId);
+		this.orderRepository.delete(order);
+		this.orderRepository.flush();
+		this.orderStatsRollup.changed(orderId, before);
+	}
+	
+	/**
+	 * Write paths only see live orders: archived ones are read-only, and merging one would insert it again as
+	 * a new live order.
+	 */
+	private Order findLive(final Integer orderId) {
+		return this.orderRepository.findById(orderId)
+				.orElseThrow(() -> this.orderArchiver.findArchived(orderId).isPresent()
+						? this.archived(orderId)
+						: new OrderNotFoundException(String.format("Order with id: %d not found", orderId)));
+	}
+	
+	private void checkNotArchived(final Integer orderId) {
+		if (orderId != null && !this.orderRepository.existsById(orderId) && this.orderArchiver.findArchived(orderId).isPresent())
+			throw this.archived(orderId);
+	}
+	
+	private ArchivedOrderException archived(final Integer orderId) {
+		return new ArchivedOrderException(String.format("Order with id: %d is archived and can no longer be changed", orderId));
+	}
+	
+	/**
+	 * Flushes the order so the sales rollups can be adjusted from its stored figures in the same transaction.
+	 */
+	private Order saveAndRollUp(final Order order) {
+		final Figures before = this.orderStatsRollup.before(order.getOrderId());
+		final Order saved = this.orderRepository.saveAndFlush(order);
+		this.orderStatsRollup.changed(saved.getOrderId(), before);
+		return saved;
 	}
 	
 	
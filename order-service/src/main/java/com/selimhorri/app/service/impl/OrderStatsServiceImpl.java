@@ -0,0 +1,83 @@
+package com.selimhorri.app.service.impl;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.selimhorri.app.config.stats.OrderStatsProperties;
+import com.selimhorri.app.config.stats.StatsGranularity;
+import com.selimhorri.app.dto.OrderStatsDto;
+import com.selimhorri.app.exception.wrapper.InvalidStatsQueryException;
+import com.selimhorri.app.service.OrderStatsService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Serves sales figures from the rollup tables only; buckets without orders are omitted.
+ */
+@Service
+@Transactional(readOnly = true)
+@Slf4j
+@RequiredArgsConstructor
+public class OrderStatsServiceImpl implements OrderStatsService {
+	
+	private final JdbcTemplate jdbcTemplate;
+	private final OrderStatsProperties orderStatsProperties;
+	
+	@Override
+	public List<OrderStatsDto> findStats(final LocalDateTime from, final LocalDateTime to, final String granularity) {
+		log.info("*** OrderStatsDto List, service; fetch order stats *");
+		
+		final StatsGranularity unit = this.granularity(granularity);
+		if (from == null || to == null || !from.isBefore(to))
+			throw new InvalidStatsQueryException("Stats need a from date before the to date");
+		final LocalDateTime start = unit.bucketOf(from);
+		if (unit.getUnit().between(start, to) >= this.orderStatsProperties.getMaxBuckets())
+			throw new InvalidStatsQueryException(String.format("Stats range spans more than %d %s buckets", 
+					this.orderStatsProperties.getMaxBuckets(), unit.name().toLowerCase()));
+		
+		return this.jdbcTemplate.query("SELECT bucket_start, order_count, revenue FROM " + unit.getTable() 
+				+ " WHERE bucket_start >= ? AND bucket_start < ? AND order_count > 0 ORDER BY bucket_start", 
+				(resultSet, rowNum) -> {
+					final long orderCount = resultSet.getLong("order_count");
+					final BigDecimal revenue = resultSet.getBigDecimal("revenue");
+					return OrderStatsDto.builder()
+							.bucketStart(resultSet.getTimestamp("bucket_start").toLocalDateTime())
+							.orderCount(orderCount)
+							.revenue(revenue.doubleValue())
+							.averageFee(revenue.divide(BigDecimal.valueOf(orderCount), 2, RoundingMode.HALF_UP).doubleValue())
+							.build();
+				}, Timestamp.valueOf(start), Timestamp.valueOf(to));
+	}
+	
+	private StatsGranularity granularity(final String granularity) {
+		if (granularity == null)
+			return StatsGranularity.DAY;
+		try {
+			return StatsGranularity.valueOf(granularity.trim().toUpperCase());
+		}
+		catch (IllegalArgumentException e) {
+			throw new InvalidStatsQueryException(String.format("Unknown granularity: %s", granularity), e);
+		}
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
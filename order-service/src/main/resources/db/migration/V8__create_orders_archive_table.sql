@@ -0,0 +1,14 @@
+
+CREATE TABLE orders_archive (
+	order_id INT(11) NOT NULL PRIMARY KEY,
+	cart_id INT(11),
+	order_date TIMESTAMP NOT NULL,
+	order_desc VARCHAR(255),
+	order_fee DECIMAL(7, 2),
+	created_at TIMESTAMP NOT NULL,
+	updated_at TIMESTAMP,
+	archived_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_orders_date ON orders (order_date, order_id);
+
@@ -0,0 +1,22 @@
+
+CREATE TABLE order_stats_hourly (
+	bucket_start TIMESTAMP NOT NULL PRIMARY KEY,
+	order_count BIGINT NOT NULL,
+	revenue DECIMAL(15, 2) NOT NULL
+);
+
+CREATE TABLE order_stats_daily (
+	bucket_start TIMESTAMP NOT NULL PRIMARY KEY,
+	order_count BIGINT NOT NULL,
+	revenue DECIMAL(15, 2) NOT NULL
+);
+
+CREATE TABLE order_stats_backfill (
+	backfill_id INT(11) NOT NULL PRIMARY KEY,
+	watermark INT(11),
+	cursor_order_id INT(11) NOT NULL,
+	completed BOOLEAN NOT NULL
+);
+
+INSERT INTO order_stats_backfill (backfill_id, watermark, cursor_order_id, completed) VALUES (1, NULL, 0, false);
+
@@ -0,0 +1,18 @@
+
+-- Opt-in: only applied when classpath:db/partitioning/{vendor} is added to spring.flyway.locations.
+-- MySQL requires the partitioning column in every unique key and does not allow foreign keys on
+-- partitioned tables, so the cart reference is enforced by the application from here on.
+-- New years are split off pmax with ALTER TABLE orders REORGANIZE PARTITION pmax INTO (...).
+
+ALTER TABLE orders DROP FOREIGN KEY fk5_assign;
+
+ALTER TABLE orders DROP PRIMARY KEY, ADD PRIMARY KEY (order_id, order_date);
+
+ALTER TABLE orders PARTITION BY RANGE (UNIX_TIMESTAMP(order_date)) (
+	PARTITION p2023 VALUES LESS THAN (UNIX_TIMESTAMP('2024-01-01 00:00:00')),
+	PARTITION p2024 VALUES LESS THAN (UNIX_TIMESTAMP('2025-01-01 00:00:00')),
+	PARTITION p2025 VALUES LESS THAN (UNIX_TIMESTAMP('2026-01-01 00:00:00')),
+	PARTITION p2026 VALUES LESS THAN (UNIX_TIMESTAMP('2027-01-01 00:00:00')),
+	PARTITION pmax VALUES LESS THAN MAXVALUE
+);
+
@@ -0,0 +1,131 @@
+package com.selimhorri.app.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import com.selimhorri.app.config.archive.ArchiveConfig;
+import com.selimhorri.app.config.stats.OrderStatsConfig;
+import com.selimhorri.app.config.archive.OrderArchiver;
+import com.selimhorri.app.domain.Cart;
+import com.selimhorri.app.domain.Order;
+import com.selimhorri.app.dto.OrderDto;
+import com.selimhorri.app.exception.wrapper.ArchivedOrderException;
+import com.selimhorri.app.exception.wrapper.OrderNotFoundException;
+import com.selimhorri.app.repository.CartRepository;
+import com.selimhorri.app.repository.OrderRepository;
+import com.selimhorri.app.service.OrderService;
+import com.selimhorri.app.service.impl.OrderServiceImpl;
+
+@DataJpaTest
+@TestPropertySource(properties = { "app.archive.min-age=30d", "app.archive.batch-size=3", "app.archive.max-batches-per-run=2" })
+@Import({ OrderServiceImpl.class, ArchiveConfig.class, OrderStatsConfig.class })
+class OrderArchiveTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderArchiver orderArchiver;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final List<Integer> coldOrderIds = new ArrayList<>();
+    private Integer hotOrderId;
+
+    @BeforeEach
+    void setup() {
+        final Cart cart = cartRepository.save(Cart.builder().userId(7).build());
+        for (int i = 0; i < 8; i++)
+            coldOrderIds.add(orderRepository.save(order(cart, LocalDateTime.now().minusDays(60 + i))).getOrderId());
+        hotOrderId = orderRepository.save(order(cart, LocalDateTime.now().minusDays(1))).getOrderId();
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void givenColdOrders_whenArchived_thenPassesAreBoundedAndOnlyColdOrdersMove() {
+        assertEquals(6, orderArchiver.archive());
+        assertEquals(2, orderArchiver.archive());
+        assertEquals(0, orderArchiver.archive());
+
+        entityManager.clear();
+        coldOrderIds.forEach(orderId -> assertFalse(orderRepository.existsById(orderId)));
+        assertEquals(hotOrderId, orderService.findById(hotOrderId).getOrderId());
+    }
+
+    @Test
+    void givenArchivedOrder_whenFindById_thenItIsReadFromTheArchive() {
+        orderArchiver.archive();
+        entityManager.clear();
+
+        final OrderDto orderDto = orderService.findById(coldOrderIds.get(0));
+        assertEquals("cold", orderDto.getOrderDesc());
+        assertEquals(12.5, orderDto.getOrderFee());
+        assertEquals(LocalDateTime.now().minusDays(60).toLocalDate(), orderDto.getOrderDate().toLocalDate());
+        assertThrows(OrderNotFoundException.class, () -> orderService.findById(-1));
+    }
+
+    @Test
+    void givenLiveArchivedAndUnknownIds_whenFindAllByIds_thenKnownOrdersAreReturnedOnce() {
+        orderArchiver.archive();
+        entityManager.clear();
+        final Integer archivedOrderId = coldOrderIds.get(coldOrderIds.size() - 1);
+
+        final Map<Integer, String> orderDescs = orderService.findAllByIds(
+                        List.of(hotOrderId, archivedOrderId, archivedOrderId, -1)).stream()
+                .collect(Collectors.toMap(OrderDto::getOrderId, OrderDto::getOrderDesc));
+
+        assertEquals(Map.of(hotOrderId, "hot", archivedOrderId, "cold"), orderDescs);
+    }
+
+    @Test
+    void givenArchivedOrder_whenWritten_thenItIsRejectedAndNotRevived() {
+        orderArchiver.archive();
+        entityManager.clear();
+        final Integer archivedOrderId = coldOrderIds.get(coldOrderIds.size() - 1);
+        final OrderDto archived = orderService.findById(archivedOrderId);
+        final long liveOrders = orderRepository.count();
+
+        assertThrows(ArchivedOrderException.class, () -> orderService.update(archivedOrderId, archived));
+        assertThrows(ArchivedOrderException.class, () -> orderService.update(archived));
+        assertThrows(ArchivedOrderException.class, () -> orderService.deleteById(archivedOrderId));
+        assertThrows(OrderNotFoundException.class, () -> orderService.deleteById(-1));
+
+        entityManager.flush();
+        assertEquals(liveOrders, orderRepository.count());
+        assertEquals("cold", orderService.findById(archivedOrderId).getOrderDesc());
+    }
+
+    private Order order(final Cart cart, final LocalDateTime orderDate) {
+        return Order.builder()
+                .orderDate(orderDate)
+                .orderDesc(orderDate.isBefore(LocalDateTime.now().minusDays(30)) ? "cold" : "hot")
+                .orderFee(12.5)
+                .cart(cart)
+                .build();
+    }
+
+}
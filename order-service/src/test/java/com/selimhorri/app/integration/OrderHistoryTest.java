@@ -0,0 +1,107 @@
+package com.selimhorri.app.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import com.selimhorri.app.config.archive.ArchiveConfig;
+import com.selimhorri.app.config.stats.OrderStatsConfig;
+import com.selimhorri.app.domain.Cart;
+import com.selimhorri.app.domain.Order;
+import com.selimhorri.app.dto.OrderDto;
+import com.selimhorri.app.dto.response.collection.OrderPageResponse;
+import com.selimhorri.app.exception.wrapper.InvalidCursorException;
+import com.selimhorri.app.repository.CartRepository;
+import com.selimhorri.app.repository.OrderRepository;
+import com.selimhorri.app.service.OrderService;
+import com.selimhorri.app.service.impl.OrderServiceImpl;
+
+@DataJpaTest
+@Import({ OrderServiceImpl.class, ArchiveConfig.class, OrderStatsConfig.class })
+class OrderHistoryTest {
+
+    private static final int USER_ID = 4242;
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setup() {
+        final Cart first = cartRepository.save(Cart.builder().userId(USER_ID).build());
+        final Cart second = cartRepository.save(Cart.builder().userId(USER_ID).build());
+        final Cart other = cartRepository.save(Cart.builder().userId(USER_ID + 1).build());
+        for (int i = 0; i < 12; i++) {
+            // pairs of orders share a date so the id breaks ties across page boundaries
+            orderRepository.save(order(i % 2 == 0 ? first : second, START.plusDays(i / 2)));
+            orderRepository.save(order(other, START.plusDays(i)));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void givenCursor_whenFindAllByUserId_thenEveryOrderIsReturnedOnceNewestFirst() {
+        final List<OrderDto> seen = new ArrayList<>();
+        String before = null;
+        do {
+            final OrderPageResponse page = orderService.findAllByUserId(USER_ID, before, 5);
+            seen.addAll(page.getCollection());
+            before = page.getNextBefore();
+        }
+        while (before != null);
+
+        assertEquals(12, seen.size());
+        assertEquals(seen.size(), seen.stream().map(OrderDto::getOrderId).distinct().count());
+        assertEquals(seen.stream()
+                        .sorted(Comparator.comparing(OrderDto::getOrderDate).thenComparing(OrderDto::getOrderId).reversed())
+                        .collect(Collectors.toList()), seen);
+    }
+
+    @Test
+    void givenUnknownUser_whenFindAllByUserId_thenPageIsEmpty() {
+        final OrderPageResponse page = orderService.findAllByUserId(-1, null, null);
+
+        assertEquals(0, page.getCollection().size());
+        assertNull(page.getNextBefore());
+    }
+
+    @Test
+    void givenMalformedCursor_whenFindAllByUserId_thenCursorIsRejected() {
+        assertThrows(InvalidCursorException.class, () -> orderService.findAllByUserId(USER_ID, "%%", null));
+        assertThrows(InvalidCursorException.class, () -> orderService.findAllByUserId(USER_ID, "bm90LWEtY3Vyc29y", null));
+    }
+
+    private Order order(final Cart cart, final LocalDateTime orderDate) {
+        return Order.builder()
+                .orderDate(orderDate)
+                .orderDesc("history")
+                .orderFee(10.0)
+                .cart(cart)
+                .build();
+    }
+
+}
@@ -0,0 +1,108 @@
+package com.selimhorri.app.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import com.selimhorri.app.config.archive.ArchiveConfig;
+import com.selimhorri.app.config.stats.OrderStatsConfig;
+import com.selimhorri.app.config.stats.OrderStatsRollup;
+import com.selimhorri.app.dto.CartDto;
+import com.selimhorri.app.dto.OrderDto;
+import com.selimhorri.app.dto.OrderStatsDto;
+import com.selimhorri.app.exception.wrapper.InvalidStatsQueryException;
+import com.selimhorri.app.service.OrderService;
+import com.selimhorri.app.service.OrderStatsService;
+import com.selimhorri.app.service.impl.OrderServiceImpl;
+import com.selimhorri.app.service.impl.OrderStatsServiceImpl;
+
+@DataJpaTest
+@TestPropertySource(properties = { "app.order-stats.backfill-enabled=false", "app.order-stats.backfill-chunk-size=3" })
+@Import({ OrderServiceImpl.class, OrderStatsServiceImpl.class, ArchiveConfig.class, OrderStatsConfig.class })
+class OrderStatsTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 3, 1, 0, 0);
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderStatsService orderStatsService;
+
+    @Autowired
+    private OrderStatsRollup orderStatsRollup;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void givenWritesAroundBackfill_whenStatsAreRead_thenTheyFollowTheStoredOrders() {
+        // the seeded orders sit below the backfill watermark, so this update is left to the backfill
+        final OrderDto seeded = orderService.findById(jdbcTemplate.queryForObject("SELECT MIN(order_id) FROM orders", Integer.class));
+        seeded.setOrderFee(100.0);
+        seeded.setOrderDate(DAY.plusMinutes(615));
+        orderService.update(seeded);
+        final OrderDto placed = orderService.save(order(DAY.plusMinutes(645), 40.0));
+
+        orderStatsRollup.backfill();
+
+        assertStats(List.of(stats(DAY.plusHours(10), 2, 140.0, 70.0)), DAY, DAY.plusDays(1), "hour");
+        assertStats(List.of(stats(DAY, 2, 140.0, 70.0)), DAY, DAY.plusDays(1), "day");
+        final LocalDateTime today = LocalDate.now().atStartOfDay();
+        assertStats(List.of(stats(today, 3, 15000.0, 5000.0)), today, today.plusDays(1), null);
+
+        placed.setOrderFee(60.0);
+        placed.setOrderDate(DAY.plusMinutes(665));
+        orderService.update(placed);
+
+        assertStats(List.of(stats(DAY.plusHours(10), 1, 100.0, 100.0), stats(DAY.plusHours(11), 1, 60.0, 60.0)),
+                DAY, DAY.plusDays(1), "HOUR");
+
+        orderService.deleteById(seeded.getOrderId());
+
+        assertStats(List.of(stats(DAY.plusHours(11), 1, 60.0, 60.0)), DAY, DAY.plusDays(1), "hour");
+        assertStats(List.of(stats(DAY, 1, 60.0, 60.0)), DAY.minusDays(3), DAY.plusDays(3), "day");
+    }
+
+    @Test
+    void givenBadQuery_whenFindStats_thenItIsRejected() {
+        assertThrows(InvalidStatsQueryException.class, () -> orderStatsService.findStats(DAY, DAY.plusDays(1), "week"));
+        assertThrows(InvalidStatsQueryException.class, () -> orderStatsService.findStats(DAY, DAY, "day"));
+        assertThrows(InvalidStatsQueryException.class, () -> orderStatsService.findStats(DAY, DAY.plusYears(1), "hour"));
+    }
+
+    private void assertStats(final List<OrderStatsDto> expected, final LocalDateTime from, final LocalDateTime to,
+            final String granularity) {
+        assertEquals(expected, orderStatsService.findStats(from, to, granularity));
+    }
+
+    private OrderStatsDto stats(final LocalDateTime bucketStart, final long orderCount, final double revenue,
+            final double averageFee) {
+        return OrderStatsDto.builder()
+                .bucketStart(bucketStart)
+                .orderCount(orderCount)
+                .revenue(revenue)
+                .averageFee(averageFee)
+                .build();
+    }
+
+    private OrderDto order(final LocalDateTime orderDate, final Double orderFee) {
+        return OrderDto.builder()
+                .orderDate(orderDate)
+                .orderDesc("stats")
+                .orderFee(orderFee)
+                .cartDto(CartDto.builder().cartId(1).build())
+                .build();
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.selimhorri.app.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.ResourceAccessException;
+
+import com.selimhorri.app.exception.ApiExceptionHandler;
+
+class ApiExceptionHandlerTest {
+
+    private final ApiExceptionHandler apiExceptionHandler = new ApiExceptionHandler();
+
+    @Test
+    void givenOutboundCallTimedOut_whenHandled_thenGatewayTimeout() {
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, apiExceptionHandler.handleResourceAccessException(
+                new ResourceAccessException("I/O error", new SocketTimeoutException("Read timed out"))).getStatusCode());
+    }
+
+    @Test
+    void givenOutboundCallRefused_whenHandled_thenServiceUnavailable() {
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, apiExceptionHandler.handleResourceAccessException(
+                new ResourceAccessException("I/O error", new ConnectException("Connection refused"))).getStatusCode());
+    }
+
+}
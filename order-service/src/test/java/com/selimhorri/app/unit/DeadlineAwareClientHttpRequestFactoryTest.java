@@ -0,0 +1,65 @@
+package com.selimhorri.app.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+
+import com.selimhorri.app.config.deadline.DeadlineAwareClientHttpRequestFactory;
+import com.selimhorri.app.config.deadline.DeadlineContext;
+import com.selimhorri.app.exception.wrapper.DeadlineExceededException;
+
+/**
+ * Opens (but never connects) RestTemplate connections and checks the timeouts they were given.
+ */
+class DeadlineAwareClientHttpRequestFactoryTest {
+
+    private static final URI URL = URI.create("http://localhost:1/payment-service/api/payments");
+
+    private HttpURLConnection connection;
+    private final DeadlineAwareClientHttpRequestFactory requestFactory = new DeadlineAwareClientHttpRequestFactory(5_000, 10_000) {
+        @Override
+        protected void prepareConnection(final HttpURLConnection connection, final String httpMethod) throws IOException {
+            super.prepareConnection(connection, httpMethod);
+            DeadlineAwareClientHttpRequestFactoryTest.this.connection = connection;
+        }
+    };
+
+    @AfterEach
+    void tearDown() {
+        DeadlineContext.clear();
+    }
+
+    @Test
+    void givenNoDeadline_whenRequestCreated_thenConfiguredTimeoutsApply() throws Exception {
+        requestFactory.createRequest(URL, HttpMethod.GET);
+
+        assertEquals(5_000, connection.getConnectTimeout());
+        assertEquals(10_000, connection.getReadTimeout());
+    }
+
+    @Test
+    void givenShortDeadline_whenRequestCreated_thenTimeoutsShrinkToTheRemainingBudget() throws Exception {
+        DeadlineContext.setRemainingMillis(300);
+
+        requestFactory.createRequest(URL, HttpMethod.GET);
+
+        assertTrue(connection.getConnectTimeout() > 0 && connection.getConnectTimeout() <= 300);
+        assertTrue(connection.getReadTimeout() > 0 && connection.getReadTimeout() <= 300);
+    }
+
+    @Test
+    void givenSpentDeadline_whenRequestCreated_thenCallIsRefused() {
+        DeadlineContext.setRemainingMillis(0);
+
+        assertThrows(DeadlineExceededException.class, () -> requestFactory.createRequest(URL, HttpMethod.GET));
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.selimhorri.app.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import com.selimhorri.app.config.deadline.DeadlineAwareJpaTransactionManager;
+import com.selimhorri.app.config.deadline.DeadlineContext;
+import com.selimhorri.app.exception.wrapper.DeadlineExceededException;
+
+/**
+ * Begins transactions against a mocked entity manager and records the timeout handed to JPA.
+ */
+class DeadlineAwareJpaTransactionManagerTest {
+
+    private int appliedTimeout;
+    private DeadlineAwareJpaTransactionManager transactionManager;
+
+    @BeforeEach
+    void setup() {
+        final EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        final EntityManager entityManager = mock(EntityManager.class);
+        when(entityManagerFactory.createEntityManager()).thenReturn(entityManager);
+        when(entityManager.getTransaction()).thenReturn(mock(EntityTransaction.class));
+        transactionManager = new DeadlineAwareJpaTransactionManager() {
+            private static final long serialVersionUID = 1L;
+            @Override
+            protected int determineTimeout(final TransactionDefinition definition) {
+                appliedTimeout = super.determineTimeout(definition);
+                return appliedTimeout;
+            }
+        };
+        transactionManager.setEntityManagerFactory(entityManagerFactory);
+    }
+
+    @AfterEach
+    void tearDown() {
+        DeadlineContext.clear();
+    }
+
+    @Test
+    void givenNoDeadline_whenTransactionBegins_thenTimeoutIsLeftAlone() {
+        begin(new DefaultTransactionDefinition());
+
+        assertEquals(TransactionDefinition.TIMEOUT_DEFAULT, appliedTimeout);
+    }
+
+    @Test
+    void givenDeadline_whenTransactionBegins_thenTimeoutIsTheRemainingBudgetRoundedUp() {
+        DeadlineContext.setRemainingMillis(2_500);
+
+        begin(new DefaultTransactionDefinition());
+
+        assertEquals(3, appliedTimeout);
+    }
+
+    @Test
+    void givenShorterDeclaredTimeout_whenTransactionBegins_thenDeclaredTimeoutIsKept() {
+        DeadlineContext.setRemainingMillis(30_000);
+        final DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+        definition.setTimeout(5);
+
+        begin(definition);
+
+        assertEquals(5, appliedTimeout);
+    }
+
+    @Test
+    void givenSpentDeadline_whenTransactionBegins_thenItIsRefused() {
+        DeadlineContext.setRemainingMillis(0);
+
+        assertThrows(DeadlineExceededException.class, () -> transactionManager.getTransaction(new DefaultTransactionDefinition()));
+    }
+
+    private void begin(final TransactionDefinition definition) {
+        final TransactionStatus status = transactionManager.getTransaction(definition);
+        transactionManager.rollback(status);
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.selimhorri.app.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.servlet.FilterChain;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.selimhorri.app.config.deadline.DeadlineContext;
+import com.selimhorri.app.config.deadline.DeadlineFilter;
+
+class DeadlineFilterTest {
+
+    private final DeadlineFilter deadlineFilter = new DeadlineFilter();
+    private final AtomicReference<OptionalLong> seenBudget = new AtomicReference<>();
+    private final FilterChain chain = (request, response) -> seenBudget.set(DeadlineContext.remainingMillis());
+
+    @Test
+    void givenBudgetHeader_whenFiltered_thenBudgetIsSetForTheRequestAndClearedAfter() throws Exception {
+        final MockHttpServletResponse response = send("1500");
+
+        assertEquals(200, response.getStatus());
+        assertTrue(seenBudget.get().getAsLong() > 1000 && seenBudget.get().getAsLong() <= 1500);
+        assertTrue(DeadlineContext.remainingMillis().isEmpty());
+    }
+
+    @Test
+    void givenNoHeader_whenFiltered_thenRequestRunsWithoutBudget() throws Exception {
+        send(null);
+
+        assertTrue(seenBudget.get().isEmpty());
+    }
+
+    @Test
+    void givenSpentBudget_whenFiltered_thenRequestIsDroppedWith504() throws Exception {
+        final MockHttpServletResponse response = send("0");
+
+        assertEquals(504, response.getStatus());
+        assertNull(seenBudget.get());
+    }
+
+    @Test
+    void givenInvalidHeader_whenFiltered_thenRequestIsRejectedWith400() throws Exception {
+        final MockHttpServletResponse response = send("soon");
+
+        assertEquals(400, response.getStatus());
+        assertNull(seenBudget.get());
+    }
+
+    private MockHttpServletResponse send(final String budget) throws Exception {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders/1");
+        if (budget != null)
+            request.addHeader(DeadlineContext.DEADLINE_HEADER, budget);
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        deadlineFilter.doFilter(request, response, chain);
+        return response;
+    }
+
+}
@@ -0,0 +1,191 @@
+package com.selimhorri.app.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.selimhorri.app.config.idempotency.IdempotencyFilter;
+import com.selimhorri.app.config.idempotency.IdempotencyProperties;
+import com.selimhorri.app.config.idempotency.IdempotencyStore;
+
+/**
+ * Runs the filter against an in-memory key table and checks that retries replay the first response,
+ * concurrent duplicates wait for it instead of running twice, and server errors leave the key free.
+ */
+class IdempotencyFilterTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private IdempotencyProperties properties;
+    private IdempotencyStore idempotencyStore;
+    private IdempotencyFilter idempotencyFilter;
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @BeforeEach
+    void setup() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:idempotency-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbcTemplate.execute("CREATE TABLE idempotency_keys (idempotency_key VARCHAR(128) PRIMARY KEY, request_hash CHAR(64), "
+                + "owner CHAR(36), status VARCHAR(16), response_status INT, response_content_type VARCHAR(255), "
+                + "response_body BLOB, locked_until TIMESTAMP NULL, expires_at TIMESTAMP)");
+        properties = new IdempotencyProperties();
+        idempotencyStore = new IdempotencyStore(jdbcTemplate, properties);
+        idempotencyFilter = new IdempotencyFilter(idempotencyStore, properties);
+    }
+
+    @Test
+    void givenRetry_whenSameKeyAndBody_thenFirstResponseIsReplayed() throws Exception {
+        final MockHttpServletResponse first = send("key-1", "{\"orderFee\":10}", created(Duration.ZERO));
+        final MockHttpServletResponse retry = send("key-1", "{\"orderFee\":10}", created(Duration.ZERO));
+
+        assertEquals(1, executions.get());
+        assertEquals(201, retry.getStatus());
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+        assertEquals("application/json", retry.getContentType());
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    void givenReusedKey_whenBodyDiffers_thenRequestIsRejected() throws Exception {
+        send("key-2", "{\"orderFee\":10}", created(Duration.ZERO));
+        final MockHttpServletResponse reused = send("key-2", "{\"orderFee\":99}", created(Duration.ZERO));
+
+        assertEquals(1, executions.get());
+        assertEquals(422, reused.getStatus());
+    }
+
+    @Test
+    void givenReusedKey_whenQueryStringDiffers_thenRequestIsRejected() throws Exception {
+        send("key-8", "?expand=order", "{\"orderFee\":10}", created(Duration.ZERO));
+        final MockHttpServletResponse reused = send("key-8", "?expand=none", "{\"orderFee\":10}", created(Duration.ZERO));
+
+        assertEquals(1, executions.get());
+        assertEquals(422, reused.getStatus());
+    }
+
+    @Test
+    void givenServerError_whenRetried_thenRequestRunsAgain() throws Exception {
+        send("key-3", "{}", (request, response) -> {
+            executions.incrementAndGet();
+            ((HttpServletResponse) response).setStatus(503);
+        });
+        final MockHttpServletResponse retry = send("key-3", "{}", created(Duration.ZERO));
+
+        assertEquals(2, executions.get());
+        assertEquals(201, retry.getStatus());
+    }
+
+    @Test
+    void givenConcurrentDuplicates_whenFirstIsInFlight_thenOthersWaitAndReplay() throws Exception {
+        final int callers = 8;
+        final CountDownLatch ready = new CountDownLatch(callers);
+        final ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            final Future<?>[] results = new Future<?>[callers];
+            for (int i = 0; i < callers; i++)
+                results[i] = executor.submit(() -> {
+                    ready.countDown();
+                    ready.await();
+                    return send("key-4", "{\"orderFee\":10}", created(Duration.ofMillis(300)));
+                });
+            for (final Future<?> result : results) {
+                final MockHttpServletResponse response = (MockHttpServletResponse) result.get(10, TimeUnit.SECONDS);
+                assertEquals(201, response.getStatus());
+                assertEquals("{\"orderId\":1}", response.getContentAsString());
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void givenKeyReleasedBetweenClaimAndRead_whenWaiting_thenPollingBacksOffUntilTheWaitBound() throws Exception {
+        final AtomicInteger claims = new AtomicInteger();
+        properties.setMaxWait(Duration.ofMillis(200));
+        idempotencyFilter = new IdempotencyFilter(new IdempotencyStore(jdbcTemplate, properties) {
+            @Override
+            public Optional<String> claim(final String key, final String fingerprint) {
+                claims.incrementAndGet();
+                return Optional.empty();
+            }
+            @Override
+            public Optional<Entry> find(final String key) {
+                return Optional.empty();
+            }
+        }, properties);
+
+        final MockHttpServletResponse response = send("key-7", "{}", created(Duration.ZERO));
+
+        assertEquals(0, executions.get());
+        assertEquals(409, response.getStatus());
+        assertTrue(claims.get() < 20, "claimed " + claims.get() + " times");
+    }
+
+    @Test
+    void givenExpiredKeys_whenSwept_thenOnlyExpiredRowsAreDeleted() throws Exception {
+        send("key-5", "{}", created(Duration.ZERO));
+        send("key-6", "{}", created(Duration.ZERO));
+        jdbcTemplate.update("UPDATE idempotency_keys SET expires_at = DATEADD('HOUR', -1, LOCALTIMESTAMP) WHERE idempotency_key = 'key-5'");
+
+        properties.setSweepBatchSize(1);
+        assertEquals(1, idempotencyStore.sweep());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM idempotency_keys", Integer.class));
+    }
+
+    private FilterChain created(final Duration latency) {
+        return (request, response) -> {
+            executions.incrementAndGet();
+            request.getInputStream().readAllBytes();
+            try {
+                Thread.sleep(latency.toMillis());
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            response.setContentType("application/json");
+            ((HttpServletResponse) response).setStatus(201);
+            response.getOutputStream().write("{\"orderId\":1}".getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private MockHttpServletResponse send(final String key, final String body, final FilterChain filterChain) throws Exception {
+        return send(key, "", body, filterChain);
+    }
+
+    private MockHttpServletResponse send(final String key, final String query, final String body, final FilterChain filterChain) throws Exception {
+        final MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/orders");
+        request.setServletPath("/api/orders");
+        if (!query.isEmpty())
+            request.setQueryString(query.substring(1));
+        request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        idempotencyFilter.doFilter(request, response, filterChain);
+        return response;
+    }
+
+}
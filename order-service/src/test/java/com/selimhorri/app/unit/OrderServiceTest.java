@@ -1,9 +1,12 @@
 package com.selimhorri.app.unit;
 
+import com.selimhorri.app.config.archive.OrderArchiver;
+import com.selimhorri.app.config.stats.OrderStatsRollup;
 import com.selimhorri.app.domain.Cart;
 import com.selimhorri.app.domain.Order;
 import com.selimhorri.app.dto.CartDto;
 import com.selimhorri.app.dto.OrderDto;
+import com.selimhorri.app.exception.wrapper.BatchSizeExceededException;
 import com.selimhorri.app.exception.wrapper.OrderNotFoundException;
 import com.selimhorri.app.helper.OrderMappingHelper;
 import com.selimhorri.app.repository.OrderRepository;
@@ -15,8 +18,11 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -26,6 +32,12 @@ class OrderServiceImplTest {
     @Mock
     private OrderRepository orderRepository;
 
+    @Mock
+    private OrderArchiver orderArchiver;
+
+    @Mock
+    private OrderStatsRollup orderStatsRollup;
+
     @InjectMocks
     private OrderServiceImpl orderService;
 
@@ -101,16 +113,35 @@ class OrderServiceImplTest {
         assertTrue(exception.getMessage().contains("Order with id: 99 not found"));
     }
 
+    @Test
+    void testFindAllByIds_tooManyIds_isRejected() {
+        List<Integer> orderIds = IntStream.rangeClosed(1, 1001).boxed().collect(Collectors.toList());
+
+        assertThrows(BatchSizeExceededException.class, () -> orderService.findAllByIds(orderIds));
+
+        verifyNoInteractions(orderRepository, orderArchiver);
+    }
+
+    @Test
+    void testFindAllByIds_duplicatesCountOnce() {
+        List<Integer> orderIds = IntStream.rangeClosed(1, 2000).map(i -> i % 1000 + 1).boxed().collect(Collectors.toList());
+        when(orderRepository.findAllByIds(any())).thenReturn(List.of(order));
+
+        assertEquals(1, orderService.findAllByIds(orderIds).size());
+        verify(orderArchiver).findArchived(argThat((Collection<Integer> ids) -> ids.size() == 999));
+    }
+
     @Test
     void testSave_success() {
-        when(orderRepository.save(any(Order.class))).thenReturn(order);
+        when(orderRepository.saveAndFlush(any(Order.class))).thenReturn(order);
 
         OrderDto result = orderService.save(orderDto);
 
         assertNotNull(result);
         assertEquals("Electronics Order", result.getOrderDesc());
         assertEquals(50.0, result.getOrderFee());
-        verify(orderRepository, times(1)).save(any(Order.class));
+        verify(orderRepository, times(1)).saveAndFlush(any(Order.class));
+        verify(orderStatsRollup, times(1)).changed(eq(1), any());
     }
 
     @Test
@@ -0,0 +1,100 @@
+package com.selimhorri.app.unit;
+
+import com.selimhorri.app.config.datasource.ReplicaHealthChecker;
+import com.selimhorri.app.config.datasource.ReplicaRoutingDataSource;
+import com.selimhorri.app.config.datasource.ReplicaRoutingProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicaRoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource replica;
+    private ReplicaHealthChecker healthChecker;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setup() {
+        primary = h2("primary");
+        replica = h2("replica");
+        new JdbcTemplate(primary).execute("CREATE TABLE source (name VARCHAR(16)); INSERT INTO source VALUES ('primary')");
+        new JdbcTemplate(replica).execute("CREATE TABLE source (name VARCHAR(16)); INSERT INTO source VALUES ('replica');"
+                + "CREATE TABLE replication_status (lag_seconds INT); INSERT INTO replication_status VALUES (0)");
+
+        ReplicaRoutingProperties properties = new ReplicaRoutingProperties();
+        properties.setReplicaLagQuery("SELECT lag_seconds FROM replication_status");
+        healthChecker = new ReplicaHealthChecker(
+                new ReplicaRoutingDataSource(primary, Map.of("replica-0", replica)), properties);
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(healthChecker.getRoutingDataSource());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        healthChecker.close();
+    }
+
+    @Test
+    void testReadOnlyTransactionsUseHealthyReplica() {
+        healthChecker.checkAll();
+
+        assertEquals("replica", readOnly.execute(status -> source()));
+        assertEquals("primary", readWrite.execute(status -> source()));
+    }
+
+    @Test
+    void testReadsStayOnPrimaryUntilReplicaIsChecked() {
+        assertEquals("primary", readOnly.execute(status -> source()));
+    }
+
+    @Test
+    void testLaggingReplicaFallsBackToPrimaryAndRejoins() {
+        healthChecker.checkAll();
+        new JdbcTemplate(replica).update("UPDATE replication_status SET lag_seconds = 30");
+        healthChecker.checkAll();
+
+        assertEquals("primary", readOnly.execute(status -> source()));
+
+        new JdbcTemplate(replica).update("UPDATE replication_status SET lag_seconds = 1");
+        healthChecker.checkAll();
+
+        assertEquals("replica", readOnly.execute(status -> source()));
+    }
+
+    @Test
+    void testStoppedReplicationTakesReplicaOutOfRotation() {
+        new JdbcTemplate(replica).update("UPDATE replication_status SET lag_seconds = NULL");
+        healthChecker.checkAll();
+
+        assertTrue(healthChecker.getRoutingDataSource().getHealthyReplicas().isEmpty());
+        assertEquals("primary", readOnly.execute(status -> source()));
+    }
+
+    private String source() {
+        return jdbcTemplate.queryForObject("SELECT name FROM source", String.class);
+    }
+
+    private DataSource h2(final String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+}
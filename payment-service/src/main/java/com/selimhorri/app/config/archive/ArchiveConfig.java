@@ -0,0 +1,39 @@
+package com.selimhorri.app.config.archive;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Configuration
+@EnableConfigurationProperties(ArchiveProperties.class)
+public class ArchiveConfig {
+	
+	@Bean(destroyMethod = "close")
+	public PaymentArchiver paymentArchiverBean(final ArchiveProperties properties, 
+			final JdbcTemplate jdbcTemplate, final PlatformTransactionManager transactionManager) {
+		
+		final var paymentArchiver = new PaymentArchiver(new NamedParameterJdbcTemplate(jdbcTemplate), 
+				new TransactionTemplate(transactionManager), properties);
+		if (properties.isEnabled())
+			paymentArchiver.start();
+		
+		return paymentArchiver;
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
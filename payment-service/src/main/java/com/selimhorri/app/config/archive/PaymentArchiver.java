@@ -0,0 +1,134 @@
+package com.selimhorri.app.config.archive;
+
+import java.io.Closeable;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.selimhorri.app.domain.Payment;
+import com.selimhorri.app.domain.PaymentStatus;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Moves payments created before the configured age from {@code payments} to {@code payments_archive} in
+ * bounded batches, one transaction each. Order-service archives orders by the same age, so a payment follows
+ * its order into the archive; both keep resolving by id.
+ */
+@Slf4j
+public class PaymentArchiver implements Closeable {
+	
+	private static final String COLUMNS = "payment_id, order_id, is_payed, payment_status, created_at, updated_at";
+	
+	private final NamedParameterJdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final ArchiveProperties properties;
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		final var thread = new Thread(runnable, "payment-archiver");
+		thread.setDaemon(true);
+		return thread;
+	});
+	
+	public PaymentArchiver(final NamedParameterJdbcTemplate jdbcTemplate, final TransactionTemplate transactionTemplate,
+			final ArchiveProperties properties) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = transactionTemplate;
+		this.properties = properties;
+	}
+	
+	public void start() {
+		final long intervalMillis = this.properties.getInterval().toMillis();
+		this.scheduler.scheduleWithFixedDelay(() -> {
+			try {
+				this.archive();
+			}
+			catch (RuntimeException e) {
+				log.warn("** Payment archival failed: {} *", e.getMessage());
+			}
+		}, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * Archives at most {@code maxBatchesPerRun} batches and returns how many payments were moved.
+	 */
+	public int archive() {
+		final Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(this.properties.getMinAge()));
+		int archived = 0;
+		for (int batch = 0; batch < this.properties.getMaxBatchesPerRun(); batch++) {
+			final int moved = this.transactionTemplate.execute(status -> this.archiveBatch(cutoff));
+			archived += moved;
+			if (moved < this.properties.getBatchSize())
+				break;
+		}
+		if (archived > 0)
+			log.info("*** Archived {} payments created before {} *", archived, cutoff);
+		return archived;
+	}
+	
+	public Optional<Payment> findArchived(final Integer paymentId) {
+		return this.jdbcTemplate.query("SELECT " + COLUMNS + " FROM payments_archive WHERE payment_id = :paymentId",
+				Map.of("paymentId", paymentId), (resultSet, rowNum) -> map(resultSet))
+				.stream()
+				.findFirst();
+	}
+	
+	public List<Payment> findArchivedByOrderId(final Integer orderId) {
+		return this.jdbcTemplate.query("SELECT " + COLUMNS + " FROM payments_archive WHERE order_id = :orderId "
+				+ "ORDER BY payment_id", Map.of("orderId", orderId), (resultSet, rowNum) -> map(resultSet));
+	}
+	
+	@Override
+	public void close() {
+		this.scheduler.shutdownNow();
+	}
+	
+	private int archiveBatch(final Timestamp cutoff) {
+		final List<Integer> paymentIds = this.jdbcTemplate.queryForList("SELECT payment_id FROM payments "
+				+ "WHERE created_at < :cutoff ORDER BY created_at, payment_id LIMIT :limit FOR UPDATE",
+				Map.of("cutoff", cutoff, "limit", this.properties.getBatchSize()), Integer.class);
+		if (paymentIds.isEmpty())
+			return 0;
+		this.jdbcTemplate.update("INSERT INTO payments_archive (" + COLUMNS + ", archived_at) SELECT " + COLUMNS
+				+ ", LOCALTIMESTAMP FROM payments WHERE payment_id IN (:paymentIds)", Map.of("paymentIds", paymentIds));
+		return this.jdbcTemplate.update("DELETE FROM payments WHERE payment_id IN (:paymentIds)", 
+				Map.of("paymentIds", paymentIds));
+	}
+	
+	private static Payment map(final ResultSet resultSet) throws SQLException {
+		final String paymentStatus = resultSet.getString("payment_status");
+		final Timestamp createdAt = resultSet.getTimestamp("created_at");
+		final Timestamp updatedAt = resultSet.getTimestamp("updated_at");
+		final Payment payment = Payment.builder()
+				.paymentId(resultSet.getInt("payment_id"))
+				.orderId(resultSet.getObject("order_id", Integer.class))
+				.isPayed(resultSet.getObject("is_payed", Boolean.class))
+				.paymentStatus(paymentStatus == null ? null : PaymentStatus.valueOf(paymentStatus))
+				.build();
+		payment.setCreatedAt(createdAt == null ? null : createdAt.toInstant());
+		payment.setUpdatedAt(updatedAt == null ? null : updatedAt.toInstant());
+		return payment;
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,99 @@
+package com.selimhorri.app.config.datasource;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Periodically probes every replica and marks it unhealthy, so reads fall back to the primary, when it is
+ * unreachable, reports no replication status or lags more than {@code app.datasource.replica-max-lag}.
+ * Without a lag query a replica only has to accept connections.
+ */
+@Slf4j
+public class ReplicaHealthChecker implements Closeable {
+	
+	private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+	
+	private final ReplicaRoutingDataSource routingDataSource;
+	private final ReplicaRoutingProperties properties;
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		final var thread = new Thread(runnable, "replica-health-checker");
+		thread.setDaemon(true);
+		return thread;
+	});
+	
+	public ReplicaHealthChecker(final ReplicaRoutingDataSource routingDataSource, final ReplicaRoutingProperties properties) {
+		this.routingDataSource = routingDataSource;
+		this.properties = properties;
+	}
+	
+	public void start() {
+		final long intervalMillis = this.properties.getReplicaCheckInterval().toMillis();
+		this.scheduler.scheduleWithFixedDelay(this::checkAll, 0, intervalMillis, TimeUnit.MILLISECONDS);
+	}
+	
+	public void checkAll() {
+		this.routingDataSource.getReplicas().forEach((replica, dataSource) -> {
+			final boolean healthy = this.isHealthy(replica, dataSource);
+			if (this.routingDataSource.setReplicaHealthy(replica, healthy))
+				log.info("*** Replica {} is now {} *", replica, healthy ? "serving reads" : "out of rotation");
+		});
+	}
+	
+	private boolean isHealthy(final String replica, final DataSource dataSource) {
+		try (final Connection connection = dataSource.getConnection()) {
+			if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS))
+				return false;
+			if (this.properties.getReplicaLagQuery() == null)
+				return true;
+			try (final Statement statement = connection.createStatement();
+					final ResultSet resultSet = statement.executeQuery(this.properties.getReplicaLagQuery())) {
+				if (!resultSet.next())
+					return false;
+				final Object lag = this.properties.getReplicaLagColumn() == null
+						? resultSet.getObject(1)
+						: resultSet.getObject(this.properties.getReplicaLagColumn());
+				if (!(lag instanceof Number))
+					return false;
+				return ((Number) lag).longValue() <= this.properties.getReplicaMaxLag().toSeconds();
+			}
+		}
+		catch (SQLException e) {
+			log.debug("** Replica {} health check failed: {} *", replica, e.getMessage());
+			return false;
+		}
+	}
+	
+	public ReplicaRoutingDataSource getRoutingDataSource() {
+		return this.routingDataSource;
+	}
+	
+	@Override
+	public void close() throws IOException {
+		this.scheduler.shutdownNow();
+		this.routingDataSource.close();
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
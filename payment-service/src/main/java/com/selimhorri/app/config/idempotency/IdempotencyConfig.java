@@ -0,0 +1,39 @@
+package com.selimhorri.app.config.idempotency;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Configuration
+@ConditionalOnProperty(prefix = "app.idempotency", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(IdempotencyProperties.class)
+public class IdempotencyConfig {
+	
+	@Bean(destroyMethod = "close")
+	public IdempotencyStore idempotencyStoreBean(final JdbcTemplate jdbcTemplate, final IdempotencyProperties properties) {
+		final var idempotencyStore = new IdempotencyStore(jdbcTemplate, properties);
+		idempotencyStore.start();
+		return idempotencyStore;
+	}
+	
+	@Bean
+	public IdempotencyFilter idempotencyFilterBean(final IdempotencyStore idempotencyStore, 
+			final IdempotencyProperties properties) {
+		return new IdempotencyFilter(idempotencyStore, properties);
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
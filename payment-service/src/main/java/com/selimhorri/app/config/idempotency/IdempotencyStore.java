@@ -0,0 +1,152 @@
+package com.selimhorri.app.config.idempotency;
+
+import java.io.Closeable;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * One row per idempotency key. The first request claims the key with an owner token and a lock deadline,
+ * then either stores its response or releases the claim; later requests read the row to replay the response
+ * or wait for the owner. A claim whose owner died past its lock deadline, or a key past its TTL that was not
+ * swept yet, can be taken over. Expired rows are deleted in bounded batches so the table stays small.
+ */
+@Slf4j
+public class IdempotencyStore implements Closeable {
+	
+	private static final String IN_PROGRESS = "IN_PROGRESS";
+	private static final String COMPLETED = "COMPLETED";
+	
+	private final JdbcTemplate jdbcTemplate;
+	private final IdempotencyProperties properties;
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		final var thread = new Thread(runnable, "idempotency-sweep");
+		thread.setDaemon(true);
+		return thread;
+	});
+	
+	public IdempotencyStore(final JdbcTemplate jdbcTemplate, final IdempotencyProperties properties) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.properties = properties;
+	}
+	
+	public void start() {
+		final long intervalMillis = this.properties.getSweepInterval().toMillis();
+		this.scheduler.scheduleWithFixedDelay(() -> {
+			try {
+				this.sweep();
+			}
+			catch (RuntimeException e) {
+				log.warn("** Idempotency key sweep failed: {} *", e.getMessage());
+			}
+		}, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * Claims the key for this request, returning the owner token, or empty when another request holds it.
+	 */
+	public Optional<String> claim(final String key, final String fingerprint) {
+		final String owner = UUID.randomUUID().toString();
+		final Instant now = Instant.now();
+		final Timestamp lockedUntil = Timestamp.from(now.plus(this.properties.getLockTimeout()));
+		final Timestamp expiresAt = Timestamp.from(now.plus(this.properties.getTtl()));
+		try {
+			this.jdbcTemplate.update("INSERT INTO idempotency_keys (idempotency_key, request_hash, owner, status, "
+					+ "locked_until, expires_at) VALUES (?, ?, ?, ?, ?, ?)", 
+					key, fingerprint, owner, IN_PROGRESS, lockedUntil, expiresAt);
+			return Optional.of(owner);
+		}
+		catch (DuplicateKeyException e) {
+			final int updated = this.jdbcTemplate.update("UPDATE idempotency_keys SET request_hash = ?, owner = ?, status = ?, "
+					+ "response_status = NULL, response_content_type = NULL, response_body = NULL, locked_until = ?, expires_at = ? "
+					+ "WHERE idempotency_key = ? AND ((status = ? AND locked_until < ?) OR expires_at < ?)", 
+					fingerprint, owner, IN_PROGRESS, lockedUntil, expiresAt, key, IN_PROGRESS, Timestamp.from(now), Timestamp.from(now));
+			if (updated > 0)
+				log.info("*** Took over stale idempotency key {} *", key);
+			return updated > 0 ? Optional.of(owner) : Optional.empty();
+		}
+	}
+	
+	public Optional<Entry> find(final String key) {
+		final List<Entry> entries = this.jdbcTemplate.query("SELECT request_hash, status, response_status, response_content_type, "
+				+ "response_body FROM idempotency_keys WHERE idempotency_key = ?", 
+				(resultSet, rowNum) -> new Entry(resultSet.getString("request_hash"), 
+						COMPLETED.equals(resultSet.getString("status")), resultSet.getInt("response_status"), 
+						resultSet.getString("response_content_type"), resultSet.getBytes("response_body")), 
+				key);
+		return entries.stream().findFirst();
+	}
+	
+	public boolean complete(final String key, final String owner, final int status, final String contentType, 
+			final byte[] body) {
+		return this.jdbcTemplate.update("UPDATE idempotency_keys SET status = ?, response_status = ?, response_content_type = ?, "
+				+ "response_body = ?, locked_until = NULL WHERE idempotency_key = ? AND owner = ? AND status = ?", 
+				COMPLETED, status, contentType, body, key, owner, IN_PROGRESS) > 0;
+	}
+	
+	public void release(final String key, final String owner) {
+		this.jdbcTemplate.update("DELETE FROM idempotency_keys WHERE idempotency_key = ? AND owner = ? AND status = ?", 
+				key, owner, IN_PROGRESS);
+	}
+	
+	/**
+	 * Deletes expired keys a batch at a time, returning how many were removed.
+	 */
+	public int sweep() {
+		int swept = 0;
+		int deleted;
+		do {
+			deleted = this.jdbcTemplate.update("DELETE FROM idempotency_keys WHERE idempotency_key IN ("
+					+ "SELECT idempotency_key FROM (SELECT idempotency_key FROM idempotency_keys WHERE expires_at < ? "
+					+ "ORDER BY expires_at LIMIT ?) expired)", 
+					Timestamp.from(Instant.now()), this.properties.getSweepBatchSize());
+			swept += deleted;
+		}
+		while (deleted == this.properties.getSweepBatchSize());
+		if (swept > 0)
+			log.info("*** Swept {} expired idempotency keys *", swept);
+		return swept;
+	}
+	
+	@Override
+	public void close() {
+		this.scheduler.shutdownNow();
+	}
+	
+	@Getter
+	@AllArgsConstructor
+	public static final class Entry {
+		
+		private final String fingerprint;
+		private final boolean completed;
+		private final int responseStatus;
+		private final String responseContentType;
+		private final byte[] responseBody;
+		
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,82 @@
+package com.selimhorri.app.config.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gradient based concurrency limit: the limit grows while the short term latency stays close to the
+ * long term baseline and shrinks proportionally once requests start queueing.
+ * Best effort requests may only use {@code bestEffortShare} of the limit, keeping headroom for critical ones.
+ */
+public class AdaptiveConcurrencyLimit {
+	
+	private static final double LONG_WINDOW = 600.0;
+	private static final double SHORT_WINDOW = 10.0;
+	
+	private final ConcurrencyLimitProperties properties;
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private volatile double limit;
+	private double longRttNanos;
+	private double shortRttNanos;
+	
+	public AdaptiveConcurrencyLimit(final ConcurrencyLimitProperties properties) {
+		this.properties = properties;
+		this.limit = properties.getInitialLimit();
+	}
+	
+	public boolean tryAcquire(final RequestPriority priority) {
+		final double threshold = priority == RequestPriority.CRITICAL 
+				? this.limit 
+				: this.limit * this.properties.getBestEffortShare();
+		if (this.inFlight.incrementAndGet() > Math.max(1, (int) threshold)) {
+			this.inFlight.decrementAndGet();
+			return false;
+		}
+		return true;
+	}
+	
+	public void release(final long rttNanos, final boolean dropped) {
+		final int inFlightAtRelease = this.inFlight.getAndDecrement();
+		this.onSample(rttNanos, inFlightAtRelease, dropped);
+	}
+	
+	private synchronized void onSample(final long rttNanos, final int inFlightAtRelease, final boolean dropped) {
+		
+		if (dropped) {
+			this.limit = this.clamp(this.limit * 0.9);
+			return;
+		}
+		
+		if (this.longRttNanos == 0) {
+			this.longRttNanos = rttNanos;
+			this.shortRttNanos = rttNanos;
+		}
+		else {
+			this.longRttNanos += (rttNanos - this.longRttNanos) / LONG_WINDOW;
+			this.shortRttNanos += (rttNanos - this.shortRttNanos) / SHORT_WINDOW;
+		}
+		
+		// Do not grow when the service is not using its current limit
+		if (inFlightAtRelease < this.limit / 2)
+			return;
+		
+		final double gradient = Math.max(0.5, Math.min(1.0, this.longRttNanos / this.shortRttNanos));
+		final double newLimit = this.limit * gradient + Math.sqrt(this.limit);
+		this.limit = this.clamp((1 - this.properties.getSmoothing()) * this.limit 
+				+ this.properties.getSmoothing() * newLimit);
+	}
+	
+	private double clamp(final double value) {
+		return Math.max(this.properties.getMinLimit(), Math.min(this.properties.getMaxLimit(), value));
+	}
+	
+	public int getLimit() {
+		return (int) this.limit;
+	}
+	
+	public int getInFlight() {
+		return this.inFlight.get();
+	}
+	
+	
+	
+}
@@ -0,0 +1,9 @@
+package com.selimhorri.app.config.reconciliation;
+
+public enum DiscrepancyType {
+	
+	ORDER_MISSING,
+	PAYED_NOT_COMPLETED,
+	COMPLETED_NOT_PAYED;
+	
+}
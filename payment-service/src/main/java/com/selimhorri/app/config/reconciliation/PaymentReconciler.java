@@ -0,0 +1,319 @@
+package com.selimhorri.app.config.reconciliation;
+
+import java.io.Closeable;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestTemplate;
+
+import com.selimhorri.app.constant.AppConstant;
+import com.selimhorri.app.domain.PaymentStatus;
+import com.selimhorri.app.dto.OrderDto;
+import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Checks live payments against their orders on a cron schedule and records every discrepancy in
+ * {@code payment_discrepancies}. A run walks {@code payments} by id in chunks, resolving each chunk's orders
+ * with one batch call to order-service, and commits the chunk's discrepancies together with the run's cursor,
+ * so a run that stops midway resumes after its last committed chunk.
+ *
+ * Each scheduled time creates at most one run. The instance working on a run holds a lease on it that every
+ * chunk renews; a run whose lease ran out, because its instance stopped, is taken over by the next instance
+ * that looks for unfinished runs, which every instance does on start and on each scheduled time. A chunk that
+ * fails, for instance because order-service is down, releases the lease and the instance looks for unfinished
+ * runs again once a lease period has passed.
+ */
+@Slf4j
+public class PaymentReconciler implements Closeable {
+	
+	private static final String RUNNING = "RUNNING";
+	private static final String COMPLETED = "COMPLETED";
+	private static final ParameterizedTypeReference<DtoCollectionResponse<OrderDto>> ORDERS_TYPE = 
+			new ParameterizedTypeReference<>() {};
+	
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final RestTemplate restTemplate;
+	private final ReconciliationProperties properties;
+	private final CronExpression cron;
+	private final Counter checked;
+	private final Map<DiscrepancyType, Counter> found = new EnumMap<>(DiscrepancyType.class);
+	private final Timer chunkTimer;
+	private final AtomicLong paymentsPerSecond = new AtomicLong();
+	private final AtomicBoolean retryScheduled = new AtomicBoolean();
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		final var thread = new Thread(runnable, "payment-reconciler");
+		thread.setDaemon(true);
+		return thread;
+	});
+	
+	public PaymentReconciler(final JdbcTemplate jdbcTemplate, final TransactionTemplate transactionTemplate, 
+			final RestTemplate restTemplate, final MeterRegistry meterRegistry, final ReconciliationProperties properties) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = transactionTemplate;
+		this.restTemplate = restTemplate;
+		this.properties = properties;
+		this.cron = CronExpression.parse(properties.getCron());
+		this.checked = Counter.builder("payment.reconciliation.checked").register(meterRegistry);
+		for (final DiscrepancyType type : DiscrepancyType.values())
+			this.found.put(type, Counter.builder("payment.reconciliation.discrepancies")
+					.tag("type", type.name())
+					.register(meterRegistry));
+		this.chunkTimer = Timer.builder("payment.reconciliation.chunk").register(meterRegistry);
+		Gauge.builder("payment.reconciliation.throughput", this.paymentsPerSecond, AtomicLong::get)
+				.baseUnit("payments/s")
+				.register(meterRegistry);
+	}
+	
+	public void start() {
+		this.scheduler.execute(() -> {
+			try {
+				this.resume();
+			}
+			catch (RuntimeException e) {
+				log.warn("** Payment reconciliation resume failed: {} *", e.getMessage());
+			}
+		});
+		this.scheduleNext();
+	}
+	
+	/**
+	 * Creates the run for the given scheduled time unless another instance already did, then works through
+	 * every unfinished run that is not leased by someone else.
+	 */
+	public void run(final LocalDateTime scheduledAt) {
+		try {
+			this.jdbcTemplate.update("INSERT INTO payment_reconciliation_runs (scheduled_at, status, cursor_payment_id, "
+					+ "checked_count, discrepancy_count, started_at) VALUES (?, ?, 0, 0, 0, ?)", 
+					Timestamp.valueOf(scheduledAt), RUNNING, Timestamp.from(Instant.now()));
+			log.info("*** Payment reconciliation run scheduled at {} created *", scheduledAt);
+		}
+		catch (DuplicateKeyException e) {
+			log.info("*** Payment reconciliation run scheduled at {} already exists *", scheduledAt);
+		}
+		this.resume();
+	}
+	
+	public void resume() {
+		for (final Integer runId : this.jdbcTemplate.queryForList("SELECT run_id FROM payment_reconciliation_runs "
+				+ "WHERE status = ? ORDER BY run_id", Integer.class, RUNNING))
+			this.claim(runId).ifPresent(owner -> {
+				try {
+					this.process(runId, owner);
+				}
+				catch (RuntimeException e) {
+					this.jdbcTemplate.update("UPDATE payment_reconciliation_runs SET owner = NULL, locked_until = NULL "
+							+ "WHERE run_id = ? AND owner = ?", runId, owner);
+					log.warn("** Payment reconciliation run {} failed, retrying in {}: {} *", 
+							runId, this.properties.getLease(), e.getMessage());
+					this.scheduleRetry();
+				}
+			});
+	}
+	
+	@Override
+	public void close() {
+		this.scheduler.shutdownNow();
+	}
+	
+	private void scheduleNext() {
+		final LocalDateTime now = LocalDateTime.now();
+		final LocalDateTime next = this.cron.next(now);
+		if (next == null || this.scheduler.isShutdown())
+			return;
+		this.scheduler.schedule(() -> {
+			try {
+				this.run(next);
+			}
+			catch (RuntimeException e) {
+				log.warn("** Payment reconciliation run stopped: {} *", e.getMessage());
+			}
+			finally {
+				this.scheduleNext();
+			}
+		}, Duration.between(now, next).toMillis(), TimeUnit.MILLISECONDS);
+	}
+	
+	private void scheduleRetry() {
+		if (this.scheduler.isShutdown() || !this.retryScheduled.compareAndSet(false, true))
+			return;
+		this.scheduler.schedule(() -> {
+			this.retryScheduled.set(false);
+			try {
+				this.resume();
+			}
+			catch (RuntimeException e) {
+				log.warn("** Payment reconciliation resume failed: {} *", e.getMessage());
+			}
+		}, this.properties.getLease().toMillis(), TimeUnit.MILLISECONDS);
+	}
+	
+	private Optional<String> claim(final Integer runId) {
+		final String owner = UUID.randomUUID().toString();
+		final Timestamp now = Timestamp.from(Instant.now());
+		final int claimed = this.jdbcTemplate.update("UPDATE payment_reconciliation_runs SET owner = ?, locked_until = ? "
+				+ "WHERE run_id = ? AND status = ? AND (locked_until IS NULL OR locked_until < ?)", 
+				owner, this.leaseEnd(), runId, RUNNING, now);
+		return claimed > 0 ? Optional.of(owner) : Optional.empty();
+	}
+	
+	private void process(final Integer runId, final String owner) {
+		final long start = System.nanoTime();
+		long processed = 0;
+		while (!Thread.currentThread().isInterrupted()) {
+			
+			final int cursor = this.jdbcTemplate.queryForObject("SELECT cursor_payment_id FROM payment_reconciliation_runs "
+					+ "WHERE run_id = ?", Integer.class, runId);
+			final List<PaymentRow> payments = this.jdbcTemplate.query("SELECT payment_id, order_id, is_payed, payment_status "
+					+ "FROM payments WHERE payment_id > ? ORDER BY payment_id LIMIT ?", 
+					(resultSet, rowNum) -> new PaymentRow(resultSet.getInt("payment_id"), 
+							resultSet.getObject("order_id", Integer.class), resultSet.getObject("is_payed", Boolean.class), 
+							resultSet.getString("payment_status")), 
+					cursor, this.properties.getChunkSize());
+			
+			if (payments.isEmpty()) {
+				this.jdbcTemplate.update("UPDATE payment_reconciliation_runs SET status = ?, finished_at = ?, owner = NULL, "
+						+ "locked_until = NULL WHERE run_id = ? AND owner = ?", COMPLETED, Timestamp.from(Instant.now()), runId, owner);
+				final Map<String, Object> totals = this.jdbcTemplate.queryForMap("SELECT checked_count, discrepancy_count "
+						+ "FROM payment_reconciliation_runs WHERE run_id = ?", runId);
+				log.info("*** Payment reconciliation run {} completed; {} payments checked, {} discrepancies *", 
+						runId, totals.get("checked_count"), totals.get("discrepancy_count"));
+				return;
+			}
+			
+			final Timer.Sample sample = Timer.start();
+			final List<Discrepancy> discrepancies = this.reconcile(payments);
+			final boolean owned = this.transactionTemplate.execute(status -> this.commit(runId, owner, cursor, payments, discrepancies));
+			sample.stop(this.chunkTimer);
+			if (!owned) {
+				log.warn("** Lost the lease on payment reconciliation run {} *", runId);
+				return;
+			}
+			
+			this.checked.increment(payments.size());
+			discrepancies.forEach(discrepancy -> this.found.get(discrepancy.type).increment());
+			processed += payments.size();
+			final double seconds = Math.max(1e-3, (System.nanoTime() - start) / 1_000_000_000.0);
+			this.paymentsPerSecond.set(Math.round(processed / seconds));
+		}
+	}
+	
+	private List<Discrepancy> reconcile(final List<PaymentRow> payments) {
+		final Set<Integer> orderIds = payments.stream()
+				.map(payment -> payment.orderId)
+				.filter(Objects::nonNull)
+				.collect(Collectors.toSet());
+		final Map<Integer, OrderDto> orders = orderIds.isEmpty() 
+				? Map.of() 
+				: this.restTemplate.exchange(AppConstant.DiscoveredDomainsApi.ORDER_SERVICE_API_URL + "/batch", 
+						HttpMethod.POST, new HttpEntity<>(List.copyOf(orderIds)), ORDERS_TYPE)
+						.getBody()
+						.getCollection()
+						.stream()
+						.collect(Collectors.toMap(OrderDto::getOrderId, Function.identity(), (first, second) -> first));
+		
+		final List<Discrepancy> discrepancies = new ArrayList<>();
+		for (final PaymentRow payment : payments) {
+			final boolean payed = Boolean.TRUE.equals(payment.isPayed);
+			final boolean completed = PaymentStatus.COMPLETED.name().equals(payment.paymentStatus);
+			if (payment.orderId == null || !orders.containsKey(payment.orderId))
+				discrepancies.add(new Discrepancy(payment, DiscrepancyType.ORDER_MISSING));
+			if (payed && !completed)
+				discrepancies.add(new Discrepancy(payment, DiscrepancyType.PAYED_NOT_COMPLETED));
+			if (completed && !payed)
+				discrepancies.add(new Discrepancy(payment, DiscrepancyType.COMPLETED_NOT_PAYED));
+		}
+		return discrepancies;
+	}
+	
+	/**
+	 * Advances the cursor past the chunk and records its discrepancies, provided this instance still holds the
+	 * lease and no one moved the cursor in between.
+	 */
+	private boolean commit(final Integer runId, final String owner, final int cursor, final List<PaymentRow> payments, 
+			final List<Discrepancy> discrepancies) {
+		
+		final int advanced = this.jdbcTemplate.update("UPDATE payment_reconciliation_runs SET cursor_payment_id = ?, "
+				+ "checked_count = checked_count + ?, discrepancy_count = discrepancy_count + ?, locked_until = ? "
+				+ "WHERE run_id = ? AND owner = ? AND cursor_payment_id = ?", 
+				payments.get(payments.size() - 1).paymentId, payments.size(), discrepancies.size(), this.leaseEnd(), 
+				runId, owner, cursor);
+		if (advanced == 0)
+			return false;
+		
+		final Timestamp detectedAt = Timestamp.from(Instant.now());
+		this.jdbcTemplate.batchUpdate("INSERT INTO payment_discrepancies (run_id, payment_id, discrepancy_type, order_id, "
+				+ "is_payed, payment_status, detected_at) VALUES (?, ?, ?, ?, ?, ?, ?)", 
+				discrepancies.stream()
+						.map(discrepancy -> new Object[] { runId, discrepancy.payment.paymentId, discrepancy.type.name(), 
+								discrepancy.payment.orderId, discrepancy.payment.isPayed, discrepancy.payment.paymentStatus, detectedAt })
+						.collect(Collectors.toList()));
+		return true;
+	}
+	
+	private Timestamp leaseEnd() {
+		return Timestamp.from(Instant.now().plus(this.properties.getLease()));
+	}
+	
+	@AllArgsConstructor
+	private static final class PaymentRow {
+		
+		private final int paymentId;
+		private final Integer orderId;
+		private final Boolean isPayed;
+		private final String paymentStatus;
+		
+	}
+	
+	@AllArgsConstructor
+	private static final class Discrepancy {
+		
+		private final PaymentRow payment;
+		private final DiscrepancyType type;
+		
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
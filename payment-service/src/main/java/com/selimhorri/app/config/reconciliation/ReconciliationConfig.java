@@ -0,0 +1,41 @@
+package com.selimhorri.app.config.reconciliation;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestTemplate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+@EnableConfigurationProperties(ReconciliationProperties.class)
+public class ReconciliationConfig {
+	
+	@Bean(destroyMethod = "close")
+	public PaymentReconciler paymentReconcilerBean(final ReconciliationProperties properties, final JdbcTemplate jdbcTemplate, 
+			final PlatformTransactionManager transactionManager, final RestTemplate restTemplate, final MeterRegistry meterRegistry) {
+		
+		final var paymentReconciler = new PaymentReconciler(jdbcTemplate, new TransactionTemplate(transactionManager), 
+				restTemplate, meterRegistry, properties);
+		if (properties.isEnabled())
+			paymentReconciler.start();
+		
+		return paymentReconciler;
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
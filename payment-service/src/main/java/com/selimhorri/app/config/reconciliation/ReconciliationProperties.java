@@ -0,0 +1,26 @@
+package com.selimhorri.app.config.reconciliation;
+
+import java.time.Duration;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Positive;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import lombok.Data;
+
+@ConfigurationProperties(prefix = "app.reconciliation")
+@Validated
+@Data
+public class ReconciliationProperties {
+	
+	private boolean enabled = true;
+	private String cron = "0 0 2 * * *";
+	// each chunk's orders are looked up in one order-service batch call, which takes at most 1000 ids
+	@Positive
+	@Max(1000)
+	private int chunkSize = 500;
+	private Duration lease = Duration.ofMinutes(5);
+	
+}
@@ -1,6 +1,7 @@
 package com.selimhorri.app.dto;
 
 import java.io.Serializable;
+import java.util.Set;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -20,11 +21,14 @@ public class PaymentDto implements Serializable {
 	
 	private static final long serialVersionUID = 1L;
 	
+	public static final String ORDER = "order";
+	public static final Set<String> RELATIONS = Set.of(ORDER);
+	
 	private Integer paymentId;
 	private Boolean isPayed;
 	private PaymentStatus paymentStatus;
 	
-	@JsonProperty("order")
+	@JsonProperty(ORDER)
 	@JsonInclude(Include.NON_NULL)
 	private OrderDto orderDto;
 	
@@ -0,0 +1,32 @@
+package com.selimhorri.app.dto;
+
+import java.io.Serializable;
+
+import com.selimhorri.app.domain.PaymentStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class PaymentStatusCountDto implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	private PaymentStatus paymentStatus;
+	private Long count;
+	
+}
+
+
+
+
+
+
+
+
+
+
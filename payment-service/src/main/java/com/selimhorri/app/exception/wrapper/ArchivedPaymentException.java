@@ -0,0 +1,35 @@
+package com.selimhorri.app.exception.wrapper;
+
+public class ArchivedPaymentException extends RuntimeException {
+	
+	private static final long serialVersionUID = 1L;
+	
+	public ArchivedPaymentException() {
+		super();
+	}
+	
+	public ArchivedPaymentException(String message, Throwable cause) {
+		super(message, cause);
+	}
+	
+	public ArchivedPaymentException(String message) {
+		super(message);
+	}
+	
+	public ArchivedPaymentException(Throwable cause) {
+		super(cause);
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -1,5 +1,9 @@
 package com.selimhorri.app.resource;
 
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
 import javax.validation.Valid;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
@@ -12,10 +16,18 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.selimhorri.app.domain.Payment;
 import com.selimhorri.app.dto.PaymentDto;
+import com.selimhorri.app.dto.PaymentStatusCountDto;
+import com.selimhorri.app.dto.response.collection.ChangeFeedResponse;
 import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+import com.selimhorri.app.helper.FieldSelectionHelper;
+import com.selimhorri.app.helper.PaymentMappingHelper;
+import com.selimhorri.app.service.ChangeFeedService;
 import com.selimhorri.app.service.PaymentService;
 
 import lombok.RequiredArgsConstructor;
@@ -28,11 +40,47 @@ import lombok.extern.slf4j.Slf4j;
 public class PaymentResource {
 	
 	private final PaymentService paymentService;
+	private final ChangeFeedService changeFeedService;
+	private final ObjectMapper objectMapper;
 	
 	@GetMapping
-	public ResponseEntity<DtoCollectionResponse<PaymentDto>> findAll() {
+	public ResponseEntity<DtoCollectionResponse<?>> findAll(
+			@RequestParam(name = "expand", required = false) final String expand,
+			@RequestParam(name = "fields", required = false) final String fields) {
 		log.info("*** PaymentDto List, controller; fetch all payments *");
-		return ResponseEntity.ok(new DtoCollectionResponse<>(this.paymentService.findAll()));
+		final Set<String> selectedFields = FieldSelectionHelper.fields(this.objectMapper, PaymentDto.class, fields);
+		final List<PaymentDto> paymentDtos = this.paymentService.findAll(
+				FieldSelectionHelper.relations(FieldSelectionHelper.parse(expand), selectedFields, PaymentDto.RELATIONS));
+		return ResponseEntity.ok(new DtoCollectionResponse<>(
+				FieldSelectionHelper.select(this.objectMapper, paymentDtos, selectedFields)));
+	}
+	
+	@GetMapping("/changes")
+	public ResponseEntity<ChangeFeedResponse<PaymentDto>> findChanges(
+			@RequestParam(name = "since", required = false) final Instant since,
+			@RequestParam(name = "cursor", required = false) final String cursor,
+			@RequestParam(name = "limit", required = false) final Integer limit) {
+		log.info("*** ChangeFeedResponse, resource; fetch payment changes *");
+		return ResponseEntity.ok(this.changeFeedService.findChanges(Payment.class, PaymentMappingHelper::map, since, cursor, limit));
+	}
+	
+	@GetMapping("/status-summary")
+	public ResponseEntity<DtoCollectionResponse<PaymentStatusCountDto>> countByPaymentStatus() {
+		log.info("*** PaymentStatusCountDto List, resource; count payments by status *");
+		return ResponseEntity.ok(new DtoCollectionResponse<>(this.paymentService.countByPaymentStatus()));
+	}
+	
+	@GetMapping("/order/{orderId}")
+	public ResponseEntity<DtoCollectionResponse<PaymentDto>> findAllByOrderId(
+			@PathVariable("orderId") 
+			@NotBlank(message = "Input must not be blank") 
+			@Valid final String orderId,
+			@RequestParam(name = "expand", required = false) final String expand) {
+		log.info("*** PaymentDto List, resource; fetch payments by order id *");
+		final Set<String> relations = expand == null ? Set.of() : 
+				FieldSelectionHelper.relations(FieldSelectionHelper.parse(expand), null, PaymentDto.RELATIONS);
+		return ResponseEntity.ok(new DtoCollectionResponse<>(
+				this.paymentService.findAllByOrderId(Integer.parseInt(orderId), relations.contains(PaymentDto.ORDER))));
 	}
 	
 	@GetMapping("/{paymentId}")
@@ -1,13 +1,17 @@
 package com.selimhorri.app.service;
 
 import java.util.List;
+import java.util.Set;
 
 import com.selimhorri.app.dto.PaymentDto;
+import com.selimhorri.app.dto.PaymentStatusCountDto;
 
 public interface PaymentService {
 	
-	List<PaymentDto> findAll();
+	List<PaymentDto> findAll(final Set<String> relations);
 	PaymentDto findById(final Integer paymentId);
+	List<PaymentDto> findAllByOrderId(final Integer orderId, final boolean withOrder);
+	List<PaymentStatusCountDto> countByPaymentStatus();
 	PaymentDto save(final PaymentDto paymentDto);
 	PaymentDto update(final PaymentDto paymentDto);
 	void deleteById(final Integer paymentId);
@@ -1,16 +1,29 @@
 package com.selimhorri.app.service.impl;
 
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-import javax.transaction.Transactional;
-
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.selimhorri.app.config.archive.PaymentArchiver;
 import com.selimhorri.app.constant.AppConstant;
+import com.selimhorri.app.domain.PaymentStatus;
 import com.selimhorri.app.dto.OrderDto;
 import com.selimhorri.app.dto.PaymentDto;
+import com.selimhorri.app.dto.PaymentStatusCountDto;
+import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+import com.selimhorri.app.exception.wrapper.ArchivedPaymentException;
 import com.selimhorri.app.exception.wrapper.PaymentNotFoundException;
 import com.selimhorri.app.helper.PaymentMappingHelper;
 import com.selimhorri.app.repository.PaymentRepository;
@@ -25,28 +38,45 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class PaymentServiceImpl implements PaymentService {
 	
+	private static final int ORDER_BATCH_SIZE = 500;
+	private static final ParameterizedTypeReference<DtoCollectionResponse<OrderDto>> ORDERS_TYPE = 
+			new ParameterizedTypeReference<>() {};
+	
 	private final PaymentRepository paymentRepository;
 	private final RestTemplate restTemplate;
+	private final PaymentArchiver paymentArchiver;
 	
+	/**
+	 * Fetches orders only when {@code order} is among the requested relations, with batch calls to
+	 * order-service rather than one call per payment.
+	 */
 	@Override
-	public List<PaymentDto> findAll() {
+	@Transactional(readOnly = true)
+	public List<PaymentDto> findAll(final Set<String> relations) {
 		log.info("*** PaymentDto List, service; fetch all payments *");
-		return this.paymentRepository.findAll()
+		final List<PaymentDto> paymentDtos = this.paymentRepository.findAll()
 				.stream()
 					.map(PaymentMappingHelper::map)
-					.map(p -> {
-						p.setOrderDto(this.restTemplate.getForObject(AppConstant.DiscoveredDomainsApi
-								.ORDER_SERVICE_API_URL + "/" + p.getOrderDto().getOrderId(), OrderDto.class));
-						return p;
-					})
 					.distinct()
 					.collect(Collectors.toUnmodifiableList());
+		if (!relations.contains(PaymentDto.ORDER))
+			return paymentDtos;
+		
+		final Map<Integer, OrderDto> orderDtos = this.findOrders(paymentDtos.stream()
+				.map(p -> p.getOrderDto().getOrderId())
+				.filter(Objects::nonNull)
+				.distinct()
+				.collect(Collectors.toUnmodifiableList()));
+		paymentDtos.forEach(p -> p.setOrderDto(orderDtos.getOrDefault(p.getOrderDto().getOrderId(), p.getOrderDto())));
+		return paymentDtos;
 	}
 	
 	@Override
+	@Transactional(readOnly = true)
 	public PaymentDto findById(final Integer paymentId) {
 		log.info("*** PaymentDto, service; fetch payment by id *");
 		return this.paymentRepository.findById(paymentId)
+				.or(() -> this.paymentArchiver.findArchived(paymentId))
 				.map(PaymentMappingHelper::map)
 				.map(p -> {
 					p.setOrderDto(this.restTemplate.getForObject(AppConstant.DiscoveredDomainsApi
@@ -56,6 +86,56 @@ public class PaymentServiceImpl implements PaymentService {
 				.orElseThrow(() -> new PaymentNotFoundException(String.format("Payment with id: %d not found", paymentId)));
 	}
 	
+	/**
+	 * Reads the order's payments, archived ones included, through the {@code order_id} indexes. The order is
+	 * fetched once, and only when asked for.
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<PaymentDto> findAllByOrderId(final Integer orderId, final boolean withOrder) {
+		log.info("*** PaymentDto List, service; fetch payments by order id *");
+		final List<PaymentDto> paymentDtos = Stream.concat(
+				this.paymentRepository.findAllByOrderIdOrderByPaymentId(orderId).stream(), 
+				this.paymentArchiver.findArchivedByOrderId(orderId).stream())
+					.map(PaymentMappingHelper::map)
+					.collect(Collectors.toUnmodifiableList());
+		if (withOrder && !paymentDtos.isEmpty()) {
+			final OrderDto orderDto = this.restTemplate.getForObject(
+					AppConstant.DiscoveredDomainsApi.ORDER_SERVICE_API_URL + "/" + orderId, OrderDto.class);
+			paymentDtos.forEach(p -> p.setOrderDto(orderDto));
+		}
+		return paymentDtos;
+	}
+	
+	/**
+	 * Counts live payments per status in one grouped query; statuses without payments are reported as zero, and
+	 * payments without a status are reported last under a {@code null} status so the counts add up.
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<PaymentStatusCountDto> countByPaymentStatus() {
+		log.info("*** PaymentStatusCountDto List, service; count payments by status *");
+		final Map<PaymentStatus, Long> counts = new EnumMap<>(PaymentStatus.class);
+		for (final PaymentStatus paymentStatus : PaymentStatus.values())
+			counts.put(paymentStatus, 0L);
+		long withoutStatus = 0;
+		for (final Object[] row : this.paymentRepository.countByPaymentStatus()) {
+			if (row[0] == null)
+				withoutStatus += ((Number) row[1]).longValue();
+			else
+				counts.put((PaymentStatus) row[0], ((Number) row[1]).longValue());
+		}
+		final Stream<PaymentStatusCountDto> unknown = withoutStatus == 0 
+				? Stream.empty() 
+				: Stream.of(PaymentStatusCountDto.builder().count(withoutStatus).build());
+		return Stream.concat(counts.entrySet().stream()
+					.map(count -> PaymentStatusCountDto.builder()
+							.paymentStatus(count.getKey())
+							.count(count.getValue())
+							.build()), unknown)
+				.collect(Collectors.toUnmodifiableList());
+	}
+	
 	@Override
 	public PaymentDto save(final PaymentDto paymentDto) {
 		log.info("*** PaymentDto, service; save payment *");
@@ -66,6 +146,7 @@ public class PaymentServiceImpl implements PaymentService {
 	@Override
 	public PaymentDto update(final PaymentDto paymentDto) {
 		log.info("*** PaymentDto, service; update payment *");
+		this.checkNotArchived(paymentDto.getPaymentId());
 		return PaymentMappingHelper.map(this.paymentRepository
 				.save(PaymentMappingHelper.map(paymentDto)));
 	}
@@ -73,9 +154,31 @@ public class PaymentServiceImpl implements PaymentService {
 	@Override
 	public void deleteById(final Integer paymentId) {
 		log.info("*** Void, service; delete payment by id *");
+		this.checkNotArchived(paymentId);
+		if (!this.paymentRepository.existsById(paymentId))
+			throw new PaymentNotFoundException(String.format("Payment with id: %d not found", paymentId));
 		this.paymentRepository.deleteById(paymentId);
 	}
 	
+	/**
+	 * Archived payments are read-only; merging one would insert it again as a new live payment.
+	 */
+	private void checkNotArchived(final Integer paymentId) {
+		if (paymentId != null && !this.paymentRepository.existsById(paymentId) && this.paymentArchiver.findArchived(paymentId).isPresent())
+			throw new ArchivedPaymentException(String.format("Payment with id: %d is archived and can no longer be changed", paymentId));
+	}
+	
+	private Map<Integer, OrderDto> findOrders(final List<Integer> orderIds) {
+		final Map<Integer, OrderDto> orderDtos = new HashMap<>();
+		for (int from = 0; from < orderIds.size(); from += ORDER_BATCH_SIZE)
+			this.restTemplate.exchange(AppConstant.DiscoveredDomainsApi.ORDER_SERVICE_API_URL + "/batch", HttpMethod.POST, 
+					new HttpEntity<>(orderIds.subList(from, Math.min(orderIds.size(), from + ORDER_BATCH_SIZE))), ORDERS_TYPE)
+					.getBody()
+					.getCollection()
+					.forEach(orderDto -> orderDtos.put(orderDto.getOrderId(), orderDto));
+		return orderDtos;
+	}
+	
 	
 	
 }
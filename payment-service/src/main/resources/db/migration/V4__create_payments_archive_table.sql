@@ -0,0 +1,13 @@
+
+CREATE TABLE payments_archive (
+	payment_id INT(11) NOT NULL PRIMARY KEY,
+	order_id INT(11),
+	is_payed BOOLEAN,
+	payment_status VARCHAR(255),
+	created_at TIMESTAMP NOT NULL,
+	updated_at TIMESTAMP,
+	archived_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_payments_created ON payments (created_at, payment_id);
+
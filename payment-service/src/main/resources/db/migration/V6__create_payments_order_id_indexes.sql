@@ -0,0 +1,5 @@
+
+CREATE INDEX idx_payments_order_status ON payments (order_id, payment_status);
+
+CREATE INDEX idx_payments_archive_order ON payments_archive (order_id);
+
@@ -0,0 +1,28 @@
+
+CREATE TABLE payment_reconciliation_runs (
+	run_id INT(11) NOT NULL PRIMARY KEY AUTO_INCREMENT,
+	scheduled_at TIMESTAMP NOT NULL,
+	status VARCHAR(16) NOT NULL,
+	cursor_payment_id INT(11) NOT NULL,
+	checked_count BIGINT NOT NULL,
+	discrepancy_count BIGINT NOT NULL,
+	owner CHAR(36),
+	locked_until TIMESTAMP NULL,
+	started_at TIMESTAMP NOT NULL,
+	finished_at TIMESTAMP NULL,
+	CONSTRAINT uk_payment_reconciliation_runs_scheduled UNIQUE (scheduled_at)
+);
+
+CREATE INDEX idx_payment_reconciliation_runs_status ON payment_reconciliation_runs (status, run_id);
+
+CREATE TABLE payment_discrepancies (
+	run_id INT(11) NOT NULL,
+	payment_id INT(11) NOT NULL,
+	discrepancy_type VARCHAR(32) NOT NULL,
+	order_id INT(11),
+	is_payed BOOLEAN,
+	payment_status VARCHAR(255),
+	detected_at TIMESTAMP NOT NULL,
+	PRIMARY KEY (run_id, payment_id, discrepancy_type)
+);
+
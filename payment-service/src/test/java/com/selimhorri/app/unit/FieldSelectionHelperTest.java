@@ -0,0 +1,76 @@
+package com.selimhorri.app.unit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.selimhorri.app.domain.PaymentStatus;
+import com.selimhorri.app.dto.OrderDto;
+import com.selimhorri.app.dto.PaymentDto;
+import com.selimhorri.app.exception.wrapper.InvalidFieldSelectionException;
+import com.selimhorri.app.helper.FieldSelectionHelper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FieldSelectionHelperTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final PaymentDto paymentDto = PaymentDto.builder()
+            .paymentId(1)
+            .isPayed(true)
+            .paymentStatus(PaymentStatus.COMPLETED)
+            .orderDto(OrderDto.builder().orderId(100).orderDesc("Order for electronics").orderFee(50.0).build())
+            .build();
+
+    @Test
+    void givenNoParameters_whenRelations_thenEveryRelationIsExpanded() {
+        assertNull(FieldSelectionHelper.parse(null));
+        assertEquals(PaymentDto.RELATIONS, FieldSelectionHelper.relations(null, null, PaymentDto.RELATIONS));
+        assertEquals(Set.of(), FieldSelectionHelper.relations(FieldSelectionHelper.parse(""), null, PaymentDto.RELATIONS));
+        final List<PaymentDto> paymentDtos = List.of(paymentDto);
+        assertSame(paymentDtos, FieldSelectionHelper.select(objectMapper, paymentDtos, null));
+    }
+
+    @Test
+    void givenFieldsOnly_whenRelations_thenOnlyRelationsNamedInFieldsAreExpanded() {
+        assertEquals(Set.of(), FieldSelectionHelper.relations(null,
+                FieldSelectionHelper.parse("paymentId, isPayed"), PaymentDto.RELATIONS));
+        assertEquals(Set.of(PaymentDto.ORDER), FieldSelectionHelper.relations(null,
+                FieldSelectionHelper.parse("paymentId,order.orderFee"), PaymentDto.RELATIONS));
+    }
+
+    @Test
+    void givenFields_whenSelect_thenJsonIsTrimmedToThem() {
+        final JsonNode selected = (JsonNode) FieldSelectionHelper.select(objectMapper, List.of(paymentDto),
+                FieldSelectionHelper.fields(objectMapper, PaymentDto.class, "paymentId,order.orderId,order.orderFee")).iterator().next();
+
+        assertEquals(List.of("paymentId", "order"), names(selected));
+        assertEquals(List.of("orderId", "orderFee"), names(selected.get("order")));
+        assertEquals(100, selected.get("order").get("orderId").asInt());
+    }
+
+    @Test
+    void givenUnknownRelationOrField_whenSelected_thenSelectionIsRejected() {
+        assertThrows(InvalidFieldSelectionException.class,
+                () -> FieldSelectionHelper.relations(Set.of("customer"), null, PaymentDto.RELATIONS));
+        assertThrows(InvalidFieldSelectionException.class,
+                () -> FieldSelectionHelper.fields(objectMapper, PaymentDto.class, "orderDto"));
+        final InvalidFieldSelectionException nested = assertThrows(InvalidFieldSelectionException.class,
+                () -> FieldSelectionHelper.fields(objectMapper, PaymentDto.class, "paymentId,order.bogus"));
+        assertTrue(nested.getMessage().startsWith("Unknown field: order.bogus"));
+        assertThrows(InvalidFieldSelectionException.class,
+                () -> FieldSelectionHelper.fields(objectMapper, PaymentDto.class, "paymentId.value"));
+        assertNull(FieldSelectionHelper.fields(objectMapper, PaymentDto.class, null));
+    }
+
+    private static List<String> names(final JsonNode node) {
+        final List<String> names = new ArrayList<>();
+        node.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+
+}
@@ -0,0 +1,155 @@
+package com.selimhorri.app.unit;
+
+import com.selimhorri.app.config.reconciliation.PaymentReconciler;
+import com.selimhorri.app.config.reconciliation.ReconciliationProperties;
+import com.selimhorri.app.dto.OrderDto;
+import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import javax.sql.DataSource;
+import javax.validation.Validation;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Migrates an in-memory database seeded with four payments, reconciles them against a stubbed order-service
+ * that does not know order 4, and checks the report, the checkpoint after a failed chunk, and the run lease.
+ */
+class PaymentReconcilerTest {
+
+    private static final LocalDateTime SCHEDULED_AT = LocalDateTime.of(2021, 1, 1, 2, 0);
+
+    private JdbcTemplate jdbcTemplate;
+    private RestTemplate restTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private ReconciliationProperties properties;
+    private PaymentReconciler reconciler;
+
+    @BeforeEach
+    void setup() {
+        final DataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:payment-reconciliation-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("UPDATE payments SET is_payed = true WHERE payment_id = 2");
+        jdbcTemplate.update("UPDATE payments SET payment_status = 'COMPLETED' WHERE payment_id = 3");
+
+        restTemplate = mock(RestTemplate.class);
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class),
+                ArgumentMatchers.<ParameterizedTypeReference<DtoCollectionResponse<OrderDto>>>any())).thenAnswer(invocation -> {
+                    final List<?> orderIds = (List<?>) invocation.getArgument(2, HttpEntity.class).getBody();
+                    return ResponseEntity.ok(new DtoCollectionResponse<>(orderIds.stream()
+                            .map(Integer.class::cast)
+                            .filter(orderId -> orderId != 4)
+                            .map(orderId -> OrderDto.builder().orderId(orderId).build())
+                            .collect(Collectors.toList())));
+                });
+
+        properties = new ReconciliationProperties();
+        properties.setChunkSize(2);
+        meterRegistry = new SimpleMeterRegistry();
+        reconciler = new PaymentReconciler(jdbcTemplate, new TransactionTemplate(new DataSourceTransactionManager(dataSource)),
+                restTemplate, meterRegistry, properties);
+    }
+
+    @Test
+    void givenInconsistentPayments_whenRun_thenEveryDiscrepancyIsReported() {
+        reconciler.run(SCHEDULED_AT);
+
+        assertEquals(Map.of(2, "PAYED_NOT_COMPLETED", 3, "COMPLETED_NOT_PAYED", 4, "ORDER_MISSING"), discrepancies());
+        final Map<String, Object> run = jdbcTemplate.queryForMap("SELECT * FROM payment_reconciliation_runs");
+        assertEquals("COMPLETED", run.get("status"));
+        assertEquals(4, ((Number) run.get("checked_count")).intValue());
+        assertEquals(3, ((Number) run.get("discrepancy_count")).intValue());
+        assertNull(run.get("owner"));
+        assertEquals(4.0, meterRegistry.get("payment.reconciliation.checked").counter().count());
+        assertEquals(1.0, meterRegistry.get("payment.reconciliation.discrepancies").tag("type", "ORDER_MISSING").counter().count());
+        verify(restTemplate, times(2)).exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class),
+                ArgumentMatchers.<ParameterizedTypeReference<DtoCollectionResponse<OrderDto>>>any());
+    }
+
+    @Test
+    void givenFailedLookup_whenRetried_thenRunResumesAfterTheLastChunk() throws InterruptedException {
+        properties.setLease(Duration.ofMillis(300));
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class),
+                ArgumentMatchers.<ParameterizedTypeReference<DtoCollectionResponse<OrderDto>>>any()))
+                .thenAnswer(invocation -> ResponseEntity.ok(new DtoCollectionResponse<>(List.of(
+                        OrderDto.builder().orderId(1).build(), OrderDto.builder().orderId(2).build()))))
+                .thenThrow(new ResourceAccessException("order-service down"))
+                .thenAnswer(invocation -> ResponseEntity.ok(new DtoCollectionResponse<>(List.of(
+                        OrderDto.builder().orderId(3).build()))));
+
+        reconciler.run(SCHEDULED_AT);
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT cursor_payment_id FROM payment_reconciliation_runs", Integer.class));
+        assertEquals(Map.of(2, "PAYED_NOT_COMPLETED"), discrepancies());
+        // the failed instance gave its lease up instead of holding it until it runs out
+        assertNull(jdbcTemplate.queryForObject("SELECT owner FROM payment_reconciliation_runs", String.class));
+
+        final long deadline = System.currentTimeMillis() + 5_000;
+        while (!"COMPLETED".equals(jdbcTemplate.queryForObject("SELECT status FROM payment_reconciliation_runs", String.class))
+                && System.currentTimeMillis() < deadline)
+            Thread.sleep(20);
+
+        assertEquals(Map.of(2, "PAYED_NOT_COMPLETED", 3, "COMPLETED_NOT_PAYED", 4, "ORDER_MISSING"), discrepancies());
+        assertEquals(4, jdbcTemplate.queryForObject("SELECT checked_count FROM payment_reconciliation_runs", Integer.class));
+        assertEquals("COMPLETED", jdbcTemplate.queryForObject("SELECT status FROM payment_reconciliation_runs", String.class));
+    }
+
+    @Test
+    void givenRunOwnedElsewhere_whenRunAgain_thenNoSecondRunIsStartedOrTakenOver() {
+        jdbcTemplate.update("INSERT INTO payment_reconciliation_runs (scheduled_at, status, cursor_payment_id, checked_count, "
+                + "discrepancy_count, owner, locked_until, started_at) VALUES (?, 'RUNNING', 0, 0, 0, 'other', ?, ?)",
+                Timestamp.valueOf(SCHEDULED_AT), Timestamp.from(Instant.now().plusSeconds(60)), Timestamp.from(Instant.now()));
+
+        reconciler.run(SCHEDULED_AT);
+
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM payment_reconciliation_runs", Integer.class));
+        assertEquals("other", jdbcTemplate.queryForObject("SELECT owner FROM payment_reconciliation_runs", String.class));
+        verify(restTemplate, never()).exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class),
+                ArgumentMatchers.<ParameterizedTypeReference<DtoCollectionResponse<OrderDto>>>any());
+    }
+
+    @Test
+    void givenChunkAboveTheOrderBatchCap_whenValidated_thenItIsRejected() {
+        properties.setChunkSize(1001);
+
+        assertEquals(1, Validation.buildDefaultValidatorFactory().getValidator().validate(properties).size());
+    }
+
+    private Map<Integer, String> discrepancies() {
+        return jdbcTemplate.query("SELECT payment_id, discrepancy_type FROM payment_discrepancies", (resultSet, rowNum) ->
+                Map.entry(resultSet.getInt("payment_id"), resultSet.getString("discrepancy_type"))).stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+}
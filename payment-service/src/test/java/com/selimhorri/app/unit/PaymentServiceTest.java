@@ -1,23 +1,33 @@
 package com.selimhorri.app.unit;
 
+import com.selimhorri.app.config.archive.PaymentArchiver;
 import com.selimhorri.app.domain.Payment;
 import com.selimhorri.app.domain.PaymentStatus;
 import com.selimhorri.app.dto.OrderDto;
 import com.selimhorri.app.dto.PaymentDto;
+import com.selimhorri.app.dto.PaymentStatusCountDto;
+import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+import com.selimhorri.app.exception.wrapper.ArchivedPaymentException;
 import com.selimhorri.app.exception.wrapper.PaymentNotFoundException;
 import com.selimhorri.app.helper.PaymentMappingHelper;
 import com.selimhorri.app.repository.PaymentRepository;
 import com.selimhorri.app.service.impl.PaymentServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -30,6 +40,9 @@ class PaymentServiceTest {
     @Mock
     private RestTemplate restTemplate;
 
+    @Mock
+    private PaymentArchiver paymentArchiver;
+
     @InjectMocks
     private PaymentServiceImpl paymentService;
 
@@ -65,16 +78,39 @@ class PaymentServiceTest {
 
     @Test
     void testFindAll_success() {
-        when(paymentRepository.findAll()).thenReturn(List.of(payment));
-        when(restTemplate.getForObject(anyString(), eq(OrderDto.class))).thenReturn(orderDto);
+        final Payment second = Payment.builder()
+                .paymentId(2)
+                .orderId(100)
+                .isPayed(false)
+                .paymentStatus(PaymentStatus.NOT_STARTED)
+                .build();
+        when(paymentRepository.findAll()).thenReturn(List.of(payment, second));
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class),
+                ArgumentMatchers.<ParameterizedTypeReference<DtoCollectionResponse<OrderDto>>>any()))
+                .thenReturn(ResponseEntity.ok(new DtoCollectionResponse<>(List.of(orderDto))));
 
-        List<PaymentDto> result = paymentService.findAll();
+        List<PaymentDto> result = paymentService.findAll(PaymentDto.RELATIONS);
 
-        assertFalse(result.isEmpty());
-        assertEquals(1, result.size());
+        assertEquals(2, result.size());
         assertEquals(PaymentStatus.COMPLETED, result.get(0).getPaymentStatus());
         assertTrue(result.get(0).getIsPayed());
+        assertEquals("Order for electronics", result.get(0).getOrderDto().getOrderDesc());
+        assertEquals("Order for electronics", result.get(1).getOrderDto().getOrderDesc());
         verify(paymentRepository, times(1)).findAll();
+        verify(restTemplate, times(1)).exchange(endsWith("/batch"), eq(HttpMethod.POST), any(HttpEntity.class),
+                ArgumentMatchers.<ParameterizedTypeReference<DtoCollectionResponse<OrderDto>>>any());
+        verify(restTemplate, never()).getForObject(anyString(), eq(OrderDto.class));
+    }
+
+    @Test
+    void testFindAll_withoutRelations_noOrderLookup() {
+        when(paymentRepository.findAll()).thenReturn(List.of(payment));
+
+        List<PaymentDto> result = paymentService.findAll(Set.of());
+
+        assertEquals(100, result.get(0).getOrderDto().getOrderId());
+        assertNull(result.get(0).getOrderDto().getOrderDesc());
+        verifyNoInteractions(restTemplate);
     }
 
     @Test
@@ -101,6 +137,66 @@ class PaymentServiceTest {
         assertTrue(exception.getMessage().contains("Payment with id: 99 not found"));
     }
 
+    @Test
+    void testFindById_archived() {
+        when(paymentRepository.findById(1)).thenReturn(Optional.empty());
+        when(paymentArchiver.findArchived(1)).thenReturn(Optional.of(payment));
+        when(restTemplate.getForObject(anyString(), eq(OrderDto.class))).thenReturn(orderDto);
+
+        PaymentDto result = paymentService.findById(1);
+
+        assertEquals(1, result.getPaymentId());
+        assertEquals(100, result.getOrderDto().getOrderId());
+        verify(paymentArchiver, times(1)).findArchived(1);
+    }
+
+    @Test
+    void testFindAllByOrderId_withoutOrder() {
+        final Payment archived = Payment.builder()
+                .paymentId(2)
+                .orderId(100)
+                .isPayed(false)
+                .paymentStatus(PaymentStatus.NOT_STARTED)
+                .build();
+        when(paymentRepository.findAllByOrderIdOrderByPaymentId(100)).thenReturn(List.of(payment));
+        when(paymentArchiver.findArchivedByOrderId(100)).thenReturn(List.of(archived));
+
+        List<PaymentDto> result = paymentService.findAllByOrderId(100, false);
+
+        assertEquals(2, result.size());
+        assertEquals(100, result.get(1).getOrderDto().getOrderId());
+        assertNull(result.get(0).getOrderDto().getOrderDesc());
+        verifyNoInteractions(restTemplate);
+        verify(paymentRepository, never()).findAll();
+    }
+
+    @Test
+    void testFindAllByOrderId_withOrder() {
+        when(paymentRepository.findAllByOrderIdOrderByPaymentId(100)).thenReturn(List.of(payment, payment));
+        when(paymentArchiver.findArchivedByOrderId(100)).thenReturn(List.of());
+        when(restTemplate.getForObject(anyString(), eq(OrderDto.class))).thenReturn(orderDto);
+
+        List<PaymentDto> result = paymentService.findAllByOrderId(100, true);
+
+        assertEquals("Order for electronics", result.get(1).getOrderDto().getOrderDesc());
+        verify(restTemplate, times(1)).getForObject(anyString(), eq(OrderDto.class));
+    }
+
+    @Test
+    void testCountByPaymentStatus_fillsMissingStatusesAndKeepsUnknown() {
+        when(paymentRepository.countByPaymentStatus()).thenReturn(List.of(
+                new Object[] { PaymentStatus.COMPLETED, 3L },
+                new Object[] { null, 1L }));
+
+        List<PaymentStatusCountDto> result = paymentService.countByPaymentStatus();
+
+        assertEquals(List.of(
+                new PaymentStatusCountDto(PaymentStatus.NOT_STARTED, 0L),
+                new PaymentStatusCountDto(PaymentStatus.IN_PROGRESS, 0L),
+                new PaymentStatusCountDto(PaymentStatus.COMPLETED, 3L),
+                new PaymentStatusCountDto(null, 1L)), result);
+    }
+
     @Test
     void testSave_success() {
         when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
@@ -114,11 +210,24 @@ class PaymentServiceTest {
 
     @Test
     void testDeleteById_success() {
+        when(paymentRepository.existsById(1)).thenReturn(true);
         doNothing().when(paymentRepository).deleteById(1);
 
         paymentService.deleteById(1);
 
         verify(paymentRepository, times(1)).deleteById(1);
     }
+
+    @Test
+    void testWrite_archivedPayment_rejected() {
+        when(paymentArchiver.findArchived(1)).thenReturn(Optional.of(payment));
+
+        assertThrows(ArchivedPaymentException.class, () -> paymentService.update(paymentDto));
+        assertThrows(ArchivedPaymentException.class, () -> paymentService.deleteById(1));
+        assertThrows(PaymentNotFoundException.class, () -> paymentService.deleteById(2));
+
+        verify(paymentRepository, never()).save(any(Payment.class));
+        verify(paymentRepository, never()).deleteById(anyInt());
+    }
 }
 
@@ -0,0 +1,37 @@
+package com.selimhorri.app.config.client;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Asks peer services for Smile ahead of JSON whenever the caller expects a JSON body. Peers without a
+ * Smile converter still answer with the JSON fallback, and external clients never send this preference.
+ */
+public class BinaryContentNegotiationInterceptor implements ClientHttpRequestInterceptor {
+	
+	public static final MediaType APPLICATION_SMILE = MediaType.valueOf("application/x-jackson-smile");
+	
+	private static final List<MediaType> ACCEPT = List.of(
+			APPLICATION_SMILE,
+			MediaType.valueOf("application/json;q=0.9"));
+	
+	@Override
+	public ClientHttpResponse intercept(final HttpRequest request, final byte[] body,
+			final ClientHttpRequestExecution execution) throws IOException {
+		
+		final List<MediaType> accept = request.getHeaders().getAccept();
+		if (accept.contains(MediaType.APPLICATION_JSON) && !accept.contains(MediaType.ALL))
+			request.getHeaders().setAccept(ACCEPT);
+		
+		return execution.execute(request, body);
+	}
+	
+	
+	
+}
@@ -0,0 +1,104 @@
+package com.selimhorri.app.config.datasource;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Statements executed on behalf of the current request, keyed by their normalized SQL so that the same
+ * statement repeated once per row (an N+1 shape) shows up as a single entry with a high count.
+ */
+public final class RequestStatementStats {
+	
+	private static final String UNMAPPED_ROUTE = "UNMAPPED";
+	private static final String NO_ROUTE = "NONE";
+	private static final Pattern LEADING_COMMENTS = Pattern.compile("^(\\s*(/\\*.*?\\*/|--[^\\n]*))*\\s*", Pattern.DOTALL);
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+	private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)");
+	private static final ThreadLocal<RequestStatementStats> CURRENT = new ThreadLocal<>();
+	
+	private final HttpServletRequest request;
+	private final Map<String, Integer> statementCounts = new HashMap<>();
+	private int statements;
+	private long elapsedMillis;
+	
+	private RequestStatementStats(final HttpServletRequest request) {
+		this.request = request;
+	}
+	
+	public static RequestStatementStats begin(final HttpServletRequest request) {
+		final var stats = new RequestStatementStats(request);
+		CURRENT.set(stats);
+		return stats;
+	}
+	
+	public static RequestStatementStats current() {
+		return CURRENT.get();
+	}
+	
+	public static void clear() {
+		CURRENT.remove();
+	}
+	
+	public static String currentRoute() {
+		final RequestStatementStats stats = CURRENT.get();
+		return stats == null ? NO_ROUTE : stats.route();
+	}
+	
+	/**
+	 * Drops the comments in front of a statement, such as the ones Hibernate adds with {@code use_sql_comments},
+	 * so that they neither hide its operation nor split one statement into several entries.
+	 */
+	public static String stripLeadingComments(final String sql) {
+		return LEADING_COMMENTS.matcher(sql).replaceFirst("");
+	}
+	
+	public static String normalize(final String sql) {
+		return IN_LIST.matcher(WHITESPACE.matcher(stripLeadingComments(sql).strip()).replaceAll(" ")).replaceAll("in (?)");
+	}
+	
+	public void record(final String sql, final long elapsedMillis) {
+		this.statements++;
+		this.elapsedMillis += elapsedMillis;
+		this.statementCounts.merge(normalize(sql), 1, Integer::sum);
+	}
+	
+	public String route() {
+		final Object pattern = this.request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+		return pattern == null ? UNMAPPED_ROUTE : this.request.getMethod() + " " + pattern;
+	}
+	
+	public int getStatements() {
+		return this.statements;
+	}
+	
+	public long getElapsedMillis() {
+		return this.elapsedMillis;
+	}
+	
+	public Map<String, Integer> repeatedStatements(final int threshold) {
+		final Map<String, Integer> repeated = new HashMap<>();
+		this.statementCounts.forEach((sql, count) -> {
+			if (count >= threshold)
+				repeated.put(sql, count);
+		});
+		return repeated;
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,32 @@
+package com.selimhorri.app.config.deadline;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@Configuration
+public class DeadlineConfig {
+	
+	@Bean
+	public PlatformTransactionManager transactionManager(
+			final ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers) {
+		final var transactionManager = new DeadlineAwareJpaTransactionManager();
+		transactionManagerCustomizers.ifAvailable(customizers -> customizers.customize(transactionManager));
+		return transactionManager;
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,45 @@
+package com.selimhorri.app.config.hotstock;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Configuration
+@ConditionalOnProperty(prefix = "app.hot-stock", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(HotStockProperties.class)
+public class HotStockConfig {
+	
+	@Bean(destroyMethod = "close")
+	public HotStockLedger hotStockLedgerBean(final HotStockProperties properties, final JdbcTemplate jdbcTemplate, 
+			final PlatformTransactionManager transactionManager) throws IOException {
+		
+		final var stockJournal = new StockJournal(Path.of(properties.getJournalDirectory()), 
+				properties.getJournalSegmentSize().toBytes(), properties.isJournalFsync());
+		final var hotStockLedger = new HotStockLedger(stockJournal, jdbcTemplate, 
+				new TransactionTemplate(transactionManager), properties);
+		hotStockLedger.recover();
+		hotStockLedger.start();
+		
+		return hotStockLedger;
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
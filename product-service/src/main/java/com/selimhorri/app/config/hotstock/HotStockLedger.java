@@ -0,0 +1,259 @@
+package com.selimhorri.app.config.hotstock;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Owns the stock of the flagged hot SKUs while hot mode is on: takes and gives hit striped in-memory
+ * counters and are journaled before the caller is answered, and the change since the previous flush is
+ * written behind to {@code products} as a delta in one batch per flush, together with the journal sequence
+ * it includes. On start the journal is replayed past that checkpoint, so a crash loses at most
+ * unacknowledged takes, never stock that was already handed out.
+ *
+ * The counters are authoritative for hot SKUs, so only one instance should run with a given SKU flagged.
+ * Because flushes only add deltas, a quantity written elsewhere meanwhile (a restock through the product
+ * API) is kept in {@code products}; the counters pick it up the next time hot mode is loaded.
+ */
+@Slf4j
+public class HotStockLedger implements Closeable {
+	
+	private static final int CHECKPOINT_ID = 1;
+	
+	private final StockJournal stockJournal;
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final HotStockProperties properties;
+	private final Map<Integer, StripedStockCounter> counters = new ConcurrentHashMap<>();
+	private final Map<Integer, Long> flushedAvailable = new HashMap<>();
+	private final ReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		final var thread = new Thread(runnable, "hot-stock-flush");
+		thread.setDaemon(true);
+		return thread;
+	});
+	
+	private long flushedSequence;
+	
+	public HotStockLedger(final StockJournal stockJournal, final JdbcTemplate jdbcTemplate,
+			final TransactionTemplate transactionTemplate, final HotStockProperties properties) {
+		this.stockJournal = stockJournal;
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = transactionTemplate;
+		this.properties = properties;
+	}
+	
+	/**
+	 * Applies journaled deltas past the checkpoint to {@code products}, then loads the flagged SKUs into counters.
+	 */
+	public synchronized void recover() throws IOException {
+		
+		final long checkpoint = this.jdbcTemplate.queryForObject(
+				"SELECT journal_sequence FROM hot_stock_checkpoint WHERE checkpoint_id = ?", Long.class, CHECKPOINT_ID);
+		this.stockJournal.advanceTo(checkpoint);
+		
+		final Map<Integer, Long> deltas = new TreeMap<>();
+		final long recovered = this.stockJournal.replay(checkpoint,
+				(sequence, productId, delta) -> deltas.merge(productId, (long) delta, Long::sum));
+		if (recovered > checkpoint) {
+			log.info("*** Recovering {} hot stock journal records for products {} *", recovered - checkpoint, deltas.keySet());
+			this.transactionTemplate.executeWithoutResult(status -> {
+				final List<Object[]> args = new ArrayList<>();
+				final Timestamp updatedAt = Timestamp.from(Instant.now());
+				deltas.forEach((productId, delta) -> args.add(new Object[] { delta, updatedAt, productId }));
+				this.jdbcTemplate.batchUpdate("UPDATE products SET quantity = quantity + ?, updated_at = ? WHERE product_id = ?", args);
+				this.checkpoint(recovered);
+			});
+		}
+		this.stockJournal.truncate(recovered);
+		this.flushedSequence = recovered;
+		
+		this.counters.clear();
+		this.flushedAvailable.clear();
+		if (!this.properties.getSkus().isEmpty())
+			new NamedParameterJdbcTemplate(this.jdbcTemplate).query(
+					"SELECT product_id, quantity FROM products WHERE sku IN (:skus)", Map.of("skus", this.properties.getSkus()),
+					resultSet -> {
+						final long available = Math.max(0, resultSet.getLong("quantity"));
+						this.counters.put(resultSet.getInt("product_id"), new StripedStockCounter(this.properties.getStripes(), available));
+						this.flushedAvailable.put(resultSet.getInt("product_id"), available);
+					});
+		log.info("*** Hot stock mode on for products {} *", this.counters.keySet());
+	}
+	
+	public void start() {
+		final long intervalMillis = this.properties.getFlushInterval().toMillis();
+		this.scheduler.scheduleWithFixedDelay(() -> {
+			try {
+				this.flush();
+			}
+			catch (RuntimeException e) {
+				log.warn("** Hot stock flush failed: {} *", e.getMessage());
+			}
+		}, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+	}
+	
+	public boolean isHot(final Integer productId) {
+		return this.counters.containsKey(productId);
+	}
+	
+	public long available(final Integer productId) {
+		return this.counters.get(productId).available();
+	}
+	
+	/**
+	 * Takes all quantities or none, returning the products that were short.
+	 */
+	public List<Integer> take(final Map<Integer, Integer> quantities) {
+		final Map<Integer, Integer> taken = new HashMap<>();
+		final List<Integer> shortProductIds = new ArrayList<>();
+		final long sequence;
+		
+		this.snapshotLock.readLock().lock();
+		try {
+			quantities.forEach((productId, quantity) -> {
+				if (this.counters.get(productId).tryTake(quantity))
+					taken.put(productId, quantity);
+				else
+					shortProductIds.add(productId);
+			});
+			if (!shortProductIds.isEmpty()) {
+				taken.forEach((productId, quantity) -> this.counters.get(productId).give(quantity));
+				return shortProductIds;
+			}
+			sequence = this.stockJournal.append(negate(quantities));
+		}
+		catch (IOException e) {
+			taken.forEach((productId, quantity) -> this.counters.get(productId).give(quantity));
+			throw new UncheckedIOException(e);
+		}
+		finally {
+			this.snapshotLock.readLock().unlock();
+		}
+		
+		this.sync(sequence);
+		return List.of();
+	}
+	
+	public void give(final Map<Integer, Integer> quantities) {
+		final long sequence;
+		
+		this.snapshotLock.readLock().lock();
+		try {
+			sequence = this.stockJournal.append(quantities);
+			quantities.forEach((productId, quantity) -> this.counters.get(productId).give(quantity));
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		finally {
+			this.snapshotLock.readLock().unlock();
+		}
+		
+		this.sync(sequence);
+	}
+	
+	/**
+	 * Adds the change of each counter since the previous flush to {@code products} as of a consistent
+	 * snapshot and checkpoints the journal there.
+	 */
+	public synchronized void flush() {
+		final Map<Integer, Long> snapshot = new TreeMap<>();
+		final long sequence;
+		
+		this.snapshotLock.writeLock().lock();
+		try {
+			sequence = this.stockJournal.lastSequence();
+			this.counters.forEach((productId, counter) -> snapshot.put(productId, counter.available()));
+		}
+		finally {
+			this.snapshotLock.writeLock().unlock();
+		}
+		if (sequence == this.flushedSequence)
+			return;
+		
+		this.transactionTemplate.executeWithoutResult(status -> {
+			final List<Object[]> args = new ArrayList<>();
+			final Timestamp updatedAt = Timestamp.from(Instant.now());
+			snapshot.forEach((productId, available) -> {
+				final long delta = available - this.flushedAvailable.get(productId);
+				if (delta != 0)
+					args.add(new Object[] { delta, updatedAt, productId });
+			});
+			if (!args.isEmpty())
+				this.jdbcTemplate.batchUpdate("UPDATE products SET quantity = quantity + ?, updated_at = ? WHERE product_id = ?", args);
+			this.checkpoint(sequence);
+		});
+		this.flushedAvailable.putAll(snapshot);
+		this.flushedSequence = sequence;
+		
+		try {
+			this.stockJournal.truncate(sequence);
+		}
+		catch (IOException e) {
+			log.warn("** Could not truncate hot stock journal: {} *", e.getMessage());
+		}
+	}
+	
+	@Override
+	public void close() throws IOException {
+		this.scheduler.shutdownNow();
+		try {
+			this.flush();
+		}
+		finally {
+			this.stockJournal.close();
+		}
+	}
+	
+	private void checkpoint(final long sequence) {
+		this.jdbcTemplate.update("UPDATE hot_stock_checkpoint SET journal_sequence = ?, updated_at = LOCALTIMESTAMP "
+				+ "WHERE checkpoint_id = ?", sequence, CHECKPOINT_ID);
+	}
+	
+	private void sync(final long sequence) {
+		try {
+			this.stockJournal.sync(sequence);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	private static Map<Integer, Integer> negate(final Map<Integer, Integer> quantities) {
+		final Map<Integer, Integer> deltas = new TreeMap<>();
+		quantities.forEach((productId, quantity) -> deltas.put(productId, -quantity));
+		return deltas;
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,23 @@
+package com.selimhorri.app.config.hotstock;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Data;
+
+@ConfigurationProperties(prefix = "app.hot-stock")
+@Data
+public class HotStockProperties {
+	
+	private boolean enabled = false;
+	private List<String> skus = List.of();
+	private int stripes = 16;
+	private Duration flushInterval = Duration.ofSeconds(1);
+	private String journalDirectory = "hot-stock-journal";
+	private DataSize journalSegmentSize = DataSize.ofMegabytes(16);
+	private boolean journalFsync = true;
+	
+}
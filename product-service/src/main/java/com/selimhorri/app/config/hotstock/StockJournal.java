@@ -0,0 +1,227 @@
+package com.selimhorri.app.config.hotstock;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Local append-only journal of stock deltas. Each record is {@code sequence, productId, delta} plus a CRC,
+ * written to numbered segment files; replay stops at the first torn or corrupt record. Callers append under
+ * their own ordering and then {@link #sync(long)}, which forces the file once for every record written so far,
+ * so concurrent appenders share one fsync.
+ */
+@Slf4j
+public class StockJournal implements Closeable {
+	
+	private static final int RECORD_BYTES = 20;
+	private static final int PAYLOAD_BYTES = 16;
+	private static final String SEGMENT_SUFFIX = ".journal";
+	
+	@FunctionalInterface
+	public interface RecordConsumer {
+		void accept(final long sequence, final int productId, final int delta);
+	}
+	
+	private final Path directory;
+	private final long segmentBytes;
+	private final boolean fsync;
+	private final Object syncLock = new Object();
+	
+	private FileChannel channel;
+	private long sequence;
+	private volatile long syncedSequence;
+	
+	public StockJournal(final Path directory, final long segmentBytes, final boolean fsync) throws IOException {
+		this.directory = directory;
+		this.segmentBytes = segmentBytes;
+		this.fsync = fsync;
+		Files.createDirectories(directory);
+		
+		final List<Path> segments = this.segments();
+		if (segments.isEmpty()) {
+			this.channel = this.openSegment(1);
+		}
+		else {
+			long validBytes = 0;
+			for (final Path segment : segments)
+				validBytes = this.scan(segment, (sequence, productId, delta) -> this.sequence = sequence);
+			final Path current = segments.get(segments.size() - 1);
+			this.channel = FileChannel.open(current, StandardOpenOption.WRITE);
+			if (this.channel.size() > validBytes) {
+				log.warn("** Dropping torn tail of stock journal segment {} *", current.getFileName());
+				this.channel.truncate(validBytes);
+			}
+			this.channel.position(validBytes);
+		}
+		this.syncedSequence = this.sequence;
+	}
+	
+	public synchronized long append(final Map<Integer, Integer> deltas) throws IOException {
+		
+		if (this.channel.size() >= this.segmentBytes)
+			this.roll();
+		
+		final long start = this.channel.position();
+		final long firstSequence = this.sequence + 1;
+		final ByteBuffer buffer = ByteBuffer.allocate(RECORD_BYTES * deltas.size());
+		final CRC32 crc = new CRC32();
+		long next = firstSequence;
+		for (final Map.Entry<Integer, Integer> entry : deltas.entrySet()) {
+			final int offset = buffer.position();
+			buffer.putLong(next++).putInt(entry.getKey()).putInt(entry.getValue());
+			crc.reset();
+			crc.update(buffer.array(), offset, PAYLOAD_BYTES);
+			buffer.putInt((int) crc.getValue());
+		}
+		buffer.flip();
+		
+		try {
+			while (buffer.hasRemaining())
+				this.channel.write(buffer);
+		}
+		catch (IOException e) {
+			this.channel.truncate(start);
+			this.channel.position(start);
+			throw e;
+		}
+		this.sequence = next - 1;
+		return this.sequence;
+	}
+	
+	public void sync(final long sequence) throws IOException {
+		if (!this.fsync || sequence <= this.syncedSequence)
+			return;
+		synchronized (this.syncLock) {
+			if (sequence <= this.syncedSequence)
+				return;
+			final FileChannel channel;
+			final long written;
+			synchronized (this) {
+				channel = this.channel;
+				written = this.sequence;
+			}
+			try {
+				channel.force(false);
+				this.syncedSequence = written;
+			}
+			catch (ClosedChannelException e) {
+				// the segment was rolled, which forces it before closing
+				if (sequence > this.syncedSequence)
+					throw e;
+			}
+		}
+	}
+	
+	public synchronized long lastSequence() {
+		return this.sequence;
+	}
+	
+	/**
+	 * Keeps sequences increasing past a checkpoint even when the journal files were lost.
+	 */
+	public synchronized void advanceTo(final long sequence) {
+		if (sequence > this.sequence) {
+			this.sequence = sequence;
+			this.syncedSequence = sequence;
+		}
+	}
+	
+	public long replay(final long afterSequence, final RecordConsumer consumer) throws IOException {
+		final long[] last = { afterSequence };
+		for (final Path segment : this.segments())
+			this.scan(segment, (sequence, productId, delta) -> {
+				if (sequence > afterSequence) {
+					consumer.accept(sequence, productId, delta);
+					last[0] = Math.max(last[0], sequence);
+				}
+			});
+		return last[0];
+	}
+	
+	/**
+	 * Deletes every closed segment whose records are all at or below the given checkpointed sequence.
+	 */
+	public synchronized void truncate(final long throughSequence) throws IOException {
+		final List<Path> segments = this.segments();
+		for (int i = 0; i < segments.size() - 1; i++)
+			if (firstSequence(segments.get(i + 1)) - 1 <= throughSequence)
+				Files.deleteIfExists(segments.get(i));
+	}
+	
+	@Override
+	public synchronized void close() throws IOException {
+		if (this.fsync)
+			this.channel.force(false);
+		this.channel.close();
+	}
+	
+	private void roll() throws IOException {
+		if (this.fsync)
+			this.channel.force(false);
+		this.channel.close();
+		this.syncedSequence = this.sequence;
+		this.channel = this.openSegment(this.sequence + 1);
+	}
+	
+	private FileChannel openSegment(final long firstSequence) throws IOException {
+		return FileChannel.open(this.directory.resolve(String.format("%020d%s", firstSequence, SEGMENT_SUFFIX)),
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+	}
+	
+	private long scan(final Path segment, final RecordConsumer consumer) throws IOException {
+		long validBytes = 0;
+		final CRC32 crc = new CRC32();
+		try (final InputStream inputStream = new BufferedInputStream(Files.newInputStream(segment))) {
+			final byte[] record = new byte[RECORD_BYTES];
+			while (inputStream.readNBytes(record, 0, RECORD_BYTES) == RECORD_BYTES) {
+				final ByteBuffer buffer = ByteBuffer.wrap(record);
+				crc.reset();
+				crc.update(record, 0, PAYLOAD_BYTES);
+				if (buffer.getInt(PAYLOAD_BYTES) != (int) crc.getValue())
+					break;
+				consumer.accept(buffer.getLong(0), buffer.getInt(8), buffer.getInt(12));
+				validBytes += RECORD_BYTES;
+			}
+		}
+		return validBytes;
+	}
+	
+	private List<Path> segments() throws IOException {
+		try (final Stream<Path> files = Files.list(this.directory)) {
+			return files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+					.sorted()
+					.collect(Collectors.toList());
+		}
+	}
+	
+	private static long firstSequence(final Path segment) {
+		final String name = segment.getFileName().toString();
+		return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
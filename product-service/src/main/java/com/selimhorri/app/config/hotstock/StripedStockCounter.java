@@ -0,0 +1,79 @@
+package com.selimhorri.app.config.hotstock;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Stock of one product split across cache-line padded stripes, in the spirit of {@code LongAdder}, so
+ * concurrent takes mostly CAS different words. A take only succeeds on a stripe that can cover it, so no
+ * stripe ever goes below zero; when the caller's home stripe is short, the slow path drains every stripe
+ * under a lock, takes from the exact total and spreads the remainder back.
+ */
+public class StripedStockCounter {
+	
+	private static final int PADDING = 8;
+	
+	private final int stripeCount;
+	private final AtomicLongArray stripes;
+	
+	public StripedStockCounter(final int stripeCount, final long available) {
+		this.stripeCount = stripeCount;
+		this.stripes = new AtomicLongArray(stripeCount * PADDING);
+		this.spread(available);
+	}
+	
+	public boolean tryTake(final long quantity) {
+		final int index = this.homeIndex();
+		long current = this.stripes.get(index);
+		while (current >= quantity) {
+			if (this.stripes.compareAndSet(index, current, current - quantity))
+				return true;
+			current = this.stripes.get(index);
+		}
+		return this.slowTake(quantity);
+	}
+	
+	public void give(final long quantity) {
+		this.stripes.addAndGet(this.homeIndex(), quantity);
+	}
+	
+	public long available() {
+		long available = 0;
+		for (int i = 0; i < this.stripeCount; i++)
+			available += this.stripes.get(i * PADDING);
+		return available;
+	}
+	
+	private synchronized boolean slowTake(final long quantity) {
+		long drained = 0;
+		for (int i = 0; i < this.stripeCount; i++)
+			drained += this.stripes.getAndSet(i * PADDING, 0);
+		final boolean taken = drained >= quantity;
+		this.spread(taken ? drained - quantity : drained);
+		return taken;
+	}
+	
+	private void spread(final long quantity) {
+		final long share = quantity / this.stripeCount;
+		final long remainder = quantity % this.stripeCount;
+		for (int i = 0; i < this.stripeCount; i++)
+			this.stripes.addAndGet(i * PADDING, share + (i < remainder ? 1 : 0));
+	}
+	
+	private int homeIndex() {
+		final long mixed = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+		return (int) ((mixed >>> 32) % this.stripeCount) * PADDING;
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
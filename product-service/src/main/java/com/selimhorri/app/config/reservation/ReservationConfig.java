@@ -0,0 +1,33 @@
+package com.selimhorri.app.config.reservation;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.selimhorri.app.service.ReservationService;
+
+@Configuration
+@EnableConfigurationProperties(ReservationProperties.class)
+public class ReservationConfig {
+	
+	@Bean(destroyMethod = "close")
+	public ReservationExpiryScheduler reservationExpirySchedulerBean(final ReservationService reservationService, 
+			final ReservationProperties properties) {
+		final var reservationExpiryScheduler = new ReservationExpiryScheduler(reservationService, properties);
+		reservationExpiryScheduler.start();
+		return reservationExpiryScheduler;
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
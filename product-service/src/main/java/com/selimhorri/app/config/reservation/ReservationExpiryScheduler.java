@@ -0,0 +1,75 @@
+package com.selimhorri.app.config.reservation;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.selimhorri.app.service.ReservationService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Periodically expires reservations past their TTL and returns their stock. Each reservation expires in its
+ * own transaction, so one that was committed or released meanwhile is simply skipped.
+ */
+@Slf4j
+public class ReservationExpiryScheduler implements Closeable {
+	
+	private final ReservationService reservationService;
+	private final ReservationProperties properties;
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		final var thread = new Thread(runnable, "reservation-expiry");
+		thread.setDaemon(true);
+		return thread;
+	});
+	
+	public ReservationExpiryScheduler(final ReservationService reservationService, final ReservationProperties properties) {
+		this.reservationService = reservationService;
+		this.properties = properties;
+	}
+	
+	public void start() {
+		final long intervalMillis = this.properties.getSweepInterval().toMillis();
+		this.scheduler.scheduleWithFixedDelay(this::sweep, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+	}
+	
+	public int sweep() {
+		int expired = 0;
+		try {
+			List<String> reservationIds;
+			do {
+				reservationIds = this.reservationService.findOverdueIds(this.properties.getSweepBatchSize());
+				for (final String reservationId : reservationIds)
+					if (this.reservationService.expire(reservationId))
+						expired++;
+			}
+			while (reservationIds.size() == this.properties.getSweepBatchSize());
+		}
+		catch (RuntimeException e) {
+			log.warn("** Reservation expiry sweep failed: {} *", e.getMessage());
+		}
+		if (expired > 0)
+			log.info("*** Expired {} reservations *", expired);
+		return expired;
+	}
+	
+	@Override
+	public void close() {
+		this.scheduler.shutdownNow();
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,28 @@
+package com.selimhorri.app.config.reservation;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@ConfigurationProperties(prefix = "app.reservation")
+@Data
+public class ReservationProperties {
+	
+	private Duration defaultTtl = Duration.ofMinutes(15);
+	private Duration maxTtl = Duration.ofHours(1);
+	private Duration sweepInterval = Duration.ofSeconds(30);
+	private int sweepBatchSize = 100;
+	
+}
+
+
+
+
+
+
+
+
+
+
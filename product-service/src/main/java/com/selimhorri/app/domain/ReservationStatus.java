@@ -0,0 +1,20 @@
+package com.selimhorri.app.domain;
+
+public enum ReservationStatus {
+	
+	RESERVED,
+	COMMITTED,
+	RELEASED,
+	EXPIRED;
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,8 @@
+package com.selimhorri.app.dto;
+
+public enum ChangeType {
+	
+	UPSERT,
+	DELETE;
+	
+}
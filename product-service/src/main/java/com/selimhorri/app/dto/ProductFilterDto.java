@@ -0,0 +1,40 @@
+package com.selimhorri.app.dto;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class ProductFilterDto implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	private Integer categoryId;
+	private Double minPrice;
+	private Double maxPrice;
+	private Boolean inStock;
+	private String sort;
+	private String cursor;
+	private Integer limit;
+	
+	public boolean isEmpty() {
+		return this.categoryId == null && this.minPrice == null && this.maxPrice == null && this.inStock == null 
+				&& this.sort == null && this.cursor == null && this.limit == null;
+	}
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,55 @@
+package com.selimhorri.app.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.List;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Positive;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonFormat.Shape;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.selimhorri.app.domain.ReservationStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class ReservationDto implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	private String reservationId;
+	private ReservationStatus status;
+	
+	@JsonFormat(shape = Shape.STRING)
+	private Instant expiresAt;
+	
+	@JsonInclude(Include.NON_NULL)
+	@Positive(message = "TTL must be positive")
+	private Long ttlSeconds;
+	
+	@JsonProperty("items")
+	@NotEmpty(message = "Reservation must contain at least one item")
+	@Valid
+	private List<ReservationItemDto> reservationItemDtos;
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,39 @@
+package com.selimhorri.app.dto.response.collection;
+
+import java.time.Instant;
+import java.util.Collection;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonFormat.Shape;
+import com.selimhorri.app.dto.ChangeDto;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * A page of changes. {@code nextCursor} is always set and resumes right after this page, so consumers can
+ * keep it between polls; {@code watermark} is the latest change time it covers.
+ */
+@NoArgsConstructor
+@Data
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class ChangeFeedResponse<T> extends DtoCollectionResponse<ChangeDto<T>> {
+	
+	private String nextCursor;
+	private boolean hasMore;
+	
+	@JsonFormat(shape = Shape.STRING)
+	private Instant watermark;
+	
+	public ChangeFeedResponse(final Collection<ChangeDto<T>> collection, final String nextCursor, final boolean hasMore,
+			final Instant watermark) {
+		super(collection);
+		this.nextCursor = nextCursor;
+		this.hasMore = hasMore;
+		this.watermark = watermark;
+	}
+	
+}
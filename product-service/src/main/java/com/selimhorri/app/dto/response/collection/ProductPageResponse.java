@@ -0,0 +1,49 @@
+package com.selimhorri.app.dto.response.collection;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.selimhorri.app.dto.CategoryFacetDto;
+import com.selimhorri.app.dto.ProductDto;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * A page of filtered products. Facets are only computed for the first page, and {@code nextCursor} is
+ * absent on the last one, so the unfiltered response keeps the plain {@link DtoCollectionResponse} shape.
+ */
+@NoArgsConstructor
+@Data
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class ProductPageResponse extends DtoCollectionResponse<ProductDto> {
+	
+	@JsonInclude(Include.NON_NULL)
+	private List<CategoryFacetDto> facets;
+	
+	@JsonInclude(Include.NON_NULL)
+	private String nextCursor;
+	
+	public ProductPageResponse(final Collection<ProductDto> collection, final List<CategoryFacetDto> facets, 
+			final String nextCursor) {
+		super(collection);
+		this.facets = facets;
+		this.nextCursor = nextCursor;
+	}
+	
+}
+
+
+
+
+
+
+
+
+
+
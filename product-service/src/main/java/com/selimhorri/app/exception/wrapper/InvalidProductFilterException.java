@@ -0,0 +1,35 @@
+package com.selimhorri.app.exception.wrapper;
+
+public class InvalidProductFilterException extends RuntimeException {
+	
+	private static final long serialVersionUID = 1L;
+	
+	public InvalidProductFilterException() {
+		super();
+	}
+	
+	public InvalidProductFilterException(String message, Throwable cause) {
+		super(message, cause);
+	}
+	
+	public InvalidProductFilterException(String message) {
+		super(message);
+	}
+	
+	public InvalidProductFilterException(Throwable cause) {
+		super(cause);
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,35 @@
+package com.selimhorri.app.exception.wrapper;
+
+public class ReservationStateException extends RuntimeException {
+	
+	private static final long serialVersionUID = 1L;
+	
+	public ReservationStateException() {
+		super();
+	}
+	
+	public ReservationStateException(String message, Throwable cause) {
+		super(message, cause);
+	}
+	
+	public ReservationStateException(String message) {
+		super(message);
+	}
+	
+	public ReservationStateException(Throwable cause) {
+		super(cause);
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
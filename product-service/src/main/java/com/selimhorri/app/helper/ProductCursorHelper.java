@@ -0,0 +1,50 @@
+package com.selimhorri.app.helper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.selimhorri.app.domain.Product;
+import com.selimhorri.app.exception.wrapper.InvalidProductFilterException;
+import com.selimhorri.app.repository.ProductSort;
+
+/**
+ * Opaque keyset cursors: the sort key and id of the last product of a page, base64url encoded.
+ */
+public interface ProductCursorHelper {
+	
+	public static String encode(final ProductSort sort, final Product product) {
+		final String key = sort.isByPrice() 
+				? product.getPriceUnit() + ":" + product.getProductId() 
+				: String.valueOf(product.getProductId());
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	/**
+	 * Returns {@code [priceUnit, productId]} for price sorts and {@code [productId]} otherwise.
+	 */
+	public static Object[] decode(final ProductSort sort, final String cursor) {
+		try {
+			final String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			if (!sort.isByPrice())
+				return new Object[] { Integer.valueOf(key) };
+			final int separator = key.lastIndexOf(':');
+			return new Object[] { Double.valueOf(key.substring(0, separator)), Integer.valueOf(key.substring(separator + 1)) };
+		}
+		catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+			throw new InvalidProductFilterException(String.format("Invalid cursor: %s", cursor), e);
+		}
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
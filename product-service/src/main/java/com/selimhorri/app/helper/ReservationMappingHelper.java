@@ -0,0 +1,38 @@
+package com.selimhorri.app.helper;
+
+import java.util.stream.Collectors;
+
+import com.selimhorri.app.domain.Reservation;
+import com.selimhorri.app.dto.ReservationDto;
+import com.selimhorri.app.dto.ReservationItemDto;
+
+public interface ReservationMappingHelper {
+	
+	public static ReservationDto map(final Reservation reservation) {
+		return ReservationDto.builder()
+				.reservationId(reservation.getReservationId())
+				.status(reservation.getStatus())
+				.expiresAt(reservation.getExpiresAt())
+				.reservationItemDtos(reservation.getReservationItems()
+						.stream()
+							.map(reservationItem -> ReservationItemDto.builder()
+									.productId(reservationItem.getProductId())
+									.quantity(reservationItem.getQuantity())
+									.build())
+							.collect(Collectors.toUnmodifiableList()))
+				.build();
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
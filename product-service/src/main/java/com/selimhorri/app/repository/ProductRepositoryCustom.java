@@ -0,0 +1,25 @@
+package com.selimhorri.app.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.selimhorri.app.domain.Product;
+import com.selimhorri.app.dto.CategoryFacetDto;
+
+public interface ProductRepositoryCustom {
+	
+	List<Product> findPage(final Specification<Product> specification, final ProductSort sort, final int limit);
+	List<CategoryFacetDto> countByCategory(final Specification<Product> specification);
+	
+}
+
+
+
+
+
+
+
+
+
+
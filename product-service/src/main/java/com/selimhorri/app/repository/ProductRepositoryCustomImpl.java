@@ -0,0 +1,98 @@
+package com.selimhorri.app.repository;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.selimhorri.app.domain.Category;
+import com.selimhorri.app.domain.Product;
+import com.selimhorri.app.dto.CategoryFacetDto;
+
+/**
+ * Criteria queries behind product filtering: a keyset page that fetches categories in the same statement
+ * and never counts, and facet counts for every category in one grouped query.
+ */
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+	
+	@PersistenceContext
+	private EntityManager entityManager;
+	
+	@Override
+	public List<Product> findPage(final Specification<Product> specification, final ProductSort sort, final int limit) {
+		
+		final CriteriaBuilder criteriaBuilder = this.entityManager.getCriteriaBuilder();
+		final CriteriaQuery<Product> query = criteriaBuilder.createQuery(Product.class);
+		final Root<Product> root = query.from(Product.class);
+		root.fetch("category", JoinType.LEFT);
+		
+		final Predicate predicate = specification == null ? null : specification.toPredicate(root, query, criteriaBuilder);
+		if (predicate != null)
+			query.where(predicate);
+		
+		final Order byId = sort.isDescending() 
+				? criteriaBuilder.desc(root.get("productId")) 
+				: criteriaBuilder.asc(root.get("productId"));
+		if (sort.isByPrice())
+			query.orderBy(sort.isDescending() 
+					? criteriaBuilder.desc(root.get("priceUnit")) 
+					: criteriaBuilder.asc(root.get("priceUnit")), byId);
+		else
+			query.orderBy(byId);
+		
+		return this.entityManager.createQuery(query.select(root))
+				.setMaxResults(limit)
+				.getResultList();
+	}
+	
+	@Override
+	public List<CategoryFacetDto> countByCategory(final Specification<Product> specification) {
+		
+		final CriteriaBuilder criteriaBuilder = this.entityManager.getCriteriaBuilder();
+		final CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+		final Root<Product> root = query.from(Product.class);
+		final Join<Product, Category> category = root.join("category", JoinType.LEFT);
+		
+		final Predicate predicate = specification == null ? null : specification.toPredicate(root, query, criteriaBuilder);
+		if (predicate != null)
+			query.where(predicate);
+		
+		query.multiselect(category.get("categoryId"), category.get("categoryTitle"), criteriaBuilder.count(root))
+				.groupBy(category.get("categoryId"), category.get("categoryTitle"))
+				.orderBy(criteriaBuilder.desc(criteriaBuilder.count(root)), criteriaBuilder.asc(category.get("categoryId")));
+		
+		return this.entityManager.createQuery(query)
+				.getResultList()
+				.stream()
+					.map(tuple -> CategoryFacetDto.builder()
+							.categoryId(tuple.get(0, Integer.class))
+							.categoryTitle(tuple.get(1, String.class))
+							.count(tuple.get(2, Long.class))
+							.build())
+					.collect(Collectors.toUnmodifiableList());
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
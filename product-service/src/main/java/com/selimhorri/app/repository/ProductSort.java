@@ -0,0 +1,47 @@
+package com.selimhorri.app.repository;
+
+import java.util.Arrays;
+
+import com.selimhorri.app.exception.wrapper.InvalidProductFilterException;
+
+public enum ProductSort {
+	
+	PRODUCT_ID("productId,asc"),
+	PRICE_UNIT_ASC("priceUnit,asc"),
+	PRICE_UNIT_DESC("priceUnit,desc");
+	
+	private final String value;
+	
+	private ProductSort(final String value) {
+		this.value = value;
+	}
+	
+	public boolean isByPrice() {
+		return this != PRODUCT_ID;
+	}
+	
+	public boolean isDescending() {
+		return this == PRICE_UNIT_DESC;
+	}
+	
+	public static ProductSort of(final String sort) {
+		if (sort == null || sort.isBlank())
+			return PRODUCT_ID;
+		final String value = sort.contains(",") ? sort.trim() : sort.trim() + ",asc";
+		return Arrays.stream(values())
+				.filter(productSort -> productSort.value.equalsIgnoreCase(value))
+				.findFirst()
+				.orElseThrow(() -> new InvalidProductFilterException(String.format("Unsupported sort: %s", sort)));
+	}
+	
+}
+
+
+
+
+
+
+
+
+
+
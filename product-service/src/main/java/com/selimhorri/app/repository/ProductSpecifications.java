@@ -0,0 +1,82 @@
+package com.selimhorri.app.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.selimhorri.app.domain.Product;
+import com.selimhorri.app.helper.ProductCursorHelper;
+
+/**
+ * Product filters; each returns {@code null} when its parameter is absent so they compose with
+ * {@link Specification#and(Specification)}.
+ */
+public interface ProductSpecifications {
+	
+	public static Specification<Product> inCategory(final Integer categoryId) {
+		if (categoryId == null)
+			return null;
+		return (root, query, criteriaBuilder) -> criteriaBuilder
+				.equal(root.get("category").get("categoryId"), categoryId);
+	}
+	
+	public static Specification<Product> priceAtLeast(final Double minPrice) {
+		if (minPrice == null)
+			return null;
+		return (root, query, criteriaBuilder) -> criteriaBuilder.ge(root.get("priceUnit"), minPrice);
+	}
+	
+	public static Specification<Product> priceAtMost(final Double maxPrice) {
+		if (maxPrice == null)
+			return null;
+		return (root, query, criteriaBuilder) -> criteriaBuilder.le(root.get("priceUnit"), maxPrice);
+	}
+	
+	public static Specification<Product> inStock(final Boolean inStock) {
+		if (inStock == null)
+			return null;
+		return (root, query, criteriaBuilder) -> inStock 
+				? criteriaBuilder.gt(root.get("quantity"), 0) 
+				: criteriaBuilder.or(criteriaBuilder.le(root.get("quantity"), 0), criteriaBuilder.isNull(root.get("quantity")));
+	}
+	
+	/**
+	 * Restricts to products after the cursor in the given order; price orders skip products without a price.
+	 */
+	public static Specification<Product> after(final ProductSort sort, final String cursor) {
+		if (cursor == null) {
+			if (!sort.isByPrice())
+				return null;
+			return (root, query, criteriaBuilder) -> criteriaBuilder.isNotNull(root.get("priceUnit"));
+		}
+		
+		final Object[] key = ProductCursorHelper.decode(sort, cursor);
+		if (!sort.isByPrice())
+			return (root, query, criteriaBuilder) -> criteriaBuilder.gt(root.get("productId"), (Integer) key[0]);
+		
+		return (root, query, criteriaBuilder) -> {
+			final Double priceUnit = (Double) key[0];
+			final Integer productId = (Integer) key[1];
+			return sort.isDescending() 
+					? criteriaBuilder.or(
+							criteriaBuilder.lt(root.get("priceUnit"), priceUnit), 
+							criteriaBuilder.and(
+									criteriaBuilder.equal(root.get("priceUnit"), priceUnit), 
+									criteriaBuilder.lt(root.get("productId"), productId))) 
+					: criteriaBuilder.or(
+							criteriaBuilder.gt(root.get("priceUnit"), priceUnit), 
+							criteriaBuilder.and(
+									criteriaBuilder.equal(root.get("priceUnit"), priceUnit), 
+									criteriaBuilder.gt(root.get("productId"), productId)));
+		};
+	}
+	
+}
+
+
+
+
+
+
+
+
+
+
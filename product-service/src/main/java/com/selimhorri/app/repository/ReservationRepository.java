@@ -0,0 +1,48 @@
+package com.selimhorri.app.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.selimhorri.app.domain.Reservation;
+
+/**
+ * Status changes are conditional updates guarded on {@code RESERVED}, so exactly one of a concurrent
+ * commit, release or expiry wins; each returns 0 when the reservation has already left that state.
+ */
+public interface ReservationRepository extends JpaRepository<Reservation, String> {
+	
+	@Modifying(clearAutomatically = true, flushAutomatically = true)
+	@Query("UPDATE Reservation r SET r.status = com.selimhorri.app.domain.ReservationStatus.COMMITTED, r.updatedAt = :now "
+			+ "WHERE r.reservationId = :reservationId AND r.status = com.selimhorri.app.domain.ReservationStatus.RESERVED AND r.expiresAt > :now")
+	int commit(@Param("reservationId") final String reservationId, @Param("now") final Instant now);
+	
+	@Modifying(clearAutomatically = true, flushAutomatically = true)
+	@Query("UPDATE Reservation r SET r.status = com.selimhorri.app.domain.ReservationStatus.RELEASED, r.updatedAt = :now "
+			+ "WHERE r.reservationId = :reservationId AND r.status = com.selimhorri.app.domain.ReservationStatus.RESERVED")
+	int release(@Param("reservationId") final String reservationId, @Param("now") final Instant now);
+	
+	@Modifying(clearAutomatically = true, flushAutomatically = true)
+	@Query("UPDATE Reservation r SET r.status = com.selimhorri.app.domain.ReservationStatus.EXPIRED, r.updatedAt = :now "
+			+ "WHERE r.reservationId = :reservationId AND r.status = com.selimhorri.app.domain.ReservationStatus.RESERVED AND r.expiresAt <= :now")
+	int expire(@Param("reservationId") final String reservationId, @Param("now") final Instant now);
+	
+	@Query("SELECT r.reservationId FROM Reservation r WHERE r.status = com.selimhorri.app.domain.ReservationStatus.RESERVED AND r.expiresAt <= :now ORDER BY r.expiresAt")
+	List<String> findOverdueIds(@Param("now") final Instant now, final Pageable pageable);
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -1,5 +1,7 @@
 package com.selimhorri.app.resource;
 
+import java.time.Instant;
+
 import javax.validation.Valid;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
@@ -12,11 +14,16 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.selimhorri.app.domain.Category;
 import com.selimhorri.app.dto.CategoryDto;
+import com.selimhorri.app.dto.response.collection.ChangeFeedResponse;
 import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+import com.selimhorri.app.helper.CategoryMappingHelper;
 import com.selimhorri.app.service.CategoryService;
+import com.selimhorri.app.service.ChangeFeedService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -28,6 +35,7 @@ import lombok.extern.slf4j.Slf4j;
 public class CategoryResource {
 	
 	private final CategoryService categoryService;
+	private final ChangeFeedService changeFeedService;
 	
 	@GetMapping
 	public ResponseEntity<DtoCollectionResponse<CategoryDto>> findAll() {
@@ -35,6 +43,15 @@ public class CategoryResource {
 		return ResponseEntity.ok(new DtoCollectionResponse<>(this.categoryService.findAll()));
 	}
 	
+	@GetMapping("/changes")
+	public ResponseEntity<ChangeFeedResponse<CategoryDto>> findChanges(
+			@RequestParam(name = "since", required = false) final Instant since,
+			@RequestParam(name = "cursor", required = false) final String cursor,
+			@RequestParam(name = "limit", required = false) final Integer limit) {
+		log.info("*** ChangeFeedResponse, resource; fetch category changes *");
+		return ResponseEntity.ok(this.changeFeedService.findChanges(Category.class, CategoryMappingHelper::map, since, cursor, limit));
+	}
+	
 	@GetMapping("/{categoryId}")
 	public ResponseEntity<CategoryDto> findById(
 			@PathVariable("categoryId") 
@@ -1,9 +1,13 @@
 package com.selimhorri.app.resource;
 
+import java.time.Instant;
+import java.util.List;
+
 import javax.validation.Valid;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,10 +16,18 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.selimhorri.app.domain.Product;
 import com.selimhorri.app.dto.ProductDto;
+import com.selimhorri.app.dto.ProductFilterDto;
+import com.selimhorri.app.dto.response.collection.ChangeFeedResponse;
 import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+import com.selimhorri.app.helper.ProductMappingHelper;
+import com.selimhorri.app.service.ChangeFeedService;
 import com.selimhorri.app.service.ProductService;
 
 import lombok.RequiredArgsConstructor;
@@ -27,12 +39,29 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class ProductResource {
 	
+	private static final int STREAM_CHUNK_SIZE = 100;
+	
 	private final ProductService productService;
+	private final ChangeFeedService changeFeedService;
+	private final ObjectMapper objectMapper;
 	
 	@GetMapping
-	public ResponseEntity<DtoCollectionResponse<ProductDto>> findAll() {
-		log.info("*** ProductDto List, controller; fetch all categories *");
-		return ResponseEntity.ok(new DtoCollectionResponse<>(this.productService.findAll()));
+	public ResponseEntity<DtoCollectionResponse<ProductDto>> findAll(final ProductFilterDto productFilterDto) {
+		if (productFilterDto.isEmpty()) {
+			log.info("*** ProductDto List, controller; fetch all categories *");
+			return ResponseEntity.ok(new DtoCollectionResponse<>(this.productService.findAll()));
+		}
+		log.info("*** ProductPageResponse, resource; fetch filtered products *");
+		return ResponseEntity.ok(this.productService.findAll(productFilterDto));
+	}
+	
+	@GetMapping("/changes")
+	public ResponseEntity<ChangeFeedResponse<ProductDto>> findChanges(
+			@RequestParam(name = "since", required = false) final Instant since,
+			@RequestParam(name = "cursor", required = false) final String cursor,
+			@RequestParam(name = "limit", required = false) final Integer limit) {
+		log.info("*** ChangeFeedResponse, resource; fetch product changes *");
+		return ResponseEntity.ok(this.changeFeedService.findChanges(Product.class, ProductMappingHelper::map, since, cursor, limit));
 	}
 	
 	@GetMapping("/{productId}")
@@ -44,6 +73,35 @@ public class ProductResource {
 		return ResponseEntity.ok(this.productService.findById(Integer.parseInt(productId)));
 	}
 	
+	@PostMapping("/batch")
+	public ResponseEntity<DtoCollectionResponse<ProductDto>> findAllByIds(
+			@RequestBody 
+			@NotNull(message = "Input must not be NULL!") 
+			@Valid final List<Integer> productIds) {
+		log.info("*** ProductDto List, resource; fetch products by ids *");
+		return ResponseEntity.ok(new DtoCollectionResponse<>(this.productService.findAllByIds(productIds)));
+	}
+	
+	@PostMapping("/batch/stream")
+	public ResponseEntity<StreamingResponseBody> streamAllByIds(
+			@RequestBody 
+			@NotNull(message = "Input must not be NULL!") 
+			@Valid final List<Integer> productIds) {
+		log.info("*** ProductDto Stream, resource; stream products by ids *");
+		return ResponseEntity.ok()
+				.contentType(MediaType.APPLICATION_NDJSON)
+				.body(outputStream -> {
+					for (int from = 0; from < productIds.size(); from += STREAM_CHUNK_SIZE) {
+						final var chunk = productIds.subList(from, Math.min(productIds.size(), from + STREAM_CHUNK_SIZE));
+						for (final ProductDto productDto : this.productService.findAllByIds(chunk)) {
+							outputStream.write(this.objectMapper.writeValueAsBytes(productDto));
+							outputStream.write('\n');
+						}
+						outputStream.flush();
+					}
+				});
+	}
+	
 	@PostMapping
 	public ResponseEntity<ProductDto> save(
 			@RequestBody 
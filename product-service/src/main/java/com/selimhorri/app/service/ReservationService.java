@@ -0,0 +1,26 @@
+package com.selimhorri.app.service;
+
+import java.util.List;
+
+import com.selimhorri.app.dto.ReservationDto;
+
+public interface ReservationService {
+	
+	ReservationDto findById(final String reservationId);
+	ReservationDto reserve(final ReservationDto reservationDto);
+	ReservationDto commit(final String reservationId);
+	ReservationDto release(final String reservationId);
+	boolean expire(final String reservationId);
+	List<String> findOverdueIds(final int limit);
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,193 @@
+package com.selimhorri.app.service.impl;
+
+import java.lang.reflect.Field;
+import java.sql.Timestamp;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.selimhorri.app.config.changefeed.ChangeFeedCursor;
+import com.selimhorri.app.config.changefeed.ChangeFeedProperties;
+import com.selimhorri.app.config.changefeed.EntityKeys;
+import com.selimhorri.app.domain.AbstractMappedEntity;
+import com.selimhorri.app.dto.ChangeDto;
+import com.selimhorri.app.dto.ChangeType;
+import com.selimhorri.app.dto.response.collection.ChangeFeedResponse;
+import com.selimhorri.app.exception.wrapper.InvalidCursorException;
+import com.selimhorri.app.service.ChangeFeedService;
+
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Change feeds read rows in {@code (updated_at, id)} order and tombstones in {@code (deleted_at, tombstone_id)}
+ * order, each with its own keyset, and merge them by time. Changes younger than the commit lag are held back
+ * so a transaction that commits late with an older {@code updated_at} is not skipped by a cursor that has
+ * already moved past it.
+ */
+@Service
+@Transactional(readOnly = true)
+@Slf4j
+@RequiredArgsConstructor
+public class ChangeFeedServiceImpl implements ChangeFeedService {
+	
+	private static final String FIND_TOMBSTONES = "SELECT tombstone_id, entity_id, deleted_at FROM tombstones "
+			+ "WHERE entity_type = ? AND deleted_at <= ? AND (deleted_at > ? OR (deleted_at = ? AND tombstone_id > ?)) "
+			+ "ORDER BY deleted_at, tombstone_id LIMIT ?";
+	
+	@PersistenceContext
+	private EntityManager entityManager;
+	
+	private final JdbcTemplate jdbcTemplate;
+	private final ChangeFeedProperties changeFeedProperties;
+	
+	@Override
+	public <E extends AbstractMappedEntity, D> ChangeFeedResponse<D> findChanges(final Class<E> entityClass,
+			final Function<E, D> mapper, final Instant since, final String cursor, final Integer limit) {
+		log.info("*** ChangeFeedResponse, service; fetch changes *");
+		
+		final int size = limit == null
+				? this.changeFeedProperties.getDefaultLimit()
+				: Math.max(1, Math.min(this.changeFeedProperties.getMaxLimit(), limit));
+		// every writer of updated_at and deleted_at stamps the JVM clock, so the cut-off must come from it too
+		final Instant upTo = Instant.now().minus(this.changeFeedProperties.getCommitLag());
+		final ChangeFeedCursor position = this.position(entityClass, since, cursor);
+		
+		final List<E> rows = this.findRows(entityClass, position, upTo, size + 1);
+		final List<Tombstone> tombstones = this.findTombstones(entityClass, position, upTo, size + 1);
+		
+		final List<ChangeDto<D>> changes = new ArrayList<>();
+		int row = 0;
+		int tombstone = 0;
+		while (changes.size() < size && (row < rows.size() || tombstone < tombstones.size())) {
+			if (tombstone == tombstones.size() || (row < rows.size()
+					&& !rows.get(row).getUpdatedAt().isAfter(tombstones.get(tombstone).deletedAt))) {
+				final E entity = rows.get(row++);
+				position.setRowChangedAt(entity.getUpdatedAt());
+				position.setRowKey(EntityKeys.format(entity));
+				changes.add(ChangeDto.<D>builder()
+						.type(ChangeType.UPSERT)
+						.id(position.getRowKey())
+						.changedAt(entity.getUpdatedAt())
+						.entity(mapper.apply(entity))
+						.build());
+			}
+			else {
+				final Tombstone deleted = tombstones.get(tombstone++);
+				position.setTombstoneChangedAt(deleted.deletedAt);
+				position.setTombstoneId(deleted.tombstoneId);
+				changes.add(ChangeDto.<D>builder()
+						.type(ChangeType.DELETE)
+						.id(deleted.entityId)
+						.changedAt(deleted.deletedAt)
+						.build());
+			}
+		}
+		
+		final boolean hasMore = row < rows.size() || tombstone < tombstones.size();
+		return new ChangeFeedResponse<>(changes, position.encode(), hasMore, position.getWatermark());
+	}
+	
+	private ChangeFeedCursor position(final Class<?> entityClass, final Instant since, final String cursor) {
+		if (cursor == null)
+			return ChangeFeedCursor.since(since == null ? Instant.EPOCH : since);
+		try {
+			final ChangeFeedCursor position = ChangeFeedCursor.decode(cursor);
+			if (position.getRowKey() != null)
+				EntityKeys.parse(entityClass, position.getRowKey());
+			return position;
+		}
+		catch (IllegalArgumentException | DateTimeException e) {
+			throw new InvalidCursorException(String.format("Invalid cursor: %s", cursor), e);
+		}
+	}
+	
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private <E extends AbstractMappedEntity> List<E> findRows(final Class<E> entityClass, final ChangeFeedCursor position,
+			final Instant upTo, final int limit) {
+		
+		final CriteriaBuilder criteriaBuilder = this.entityManager.getCriteriaBuilder();
+		final CriteriaQuery<E> query = criteriaBuilder.createQuery(entityClass);
+		final Root<E> root = query.from(entityClass);
+		final List<Field> idFields = EntityKeys.idFields(entityClass);
+		
+		final List<Path<Comparable>> keyPaths = new ArrayList<>();
+		keyPaths.add(root.get("updatedAt"));
+		idFields.forEach(field -> keyPaths.add(root.get(field.getName())));
+		
+		final List<Comparable> keyValues = new ArrayList<>();
+		keyValues.add(position.getRowChangedAt());
+		if (position.getRowKey() != null)
+			for (final Object value : EntityKeys.parse(entityClass, position.getRowKey()))
+				keyValues.add((Comparable) value);
+		
+		// (k0, k1, ..., kn) > (v0, v1, ..., vn) over the key columns present in the cursor
+		final List<Predicate> after = new ArrayList<>();
+		for (int i = 0; i < keyValues.size(); i++) {
+			final List<Predicate> terms = new ArrayList<>();
+			for (int j = 0; j < i; j++)
+				terms.add(criteriaBuilder.equal(keyPaths.get(j), keyValues.get(j)));
+			terms.add(criteriaBuilder.greaterThan(keyPaths.get(i), keyValues.get(i)));
+			after.add(criteriaBuilder.and(terms.toArray(Predicate[]::new)));
+		}
+		
+		final List<Order> orders = new ArrayList<>();
+		keyPaths.forEach(path -> orders.add(criteriaBuilder.asc(path)));
+		query.select(root)
+				.where(criteriaBuilder.lessThanOrEqualTo(keyPaths.get(0), (Comparable) upTo),
+						criteriaBuilder.or(after.toArray(Predicate[]::new)))
+				.orderBy(orders);
+		
+		return this.entityManager.createQuery(query)
+				.setMaxResults(limit)
+				.getResultList();
+	}
+	
+	private List<Tombstone> findTombstones(final Class<?> entityClass, final ChangeFeedCursor position,
+			final Instant upTo, final int limit) {
+		final Timestamp changedAt = Timestamp.from(position.getTombstoneChangedAt());
+		final long tombstoneId = position.getTombstoneId() == null ? Long.MAX_VALUE : position.getTombstoneId();
+		return this.jdbcTemplate.query(FIND_TOMBSTONES,
+				(resultSet, rowNum) -> new Tombstone(resultSet.getLong("tombstone_id"), resultSet.getString("entity_id"),
+						resultSet.getTimestamp("deleted_at").toInstant()),
+				EntityKeys.type(entityClass), Timestamp.from(upTo), changedAt, changedAt, tombstoneId, limit);
+	}
+	
+	@AllArgsConstructor
+	private static final class Tombstone {
+		
+		private final long tombstoneId;
+		private final String entityId;
+		private final Instant deletedAt;
+		
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -1,16 +1,27 @@
 package com.selimhorri.app.service.impl;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
-import javax.transaction.Transactional;
-
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.selimhorri.app.domain.Product;
+import com.selimhorri.app.dto.CategoryFacetDto;
 import com.selimhorri.app.dto.ProductDto;
+import com.selimhorri.app.dto.ProductFilterDto;
+import com.selimhorri.app.dto.response.collection.ProductPageResponse;
+import com.selimhorri.app.exception.wrapper.BatchSizeExceededException;
 import com.selimhorri.app.exception.wrapper.ProductNotFoundException;
+import com.selimhorri.app.helper.ProductCursorHelper;
 import com.selimhorri.app.helper.ProductMappingHelper;
 import com.selimhorri.app.repository.ProductRepository;
+import com.selimhorri.app.repository.ProductSort;
+import com.selimhorri.app.repository.ProductSpecifications;
 import com.selimhorri.app.service.ProductService;
 
 import lombok.RequiredArgsConstructor;
@@ -22,9 +33,14 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class ProductServiceImpl implements ProductService {
 	
+	private static final int DEFAULT_PAGE_SIZE = 20;
+	private static final int MAX_PAGE_SIZE = 100;
+	private static final int MAX_BATCH_SIZE = 1000;
+	
 	private final ProductRepository productRepository;
 	
 	@Override
+	@Transactional(readOnly = true)
 	public List<ProductDto> findAll() {
 		log.info("*** ProductDto List, service; fetch all products *");
 		return this.productRepository.findAll()
@@ -34,7 +50,42 @@ public class ProductServiceImpl implements ProductService {
 					.collect(Collectors.toUnmodifiableList());
 	}
 	
+	/**
+	 * Keyset page of filtered products, fetched one row past the limit to know whether another page exists.
+	 * Facets count every category under the price and stock filters, ignoring the category filter itself.
+	 */
 	@Override
+	@Transactional(readOnly = true)
+	public ProductPageResponse findAll(final ProductFilterDto productFilterDto) {
+		log.info("*** ProductPageResponse, service; fetch filtered products *");
+		
+		final var sort = ProductSort.of(productFilterDto.getSort());
+		final int limit = productFilterDto.getLimit() == null 
+				? DEFAULT_PAGE_SIZE 
+				: Math.max(1, Math.min(MAX_PAGE_SIZE, productFilterDto.getLimit()));
+		final Specification<Product> filters = Specification
+				.where(ProductSpecifications.priceAtLeast(productFilterDto.getMinPrice()))
+				.and(ProductSpecifications.priceAtMost(productFilterDto.getMaxPrice()))
+				.and(ProductSpecifications.inStock(productFilterDto.getInStock()));
+		
+		final List<Product> products = this.productRepository.findPage(filters
+				.and(ProductSpecifications.inCategory(productFilterDto.getCategoryId()))
+				.and(ProductSpecifications.after(sort, productFilterDto.getCursor())), sort, limit + 1);
+		final String nextCursor = products.size() > limit 
+				? ProductCursorHelper.encode(sort, products.get(limit - 1)) 
+				: null;
+		final List<CategoryFacetDto> facets = productFilterDto.getCursor() == null 
+				? this.productRepository.countByCategory(filters) 
+				: null;
+		
+		return new ProductPageResponse(products.stream()
+					.limit(limit)
+					.map(ProductMappingHelper::map)
+					.collect(Collectors.toUnmodifiableList()), facets, nextCursor);
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
 	public ProductDto findById(final Integer productId) {
 		log.info("*** ProductDto, service; fetch product by id *");
 		return this.productRepository.findById(productId)
@@ -42,6 +93,25 @@ public class ProductServiceImpl implements ProductService {
 				.orElseThrow(() -> new ProductNotFoundException(String.format("Product with id: %d not found", productId)));
 	}
 	
+	@Override
+	@Transactional(readOnly = true)
+	public List<ProductDto> findAllByIds(final Collection<Integer> productIds) {
+		log.info("*** ProductDto List, service; fetch products by ids *");
+		final Set<Integer> distinctIds = new LinkedHashSet<>(productIds);
+		distinctIds.remove(null);
+		if (distinctIds.size() > MAX_BATCH_SIZE)
+			throw new BatchSizeExceededException(String.format("At most %d product ids can be fetched at once, got %d", 
+					MAX_BATCH_SIZE, distinctIds.size()));
+		if (distinctIds.isEmpty())
+			return List.of();
+		
+		return this.productRepository.findAllById(distinctIds)
+				.stream()
+					.map(ProductMappingHelper::map)
+					.distinct()
+					.collect(Collectors.toUnmodifiableList());
+	}
+	
 	@Override
 	public ProductDto save(final ProductDto productDto) {
 		log.info("*** ProductDto, service; save product *");
@@ -0,0 +1,246 @@
+package com.selimhorri.app.service.impl;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.selimhorri.app.config.hotstock.HotStockLedger;
+import com.selimhorri.app.config.reservation.ReservationProperties;
+import com.selimhorri.app.domain.Reservation;
+import com.selimhorri.app.domain.ReservationItem;
+import com.selimhorri.app.domain.ReservationStatus;
+import com.selimhorri.app.dto.ReservationDto;
+import com.selimhorri.app.dto.ReservationItemDto;
+import com.selimhorri.app.exception.wrapper.InsufficientStockException;
+import com.selimhorri.app.exception.wrapper.ReservationNotFoundException;
+import com.selimhorri.app.exception.wrapper.ReservationStateException;
+import com.selimhorri.app.helper.ReservationMappingHelper;
+import com.selimhorri.app.repository.ReservationRepository;
+import com.selimhorri.app.service.ReservationService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Stock is taken with one batched conditional {@code UPDATE ... WHERE quantity >= ?} per product instead of a
+ * read-modify-write of the entity, so concurrent reservations can never drive a quantity below zero. Product
+ * ids are merged and sorted before the batch so transactions touching the same hot rows lock them in the same
+ * order and cannot deadlock; any row that does not update rolls the whole reservation back.
+ * 
+ * In hot stock mode the flagged SKUs bypass the row updates and are taken from the {@link HotStockLedger}
+ * counters, given back if the transaction rolls back; released stock is only given back once the release
+ * commits, so a failed release can never hand out the same units twice.
+ */
+@Service
+@Transactional
+@Slf4j
+@RequiredArgsConstructor
+public class ReservationServiceImpl implements ReservationService {
+	
+	private static final String TAKE_STOCK = 
+			"UPDATE products SET quantity = quantity - ?, updated_at = ? WHERE product_id = ? AND quantity >= ?";
+	private static final String RETURN_STOCK = 
+			"UPDATE products SET quantity = quantity + ?, updated_at = ? WHERE product_id = ?";
+	
+	private final ReservationRepository reservationRepository;
+	private final JdbcTemplate jdbcTemplate;
+	private final ReservationProperties reservationProperties;
+	private final Optional<HotStockLedger> hotStockLedger;
+	
+	@Override
+	@Transactional(readOnly = true)
+	public ReservationDto findById(final String reservationId) {
+		log.info("*** ReservationDto, service; fetch reservation by id *");
+		return this.reservationRepository.findById(reservationId)
+				.map(ReservationMappingHelper::map)
+				.orElseThrow(() -> new ReservationNotFoundException(String
+						.format("Reservation with id: %s not found", reservationId)));
+	}
+	
+	@Override
+	public ReservationDto reserve(final ReservationDto reservationDto) {
+		log.info("*** ReservationDto, service; reserve stock *");
+		
+		final Map<Integer, Integer> quantities = reservationDto.getReservationItemDtos()
+				.stream()
+					.collect(Collectors.toMap(ReservationItemDto::getProductId, ReservationItemDto::getQuantity, 
+							Integer::sum, TreeMap::new));
+		final Map<Integer, Integer> hotQuantities = this.hotQuantities(quantities);
+		
+		this.takeStock(this.coldProductIds(quantities, hotQuantities), quantities);
+		this.takeHotStock(hotQuantities);
+		
+		final var reservation = Reservation.builder()
+				.reservationId(UUID.randomUUID().toString())
+				.status(ReservationStatus.RESERVED)
+				.expiresAt(Instant.now().plus(this.ttl(reservationDto)))
+				.build();
+		reservation.setReservationItems(quantities.entrySet()
+				.stream()
+					.map(entry -> ReservationItem.builder()
+							.reservation(reservation)
+							.productId(entry.getKey())
+							.quantity(entry.getValue())
+							.build())
+					.collect(Collectors.toList()));
+		
+		return ReservationMappingHelper.map(this.reservationRepository.save(reservation));
+	}
+	
+	@Override
+	public ReservationDto commit(final String reservationId) {
+		log.info("*** ReservationDto, service; commit reservation *");
+		if (this.reservationRepository.commit(reservationId, Instant.now()) == 0)
+			throw this.notReserved(reservationId);
+		return this.findById(reservationId);
+	}
+	
+	@Override
+	public ReservationDto release(final String reservationId) {
+		log.info("*** ReservationDto, service; release reservation *");
+		if (this.reservationRepository.release(reservationId, Instant.now()) == 0)
+			throw this.notReserved(reservationId);
+		final var reservationDto = this.findById(reservationId);
+		this.returnStock(reservationDto);
+		return reservationDto;
+	}
+	
+	@Override
+	public boolean expire(final String reservationId) {
+		log.info("*** Boolean, service; expire reservation *");
+		if (this.reservationRepository.expire(reservationId, Instant.now()) == 0)
+			return false;
+		this.returnStock(this.findById(reservationId));
+		return true;
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public List<String> findOverdueIds(final int limit) {
+		log.info("*** String List, service; fetch overdue reservation ids *");
+		return this.reservationRepository.findOverdueIds(Instant.now(), PageRequest.of(0, limit));
+	}
+	
+	private Duration ttl(final ReservationDto reservationDto) {
+		if (reservationDto.getTtlSeconds() == null)
+			return this.reservationProperties.getDefaultTtl();
+		final var ttl = Duration.ofSeconds(reservationDto.getTtlSeconds());
+		return ttl.compareTo(this.reservationProperties.getMaxTtl()) > 0 ? this.reservationProperties.getMaxTtl() : ttl;
+	}
+	
+	private void takeStock(final List<Integer> productIds, final Map<Integer, Integer> quantities) {
+		if (productIds.isEmpty())
+			return;
+		final Timestamp updatedAt = Timestamp.from(Instant.now());
+		final int[] updated = this.jdbcTemplate.batchUpdate(TAKE_STOCK, productIds, productIds.size(), 
+				(preparedStatement, productId) -> {
+					preparedStatement.setInt(1, quantities.get(productId));
+					preparedStatement.setTimestamp(2, updatedAt);
+					preparedStatement.setInt(3, productId);
+					preparedStatement.setInt(4, quantities.get(productId));
+				})[0];
+		// a row counts as taken only when exactly one row was updated; Statement.SUCCESS_NO_INFO cannot tell a
+		// decremented row from one the guard blocked, so it rolls the reservation back like a short row
+		final List<Integer> shortProductIds = IntStream.range(0, productIds.size())
+				.filter(i -> updated[i] != 1)
+				.mapToObj(productIds::get)
+				.collect(Collectors.toUnmodifiableList());
+		if (!shortProductIds.isEmpty())
+			throw new InsufficientStockException(String
+					.format("Insufficient stock for products: %s", shortProductIds));
+	}
+	
+	private void takeHotStock(final Map<Integer, Integer> hotQuantities) {
+		if (hotQuantities.isEmpty())
+			return;
+		final var hotStockLedger = this.hotStockLedger.orElseThrow();
+		final List<Integer> shortProductIds = hotStockLedger.take(hotQuantities);
+		if (!shortProductIds.isEmpty())
+			throw new InsufficientStockException(String
+					.format("Insufficient stock for products: %s", shortProductIds));
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(final int status) {
+				if (status != STATUS_COMMITTED)
+					hotStockLedger.give(hotQuantities);
+			}
+		});
+	}
+	
+	private void returnStock(final ReservationDto reservationDto) {
+		final Map<Integer, Integer> quantities = reservationDto.getReservationItemDtos()
+				.stream()
+					.collect(Collectors.toMap(ReservationItemDto::getProductId, ReservationItemDto::getQuantity, 
+							Integer::sum, TreeMap::new));
+		final Map<Integer, Integer> hotQuantities = this.hotQuantities(quantities);
+		final List<Integer> productIds = this.coldProductIds(quantities, hotQuantities);
+		
+		final Timestamp updatedAt = Timestamp.from(Instant.now());
+		if (!productIds.isEmpty())
+			this.jdbcTemplate.batchUpdate(RETURN_STOCK, productIds, productIds.size(), 
+					(preparedStatement, productId) -> {
+						preparedStatement.setInt(1, quantities.get(productId));
+						preparedStatement.setTimestamp(2, updatedAt);
+						preparedStatement.setInt(3, productId);
+					});
+		if (!hotQuantities.isEmpty()) {
+			final var hotStockLedger = this.hotStockLedger.orElseThrow();
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					hotStockLedger.give(hotQuantities);
+				}
+			});
+		}
+	}
+	
+	private Map<Integer, Integer> hotQuantities(final Map<Integer, Integer> quantities) {
+		final Map<Integer, Integer> hotQuantities = new TreeMap<>();
+		this.hotStockLedger.ifPresent(hotStockLedger -> quantities.forEach((productId, quantity) -> {
+			if (hotStockLedger.isHot(productId))
+				hotQuantities.put(productId, quantity);
+		}));
+		return hotQuantities;
+	}
+	
+	private List<Integer> coldProductIds(final Map<Integer, Integer> quantities, final Map<Integer, Integer> hotQuantities) {
+		return quantities.keySet()
+				.stream()
+					.filter(productId -> !hotQuantities.containsKey(productId))
+					.collect(Collectors.toUnmodifiableList());
+	}
+	
+	private RuntimeException notReserved(final String reservationId) {
+		if (!this.reservationRepository.existsById(reservationId))
+			return new ReservationNotFoundException(String.format("Reservation with id: %s not found", reservationId));
+		return new ReservationStateException(String
+				.format("Reservation with id: %s is no longer reserved", reservationId));
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
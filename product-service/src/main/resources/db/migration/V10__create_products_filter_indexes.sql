@@ -0,0 +1,5 @@
+
+CREATE INDEX idx_products_category_price ON products (category_id, price_unit);
+
+CREATE INDEX idx_products_price ON products (price_unit);
+
@@ -0,0 +1,11 @@
+
+CREATE TABLE reservations (
+	reservation_id VARCHAR(36) NOT NULL PRIMARY KEY,
+	status VARCHAR(16) NOT NULL,
+	expires_at TIMESTAMP NOT NULL,
+	created_at TIMESTAMP DEFAULT LOCALTIMESTAMP NOT NULL NULL_TO_DEFAULT,
+	updated_at TIMESTAMP
+);
+
+CREATE INDEX idx_reservations_status_expires_at ON reservations (status, expires_at);
+
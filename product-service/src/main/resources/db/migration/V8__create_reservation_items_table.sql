@@ -0,0 +1,11 @@
+
+CREATE TABLE reservation_items (
+	reservation_item_id INT(11) NOT NULL PRIMARY KEY AUTO_INCREMENT,
+	reservation_id VARCHAR(36) NOT NULL,
+	product_id INT(11) NOT NULL,
+	quantity INT(11) NOT NULL
+);
+
+ALTER TABLE reservation_items
+  ADD CONSTRAINT fk_reservation_items_reservation FOREIGN KEY (reservation_id) REFERENCES reservations (reservation_id);
+
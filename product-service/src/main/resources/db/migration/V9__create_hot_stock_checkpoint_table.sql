@@ -0,0 +1,10 @@
+
+CREATE TABLE hot_stock_checkpoint (
+	checkpoint_id INT(11) NOT NULL PRIMARY KEY,
+	journal_sequence BIGINT NOT NULL,
+	created_at TIMESTAMP DEFAULT LOCALTIMESTAMP NOT NULL NULL_TO_DEFAULT,
+	updated_at TIMESTAMP
+);
+
+INSERT INTO hot_stock_checkpoint (checkpoint_id, journal_sequence) VALUES (1, 0);
+
@@ -0,0 +1,154 @@
+package com.selimhorri.app.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import com.selimhorri.app.config.changefeed.ChangeFeedConfig;
+import com.selimhorri.app.config.changefeed.ChangeFeedProperties;
+import com.selimhorri.app.domain.Category;
+import com.selimhorri.app.domain.Product;
+import com.selimhorri.app.dto.ChangeDto;
+import com.selimhorri.app.dto.ChangeType;
+import com.selimhorri.app.dto.ProductDto;
+import com.selimhorri.app.dto.response.collection.ChangeFeedResponse;
+import com.selimhorri.app.exception.wrapper.InvalidCursorException;
+import com.selimhorri.app.helper.ProductMappingHelper;
+import com.selimhorri.app.repository.CategoryRepository;
+import com.selimhorri.app.repository.ProductRepository;
+import com.selimhorri.app.service.ChangeFeedService;
+import com.selimhorri.app.service.impl.ChangeFeedServiceImpl;
+
+@DataJpaTest
+@TestPropertySource(properties = "app.change-feed.commit-lag=0s")
+@Import({ ChangeFeedConfig.class, ChangeFeedServiceImpl.class })
+class ChangeFeedTest {
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    @Autowired
+    private ChangeFeedProperties changeFeedProperties;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Instant since;
+    private Category category;
+
+    @BeforeEach
+    void setup() {
+        since = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        category = categoryRepository.save(Category.builder().categoryTitle("Feeds").build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        changeFeedProperties.setCommitLag(Duration.ZERO);
+    }
+
+    @Test
+    void givenInsertsUpdatesAndDeletes_whenPaged_thenEveryChangeIsReturnedOnceInTimeOrder() throws InterruptedException {
+        final List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 5; i++)
+            products.add(productRepository.save(product("feed-" + i)));
+        flush();
+        Thread.sleep(5);
+
+        final Product updated = productRepository.findById(products.get(1).getProductId()).orElseThrow();
+        updated.setQuantity(99);
+        productRepository.save(updated);
+        productRepository.deleteById(products.get(3).getProductId());
+        flush();
+
+        final List<ChangeDto<ProductDto>> changes = new ArrayList<>();
+        String cursor = null;
+        ChangeFeedResponse<ProductDto> page;
+        do {
+            page = changeFeedService.findChanges(Product.class, ProductMappingHelper::map, since, cursor, 2);
+            changes.addAll(page.getCollection());
+            cursor = page.getNextCursor();
+        }
+        while (page.isHasMore());
+
+        final List<String> productIds = products.stream()
+                .map(product -> product.getProductId().toString())
+                .collect(Collectors.toList());
+        assertEquals(List.of(productIds.get(0), productIds.get(2), productIds.get(4), productIds.get(1), productIds.get(3)),
+                changes.stream().map(ChangeDto::getId).collect(Collectors.toList()));
+        assertEquals(ChangeType.UPSERT, changes.get(3).getType());
+        assertEquals(99, changes.get(3).getEntity().getQuantity());
+        assertEquals(ChangeType.DELETE, changes.get(4).getType());
+        assertNull(changes.get(4).getEntity());
+        for (int i = 1; i < changes.size(); i++)
+            assertFalse(changes.get(i).getChangedAt().isBefore(changes.get(i - 1).getChangedAt()));
+
+        final ChangeFeedResponse<ProductDto> caughtUp = changeFeedService.findChanges(Product.class,
+                ProductMappingHelper::map, null, cursor, 2);
+        assertTrue(caughtUp.getCollection().isEmpty());
+        assertEquals(cursor, caughtUp.getNextCursor());
+    }
+
+    @Test
+    void givenChangesYoungerThanCommitLag_whenFindChanges_thenTheyAreHeldBack() {
+        productRepository.save(product("lagging"));
+        flush();
+        changeFeedProperties.setCommitLag(Duration.ofMinutes(1));
+
+        final ChangeFeedResponse<ProductDto> page = changeFeedService.findChanges(Product.class,
+                ProductMappingHelper::map, since, null, null);
+
+        assertTrue(page.getCollection().isEmpty());
+        assertFalse(page.isHasMore());
+    }
+
+    @Test
+    void givenMalformedCursor_whenFindChanges_thenCursorIsRejected() {
+        assertThrows(InvalidCursorException.class,
+                () -> changeFeedService.findChanges(Product.class, ProductMappingHelper::map, null, "%%", null));
+        assertThrows(InvalidCursorException.class,
+                () -> changeFeedService.findChanges(Product.class, ProductMappingHelper::map, null, "YXxifGN8ZA", null));
+    }
+
+    private void flush() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private Product product(final String sku) {
+        return Product.builder()
+                .productTitle(sku)
+                .imageUrl("xxx")
+                .sku(sku)
+                .priceUnit(10.0)
+                .quantity(1)
+                .category(category)
+                .build();
+    }
+
+}
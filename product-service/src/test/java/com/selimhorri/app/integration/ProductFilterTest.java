@@ -0,0 +1,155 @@
+package com.selimhorri.app.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import com.selimhorri.app.domain.Category;
+import com.selimhorri.app.domain.Product;
+import com.selimhorri.app.dto.CategoryFacetDto;
+import com.selimhorri.app.dto.ProductDto;
+import com.selimhorri.app.dto.ProductFilterDto;
+import com.selimhorri.app.dto.response.collection.ProductPageResponse;
+import com.selimhorri.app.exception.wrapper.InvalidProductFilterException;
+import com.selimhorri.app.repository.CategoryRepository;
+import com.selimhorri.app.repository.ProductRepository;
+import com.selimhorri.app.service.ProductService;
+import com.selimhorri.app.service.impl.ProductServiceImpl;
+
+@DataJpaTest
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(ProductServiceImpl.class)
+class ProductFilterTest {
+
+    private static final int PRODUCTS_PER_CATEGORY = 25;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Category phones;
+    private Category laptops;
+
+    @BeforeEach
+    void setup() {
+        productRepository.deleteAll();
+        phones = categoryRepository.save(Category.builder().categoryTitle("Phones").build());
+        laptops = categoryRepository.save(Category.builder().categoryTitle("Laptops").build());
+        for (int i = 0; i < PRODUCTS_PER_CATEGORY; i++) {
+            productRepository.save(product(phones, "phone-" + i, 100.0 + (i % 10) * 10, i % 5));
+            productRepository.save(product(laptops, "laptop-" + i, 500.0 + (i % 10) * 50, i % 3));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void givenFilters_whenFindAll_thenOnlyMatchingProductsAreReturned() {
+        final ProductPageResponse page = productService.findAll(ProductFilterDto.builder()
+                .categoryId(phones.getCategoryId())
+                .minPrice(120.0)
+                .maxPrice(150.0)
+                .inStock(true)
+                .limit(100)
+                .build());
+
+        assertNull(page.getNextCursor());
+        assertTrue(!page.getCollection().isEmpty());
+        page.getCollection().forEach(productDto -> {
+            assertEquals(phones.getCategoryId(), productDto.getCategoryDto().getCategoryId());
+            assertTrue(productDto.getPriceUnit() >= 120.0 && productDto.getPriceUnit() <= 150.0);
+            assertTrue(productDto.getQuantity() > 0);
+        });
+    }
+
+    @Test
+    void givenPriceSort_whenPagedWithCursor_thenEveryProductIsReturnedOnceInOrder() {
+        final List<ProductDto> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            final ProductPageResponse page = productService.findAll(ProductFilterDto.builder()
+                    .sort("priceUnit,desc")
+                    .cursor(cursor)
+                    .limit(7)
+                    .build());
+            seen.addAll(page.getCollection());
+            cursor = page.getNextCursor();
+        }
+        while (cursor != null);
+
+        assertEquals(2 * PRODUCTS_PER_CATEGORY, seen.size());
+        assertEquals(seen.size(), seen.stream().map(ProductDto::getProductId).distinct().count());
+        assertEquals(seen.stream()
+                        .sorted(Comparator.comparing(ProductDto::getPriceUnit).thenComparing(ProductDto::getProductId).reversed())
+                        .collect(Collectors.toList()), seen);
+    }
+
+    @Test
+    void givenPriceFilter_whenFindAll_thenFacetsCountEveryCategoryInOneQuery() {
+        final Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        final ProductPageResponse page = productService.findAll(ProductFilterDto.builder()
+                .categoryId(phones.getCategoryId())
+                .maxPrice(600.0)
+                .build());
+
+        final Map<String, Long> facets = page.getFacets().stream()
+                .collect(Collectors.toMap(CategoryFacetDto::getCategoryTitle, CategoryFacetDto::getCount));
+        assertEquals(PRODUCTS_PER_CATEGORY, facets.get("Phones"));
+        assertEquals(9, facets.get("Laptops"));
+        assertNotNull(page.getNextCursor());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void givenUnknownSortOrCursor_whenFindAll_thenFilterIsRejected() {
+        assertThrows(InvalidProductFilterException.class,
+                () -> productService.findAll(ProductFilterDto.builder().sort("sku").build()));
+        assertThrows(InvalidProductFilterException.class,
+                () -> productService.findAll(ProductFilterDto.builder().sort("priceUnit").cursor("%%").build()));
+    }
+
+    private Product product(final Category category, final String sku, final double priceUnit, final int quantity) {
+        return Product.builder()
+                .productTitle(sku)
+                .imageUrl("xxx")
+                .sku(sku)
+                .priceUnit(priceUnit)
+                .quantity(quantity)
+                .category(category)
+                .build();
+    }
+
+}
@@ -0,0 +1,181 @@
+package com.selimhorri.app.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.selimhorri.app.config.reservation.ReservationExpiryScheduler;
+import com.selimhorri.app.config.reservation.ReservationProperties;
+import com.selimhorri.app.domain.ReservationStatus;
+import com.selimhorri.app.dto.ReservationDto;
+import com.selimhorri.app.dto.ReservationItemDto;
+import com.selimhorri.app.exception.wrapper.InsufficientStockException;
+import com.selimhorri.app.exception.wrapper.ReservationStateException;
+import com.selimhorri.app.service.ReservationService;
+import com.selimhorri.app.service.impl.ReservationServiceImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hammers a handful of hot SKUs with concurrent multi-item reservations and checks that stock is never
+ * oversold and always matches the sum of successful reservations. Prints throughput and rejections.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:reservations;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(ReservationServiceImpl.class)
+class ReservationContentionTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationContentionTest.class);
+
+    private static final List<Integer> HOT_PRODUCT_IDS = List.of(1, 2, 3, 4);
+    private static final int INITIAL_STOCK = 300;
+    private static final int CALLERS = 32;
+    private static final int OPERATIONS = 2_000;
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        ReservationProperties reservationProperties() {
+            return new ReservationProperties();
+        }
+
+    }
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setup() {
+        jdbcTemplate.update("DELETE FROM reservation_items");
+        jdbcTemplate.update("DELETE FROM reservations");
+        jdbcTemplate.update("UPDATE products SET quantity = ?", INITIAL_STOCK);
+    }
+
+    @Test
+    void givenHotSkus_whenReservedConcurrently_thenStockIsNeverOversold() throws Exception {
+        final AtomicLongArray reserved = new AtomicLongArray(HOT_PRODUCT_IDS.size() + 1);
+        final AtomicInteger rejected = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            final long start = System.nanoTime();
+            final List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < OPERATIONS; i++)
+                results.add(executor.submit(() -> {
+                    final ThreadLocalRandom random = ThreadLocalRandom.current();
+                    final int first = HOT_PRODUCT_IDS.get(random.nextInt(HOT_PRODUCT_IDS.size()));
+                    final int second = HOT_PRODUCT_IDS.get(random.nextInt(HOT_PRODUCT_IDS.size()));
+                    final int quantity = random.nextInt(1, 3);
+                    try {
+                        reservationService.reserve(reservation(Map.of(first, quantity), second, quantity));
+                        reserved.addAndGet(first, quantity);
+                        reserved.addAndGet(second, quantity);
+                    }
+                    catch (InsufficientStockException e) {
+                        rejected.incrementAndGet();
+                    }
+                }));
+            for (final Future<?> result : results)
+                result.get();
+            final double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+            log.debug(String.format("reserve %d hot skus %3d callers  %8.1f ops/s  %5d rejected",
+                    HOT_PRODUCT_IDS.size(), CALLERS, OPERATIONS / seconds, rejected.get()));
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(rejected.get() > 0);
+        for (final Integer productId : HOT_PRODUCT_IDS) {
+            final int quantity = quantity(productId);
+            assertTrue(quantity >= 0);
+            assertEquals(INITIAL_STOCK - reserved.get(productId), quantity);
+        }
+    }
+
+    @Test
+    void givenOneShortItem_whenReserve_thenNothingIsTaken() {
+        final ReservationDto reservationDto = ReservationDto.builder()
+                .reservationItemDtos(List.of(item(1, 5), item(2, INITIAL_STOCK + 1)))
+                .build();
+
+        assertThrows(InsufficientStockException.class, () -> reservationService.reserve(reservationDto));
+        assertEquals(INITIAL_STOCK, quantity(1));
+        assertEquals(INITIAL_STOCK, quantity(2));
+    }
+
+    @Test
+    void givenReservation_whenReleased_thenStockIsReturnedOnce() {
+        final ReservationDto reservationDto = reservationService.reserve(reservation(Map.of(1, 5), 1, 5));
+        assertEquals(1, reservationDto.getReservationItemDtos().size());
+        assertEquals(INITIAL_STOCK - 10, quantity(1));
+
+        assertEquals(ReservationStatus.RELEASED, reservationService.release(reservationDto.getReservationId()).getStatus());
+        assertEquals(INITIAL_STOCK, quantity(1));
+        assertThrows(ReservationStateException.class, () -> reservationService.release(reservationDto.getReservationId()));
+        assertEquals(INITIAL_STOCK, quantity(1));
+    }
+
+    @Test
+    void givenOverdueReservation_whenSwept_thenStockIsReturnedAndCommitIsRejected() {
+        final ReservationDto overdue = reservationService.reserve(reservation(Map.of(1, 4), 2, 4));
+        final ReservationDto live = reservationService.reserve(reservation(Map.of(3, 4), 3, 1));
+        jdbcTemplate.update("UPDATE reservations SET expires_at = DATEADD('MINUTE', -1, CURRENT_TIMESTAMP) WHERE reservation_id = ?",
+                overdue.getReservationId());
+
+        assertEquals(1, new ReservationExpiryScheduler(reservationService, new ReservationProperties()).sweep());
+        assertEquals(INITIAL_STOCK, quantity(1));
+        assertEquals(INITIAL_STOCK, quantity(2));
+        assertEquals(INITIAL_STOCK - 5, quantity(3));
+        assertThrows(ReservationStateException.class, () -> reservationService.commit(overdue.getReservationId()));
+
+        assertEquals(ReservationStatus.COMMITTED, reservationService.commit(live.getReservationId()).getStatus());
+        assertFalse(reservationService.expire(live.getReservationId()));
+    }
+
+    private ReservationDto reservation(final Map<Integer, Integer> first, final int productId, final int quantity) {
+        final List<ReservationItemDto> items = new ArrayList<>();
+        first.forEach((id, qty) -> items.add(item(id, qty)));
+        items.add(item(productId, quantity));
+        return ReservationDto.builder().reservationItemDtos(items).build();
+    }
+
+    private ReservationItemDto item(final int productId, final int quantity) {
+        return ReservationItemDto.builder().productId(productId).quantity(quantity).build();
+    }
+
+    private int quantity(final int productId) {
+        return jdbcTemplate.queryForObject("SELECT quantity FROM products WHERE product_id = ?", Integer.class, productId);
+    }
+
+}
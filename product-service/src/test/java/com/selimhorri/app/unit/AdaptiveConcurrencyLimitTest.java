@@ -0,0 +1,76 @@
+package com.selimhorri.app.unit;
+
+import com.selimhorri.app.config.limit.AdaptiveConcurrencyLimit;
+import com.selimhorri.app.config.limit.ConcurrencyLimitProperties;
+import com.selimhorri.app.config.limit.RequestPriority;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private ConcurrencyLimitProperties properties;
+
+    @BeforeEach
+    void setup() {
+        properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(10);
+        properties.setMinLimit(2);
+        properties.setMaxLimit(100);
+        properties.setBestEffortShare(0.5);
+    }
+
+    @Test
+    void testBestEffortRequestsKeepHeadroomForCritical() {
+        var limit = new AdaptiveConcurrencyLimit(properties);
+
+        for (int i = 0; i < 5; i++)
+            assertTrue(limit.tryAcquire(RequestPriority.BEST_EFFORT));
+
+        assertFalse(limit.tryAcquire(RequestPriority.BEST_EFFORT));
+        assertTrue(limit.tryAcquire(RequestPriority.CRITICAL));
+        assertEquals(6, limit.getInFlight());
+    }
+
+    @Test
+    void testLimitShrinksWhenLatencyDegrades() {
+        var limit = new AdaptiveConcurrencyLimit(properties);
+
+        for (int i = 0; i < 200; i++) {
+            fill(limit);
+            drain(limit, 1_000_000L);
+        }
+        int healthyLimit = limit.getLimit();
+
+        for (int i = 0; i < 50; i++) {
+            fill(limit);
+            drain(limit, 20_000_000L);
+        }
+
+        assertTrue(limit.getLimit() < healthyLimit);
+        assertTrue(limit.getLimit() >= properties.getMinLimit());
+    }
+
+    @Test
+    void testLimitShrinksOnDroppedRequests() {
+        var limit = new AdaptiveConcurrencyLimit(properties);
+        assertTrue(limit.tryAcquire(RequestPriority.CRITICAL));
+
+        limit.release(1_000_000L, true);
+
+        assertEquals(9, limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+    }
+
+    private static void fill(AdaptiveConcurrencyLimit limit) {
+        while (limit.tryAcquire(RequestPriority.CRITICAL)) {
+            // saturate so every sample is taken at full utilisation
+        }
+    }
+
+    private static void drain(AdaptiveConcurrencyLimit limit, long rttNanos) {
+        while (limit.getInFlight() > 0)
+            limit.release(rttNanos, false);
+    }
+}
@@ -0,0 +1,177 @@
+package com.selimhorri.app.unit;
+
+import com.selimhorri.app.config.hotstock.HotStockLedger;
+import com.selimhorri.app.config.hotstock.HotStockProperties;
+import com.selimhorri.app.config.hotstock.StockJournal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drains hot SKUs from many threads and checks the counters never oversell, then simulates crashes by
+ * reopening the journal without a final flush and checks recovery restores exactly the acknowledged stock.
+ */
+class HotStockLedgerTest {
+
+    private static final Logger log = LoggerFactory.getLogger(HotStockLedgerTest.class);
+
+    private static final int INITIAL_STOCK = 5_000;
+    private static final int CALLERS = 32;
+
+    @TempDir
+    Path journalDirectory;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private HotStockProperties properties;
+    private StockJournal stockJournal;
+    private HotStockLedger ledger;
+
+    @BeforeEach
+    void setup() throws IOException {
+        final DataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:hot-stock-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        jdbcTemplate.execute("CREATE TABLE products (product_id INT PRIMARY KEY, sku VARCHAR(255), quantity INT, updated_at TIMESTAMP);"
+                + "CREATE TABLE hot_stock_checkpoint (checkpoint_id INT PRIMARY KEY, journal_sequence BIGINT, updated_at TIMESTAMP);"
+                + "INSERT INTO hot_stock_checkpoint (checkpoint_id, journal_sequence) VALUES (1, 0);"
+                + "INSERT INTO products (product_id, sku, quantity) VALUES (1, 'HOT-1', " + INITIAL_STOCK + "), (2, 'HOT-2', " + INITIAL_STOCK + "), "
+                + "(3, 'COLD-3', " + INITIAL_STOCK + ")");
+
+        properties = new HotStockProperties();
+        properties.setSkus(List.of("HOT-1", "HOT-2"));
+        properties.setJournalFsync(false);
+        ledger = open();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        stockJournal.close();
+    }
+
+    @Test
+    void givenHotSkus_whenDrainedConcurrently_thenExactlyTheStockIsHandedOut() throws Exception {
+        assertTrue(ledger.isHot(1));
+        assertFalse(ledger.isHot(3));
+
+        final AtomicLong taken = new AtomicLong();
+        final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            final long start = System.nanoTime();
+            final List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++)
+                results.add(executor.submit(() -> {
+                    while (ledger.take(Map.of(1, 1, 2, 1)).isEmpty())
+                        taken.incrementAndGet();
+                }));
+            for (final Future<?> result : results)
+                result.get();
+            final double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            log.debug(String.format("hot stock take 2 skus %3d callers  %10.1f ops/s", CALLERS, taken.get() / seconds));
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(INITIAL_STOCK, taken.get());
+        assertEquals(0, ledger.available(1));
+        assertEquals(0, ledger.available(2));
+
+        ledger.flush();
+        assertEquals(0, quantity(1));
+        assertEquals(INITIAL_STOCK, quantity(3));
+    }
+
+    @Test
+    void givenRestockWrittenElsewhere_whenFlushed_thenItIsKept() {
+        ledger.take(Map.of(1, 30));
+        jdbcTemplate.update("UPDATE products SET quantity = quantity + 100 WHERE product_id = 1");
+
+        ledger.flush();
+        ledger.flush();
+
+        assertEquals(INITIAL_STOCK + 70, quantity(1));
+    }
+
+    @Test
+    void givenShortItem_whenTake_thenNothingIsTaken() {
+        assertEquals(List.of(2), ledger.take(Map.of(1, 10, 2, INITIAL_STOCK + 1)));
+        assertEquals(INITIAL_STOCK, ledger.available(1));
+        assertEquals(INITIAL_STOCK, ledger.available(2));
+    }
+
+    @Test
+    void givenUnflushedChanges_whenRestarted_thenJournalIsReplayed() throws IOException {
+        ledger.take(Map.of(1, 30));
+        ledger.flush();
+        ledger.take(Map.of(1, 20, 2, 5));
+        ledger.give(Map.of(1, 7));
+        assertEquals(INITIAL_STOCK - 30, quantity(1));
+
+        stockJournal.close();
+        ledger = open();
+
+        assertEquals(INITIAL_STOCK - 43, quantity(1));
+        assertEquals(INITIAL_STOCK - 5, quantity(2));
+        assertEquals(INITIAL_STOCK - 43, ledger.available(1));
+        assertEquals(INITIAL_STOCK - 5, ledger.available(2));
+
+        stockJournal.close();
+        ledger = open();
+
+        assertEquals(INITIAL_STOCK - 43, quantity(1));
+    }
+
+    @Test
+    void givenTornJournalTail_whenRestarted_thenValidRecordsAreReplayed() throws IOException {
+        ledger.take(Map.of(1, 11));
+        stockJournal.close();
+        try (Stream<Path> segments = Files.list(journalDirectory)) {
+            Files.write(segments.findFirst().orElseThrow(), new byte[] { 0, 0, 0, 0, 0, 0, 9 }, StandardOpenOption.APPEND);
+        }
+
+        ledger = open();
+        ledger.take(Map.of(1, 1));
+        stockJournal.close();
+        ledger = open();
+
+        assertEquals(INITIAL_STOCK - 12, quantity(1));
+    }
+
+    private HotStockLedger open() throws IOException {
+        stockJournal = new StockJournal(journalDirectory, properties.getJournalSegmentSize().toBytes(), properties.isJournalFsync());
+        final HotStockLedger hotStockLedger = new HotStockLedger(stockJournal, jdbcTemplate, transactionTemplate, properties);
+        hotStockLedger.recover();
+        return hotStockLedger;
+    }
+
+    private int quantity(final int productId) {
+        return jdbcTemplate.queryForObject("SELECT quantity FROM products WHERE product_id = ?", Integer.class, productId);
+    }
+
+}
@@ -4,6 +4,7 @@ import com.selimhorri.app.domain.Product;
 import com.selimhorri.app.domain.Category;
 import com.selimhorri.app.dto.ProductDto;
 import com.selimhorri.app.dto.CategoryDto;
+import com.selimhorri.app.exception.wrapper.BatchSizeExceededException;
 import com.selimhorri.app.helper.ProductMappingHelper;
 import com.selimhorri.app.repository.ProductRepository;
 import com.selimhorri.app.service.impl.ProductServiceImpl;
@@ -12,8 +13,12 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -65,6 +70,24 @@ class ProductServiceTest {
                 .build();
     }
 
+    @Test
+    void testFindAllByIds_tooManyIds_isRejected() {
+        List<Integer> productIds = IntStream.rangeClosed(1, 1001).boxed().collect(Collectors.toList());
+
+        assertThrows(BatchSizeExceededException.class, () -> productService.findAllByIds(productIds));
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void testFindAllByIds_duplicatesAndNullsAreDropped() {
+        List<Integer> productIds = new ArrayList<>(IntStream.rangeClosed(1, 2000).map(i -> i % 1000 + 1).boxed().collect(Collectors.toList()));
+        productIds.add(null);
+        when(productRepository.findAllById(any())).thenReturn(List.of(product));
+
+        assertEquals(1, productService.findAllByIds(productIds).size());
+        verify(productRepository).findAllById(argThat(ids -> ((Collection<Integer>) ids).size() == 1000));
+    }
+
     @Test
     void testFindById_success() {
         when(productRepository.findById(1)).thenReturn(Optional.of(product));
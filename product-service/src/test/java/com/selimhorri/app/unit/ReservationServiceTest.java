@@ -0,0 +1,69 @@
+package com.selimhorri.app.unit;
+
+import com.selimhorri.app.config.reservation.ReservationProperties;
+import com.selimhorri.app.dto.ReservationDto;
+import com.selimhorri.app.dto.ReservationItemDto;
+import com.selimhorri.app.exception.wrapper.InsufficientStockException;
+import com.selimhorri.app.repository.ReservationRepository;
+import com.selimhorri.app.service.impl.ReservationServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.sql.Statement;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReservationServiceTest {
+
+    private ReservationRepository reservationRepository;
+    private JdbcTemplate jdbcTemplate;
+    private ReservationServiceImpl reservationService;
+
+    private final ReservationDto reservationDto = ReservationDto.builder()
+            .reservationItemDtos(List.of(
+                    ReservationItemDto.builder().productId(1).quantity(2).build(),
+                    ReservationItemDto.builder().productId(2).quantity(1).build()))
+            .build();
+
+    @BeforeEach
+    void setup() {
+        reservationRepository = mock(ReservationRepository.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        reservationService = new ReservationServiceImpl(reservationRepository, jdbcTemplate, new ReservationProperties(),
+                Optional.empty());
+    }
+
+    @Test
+    void testReserve_rowNotUpdated_isShort() {
+        stubBatchResult(1, 0);
+
+        final InsufficientStockException exception = assertThrows(InsufficientStockException.class,
+                () -> reservationService.reserve(reservationDto));
+
+        assertTrue(exception.getMessage().contains("[2]"));
+        verifyNoInteractions(reservationRepository);
+    }
+
+    @Test
+    void testReserve_rowCountUnknown_isNotTreatedAsTaken() {
+        stubBatchResult(1, Statement.SUCCESS_NO_INFO);
+
+        final InsufficientStockException exception = assertThrows(InsufficientStockException.class,
+                () -> reservationService.reserve(reservationDto));
+
+        assertTrue(exception.getMessage().contains("[2]"));
+        verifyNoInteractions(reservationRepository);
+    }
+
+    private void stubBatchResult(final int... updated) {
+        when(jdbcTemplate.batchUpdate(anyString(), ArgumentMatchers.<List<Integer>>any(), anyInt(),
+                ArgumentMatchers.<ParameterizedPreparedStatementSetter<Integer>>any()))
+                .thenReturn(new int[][] { updated });
+    }
+}
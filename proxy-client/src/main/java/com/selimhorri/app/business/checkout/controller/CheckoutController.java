@@ -0,0 +1,59 @@
+package com.selimhorri.app.business.checkout.controller;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.selimhorri.app.business.checkout.model.CheckoutDto;
+import com.selimhorri.app.business.checkout.model.request.CheckoutRequest;
+import com.selimhorri.app.business.checkout.service.CheckoutService;
+import com.selimhorri.app.config.idempotency.IdempotencyContext;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/checkouts")
+@RequiredArgsConstructor
+public class CheckoutController {
+	
+	private final CheckoutService checkoutService;
+	
+	@PostMapping
+	public ResponseEntity<CheckoutDto> checkout(
+			@RequestHeader(name = IdempotencyContext.IDEMPOTENCY_KEY_HEADER, required = false) final String idempotencyKey, 
+			@RequestBody 
+			@NotNull(message = "Input must not be NULL!") 
+			@Valid final CheckoutRequest checkoutRequest) {
+		return ResponseEntity.accepted().body(this.checkoutService.checkout(checkoutRequest, idempotencyKey));
+	}
+	
+	@GetMapping("/{checkoutId}")
+	public ResponseEntity<CheckoutDto> findById(
+			@PathVariable("checkoutId") 
+			@NotBlank(message = "Input must not be blank!") 
+			@Valid final String checkoutId) {
+		return ResponseEntity.ok(this.checkoutService.findById(checkoutId));
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
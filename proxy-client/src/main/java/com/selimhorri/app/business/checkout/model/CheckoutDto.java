@@ -0,0 +1,49 @@
+package com.selimhorri.app.business.checkout.model;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class CheckoutDto implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private String checkoutId;
+	private CheckoutStatus status;
+	
+	@JsonInclude(Include.NON_NULL)
+	private Integer orderId;
+	
+	@JsonInclude(Include.NON_NULL)
+	private Integer paymentId;
+	
+	@JsonInclude(Include.NON_NULL)
+	private String failure;
+	
+	private Instant startedAt;
+	
+	@JsonInclude(Include.NON_NULL)
+	private Instant finishedAt;
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,18 @@
+package com.selimhorri.app.business.checkout.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+@Getter
+public enum CheckoutStatus {
+	
+	PENDING("pending"),
+	COMPENSATING("compensating"),
+	COMPLETED("completed"),
+	ROLLED_BACK("rolled_back"),
+	FAILED("failed");
+	
+	private final String status;
+	
+}
@@ -0,0 +1,46 @@
+package com.selimhorri.app.business.checkout.model.request;
+
+import java.io.Serializable;
+import java.util.List;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.selimhorri.app.business.order.model.OrderDto;
+import com.selimhorri.app.business.orderItem.model.OrderItemDto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class CheckoutRequest implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	@JsonProperty("order")
+	@NotNull(message = "*Order must not be null!**")
+	@Valid
+	private OrderDto orderDto;
+	
+	@JsonProperty("items")
+	@NotEmpty(message = "*Items must not be empty!**")
+	private List<OrderItemDto> orderItemDtos;
+	
+}
+
+
+
+
+
+
+
+
+
+
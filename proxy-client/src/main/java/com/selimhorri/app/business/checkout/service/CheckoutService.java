@@ -0,0 +1,11 @@
+package com.selimhorri.app.business.checkout.service;
+
+import com.selimhorri.app.business.checkout.model.CheckoutDto;
+import com.selimhorri.app.business.checkout.model.request.CheckoutRequest;
+
+public interface CheckoutService {
+	
+	CheckoutDto checkout(final CheckoutRequest checkoutRequest, final String idempotencyKey);
+	CheckoutDto findById(final String checkoutId);
+	
+}
@@ -0,0 +1,288 @@
+package com.selimhorri.app.business.checkout.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.stereotype.Service;
+
+import com.selimhorri.app.business.checkout.model.CheckoutDto;
+import com.selimhorri.app.business.checkout.model.CheckoutStatus;
+import com.selimhorri.app.business.checkout.model.request.CheckoutRequest;
+import com.selimhorri.app.business.checkout.service.CheckoutService;
+import com.selimhorri.app.business.order.service.OrderClientService;
+import com.selimhorri.app.business.orderItem.model.OrderItemDto;
+import com.selimhorri.app.business.orderItem.service.OrderItemClientService;
+import com.selimhorri.app.business.payment.model.OrderDto;
+import com.selimhorri.app.business.payment.model.PaymentDto;
+import com.selimhorri.app.business.payment.model.PaymentStatus;
+import com.selimhorri.app.business.payment.service.PaymentClientService;
+import com.selimhorri.app.config.checkout.CheckoutProperties;
+import com.selimhorri.app.config.idempotency.IdempotencyContext;
+import com.selimhorri.app.exception.wrapper.CheckoutCapacityExceededException;
+import com.selimhorri.app.exception.wrapper.CheckoutNotFoundException;
+
+import feign.FeignException;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs a checkout as a saga off the request thread: the order is created first, then its items and the
+ * payment are created in parallel. If any step fails the steps that may have taken effect are undone in
+ * reverse, payment and items before the order. Checkout state lives in memory for the retention period, so
+ * it is only visible on the instance that accepted it and does not survive a restart.
+ *
+ * A checkout submitted with an idempotency key gets a checkout id derived from it, and every step sends a
+ * key derived from the checkout id, so a resubmitted checkout returns the saga already running and steps
+ * that did reach a service are replayed there rather than applied twice, even across a restart.
+ * 
+ * Only unfinished checkouts count against the configured maximum; finished ones are kept for the retention
+ * period so their outcome can still be read, but do not hold a slot.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class CheckoutServiceImpl implements CheckoutService {
+	
+	private final OrderClientService orderClientService;
+	private final OrderItemClientService orderItemClientService;
+	private final PaymentClientService paymentClientService;
+	private final ExecutorService checkoutExecutor;
+	private final CheckoutProperties checkoutProperties;
+	private final Map<String, Saga> sagas = new ConcurrentHashMap<>();
+	private final AtomicInteger running = new AtomicInteger();
+	
+	@Override
+	public CheckoutDto checkout(final CheckoutRequest checkoutRequest, final String idempotencyKey) {
+		log.info("*** CheckoutDto, service; start checkout *");
+		
+		this.evictFinished();
+		final String checkoutId = idempotencyKey == null 
+				? UUID.randomUUID().toString() 
+				: UUID.nameUUIDFromBytes(idempotencyKey.getBytes(StandardCharsets.UTF_8)).toString();
+		final Saga submitted = this.sagas.get(checkoutId);
+		if (submitted != null) {
+			log.info("*** Checkout {} already submitted *", checkoutId);
+			return submitted.toDto();
+		}
+		
+		if (this.running.incrementAndGet() > this.checkoutProperties.getMaxCheckouts()) {
+			this.running.decrementAndGet();
+			throw new CheckoutCapacityExceededException("Too many checkouts in progress, retry later");
+		}
+		final Saga saga = new Saga(checkoutId);
+		final Saga existing = this.sagas.putIfAbsent(checkoutId, saga);
+		if (existing != null) {
+			this.running.decrementAndGet();
+			log.info("*** Checkout {} already submitted *", checkoutId);
+			return existing.toDto();
+		}
+		final CompletableFuture<Void> order;
+		try {
+			order = CompletableFuture.runAsync(() -> this.placeOrder(saga, checkoutRequest), this.checkoutExecutor);
+		}
+		catch (CheckoutCapacityExceededException e) {
+			this.sagas.remove(checkoutId, saga);
+			this.running.decrementAndGet();
+			throw e;
+		}
+		order.thenCompose(ignored -> this.placeItemsAndPayment(saga, checkoutRequest))
+				.whenComplete((ignored, throwable) -> this.finish(saga, checkoutRequest, throwable));
+		
+		return saga.toDto();
+	}
+	
+	@Override
+	public CheckoutDto findById(final String checkoutId) {
+		log.info("*** CheckoutDto, service; fetch checkout by id *");
+		return Optional.ofNullable(this.sagas.get(checkoutId))
+				.map(Saga::toDto)
+				.orElseThrow(() -> new CheckoutNotFoundException(String.format("Checkout with id: %s not found", checkoutId)));
+	}
+	
+	private void placeOrder(final Saga saga, final CheckoutRequest checkoutRequest) {
+		saga.orderId = IdempotencyContext.callWith(saga.checkoutId + ":order", 
+				() -> this.orderClientService.save(checkoutRequest.getOrderDto())).getBody().getOrderId();
+	}
+	
+	private CompletableFuture<Void> placeItemsAndPayment(final Saga saga, final CheckoutRequest checkoutRequest) {
+		final List<CompletableFuture<Void>> steps = new ArrayList<>();
+		for (final OrderItemDto orderItemDto : checkoutRequest.getOrderItemDtos())
+			steps.add(CompletableFuture.runAsync(() -> {
+				IdempotencyContext.callWith(saga.checkoutId + ":item:" + orderItemDto.getProductId(), 
+						() -> this.orderItemClientService.save(OrderItemDto.builder()
+								.productId(orderItemDto.getProductId())
+								.orderId(saga.orderId)
+								.orderedQuantity(orderItemDto.getOrderedQuantity())
+								.build()));
+				saga.placedProductIds.add(orderItemDto.getProductId());
+			}, this.checkoutExecutor));
+		steps.add(CompletableFuture.runAsync(() -> this.placePayment(saga), this.checkoutExecutor));
+		return CompletableFuture.allOf(steps.toArray(CompletableFuture[]::new));
+	}
+	
+	private void placePayment(final Saga saga) {
+		saga.paymentId = IdempotencyContext.callWith(saga.checkoutId + ":payment", 
+				() -> this.paymentClientService.save(PaymentDto.builder()
+						.isPayed(false)
+						.paymentStatus(PaymentStatus.NOT_STARTED)
+						.orderDto(OrderDto.builder()
+								.orderId(saga.orderId)
+								.build())
+						.build())).getBody().getPaymentId();
+	}
+	
+	private void finish(final Saga saga, final CheckoutRequest checkoutRequest, final Throwable throwable) {
+		if (throwable == null) {
+			this.release(saga, CheckoutStatus.COMPLETED, null);
+			log.info("*** Checkout {} completed with order {} *", saga.checkoutId, saga.orderId);
+			return;
+		}
+		
+		final Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null 
+				? throwable.getCause() 
+				: throwable;
+		log.warn("** Checkout {} failed, compensating: {} *", saga.checkoutId, cause.getMessage());
+		saga.status = CheckoutStatus.COMPENSATING;
+		this.release(saga, this.compensate(saga, checkoutRequest) ? CheckoutStatus.ROLLED_BACK : CheckoutStatus.FAILED, 
+				cause.getMessage());
+	}
+	
+	private void release(final Saga saga, final CheckoutStatus status, final String failure) {
+		this.running.decrementAndGet();
+		saga.finish(status, failure);
+	}
+	
+	/**
+	 * Undoes every step that may have taken effect and returns whether nothing is left behind. Items whose
+	 * save failed are deleted too, since a timed out save may still have been applied; only failures to
+	 * delete acknowledged items count against the rollback. An order or payment whose save was not
+	 * acknowledged has no id to delete, so its save is replayed under the same idempotency key: that returns
+	 * the id if the save was applied after all, or applies it now so it can be deleted, while a rejection
+	 * means it never took effect.
+	 */
+	private boolean compensate(final Saga saga, final CheckoutRequest checkoutRequest) {
+		final boolean orderAcknowledged = saga.orderId != null;
+		if (!orderAcknowledged && !this.recover(() -> this.placeOrder(saga, checkoutRequest), "order"))
+			return false;
+		if (saga.orderId == null)
+			return true;
+		
+		if (!orderAcknowledged)
+			return this.undo(() -> this.orderClientService.deleteById(String.valueOf(saga.orderId)), 
+					"order " + saga.orderId);
+		
+		boolean undone = true;
+		if (saga.paymentId == null)
+			undone &= this.recover(() -> this.placePayment(saga), "payment");
+		if (saga.paymentId != null)
+			undone &= this.undo(() -> this.paymentClientService.deleteById(String.valueOf(saga.paymentId)), 
+					"payment " + saga.paymentId);
+		for (final OrderItemDto orderItemDto : checkoutRequest.getOrderItemDtos()) {
+			final boolean deleted = this.undo(() -> this.orderItemClientService.deleteById(String.valueOf(saga.orderId), 
+					String.valueOf(orderItemDto.getProductId())), "order item " + orderItemDto.getProductId());
+			if (saga.placedProductIds.contains(orderItemDto.getProductId()))
+				undone &= deleted;
+		}
+		return undone & this.undo(() -> this.orderClientService.deleteById(String.valueOf(saga.orderId)), 
+				"order " + saga.orderId);
+	}
+	
+	private boolean undo(final Runnable compensation, final String step) {
+		try {
+			compensation.run();
+			return true;
+		}
+		catch (RuntimeException e) {
+			log.warn("** Could not undo {}: {} *", step, e.getMessage());
+			return false;
+		}
+	}
+	
+	/**
+	 * Replays an unacknowledged step and returns whether its outcome is now known. A client error other than
+	 * a conflict (which means the original is still in flight) shows the step was rejected and left nothing
+	 * behind.
+	 */
+	private boolean recover(final Runnable replay, final String step) {
+		try {
+			replay.run();
+			return true;
+		}
+		catch (FeignException.Conflict e) {
+			log.warn("** Could not recover {}, still in progress *", step);
+			return false;
+		}
+		catch (FeignException.FeignClientException e) {
+			return true;
+		}
+		catch (RuntimeException e) {
+			log.warn("** Could not recover {}: {} *", step, e.getMessage());
+			return false;
+		}
+	}
+	
+	private void evictFinished() {
+		final Instant cutoff = Instant.now().minus(this.checkoutProperties.getRetention());
+		this.sagas.values().removeIf(saga -> saga.finishedAt != null && saga.finishedAt.isBefore(cutoff));
+	}
+	
+	private static final class Saga {
+		
+		private final String checkoutId;
+		private final Instant startedAt = Instant.now();
+		private final Set<Integer> placedProductIds = ConcurrentHashMap.newKeySet();
+		private volatile CheckoutStatus status = CheckoutStatus.PENDING;
+		private volatile Integer orderId;
+		private volatile Integer paymentId;
+		private volatile String failure;
+		private volatile Instant finishedAt;
+		
+		private Saga(final String checkoutId) {
+			this.checkoutId = checkoutId;
+		}
+		
+		private synchronized void finish(final CheckoutStatus status, final String failure) {
+			this.failure = failure;
+			this.finishedAt = Instant.now();
+			this.status = status;
+		}
+		
+		private synchronized CheckoutDto toDto() {
+			return CheckoutDto.builder()
+					.checkoutId(this.checkoutId)
+					.status(this.status)
+					.orderId(this.orderId)
+					.paymentId(this.paymentId)
+					.failure(this.failure)
+					.startedAt(this.startedAt)
+					.finishedAt(this.finishedAt)
+					.build();
+		}
+		
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,47 @@
+package com.selimhorri.app.config.checkout;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.selimhorri.app.exception.wrapper.CheckoutCapacityExceededException;
+
+@Configuration
+@EnableConfigurationProperties(CheckoutProperties.class)
+public class CheckoutConfig {
+	
+	/**
+	 * Runs checkout steps off the request thread, queueing at most {@code max-checkouts} steps once every
+	 * thread is busy; a step that does not fit is rejected rather than run by the caller, so the request
+	 * thread never waits on a downstream call.
+	 */
+	@Bean(destroyMethod = "shutdownNow")
+	public ExecutorService checkoutExecutorBean(final CheckoutProperties checkoutProperties) {
+		final ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(checkoutProperties.getMaxThreads(), 
+				checkoutProperties.getMaxThreads(), 60L, TimeUnit.SECONDS, 
+				new LinkedBlockingQueue<>(checkoutProperties.getMaxCheckouts()), 
+				(runnable, executor) -> {
+					throw new CheckoutCapacityExceededException("Too many checkout steps queued, retry later");
+				});
+		threadPoolExecutor.allowCoreThreadTimeOut(true);
+		return threadPoolExecutor;
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
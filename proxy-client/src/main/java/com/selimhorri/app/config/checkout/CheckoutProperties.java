@@ -0,0 +1,17 @@
+package com.selimhorri.app.config.checkout;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@ConfigurationProperties(prefix = "app.checkout")
+@Data
+public class CheckoutProperties {
+	
+	private int maxThreads = 64;
+	private int maxCheckouts = 10000;
+	private Duration retention = Duration.ofMinutes(30);
+	
+}
@@ -0,0 +1,66 @@
+package com.selimhorri.app.config.deadline;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import feign.Capability;
+import feign.Client;
+import feign.Request;
+import feign.Request.Options;
+
+/**
+ * Shrinks Feign connect and read timeouts to the remaining request budget and refuses calls once it is spent.
+ * The header is refreshed here as well, since time passes between interception and execution.
+ *
+ * Feign applies capabilities in {@link Order} and each one wraps the previous, so this one runs last and
+ * outermost, on the calling thread, around {@link com.selimhorri.app.config.hedging.HedgingCapability}.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class DeadlineCapability implements Capability {
+	
+	@Override
+	public Client enrich(final Client client) {
+		return (request, options) -> {
+			
+			final OptionalLong remainingMillis = DeadlineContext.remainingMillis();
+			if (remainingMillis.isEmpty())
+				return client.execute(request, options);
+			
+			DeadlineContext.checkNotExpired(request.httpMethod() + " " + request.url());
+			// a timeout of 0 means none, so a budget truncated to 0 millis still gets 1
+			final long remaining = Math.max(1L, remainingMillis.getAsLong());
+			final Map<String, Collection<String>> headers = new HashMap<>(request.headers());
+			headers.put(DeadlineContext.DEADLINE_HEADER, List.of(String.valueOf(remaining)));
+			
+			return client.execute(
+					Request.create(request.httpMethod(), request.url(), headers, request.body(), 
+							request.charset(), request.requestTemplate()), 
+					new Options(
+							Math.min(options.connectTimeoutMillis(), remaining), TimeUnit.MILLISECONDS, 
+							Math.min(options.readTimeoutMillis(), remaining), TimeUnit.MILLISECONDS, 
+							options.isFollowRedirects()));
+		};
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,70 @@
+package com.selimhorri.app.config.deadline;
+
+import java.util.OptionalLong;
+import java.util.function.Supplier;
+
+import com.selimhorri.app.exception.wrapper.DeadlineExceededException;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Holds the absolute deadline (local monotonic clock) of the request served by the current thread.
+ * Deadlines travel between hops as the remaining budget in millis, so hosts need no synchronized clocks.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class DeadlineContext {
+	
+	public static final String DEADLINE_HEADER = "X-Deadline-Remaining-Ms";
+	
+	private static final ThreadLocal<Long> DEADLINE_NANOS = new ThreadLocal<>();
+	
+	public static void setRemainingMillis(final long remainingMillis) {
+		DEADLINE_NANOS.set(System.nanoTime() + remainingMillis * 1_000_000L);
+	}
+	
+	public static OptionalLong remainingMillis() {
+		final Long deadlineNanos = DEADLINE_NANOS.get();
+		if (deadlineNanos == null)
+			return OptionalLong.empty();
+		return OptionalLong.of(Math.max(0L, (deadlineNanos - System.nanoTime()) / 1_000_000L));
+	}
+	
+	public static boolean isExpired() {
+		final OptionalLong remaining = remainingMillis();
+		return remaining.isPresent() && remaining.getAsLong() <= 0L;
+	}
+	
+	public static void checkNotExpired(final String operation) {
+		if (isExpired())
+			throw new DeadlineExceededException(String.format("Deadline exceeded before %s", operation));
+	}
+	
+	public static void clear() {
+		DEADLINE_NANOS.remove();
+	}
+	
+	/**
+	 * Runs the supplier under the given remaining budget, or under none, and restores the thread's own deadline
+	 * afterwards; carries a caller's deadline onto pool threads.
+	 */
+	public static <T> T callWith(final OptionalLong remainingMillis, final Supplier<T> supplier) {
+		final Long previous = DEADLINE_NANOS.get();
+		if (remainingMillis.isPresent())
+			setRemainingMillis(remainingMillis.getAsLong());
+		else
+			DEADLINE_NANOS.remove();
+		try {
+			return supplier.get();
+		}
+		finally {
+			if (previous == null)
+				DEADLINE_NANOS.remove();
+			else
+				DEADLINE_NANOS.set(previous);
+		}
+	}
+	
+	
+	
+}
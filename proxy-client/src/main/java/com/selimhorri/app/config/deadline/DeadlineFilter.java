@@ -0,0 +1,69 @@
+package com.selimhorri.app.config.deadline;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+@Slf4j
+public class DeadlineFilter extends OncePerRequestFilter {
+	
+	@Override
+	protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response, 
+			final FilterChain filterChain) throws ServletException, IOException {
+		
+		final String header = request.getHeader(DeadlineContext.DEADLINE_HEADER);
+		if (header == null) {
+			filterChain.doFilter(request, response);
+			return;
+		}
+		
+		final long remainingMillis;
+		try {
+			remainingMillis = Long.parseLong(header.trim());
+		}
+		catch (NumberFormatException e) {
+			response.sendError(HttpStatus.BAD_REQUEST.value(), "Invalid " + DeadlineContext.DEADLINE_HEADER + " header");
+			return;
+		}
+		
+		if (remainingMillis <= 0) {
+			log.info("** Dropping {} {}, deadline already exceeded *", request.getMethod(), request.getRequestURI());
+			response.sendError(HttpStatus.GATEWAY_TIMEOUT.value(), "Deadline exceeded");
+			return;
+		}
+		
+		DeadlineContext.setRemainingMillis(remainingMillis);
+		try {
+			filterChain.doFilter(request, response);
+		}
+		finally {
+			DeadlineContext.clear();
+		}
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,29 @@
+package com.selimhorri.app.config.deadline;
+
+import org.springframework.stereotype.Component;
+
+import feign.RequestInterceptor;
+import feign.RequestTemplate;
+
+@Component
+public class DeadlineRequestInterceptor implements RequestInterceptor {
+	
+	@Override
+	public void apply(final RequestTemplate requestTemplate) {
+		DeadlineContext.remainingMillis().ifPresent(remaining -> requestTemplate
+				.header(DeadlineContext.DEADLINE_HEADER, String.valueOf(remaining)));
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
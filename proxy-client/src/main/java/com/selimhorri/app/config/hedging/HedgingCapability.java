@@ -0,0 +1,57 @@
+package com.selimhorri.app.config.hedging;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import feign.Capability;
+import feign.Client;
+
+@Component
+@ConditionalOnProperty(prefix = "app.hedging", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(HedgingProperties.class)
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class HedgingCapability implements Capability, DisposableBean {
+	
+	private final HedgingProperties hedgingProperties;
+	private final HedgingBudget hedgingBudget;
+	private final ExecutorService executorService;
+	
+	public HedgingCapability(final HedgingProperties hedgingProperties) {
+		this.hedgingProperties = hedgingProperties;
+		this.hedgingBudget = new HedgingBudget(hedgingProperties.getBudgetPercent(), hedgingProperties.getMaxBurst());
+		this.executorService = new ThreadPoolExecutor(0, hedgingProperties.getMaxThreads(), 60L, TimeUnit.SECONDS, 
+				new SynchronousQueue<>(), new ThreadPoolExecutor.CallerRunsPolicy());
+	}
+	
+	@Override
+	public Client enrich(final Client client) {
+		return new HedgingClient(client, this.hedgingProperties, this.hedgingBudget, this.executorService);
+	}
+	
+	@Override
+	public void destroy() {
+		this.executorService.shutdownNow();
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
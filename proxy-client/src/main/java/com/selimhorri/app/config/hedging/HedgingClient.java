@@ -0,0 +1,167 @@
+package com.selimhorri.app.config.hedging;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.util.AntPathMatcher;
+
+import com.selimhorri.app.config.deadline.DeadlineContext;
+
+import feign.Client;
+import feign.Request;
+import feign.Request.HttpMethod;
+import feign.Request.Options;
+import feign.Response;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Feign client decorator hedging GETs on the configured paths: after the percentile delay a second attempt
+ * is load balanced to another instance, the first successful response wins and the loser is closed.
+ * Attempts run on pool threads under the caller's request deadline.
+ */
+@Slf4j
+public class HedgingClient implements Client {
+	
+	private final Client delegate;
+	private final HedgingProperties hedgingProperties;
+	private final HedgingBudget hedgingBudget;
+	private final ExecutorService executorService;
+	private final AntPathMatcher pathMatcher = new AntPathMatcher();
+	private final Map<String, LatencyTracker> trackers = new ConcurrentHashMap<>();
+	
+	public HedgingClient(final Client delegate, final HedgingProperties hedgingProperties,
+			final HedgingBudget hedgingBudget, final ExecutorService executorService) {
+		this.delegate = delegate;
+		this.hedgingProperties = hedgingProperties;
+		this.hedgingBudget = hedgingBudget;
+		this.executorService = executorService;
+	}
+	
+	@Override
+	public Response execute(final Request request, final Options options) throws IOException {
+		
+		final Optional<String> pattern = this.matchingPattern(request);
+		if (pattern.isEmpty())
+			return this.delegate.execute(request, options);
+		
+		final var tracker = this.trackers.computeIfAbsent(pattern.get(),
+				p -> new LatencyTracker(this.hedgingProperties.getWindowSize(), this.hedgingProperties.getPercentile()));
+		this.hedgingBudget.recordRequest();
+		
+		final CompletableFuture<Response> primary = this.attempt(request, options, tracker);
+		try {
+			return primary.get(this.hedgeDelayMillis(tracker), TimeUnit.MILLISECONDS);
+		}
+		catch (TimeoutException e) {
+			if (!this.hedgingBudget.tryAcquire())
+				return this.await(primary);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			primary.thenAccept(Response::close);
+			throw new InterruptedIOException(String.format("Interrupted while waiting for %s", request.url()));
+		}
+		catch (ExecutionException e) {
+			return this.await(primary);
+		}
+		
+		log.debug("** Hedging {} {} *", request.httpMethod(), request.url());
+		final CompletableFuture<Response> hedge = this.attempt(request, options, tracker);
+		return this.await(this.firstSuccessful(primary, hedge));
+	}
+	
+	private Optional<String> matchingPattern(final Request request) {
+		if (request.httpMethod() != HttpMethod.GET)
+			return Optional.empty();
+		final String path = URI.create(request.url()).getPath();
+		return this.hedgingProperties.getPaths().stream()
+				.filter(p -> this.pathMatcher.match(p, path))
+				.findFirst();
+	}
+	
+	private long hedgeDelayMillis(final LatencyTracker tracker) {
+		final long percentileMillis = tracker.percentileMillis();
+		if (percentileMillis < 0)
+			return this.hedgingProperties.getMaxDelay().toMillis();
+		return Math.max(this.hedgingProperties.getMinDelay().toMillis(),
+				Math.min(this.hedgingProperties.getMaxDelay().toMillis(), percentileMillis));
+	}
+	
+	private CompletableFuture<Response> attempt(final Request request, final Options options, final LatencyTracker tracker) {
+		final OptionalLong remainingMillis = DeadlineContext.remainingMillis();
+		return CompletableFuture.supplyAsync(() -> DeadlineContext.callWith(remainingMillis, () -> {
+			final long start = System.nanoTime();
+			try {
+				final Response response = this.delegate.execute(request, options);
+				tracker.record((System.nanoTime() - start) / 1_000_000L);
+				return response;
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}), this.executorService);
+	}
+	
+	private CompletableFuture<Response> firstSuccessful(final CompletableFuture<Response> primary,
+			final CompletableFuture<Response> hedge) {
+		
+		final CompletableFuture<Response> winner = new CompletableFuture<>();
+		final AtomicInteger failures = new AtomicInteger();
+		
+		for (final CompletableFuture<Response> candidate : new CompletableFuture[] { primary, hedge }) {
+			candidate.whenComplete((response, throwable) -> {
+				if (throwable == null) {
+					if (!winner.complete(response))
+						response.close();
+				}
+				else if (failures.incrementAndGet() == 2)
+					winner.completeExceptionally(throwable);
+			});
+		}
+		
+		return winner;
+	}
+	
+	private Response await(final CompletableFuture<Response> future) throws IOException {
+		try {
+			return future.get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			future.thenAccept(Response::close);
+			throw new InterruptedIOException("Interrupted while waiting for a hedged response");
+		}
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof UncheckedIOException)
+				throw ((UncheckedIOException) e.getCause()).getCause();
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new IOException(e.getCause());
+		}
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,24 @@
+package com.selimhorri.app.config.hedging;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@ConfigurationProperties(prefix = "app.hedging")
+@Data
+public class HedgingProperties {
+	
+	private boolean enabled = false;
+	private List<String> paths = List.of();
+	private double percentile = 95.0;
+	private int windowSize = 1024;
+	private Duration minDelay = Duration.ofMillis(10);
+	private Duration maxDelay = Duration.ofMillis(500);
+	private int budgetPercent = 10;
+	private int maxBurst = 10;
+	private int maxThreads = 64;
+	
+}
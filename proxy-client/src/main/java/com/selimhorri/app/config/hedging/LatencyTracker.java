@@ -0,0 +1,58 @@
+package com.selimhorri.app.config.hedging;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed-size ring of recent response latencies, used to derive the hedging delay.
+ * The percentile is recomputed every {@code recomputeEvery} samples so the hot path stays a single array write.
+ */
+public class LatencyTracker {
+	
+	private static final int RECOMPUTE_EVERY = 64;
+	
+	private final long[] samples;
+	private final double percentile;
+	private final AtomicLong cursor = new AtomicLong();
+	private volatile long cachedPercentileMillis = -1L;
+	
+	public LatencyTracker(final int windowSize, final double percentile) {
+		this.samples = new long[windowSize];
+		this.percentile = percentile;
+	}
+	
+	public void record(final long elapsedMillis) {
+		final long position = this.cursor.getAndIncrement();
+		this.samples[(int) (position % this.samples.length)] = elapsedMillis;
+		if ((position + 1) % RECOMPUTE_EVERY == 0)
+			this.cachedPercentileMillis = this.compute(position + 1);
+	}
+	
+	/**
+	 * @return the tracked percentile in millis, or -1 while fewer than {@value #RECOMPUTE_EVERY} samples were seen
+	 */
+	public long percentileMillis() {
+		return this.cachedPercentileMillis;
+	}
+	
+	private long compute(final long recorded) {
+		final int size = (int) Math.min(recorded, this.samples.length);
+		final long[] snapshot = Arrays.copyOf(this.samples, size);
+		Arrays.sort(snapshot);
+		final int index = (int) Math.ceil(this.percentile / 100.0 * size) - 1;
+		return snapshot[Math.max(0, Math.min(index, size - 1))];
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
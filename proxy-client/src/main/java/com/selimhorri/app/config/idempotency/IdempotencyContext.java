@@ -0,0 +1,50 @@
+package com.selimhorri.app.config.idempotency;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Holds the idempotency key for calls made by the current thread outside of an incoming request, such as
+ * saga steps, which derive one stable key per step so a retried step is applied once downstream.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class IdempotencyContext {
+	
+	public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+	
+	private static final ThreadLocal<String> KEY = new ThreadLocal<>();
+	
+	public static Optional<String> key() {
+		return Optional.ofNullable(KEY.get());
+	}
+	
+	public static <T> T callWith(final String key, final Supplier<T> supplier) {
+		final String previous = KEY.get();
+		KEY.set(key);
+		try {
+			return supplier.get();
+		}
+		finally {
+			if (previous == null)
+				KEY.remove();
+			else
+				KEY.set(previous);
+		}
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,49 @@
+package com.selimhorri.app.config.idempotency;
+
+import java.util.Optional;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import feign.RequestInterceptor;
+import feign.RequestTemplate;
+
+/**
+ * Sends an idempotency key with outgoing POST and PUT calls: the key set for the current step if any,
+ * otherwise the one the client sent with the request being proxied, so a client retry reaches the owning
+ * service with the same key and is replayed there instead of applied twice.
+ */
+@Component
+public class IdempotencyRequestInterceptor implements RequestInterceptor {
+	
+	@Override
+	public void apply(final RequestTemplate requestTemplate) {
+		if (!HttpMethod.POST.matches(requestTemplate.method()) && !HttpMethod.PUT.matches(requestTemplate.method()))
+			return;
+		IdempotencyContext.key()
+				.or(IdempotencyRequestInterceptor::incomingKey)
+				.ifPresent(key -> requestTemplate.header(IdempotencyContext.IDEMPOTENCY_KEY_HEADER, key));
+	}
+	
+	private static Optional<String> incomingKey() {
+		return Optional.ofNullable(RequestContextHolder.getRequestAttributes())
+				.filter(ServletRequestAttributes.class::isInstance)
+				.map(attributes -> ((ServletRequestAttributes) attributes).getRequest())
+				.map(request -> request.getHeader(IdempotencyContext.IDEMPOTENCY_KEY_HEADER));
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
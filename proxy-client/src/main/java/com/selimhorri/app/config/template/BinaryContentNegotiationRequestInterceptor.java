@@ -0,0 +1,26 @@
+package com.selimhorri.app.config.template;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import feign.RequestInterceptor;
+import feign.RequestTemplate;
+
+/**
+ * Feign counterpart of {@link BinaryContentNegotiationInterceptor}: the Spring decoder reads Smile through the
+ * default message converters, so only the preference has to be sent.
+ */
+@Component
+public class BinaryContentNegotiationRequestInterceptor implements RequestInterceptor {
+	
+	private static final String ACCEPT = BinaryContentNegotiationInterceptor.APPLICATION_SMILE + ", application/json;q=0.9";
+	
+	@Override
+	public void apply(final RequestTemplate requestTemplate) {
+		if (!requestTemplate.headers().containsKey(HttpHeaders.ACCEPT))
+			requestTemplate.header(HttpHeaders.ACCEPT, ACCEPT);
+	}
+	
+	
+	
+}
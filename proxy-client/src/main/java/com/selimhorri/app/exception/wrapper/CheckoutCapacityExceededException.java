@@ -0,0 +1,25 @@
+package com.selimhorri.app.exception.wrapper;
+
+public class CheckoutCapacityExceededException extends RuntimeException {
+	
+	private static final long serialVersionUID = 1L;
+	
+	public CheckoutCapacityExceededException() {
+		super();
+	}
+	
+	public CheckoutCapacityExceededException(String message, Throwable cause) {
+		super(message, cause);
+	}
+	
+	public CheckoutCapacityExceededException(String message) {
+		super(message);
+	}
+	
+	public CheckoutCapacityExceededException(Throwable cause) {
+		super(cause);
+	}
+	
+	
+	
+}
@@ -0,0 +1,35 @@
+package com.selimhorri.app.exception.wrapper;
+
+public class CheckoutNotFoundException extends RuntimeException {
+	
+	private static final long serialVersionUID = 1L;
+	
+	public CheckoutNotFoundException() {
+		super();
+	}
+	
+	public CheckoutNotFoundException(String message, Throwable cause) {
+		super(message, cause);
+	}
+	
+	public CheckoutNotFoundException(String message) {
+		super(message);
+	}
+	
+	public CheckoutNotFoundException(Throwable cause) {
+		super(cause);
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
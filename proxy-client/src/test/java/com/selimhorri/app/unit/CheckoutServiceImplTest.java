@@ -0,0 +1,232 @@
+package com.selimhorri.app.unit;
+
+import com.selimhorri.app.business.checkout.model.CheckoutDto;
+import com.selimhorri.app.business.checkout.model.CheckoutStatus;
+import com.selimhorri.app.business.checkout.model.request.CheckoutRequest;
+import com.selimhorri.app.business.checkout.service.impl.CheckoutServiceImpl;
+import com.selimhorri.app.business.order.model.OrderDto;
+import com.selimhorri.app.business.order.service.OrderClientService;
+import com.selimhorri.app.business.orderItem.model.OrderItemDto;
+import com.selimhorri.app.business.orderItem.service.OrderItemClientService;
+import com.selimhorri.app.business.payment.model.PaymentDto;
+import com.selimhorri.app.business.payment.service.PaymentClientService;
+import com.selimhorri.app.config.checkout.CheckoutConfig;
+import com.selimhorri.app.config.checkout.CheckoutProperties;
+import com.selimhorri.app.config.idempotency.IdempotencyContext;
+import com.selimhorri.app.exception.wrapper.CheckoutCapacityExceededException;
+import feign.FeignException;
+import feign.Request;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CheckoutServiceImplTest {
+
+    private OrderClientService orderClientService;
+    private OrderItemClientService orderItemClientService;
+    private PaymentClientService paymentClientService;
+    private ExecutorService executorService;
+    private CheckoutProperties properties;
+    private CheckoutServiceImpl checkoutService;
+
+    private final CheckoutRequest checkoutRequest = CheckoutRequest.builder()
+            .orderDto(OrderDto.builder().orderDesc("checkout").orderFee(10.0).build())
+            .orderItemDtos(List.of(
+                    OrderItemDto.builder().productId(1).orderedQuantity(2).build(),
+                    OrderItemDto.builder().productId(2).orderedQuantity(1).build()))
+            .build();
+
+    @BeforeEach
+    void setup() {
+        orderClientService = mock(OrderClientService.class);
+        orderItemClientService = mock(OrderItemClientService.class);
+        paymentClientService = mock(PaymentClientService.class);
+        executorService = Executors.newFixedThreadPool(4);
+        properties = new CheckoutProperties();
+        checkoutService = new CheckoutServiceImpl(orderClientService, orderItemClientService, paymentClientService,
+                executorService, properties);
+
+        when(orderClientService.save(any())).thenReturn(ResponseEntity.ok(OrderDto.builder().orderId(7).build()));
+        when(orderItemClientService.save(any(OrderItemDto.class))).thenReturn(ResponseEntity.ok(new OrderItemDto()));
+        when(paymentClientService.save(any())).thenReturn(ResponseEntity.ok(PaymentDto.builder().paymentId(9).build()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    void testCheckout_allStepsSucceed_completes() {
+        final List<String> paymentKeys = new CopyOnWriteArrayList<>();
+        when(paymentClientService.save(any())).thenAnswer(invocation -> {
+            paymentKeys.add(IdempotencyContext.key().orElse(null));
+            return ResponseEntity.ok(PaymentDto.builder().paymentId(9).build());
+        });
+
+        final CheckoutDto submitted = checkoutService.checkout(checkoutRequest, "key-1");
+        final CheckoutDto finished = awaitFinished(submitted.getCheckoutId());
+
+        assertEquals(CheckoutStatus.COMPLETED, finished.getStatus());
+        assertEquals(7, finished.getOrderId());
+        assertEquals(9, finished.getPaymentId());
+        verify(orderItemClientService, times(2)).save(any(OrderItemDto.class));
+        assertEquals(List.of(submitted.getCheckoutId() + ":payment"), paymentKeys);
+        verify(orderClientService, never()).deleteById(any());
+        verify(paymentClientService, never()).deleteById(any());
+        assertEquals(submitted.getCheckoutId(), checkoutService.checkout(checkoutRequest, "key-1").getCheckoutId());
+    }
+
+    @Test
+    void testCheckout_itemFails_compensatesPaymentAndItemsBeforeOrder() {
+        when(orderItemClientService.save(argThat(item -> item != null && item.getProductId() == 2)))
+                .thenThrow(new RuntimeException("out of stock"));
+
+        final CheckoutDto finished = awaitFinished(checkoutService.checkout(checkoutRequest, null).getCheckoutId());
+
+        assertEquals(CheckoutStatus.ROLLED_BACK, finished.getStatus());
+        assertEquals("out of stock", finished.getFailure());
+        final InOrder inOrder = inOrder(paymentClientService, orderItemClientService, orderClientService);
+        inOrder.verify(paymentClientService).deleteById("9");
+        inOrder.verify(orderItemClientService).deleteById("7", "1");
+        inOrder.verify(orderItemClientService).deleteById("7", "2");
+        inOrder.verify(orderClientService).deleteById("7");
+    }
+
+    @Test
+    void testCheckout_paymentTimesOut_replaysPaymentAndRollsBack() {
+        final AtomicInteger calls = new AtomicInteger();
+        when(paymentClientService.save(any())).thenAnswer(invocation -> {
+            if (calls.incrementAndGet() == 1)
+                throw new RuntimeException("Read timed out");
+            return ResponseEntity.ok(PaymentDto.builder().paymentId(9).build());
+        });
+
+        final CheckoutDto finished = awaitFinished(checkoutService.checkout(checkoutRequest, null).getCheckoutId());
+
+        assertEquals(CheckoutStatus.ROLLED_BACK, finished.getStatus());
+        assertEquals(2, calls.get());
+        verify(paymentClientService).deleteById("9");
+        verify(orderClientService).deleteById("7");
+    }
+
+    @Test
+    void testCheckout_paymentOutcomeUnknown_fails() {
+        when(paymentClientService.save(any())).thenThrow(new RuntimeException("Connection refused"));
+
+        final CheckoutDto finished = awaitFinished(checkoutService.checkout(checkoutRequest, null).getCheckoutId());
+
+        assertEquals(CheckoutStatus.FAILED, finished.getStatus());
+        verify(paymentClientService, never()).deleteById(any());
+        verify(orderClientService).deleteById("7");
+    }
+
+    @Test
+    void testCheckout_orderRejected_rollsBackWithoutFurtherSteps() {
+        when(orderClientService.save(any())).thenThrow(new FeignException.BadRequest("invalid order",
+                Request.create(Request.HttpMethod.POST, "/order-service/api/orders", Map.of(), null, StandardCharsets.UTF_8),
+                null));
+
+        final CheckoutDto finished = awaitFinished(checkoutService.checkout(checkoutRequest, null).getCheckoutId());
+
+        assertEquals(CheckoutStatus.ROLLED_BACK, finished.getStatus());
+        verifyNoInteractions(orderItemClientService, paymentClientService);
+        verify(orderClientService, never()).deleteById(any());
+    }
+
+    @Test
+    void testCheckout_capacityCountsOnlyUnfinishedCheckouts() throws InterruptedException {
+        properties.setMaxCheckouts(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        when(orderClientService.save(any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return ResponseEntity.ok(OrderDto.builder().orderId(7).build());
+        });
+
+        final String running = checkoutService.checkout(checkoutRequest, null).getCheckoutId();
+        assertThrows(CheckoutCapacityExceededException.class, () -> checkoutService.checkout(checkoutRequest, null));
+
+        release.countDown();
+        awaitFinished(running);
+        assertEquals(CheckoutStatus.PENDING, checkoutService.checkout(checkoutRequest, null).getStatus());
+    }
+
+    @Test
+    void testCheckoutExecutor_fullQueue_rejectsInsteadOfRunningOnCaller() throws InterruptedException {
+        properties.setMaxThreads(1);
+        properties.setMaxCheckouts(1);
+        final ExecutorService checkoutExecutor = new CheckoutConfig().checkoutExecutorBean(properties);
+        final CountDownLatch release = new CountDownLatch(1);
+        try {
+            checkoutExecutor.execute(() -> {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            checkoutExecutor.execute(() -> { });
+
+            final AtomicBoolean ranOnCaller = new AtomicBoolean();
+            final Thread caller = Thread.currentThread();
+            assertThrows(CheckoutCapacityExceededException.class,
+                    () -> checkoutExecutor.execute(() -> ranOnCaller.set(Thread.currentThread() == caller)));
+            assertFalse(ranOnCaller.get());
+        } finally {
+            release.countDown();
+            checkoutExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testCheckout_rejectedByExecutor_releasesCapacityAndForgetsCheckout() {
+        properties.setMaxCheckouts(1);
+        final ExecutorService rejectingOnce = mock(ExecutorService.class);
+        doThrow(new CheckoutCapacityExceededException("Too many checkout steps queued, retry later"))
+                .doAnswer(invocation -> {
+                    executorService.execute(invocation.getArgument(0));
+                    return null;
+                })
+                .when(rejectingOnce).execute(any());
+        checkoutService = new CheckoutServiceImpl(orderClientService, orderItemClientService, paymentClientService,
+                rejectingOnce, properties);
+
+        assertThrows(CheckoutCapacityExceededException.class, () -> checkoutService.checkout(checkoutRequest, "key-1"));
+
+        final CheckoutDto retried = checkoutService.checkout(checkoutRequest, "key-1");
+        assertEquals(CheckoutStatus.COMPLETED, awaitFinished(retried.getCheckoutId()).getStatus());
+        verify(orderClientService, times(1)).save(any());
+    }
+
+    private CheckoutDto awaitFinished(final String checkoutId) {
+        final long deadline = System.currentTimeMillis() + 5_000;
+        while (System.currentTimeMillis() < deadline) {
+            final CheckoutDto checkoutDto = checkoutService.findById(checkoutId);
+            if (checkoutDto.getFinishedAt() != null)
+                return checkoutDto;
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return fail("Checkout " + checkoutId + " did not finish");
+    }
+}
@@ -0,0 +1,80 @@
+package com.selimhorri.app.unit;
+
+import com.selimhorri.app.config.deadline.DeadlineCapability;
+import com.selimhorri.app.config.deadline.DeadlineContext;
+import com.selimhorri.app.exception.wrapper.DeadlineExceededException;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeadlineCapabilityTest {
+
+    private static final String URL = "http://ORDER-SERVICE/order-service/api/orders/1";
+
+    private final AtomicReference<Request> seenRequest = new AtomicReference<>();
+    private final AtomicReference<Request.Options> seenOptions = new AtomicReference<>();
+    private final Client delegate = (request, options) -> {
+        seenRequest.set(request);
+        seenOptions.set(options);
+        return Response.builder()
+                .status(200)
+                .request(request)
+                .headers(Map.of())
+                .body("{}", StandardCharsets.UTF_8)
+                .build();
+    };
+    private final Client client = new DeadlineCapability().enrich(delegate);
+    private final Request.Options options = new Request.Options(5, TimeUnit.SECONDS, 10, TimeUnit.SECONDS, true);
+
+    @AfterEach
+    void tearDown() {
+        DeadlineContext.clear();
+    }
+
+    @Test
+    void testExecute_withoutDeadline_keepsConfiguredTimeouts() throws Exception {
+        client.execute(request(), options);
+
+        assertSame(options, seenOptions.get());
+        assertNull(seenRequest.get().headers().get(DeadlineContext.DEADLINE_HEADER));
+    }
+
+    @Test
+    void testExecute_withDeadline_shrinksTimeoutsAndRefreshesHeader() throws Exception {
+        DeadlineContext.callWith(OptionalLong.of(300), () -> {
+            try {
+                return client.execute(request(), options);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertTrue(seenOptions.get().connectTimeoutMillis() <= 300);
+        assertTrue(seenOptions.get().readTimeoutMillis() <= 300);
+        assertTrue(seenOptions.get().isFollowRedirects());
+        final long forwarded = Long.parseLong(seenRequest.get().headers().get(DeadlineContext.DEADLINE_HEADER).iterator().next());
+        assertTrue(forwarded > 0 && forwarded <= 300);
+    }
+
+    @Test
+    void testExecute_spentDeadline_refusesCall() {
+        DeadlineContext.setRemainingMillis(0);
+
+        assertThrows(DeadlineExceededException.class, () -> client.execute(request(), options));
+        assertNull(seenRequest.get());
+    }
+
+    private static Request request() {
+        return Request.create(Request.HttpMethod.GET, URL, Map.of(), null, StandardCharsets.UTF_8, null);
+    }
+}
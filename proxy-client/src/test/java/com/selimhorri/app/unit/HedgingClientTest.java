@@ -0,0 +1,123 @@
+package com.selimhorri.app.unit;
+
+import com.selimhorri.app.config.deadline.DeadlineCapability;
+import com.selimhorri.app.config.deadline.DeadlineContext;
+import com.selimhorri.app.config.hedging.HedgingBudget;
+import com.selimhorri.app.config.hedging.HedgingCapability;
+import com.selimhorri.app.config.hedging.HedgingClient;
+import com.selimhorri.app.config.hedging.HedgingProperties;
+import feign.Capability;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HedgingClientTest {
+
+    private static final String URL = "http://PRODUCT-SERVICE/product-service/api/products/1";
+
+    private final List<OptionalLong> seenDeadlines = new CopyOnWriteArrayList<>();
+    private final AtomicInteger attempts = new AtomicInteger();
+    private final Client delegate = (request, options) -> {
+        seenDeadlines.add(DeadlineContext.remainingMillis());
+        if (attempts.incrementAndGet() == 1)
+            sleep(2_000);
+        return Response.builder()
+                .status(200)
+                .request(request)
+                .headers(Map.of())
+                .body("{}", StandardCharsets.UTF_8)
+                .build();
+    };
+
+    private ExecutorService executorService;
+    private HedgingProperties properties;
+
+    @BeforeEach
+    void setup() {
+        executorService = Executors.newCachedThreadPool();
+        properties = new HedgingProperties();
+        properties.setPaths(List.of("/product-service/api/products/*"));
+        properties.setMinDelay(Duration.ofMillis(50));
+        properties.setMaxDelay(Duration.ofMillis(50));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
+        DeadlineContext.clear();
+        Thread.interrupted();
+    }
+
+    @Test
+    void givenDeadline_whenHedged_thenBothAttemptsRunUnderIt() throws Exception {
+        final HedgingBudget budget = new HedgingBudget(100, 10);
+        final HedgingClient client = new HedgingClient(delegate, properties, budget, executorService);
+        DeadlineContext.setRemainingMillis(5_000);
+
+        try (Response response = client.execute(request(), new Request.Options())) {
+            assertEquals(200, response.status());
+        }
+
+        assertEquals(2, seenDeadlines.size());
+        seenDeadlines.forEach(remaining -> {
+            assertTrue(remaining.isPresent());
+            assertTrue(remaining.getAsLong() > 4_000 && remaining.getAsLong() <= 5_000);
+        });
+        assertTrue(DeadlineContext.remainingMillis().isPresent());
+    }
+
+    @Test
+    void givenInterruptedCaller_whenWaitingForPrimary_thenItFailsFastAndKeepsTheFlag() {
+        final HedgingClient client = new HedgingClient(delegate, properties, new HedgingBudget(0, 0), executorService);
+        Thread.currentThread().interrupt();
+
+        final long start = System.nanoTime();
+        assertThrows(InterruptedIOException.class, () -> client.execute(request(), new Request.Options()));
+
+        assertTrue(Thread.currentThread().isInterrupted());
+        assertTrue(System.nanoTime() - start < 1_000_000_000L);
+    }
+
+    @Test
+    void givenBothCapabilities_whenSortedLikeFeign_thenDeadlineWrapsHedging() {
+        properties.setMaxThreads(1);
+        final HedgingCapability hedgingCapability = new HedgingCapability(properties);
+        final List<Capability> capabilities = new ArrayList<>(List.of(new DeadlineCapability(), hedgingCapability));
+        AnnotationAwareOrderComparator.sort(capabilities);
+
+        assertSame(hedgingCapability, capabilities.get(0));
+        hedgingCapability.destroy();
+    }
+
+    private static Request request() {
+        return Request.create(Request.HttpMethod.GET, URL, Map.of(), null, StandardCharsets.UTF_8, null);
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.selimhorri.app.client;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.selimhorri.app.config.client.ClientProperties;
+import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Resolves a set of ids against a peer service's resource, either one GET per distinct id or, depending on
+ * {@code app.client.lookup-mode}, batch POSTs of at most {@value #BATCH_SIZE} ids whose responses are read whole,
+ * or a single POST read as an NDJSON stream.
+ * Ids the peer does not know are absent from the batch results instead of failing the whole lookup.
+ */
+@Component
+@EnableConfigurationProperties(ClientProperties.class)
+@Slf4j
+@RequiredArgsConstructor
+public class LookupClient {
+	
+	private static final int BATCH_SIZE = 500;
+	
+	private final RestTemplate restTemplate;
+	private final ObjectMapper objectMapper;
+	private final ClientProperties clientProperties;
+	
+	public <T> Map<Integer, T> findAllByIds(final String apiUrl, final Collection<Integer> ids,
+			final Class<T> type, final Function<T, Integer> idExtractor) {
+		
+		final List<Integer> distinctIds = List.copyOf(ids.stream()
+				.filter(Objects::nonNull)
+				.collect(LinkedHashSet<Integer>::new, LinkedHashSet::add, LinkedHashSet::addAll));
+		if (distinctIds.isEmpty())
+			return Map.of();
+		
+		log.info("*** {} Map, client; look up {} ids {} *", type.getSimpleName(), distinctIds.size(),
+				this.clientProperties.getLookupMode());
+		switch (this.clientProperties.getLookupMode()) {
+			case BATCH:
+				return this.batch(apiUrl, distinctIds, type, idExtractor);
+			case STREAM:
+				return this.stream(apiUrl, distinctIds, type, idExtractor);
+			default:
+				return this.single(apiUrl, distinctIds, type);
+		}
+	}
+	
+	private <T> Map<Integer, T> single(final String apiUrl, final List<Integer> ids, final Class<T> type) {
+		final Map<Integer, T> results = new HashMap<>();
+		ids.forEach(id -> results.put(id, this.restTemplate.getForObject(apiUrl + "/" + id, type)));
+		return results;
+	}
+	
+	private <T> Map<Integer, T> batch(final String apiUrl, final List<Integer> ids, final Class<T> type,
+			final Function<T, Integer> idExtractor) {
+		
+		final ParameterizedTypeReference<DtoCollectionResponse<T>> responseType = ParameterizedTypeReference
+				.forType(ResolvableType.forClassWithGenerics(DtoCollectionResponse.class, type).getType());
+		final Map<Integer, T> results = new HashMap<>();
+		for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+			final DtoCollectionResponse<T> response = this.restTemplate
+					.exchange(apiUrl + "/batch", HttpMethod.POST, 
+							new HttpEntity<>(ids.subList(from, Math.min(ids.size(), from + BATCH_SIZE))), responseType)
+					.getBody();
+			if (response != null && response.getCollection() != null)
+				response.getCollection().forEach(dto -> results.put(idExtractor.apply(dto), dto));
+		}
+		return results;
+	}
+	
+	private <T> Map<Integer, T> stream(final String apiUrl, final List<Integer> ids, final Class<T> type,
+			final Function<T, Integer> idExtractor) {
+		return this.restTemplate.execute(apiUrl + "/batch/stream", HttpMethod.POST,
+				request -> {
+					request.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+					request.getHeaders().setAccept(List.of(MediaType.APPLICATION_NDJSON));
+					request.getBody().write(this.objectMapper.writeValueAsBytes(ids));
+				},
+				response -> {
+					final Map<Integer, T> results = new HashMap<>();
+					final var reader = new BufferedReader(new InputStreamReader(response.getBody(), StandardCharsets.UTF_8));
+					for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+						if (!line.isBlank()) {
+							final T dto = this.objectMapper.readValue(line, type);
+							results.put(idExtractor.apply(dto), dto);
+						}
+					}
+					return results;
+				});
+	}
+	
+	
+	
+}
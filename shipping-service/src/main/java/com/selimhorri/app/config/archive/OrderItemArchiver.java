@@ -0,0 +1,142 @@
+package com.selimhorri.app.config.archive;
+
+import java.io.Closeable;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.core.namedparam.SqlParameterSourceUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.selimhorri.app.domain.OrderItem;
+import com.selimhorri.app.domain.id.OrderItemId;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Moves order items created before the configured age from {@code order_items} to {@code order_items_archive}
+ * in bounded batches, one transaction each. Order-service archives orders by the same age, so items follow
+ * their order into the archive; both keep resolving by id.
+ */
+@Slf4j
+public class OrderItemArchiver implements Closeable {
+	
+	private static final String COLUMNS = "product_id, order_id, ordered_quantity, created_at, updated_at";
+	
+	private final NamedParameterJdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final ArchiveProperties properties;
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		final var thread = new Thread(runnable, "order-item-archiver");
+		thread.setDaemon(true);
+		return thread;
+	});
+	
+	public OrderItemArchiver(final NamedParameterJdbcTemplate jdbcTemplate, final TransactionTemplate transactionTemplate,
+			final ArchiveProperties properties) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = transactionTemplate;
+		this.properties = properties;
+	}
+	
+	public void start() {
+		final long intervalMillis = this.properties.getInterval().toMillis();
+		this.scheduler.scheduleWithFixedDelay(() -> {
+			try {
+				this.archive();
+			}
+			catch (RuntimeException e) {
+				log.warn("** Order item archival failed: {} *", e.getMessage());
+			}
+		}, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * Archives at most {@code maxBatchesPerRun} batches and returns how many order items were moved.
+	 */
+	public int archive() {
+		final Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(this.properties.getMinAge()));
+		int archived = 0;
+		for (int batch = 0; batch < this.properties.getMaxBatchesPerRun(); batch++) {
+			final int moved = this.transactionTemplate.execute(status -> this.archiveBatch(cutoff));
+			archived += moved;
+			if (moved < this.properties.getBatchSize())
+				break;
+		}
+		if (archived > 0)
+			log.info("*** Archived {} order items created before {} *", archived, cutoff);
+		return archived;
+	}
+	
+	public Optional<OrderItem> findArchived(final OrderItemId orderItemId) {
+		return this.jdbcTemplate.query("SELECT " + COLUMNS + " FROM order_items_archive "
+				+ "WHERE product_id = :productId AND order_id = :orderId",
+				Map.of("productId", orderItemId.getProductId(), "orderId", orderItemId.getOrderId()),
+				(resultSet, rowNum) -> map(resultSet))
+				.stream()
+				.findFirst();
+	}
+	
+	public List<OrderItem> findArchivedByOrderId(final Integer orderId) {
+		return this.jdbcTemplate.query("SELECT " + COLUMNS + " FROM order_items_archive "
+				+ "WHERE order_id = :orderId ORDER BY product_id",
+				Map.of("orderId", orderId),
+				(resultSet, rowNum) -> map(resultSet));
+	}
+	
+	@Override
+	public void close() {
+		this.scheduler.shutdownNow();
+	}
+	
+	private int archiveBatch(final Timestamp cutoff) {
+		final List<Map<String, Object>> keys = this.jdbcTemplate.queryForList("SELECT product_id, order_id FROM order_items "
+				+ "WHERE created_at < :cutoff ORDER BY created_at, order_id, product_id LIMIT :limit FOR UPDATE",
+				Map.of("cutoff", cutoff, "limit", this.properties.getBatchSize()));
+		if (keys.isEmpty())
+			return 0;
+		final SqlParameterSource[] batch = SqlParameterSourceUtils.createBatch(keys.stream()
+				.map(key -> Map.of("productId", key.get("product_id"), "orderId", key.get("order_id")))
+				.collect(Collectors.toList()));
+		this.jdbcTemplate.batchUpdate("INSERT INTO order_items_archive (" + COLUMNS + ", archived_at) SELECT " + COLUMNS
+				+ ", LOCALTIMESTAMP FROM order_items WHERE product_id = :productId AND order_id = :orderId", batch);
+		this.jdbcTemplate.batchUpdate("DELETE FROM order_items WHERE product_id = :productId AND order_id = :orderId", batch);
+		return keys.size();
+	}
+	
+	private static OrderItem map(final ResultSet resultSet) throws SQLException {
+		final Timestamp createdAt = resultSet.getTimestamp("created_at");
+		final Timestamp updatedAt = resultSet.getTimestamp("updated_at");
+		final OrderItem orderItem = OrderItem.builder()
+				.productId(resultSet.getInt("product_id"))
+				.orderId(resultSet.getInt("order_id"))
+				.orderedQuantity(resultSet.getObject("ordered_quantity", Integer.class))
+				.build();
+		orderItem.setCreatedAt(createdAt == null ? null : createdAt.toInstant());
+		orderItem.setUpdatedAt(updatedAt == null ? null : updatedAt.toInstant());
+		return orderItem;
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -5,13 +5,23 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
 
+import com.selimhorri.app.config.deadline.DeadlineAwareClientHttpRequestFactory;
+import com.selimhorri.app.config.deadline.DeadlinePropagationInterceptor;
+
 @Configuration
 public class ClientConfig {
 	
+	private static final int CONNECT_TIMEOUT_MILLIS = 2_000;
+	private static final int READ_TIMEOUT_MILLIS = 10_000;
+	
 	@LoadBalanced
 	@Bean
 	public RestTemplate restTemplateBean() {
-		return new RestTemplate();
+		final var restTemplate = new RestTemplate(
+				new DeadlineAwareClientHttpRequestFactory(CONNECT_TIMEOUT_MILLIS, READ_TIMEOUT_MILLIS));
+		restTemplate.getInterceptors().add(new DeadlinePropagationInterceptor());
+		restTemplate.getInterceptors().add(new BinaryContentNegotiationInterceptor());
+		return restTemplate;
 	}
 	
 	
@@ -0,0 +1,13 @@
+package com.selimhorri.app.config.client;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@ConfigurationProperties(prefix = "app.client")
+@Data
+public class ClientProperties {
+	
+	private LookupMode lookupMode = LookupMode.SINGLE;
+	
+}
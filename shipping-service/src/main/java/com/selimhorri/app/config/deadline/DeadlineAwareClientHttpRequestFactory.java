@@ -0,0 +1,43 @@
+package com.selimhorri.app.config.deadline;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+
+/**
+ * Shrinks connect and read timeouts of outbound calls to the remaining request budget.
+ */
+public class DeadlineAwareClientHttpRequestFactory extends SimpleClientHttpRequestFactory {
+	
+	private final int connectTimeoutMillis;
+	private final int readTimeoutMillis;
+	
+	public DeadlineAwareClientHttpRequestFactory(final int connectTimeoutMillis, final int readTimeoutMillis) {
+		this.connectTimeoutMillis = connectTimeoutMillis;
+		this.readTimeoutMillis = readTimeoutMillis;
+	}
+	
+	@Override
+	protected void prepareConnection(final HttpURLConnection connection, final String httpMethod) throws IOException {
+		super.prepareConnection(connection, httpMethod);
+		DeadlineContext.checkNotExpired(httpMethod + " " + connection.getURL());
+		// a timeout of 0 means none, so a budget truncated to 0 millis still gets 1
+		final long remainingMillis = Math.max(1L, DeadlineContext.remainingMillis().orElse(Long.MAX_VALUE));
+		connection.setConnectTimeout((int) Math.min(this.connectTimeoutMillis, remainingMillis));
+		connection.setReadTimeout((int) Math.min(this.readTimeoutMillis, remainingMillis));
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
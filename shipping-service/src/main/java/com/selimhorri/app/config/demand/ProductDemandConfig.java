@@ -0,0 +1,38 @@
+package com.selimhorri.app.config.demand;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Configuration
+@EnableConfigurationProperties(ProductDemandProperties.class)
+public class ProductDemandConfig {
+	
+	@Bean(destroyMethod = "close")
+	public ProductDemandRollup productDemandRollupBean(final ProductDemandProperties properties, 
+			final JdbcTemplate jdbcTemplate, final PlatformTransactionManager transactionManager) {
+		
+		final var productDemandRollup = new ProductDemandRollup(jdbcTemplate, new TransactionTemplate(transactionManager), properties);
+		productDemandRollup.initialise();
+		if (properties.isBackfillEnabled())
+			productDemandRollup.start();
+		
+		return productDemandRollup;
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,17 @@
+package com.selimhorri.app.config.demand;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@ConfigurationProperties(prefix = "app.product-demand")
+@Data
+public class ProductDemandProperties {
+	
+	private boolean backfillEnabled = true;
+	private int backfillChunkSize = 1000;
+	private int maxDays = 366;
+	private int defaultTop = 10;
+	private int maxTop = 100;
+	
+}
@@ -0,0 +1,237 @@
+package com.selimhorri.app.config.demand;
+
+import java.io.Closeable;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.selimhorri.app.domain.id.OrderItemId;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps per-product daily unit and order line counts in step with {@code order_items}, bucketed by the day
+ * an item was created. Writes apply the difference between an item's figures before and after the change in
+ * the same transaction as the item.
+ *
+ * Items that existed when the aggregates were introduced are folded in by a chunked backfill that walks
+ * {@code (order_id, product_id)} up to a fixed order id watermark, archived items included, reading one chunk
+ * at a time. Until it finishes, writes lock the checkpoint row and skip items the backfill has not reached
+ * yet, since it will read their committed figures when it gets there.
+ */
+@Slf4j
+public class ProductDemandRollup implements Closeable {
+	
+	private static final int BACKFILL_ID = 1;
+	private static final String FIND_FIGURES = "SELECT created_at, ordered_quantity FROM order_items "
+			+ "WHERE product_id = ? AND order_id = ?";
+	private static final String FIND_BACKFILL_CHUNK = "SELECT order_id, product_id, created_at, ordered_quantity FROM order_items "
+			+ "WHERE order_id <= ? AND (order_id > ? OR (order_id = ? AND product_id > ?)) "
+			+ "UNION ALL SELECT order_id, product_id, created_at, ordered_quantity FROM order_items_archive "
+			+ "WHERE order_id <= ? AND (order_id > ? OR (order_id = ? AND product_id > ?)) "
+			+ "ORDER BY order_id, product_id LIMIT ?";
+	
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final ProductDemandProperties properties;
+	private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+		final var thread = new Thread(runnable, "product-demand-backfill");
+		thread.setDaemon(true);
+		return thread;
+	});
+	
+	private volatile boolean backfilled;
+	
+	public ProductDemandRollup(final JdbcTemplate jdbcTemplate, final TransactionTemplate transactionTemplate,
+			final ProductDemandProperties properties) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = transactionTemplate;
+		this.properties = properties;
+	}
+	
+	/**
+	 * Pins the backfill watermark to the newest order on first start; items of later orders are only counted by writes.
+	 */
+	public void initialise() {
+		this.jdbcTemplate.update("UPDATE product_demand_backfill SET watermark = "
+				+ "(SELECT COALESCE(MAX(order_id), 0) FROM (SELECT order_id FROM order_items UNION ALL SELECT order_id FROM order_items_archive) i) "
+				+ "WHERE backfill_id = ? AND watermark IS NULL", BACKFILL_ID);
+		this.backfilled = this.jdbcTemplate.queryForObject(
+				"SELECT completed FROM product_demand_backfill WHERE backfill_id = ?", Boolean.class, BACKFILL_ID);
+	}
+	
+	public void start() {
+		if (!this.backfilled)
+			this.executor.execute(() -> {
+				try {
+					this.backfill();
+				}
+				catch (RuntimeException e) {
+					log.warn("** Product demand backfill stopped: {} *", e.getMessage());
+				}
+			});
+	}
+	
+	/**
+	 * Reads an item's current figures under a row lock; call before changing the item.
+	 */
+	public Figures before(final OrderItemId orderItemId) {
+		if (orderItemId.getProductId() == null || orderItemId.getOrderId() == null)
+			return Figures.NONE;
+		return this.jdbcTemplate.query(FIND_FIGURES + " FOR UPDATE", resultSet -> resultSet.next() 
+				? figures(resultSet.getTimestamp("created_at"), resultSet.getInt("ordered_quantity")) 
+				: Figures.NONE, orderItemId.getProductId(), orderItemId.getOrderId());
+	}
+	
+	/**
+	 * Applies the difference between the given figures and the item's flushed figures to the daily aggregates.
+	 */
+	public void changed(final OrderItemId orderItemId, final Figures before) {
+		final Figures after = this.jdbcTemplate.query(FIND_FIGURES, resultSet -> resultSet.next() 
+				? figures(resultSet.getTimestamp("created_at"), resultSet.getInt("ordered_quantity")) 
+				: Figures.NONE, orderItemId.getProductId(), orderItemId.getOrderId());
+		if (before.equals(after) || !this.covers(orderItemId))
+			return;
+		if (before.day != null)
+			this.add(orderItemId.getProductId(), before.day, -before.units, -1);
+		if (after.day != null)
+			this.add(orderItemId.getProductId(), after.day, after.units, 1);
+	}
+	
+	/**
+	 * Folds every item up to the watermark into the aggregates, one checkpointed chunk per transaction.
+	 */
+	public void backfill() {
+		long items = 0;
+		int folded;
+		do {
+			folded = this.transactionTemplate.execute(status -> this.backfillChunk());
+			items += folded;
+		}
+		while (folded == this.properties.getBackfillChunkSize());
+		if (items > 0)
+			log.info("*** Product demand backfill completed; {} order items folded in *", items);
+		this.backfilled = true;
+	}
+	
+	@Override
+	public void close() {
+		this.executor.shutdownNow();
+	}
+	
+	private int backfillChunk() {
+		final Map<String, Object> checkpoint = this.jdbcTemplate.queryForMap("SELECT watermark, cursor_order_id, "
+				+ "cursor_product_id, completed FROM product_demand_backfill WHERE backfill_id = ? FOR UPDATE", BACKFILL_ID);
+		if (Boolean.TRUE.equals(checkpoint.get("completed")))
+			return 0;
+		final int watermark = ((Number) checkpoint.get("watermark")).intValue();
+		final int cursorOrderId = ((Number) checkpoint.get("cursor_order_id")).intValue();
+		final int cursorProductId = ((Number) checkpoint.get("cursor_product_id")).intValue();
+		final int chunkSize = this.properties.getBackfillChunkSize();
+		
+		final Map<Integer, Map<LocalDate, Bucket>> buckets = new HashMap<>();
+		final List<OrderItemId> orderItemIds = this.jdbcTemplate.query(FIND_BACKFILL_CHUNK, (resultSet, rowNum) -> {
+			final Figures figures = figures(resultSet.getTimestamp("created_at"), resultSet.getInt("ordered_quantity"));
+			final OrderItemId orderItemId = new OrderItemId(resultSet.getInt("product_id"), resultSet.getInt("order_id"));
+			buckets.computeIfAbsent(orderItemId.getProductId(), key -> new HashMap<>())
+					.computeIfAbsent(figures.day, key -> new Bucket(0, 0))
+					.add(figures.units);
+			return orderItemId;
+		}, watermark, cursorOrderId, cursorOrderId, cursorProductId, 
+				watermark, cursorOrderId, cursorOrderId, cursorProductId, chunkSize);
+		
+		buckets.forEach((productId, days) -> days.forEach((day, bucket) -> 
+				this.add(productId, day, bucket.units, bucket.orderLines)));
+		
+		final boolean completed = orderItemIds.size() < chunkSize;
+		final OrderItemId last = orderItemIds.isEmpty() 
+				? new OrderItemId(cursorProductId, cursorOrderId) 
+				: orderItemIds.get(orderItemIds.size() - 1);
+		this.jdbcTemplate.update("UPDATE product_demand_backfill SET cursor_order_id = ?, cursor_product_id = ?, "
+				+ "completed = ? WHERE backfill_id = ?", last.getOrderId(), last.getProductId(), completed, BACKFILL_ID);
+		return orderItemIds.size();
+	}
+	
+	private boolean covers(final OrderItemId orderItemId) {
+		if (this.backfilled)
+			return true;
+		final Map<String, Object> checkpoint = this.jdbcTemplate.queryForMap("SELECT watermark, cursor_order_id, "
+				+ "cursor_product_id, completed FROM product_demand_backfill WHERE backfill_id = ? FOR UPDATE", BACKFILL_ID);
+		if (Boolean.TRUE.equals(checkpoint.get("completed"))) {
+			this.backfilled = true;
+			return true;
+		}
+		final int cursorOrderId = ((Number) checkpoint.get("cursor_order_id")).intValue();
+		return orderItemId.getOrderId() < cursorOrderId 
+				|| (orderItemId.getOrderId() == cursorOrderId 
+						&& orderItemId.getProductId() <= ((Number) checkpoint.get("cursor_product_id")).intValue()) 
+				|| orderItemId.getOrderId() > ((Number) checkpoint.get("watermark")).intValue();
+	}
+	
+	private void add(final Integer productId, final LocalDate day, final long units, final long orderLines) {
+		final Date bucket = Date.valueOf(day);
+		final String increment = "UPDATE product_demand_daily SET units = units + ?, order_lines = order_lines + ? "
+				+ "WHERE product_id = ? AND bucket_date = ?";
+		if (this.jdbcTemplate.update(increment, units, orderLines, productId, bucket) > 0)
+			return;
+		try {
+			this.jdbcTemplate.update("INSERT INTO product_demand_daily (product_id, bucket_date, units, order_lines) "
+					+ "VALUES (?, ?, ?, ?)", productId, bucket, units, orderLines);
+		}
+		catch (DuplicateKeyException e) {
+			this.jdbcTemplate.update(increment, units, orderLines, productId, bucket);
+		}
+	}
+	
+	private static Figures figures(final Timestamp createdAt, final int units) {
+		return new Figures(createdAt == null ? null : createdAt.toLocalDateTime().toLocalDate(), units);
+	}
+	
+	@AllArgsConstructor
+	@EqualsAndHashCode
+	public static final class Figures {
+		
+		private static final Figures NONE = new Figures(null, 0);
+		
+		private final LocalDate day;
+		private final int units;
+		
+	}
+	
+	@AllArgsConstructor
+	private static final class Bucket {
+		
+		private long units;
+		private long orderLines;
+		
+		private void add(final int units) {
+			this.units += units;
+			this.orderLines++;
+		}
+		
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,22 @@
+package com.selimhorri.app.config.idempotency;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Data;
+
+@ConfigurationProperties(prefix = "app.idempotency")
+@Data
+public class IdempotencyProperties {
+	
+	private boolean enabled = true;
+	private Duration ttl = Duration.ofHours(24);
+	private Duration lockTimeout = Duration.ofSeconds(30);
+	private Duration maxWait = Duration.ofSeconds(10);
+	private DataSize maxBodySize = DataSize.ofKilobytes(64);
+	private Duration sweepInterval = Duration.ofMinutes(5);
+	private int sweepBatchSize = 1000;
+	
+}
@@ -0,0 +1,21 @@
+package com.selimhorri.app.config.limit;
+
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@ConfigurationProperties(prefix = "app.concurrency-limit")
+@Data
+public class ConcurrencyLimitProperties {
+	
+	private boolean enabled = true;
+	private int initialLimit = 20;
+	private int minLimit = 4;
+	private int maxLimit = 200;
+	private double smoothing = 0.2;
+	private double bestEffortShare = 0.8;
+	private List<String> criticalPaths = List.of();
+	
+}
@@ -0,0 +1,32 @@
+package com.selimhorri.app.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonFormat.Shape;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class ChangeDto<T> implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	private ChangeType type;
+	private String id;
+	
+	@JsonFormat(shape = Shape.STRING)
+	private Instant changedAt;
+	
+	@JsonInclude(Include.NON_NULL)
+	private T entity;
+	
+}
@@ -1,6 +1,7 @@
 package com.selimhorri.app.dto;
 
 import java.io.Serializable;
+import java.util.Set;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -19,15 +20,19 @@ public class OrderItemDto implements Serializable {
 	
 	private static final long serialVersionUID = 1L;
 	
+	public static final String PRODUCT = "product";
+	public static final String ORDER = "order";
+	public static final Set<String> RELATIONS = Set.of(PRODUCT, ORDER);
+	
 	private Integer productId;
 	private Integer orderId;
 	private Integer orderedQuantity;
 	
-	@JsonProperty("product")
+	@JsonProperty(PRODUCT)
 	@JsonInclude(Include.NON_NULL)
 	private ProductDto productDto;
 	
-	@JsonProperty("order")
+	@JsonProperty(ORDER)
 	@JsonInclude(Include.NON_NULL)
 	private OrderDto orderDto;
 	
@@ -0,0 +1,35 @@
+package com.selimhorri.app.exception.wrapper;
+
+public class ArchivedOrderItemException extends RuntimeException {
+	
+	private static final long serialVersionUID = 1L;
+	
+	public ArchivedOrderItemException() {
+		super();
+	}
+	
+	public ArchivedOrderItemException(String message, Throwable cause) {
+		super(message, cause);
+	}
+	
+	public ArchivedOrderItemException(String message) {
+		super(message);
+	}
+	
+	public ArchivedOrderItemException(Throwable cause) {
+		super(cause);
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
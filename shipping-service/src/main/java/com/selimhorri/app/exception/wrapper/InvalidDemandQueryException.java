@@ -0,0 +1,35 @@
+package com.selimhorri.app.exception.wrapper;
+
+public class InvalidDemandQueryException extends RuntimeException {
+	
+	private static final long serialVersionUID = 1L;
+	
+	public InvalidDemandQueryException() {
+		super();
+	}
+	
+	public InvalidDemandQueryException(String message, Throwable cause) {
+		super(message, cause);
+	}
+	
+	public InvalidDemandQueryException(String message) {
+		super(message);
+	}
+	
+	public InvalidDemandQueryException(Throwable cause) {
+		super(cause);
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
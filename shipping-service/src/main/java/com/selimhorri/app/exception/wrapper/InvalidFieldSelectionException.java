@@ -0,0 +1,35 @@
+package com.selimhorri.app.exception.wrapper;
+
+public class InvalidFieldSelectionException extends RuntimeException {
+	
+	private static final long serialVersionUID = 1L;
+	
+	public InvalidFieldSelectionException() {
+		super();
+	}
+	
+	public InvalidFieldSelectionException(String message, Throwable cause) {
+		super(message, cause);
+	}
+	
+	public InvalidFieldSelectionException(String message) {
+		super(message);
+	}
+	
+	public InvalidFieldSelectionException(Throwable cause) {
+		super(cause);
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,147 @@
+package com.selimhorri.app.helper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.selimhorri.app.exception.wrapper.InvalidFieldSelectionException;
+
+/**
+ * The {@code expand} and {@code fields} contract of list endpoints. {@code expand} names the relations to
+ * enrich from other services; {@code fields} names the JSON properties to return, where {@code order.orderId}
+ * selects inside a relation. Without {@code expand}, the relations named in {@code fields} are enriched, and
+ * without either every relation is, as before.
+ */
+public interface FieldSelectionHelper {
+	
+	/**
+	 * Splits a comma separated parameter, or returns {@code null} when it was not given.
+	 */
+	public static Set<String> parse(final String parameter) {
+		if (parameter == null)
+			return null;
+		return Arrays.stream(parameter.split(","))
+				.map(String::trim)
+				.filter(value -> !value.isEmpty())
+				.collect(Collectors.toCollection(LinkedHashSet::new));
+	}
+	
+	public static Set<String> relations(final Set<String> expand, final Set<String> fields, final Set<String> relations) {
+		if (expand != null) {
+			expand.stream()
+					.filter(relation -> !relations.contains(relation))
+					.findFirst()
+					.ifPresent(relation -> {
+						throw new InvalidFieldSelectionException(String.format("Unknown relation: %s, expected one of %s", 
+								relation, relations));
+					});
+			return expand;
+		}
+		if (fields != null)
+			return relations.stream()
+					.filter(relation -> fields.stream().anyMatch(field -> head(field).equals(relation)))
+					.collect(Collectors.toUnmodifiableSet());
+		return relations;
+	}
+	
+	/**
+	 * Parses the {@code fields} parameter and checks every field against the DTO's JSON properties, so an unknown
+	 * field is rejected before any data is fetched.
+	 */
+	public static Set<String> fields(final ObjectMapper objectMapper, final Class<?> dtoClass, final String parameter) {
+		final Set<String> fields = parse(parameter);
+		if (fields != null)
+			validate(objectMapper, objectMapper.constructType(dtoClass), "", fields);
+		return fields;
+	}
+	
+	/**
+	 * Returns the DTOs as they are when no fields were given, otherwise their JSON trimmed to the given fields,
+	 * which {@link #fields} has already checked.
+	 */
+	public static Collection<?> select(final ObjectMapper objectMapper, final Collection<?> dtos, final Set<String> fields) {
+		if (fields == null)
+			return dtos;
+		return dtos.stream()
+				.map(dto -> retain(objectMapper.valueToTree(dto), fields))
+				.collect(Collectors.toUnmodifiableList());
+	}
+	
+	private static String head(final String field) {
+		final int dot = field.indexOf('.');
+		return dot < 0 ? field : field.substring(0, dot);
+	}
+	
+	/**
+	 * Checks every field against the JSON properties of the type, descending into the property type (or its
+	 * element type) for the part after a dot.
+	 */
+	private static void validate(final ObjectMapper objectMapper, final JavaType type, final String prefix, 
+			final Collection<String> fields) {
+		final Map<String, JavaType> properties = objectMapper.getSerializationConfig()
+				.introspect(type)
+				.findProperties()
+				.stream()
+					.collect(Collectors.toMap(BeanPropertyDefinition::getName, BeanPropertyDefinition::getPrimaryType, 
+							(first, second) -> first, LinkedHashMap::new));
+		final Map<String, List<String>> nested = new LinkedHashMap<>();
+		for (final String field : fields) {
+			final String head = head(field);
+			if (!properties.containsKey(head))
+				throw new InvalidFieldSelectionException(String.format("Unknown field: %s%s, expected one of %s", 
+						prefix, field, properties.keySet()));
+			if (head.length() < field.length())
+				nested.computeIfAbsent(head, key -> new ArrayList<>()).add(field.substring(head.length() + 1));
+		}
+		nested.forEach((head, tails) -> {
+			final JavaType propertyType = properties.get(head);
+			validate(objectMapper, propertyType.isContainerType() ? propertyType.getContentType() : propertyType, 
+					prefix + head + ".", tails);
+		});
+	}
+	
+	private static JsonNode retain(final JsonNode node, final Collection<String> fields) {
+		if (!node.isObject())
+			return node;
+		// field -> nested fields, empty when the whole field is selected
+		final Map<String, List<String>> selected = new LinkedHashMap<>();
+		for (final String field : fields) {
+			final String head = head(field);
+			final List<String> nested = selected.computeIfAbsent(head, key -> new ArrayList<>());
+			if (head.length() == field.length())
+				nested.add("");
+			else
+				nested.add(field.substring(head.length() + 1));
+		}
+		final ObjectNode retained = ((ObjectNode) node).objectNode();
+		selected.forEach((name, nested) -> {
+			if (node.has(name))
+				retained.set(name, nested.contains("") ? node.get(name) : retain(node.get(name), nested));
+		});
+		return retained;
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
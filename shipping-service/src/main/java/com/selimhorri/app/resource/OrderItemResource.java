@@ -1,8 +1,14 @@
 package com.selimhorri.app.resource;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,12 +17,23 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.selimhorri.app.constant.AppConstant;
+import com.selimhorri.app.domain.OrderItem;
 import com.selimhorri.app.domain.id.OrderItemId;
+import com.selimhorri.app.dto.DailyDemandDto;
 import com.selimhorri.app.dto.OrderItemDto;
+import com.selimhorri.app.dto.ProductDemandDto;
+import com.selimhorri.app.dto.response.collection.ChangeFeedResponse;
 import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+import com.selimhorri.app.helper.FieldSelectionHelper;
+import com.selimhorri.app.helper.OrderItemMappingHelper;
+import com.selimhorri.app.service.ChangeFeedService;
 import com.selimhorri.app.service.OrderItemService;
+import com.selimhorri.app.service.ProductDemandService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -28,11 +45,58 @@ import lombok.extern.slf4j.Slf4j;
 public class OrderItemResource {
 	
 	private final OrderItemService orderItemService;
+	private final ChangeFeedService changeFeedService;
+	private final ProductDemandService productDemandService;
+	private final ObjectMapper objectMapper;
 	
 	@GetMapping
-	public ResponseEntity<DtoCollectionResponse<OrderItemDto>> findAll() {
+	public ResponseEntity<DtoCollectionResponse<?>> findAll(
+			@RequestParam(name = "expand", required = false) final String expand,
+			@RequestParam(name = "fields", required = false) final String fields) {
 		log.info("*** OrderItemDto List, controller; fetch all orderItems *");
-		return ResponseEntity.ok(new DtoCollectionResponse<>(this.orderItemService.findAll()));
+		final Set<String> selectedFields = FieldSelectionHelper.fields(this.objectMapper, OrderItemDto.class, fields);
+		final List<OrderItemDto> orderItemDtos = this.orderItemService.findAll(
+				FieldSelectionHelper.relations(FieldSelectionHelper.parse(expand), selectedFields, OrderItemDto.RELATIONS));
+		return ResponseEntity.ok(new DtoCollectionResponse<>(
+				FieldSelectionHelper.select(this.objectMapper, orderItemDtos, selectedFields)));
+	}
+	
+	@GetMapping("/changes")
+	public ResponseEntity<ChangeFeedResponse<OrderItemDto>> findChanges(
+			@RequestParam(name = "since", required = false) final Instant since,
+			@RequestParam(name = "cursor", required = false) final String cursor,
+			@RequestParam(name = "limit", required = false) final Integer limit) {
+		log.info("*** ChangeFeedResponse, resource; fetch orderItem changes *");
+		return ResponseEntity.ok(this.changeFeedService.findChanges(OrderItem.class, OrderItemMappingHelper::map, since, cursor, limit));
+	}
+	
+	@GetMapping("/demand")
+	public ResponseEntity<DtoCollectionResponse<ProductDemandDto>> findTopProducts(
+			@RequestParam(name = "from") 
+			@DateTimeFormat(pattern = AppConstant.LOCAL_DATE_FORMAT) final LocalDate from,
+			@RequestParam(name = "to") 
+			@DateTimeFormat(pattern = AppConstant.LOCAL_DATE_FORMAT) final LocalDate to,
+			@RequestParam(name = "limit", required = false) final Integer limit) {
+		log.info("*** ProductDemandDto List, resource; fetch top products by demand *");
+		return ResponseEntity.ok(new DtoCollectionResponse<>(this.productDemandService.findTopProducts(from, to, limit)));
+	}
+	
+	@GetMapping("/demand/{productId}")
+	public ResponseEntity<DtoCollectionResponse<DailyDemandDto>> findDailyDemand(
+			@PathVariable("productId") final String productId,
+			@RequestParam(name = "from") 
+			@DateTimeFormat(pattern = AppConstant.LOCAL_DATE_FORMAT) final LocalDate from,
+			@RequestParam(name = "to") 
+			@DateTimeFormat(pattern = AppConstant.LOCAL_DATE_FORMAT) final LocalDate to) {
+		log.info("*** DailyDemandDto List, resource; fetch daily demand of product *");
+		return ResponseEntity.ok(new DtoCollectionResponse<>(this.productDemandService.findDailyDemand(Integer.parseInt(productId), from, to)));
+	}
+	
+	@GetMapping("/order/{orderId}")
+	public ResponseEntity<DtoCollectionResponse<OrderItemDto>> findAllByOrderId(
+			@PathVariable("orderId") final String orderId) {
+		log.info("*** OrderItemDto List, resource; fetch orderItems by order id *");
+		return ResponseEntity.ok(new DtoCollectionResponse<>(this.orderItemService.findAllByOrderId(Integer.parseInt(orderId))));
 	}
 	
 	@GetMapping("/{orderId}/{productId}")
@@ -41,7 +105,7 @@ public class OrderItemResource {
 			@PathVariable("productId") final String productId) {
 		log.info("*** OrderItemDto, resource; fetch orderItem by id *");
 		return ResponseEntity.ok(this.orderItemService.findById(
-				new OrderItemId(Integer.parseInt(orderId), Integer.parseInt(productId))));
+				new OrderItemId(Integer.parseInt(productId), Integer.parseInt(orderId))));
 	}
 	
 	@GetMapping("/find")
@@ -76,7 +140,7 @@ public class OrderItemResource {
 			@PathVariable("orderId") final String orderId, 
 			@PathVariable("productId") final String productId) {
 		log.info("*** Boolean, resource; delete orderItem by id *");
-		this.orderItemService.deleteById(new OrderItemId(Integer.parseInt(orderId), Integer.parseInt(productId)));
+		this.orderItemService.deleteById(new OrderItemId(Integer.parseInt(productId), Integer.parseInt(orderId)));
 		return ResponseEntity.ok(true);
 	}
 	
@@ -0,0 +1,14 @@
+package com.selimhorri.app.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.selimhorri.app.dto.DailyDemandDto;
+import com.selimhorri.app.dto.ProductDemandDto;
+
+public interface ProductDemandService {
+	
+	List<ProductDemandDto> findTopProducts(final LocalDate from, final LocalDate to, final Integer limit);
+	List<DailyDemandDto> findDailyDemand(final Integer productId, final LocalDate from, final LocalDate to);
+	
+}
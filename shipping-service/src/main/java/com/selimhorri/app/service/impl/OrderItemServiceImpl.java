@@ -1,18 +1,27 @@
 package com.selimhorri.app.service.impl;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
-
-import javax.transaction.Transactional;
+import java.util.stream.Stream;
 
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.selimhorri.app.client.LookupClient;
+import com.selimhorri.app.config.archive.OrderItemArchiver;
+import com.selimhorri.app.config.demand.ProductDemandRollup;
+import com.selimhorri.app.config.demand.ProductDemandRollup.Figures;
+import com.selimhorri.app.domain.OrderItem;
 import com.selimhorri.app.constant.AppConstant;
 import com.selimhorri.app.domain.id.OrderItemId;
 import com.selimhorri.app.dto.OrderDto;
 import com.selimhorri.app.dto.OrderItemDto;
 import com.selimhorri.app.dto.ProductDto;
+import com.selimhorri.app.exception.wrapper.ArchivedOrderItemException;
 import com.selimhorri.app.exception.wrapper.OrderItemNotFoundException;
 import com.selimhorri.app.helper.OrderItemMappingHelper;
 import com.selimhorri.app.repository.OrderItemRepository;
@@ -29,18 +38,39 @@ public class OrderItemServiceImpl implements OrderItemService {
 	
 	private final OrderItemRepository orderItemRepository;
 	private final RestTemplate restTemplate;
+	private final LookupClient lookupClient;
+	private final OrderItemArchiver orderItemArchiver;
+	private final ProductDemandRollup productDemandRollup;
 	
+	/**
+	 * Looks up products and orders only for the requested relations; the others keep just their ids.
+	 */
 	@Override
-	public List<OrderItemDto> findAll() {
+	@Transactional(readOnly = true)
+	public List<OrderItemDto> findAll(final Set<String> relations) {
 		log.info("*** OrderItemDto List, service; fetch all orderItems *");
-		return this.orderItemRepository.findAll()
+		final List<OrderItemDto> orderItemDtos = this.orderItemRepository.findAll()
 				.stream()
 					.map(OrderItemMappingHelper::map)
+					.collect(Collectors.toUnmodifiableList());
+		final boolean withProduct = relations.contains(OrderItemDto.PRODUCT);
+		final boolean withOrder = relations.contains(OrderItemDto.ORDER);
+		final Map<Integer, ProductDto> productDtos = !withProduct ? Map.of() : this.lookupClient.findAllByIds(
+				AppConstant.DiscoveredDomainsApi.PRODUCT_SERVICE_API_URL, 
+				orderItemDtos.stream().map(o -> o.getProductDto().getProductId()).collect(Collectors.toSet()), 
+				ProductDto.class, ProductDto::getProductId);
+		final Map<Integer, OrderDto> orderDtos = !withOrder ? Map.of() : orderItemDtos.stream()
+				.map(o -> o.getOrderDto().getOrderId())
+				.distinct()
+				.collect(HashMap::new, (orders, orderId) -> orders.put(orderId, this.restTemplate.getForObject(
+						AppConstant.DiscoveredDomainsApi.ORDER_SERVICE_API_URL + "/" + orderId, OrderDto.class)), 
+						HashMap::putAll);
+		return orderItemDtos.stream()
 					.map(o -> {
-						o.setProductDto(this.restTemplate.getForObject(AppConstant.DiscoveredDomainsApi
-								.PRODUCT_SERVICE_API_URL + "/" + o.getProductDto().getProductId(), ProductDto.class));
-						o.setOrderDto(this.restTemplate.getForObject(AppConstant.DiscoveredDomainsApi
-								.ORDER_SERVICE_API_URL + "/" + o.getOrderDto().getOrderId(), OrderDto.class));
+						if (withProduct)
+							o.setProductDto(productDtos.get(o.getProductDto().getProductId()));
+						if (withOrder)
+							o.setOrderDto(orderDtos.get(o.getOrderDto().getOrderId()));
 						return o;
 					})
 					.distinct()
@@ -48,9 +78,11 @@ public class OrderItemServiceImpl implements OrderItemService {
 	}
 	
 	@Override
+	@Transactional(readOnly = true)
 	public OrderItemDto findById(final OrderItemId orderItemId) {
 		log.info("*** OrderItemDto, service; fetch orderItem by id *");
-		return this.orderItemRepository.findById(null)
+		return this.orderItemRepository.findById(orderItemId)
+				.or(() -> this.orderItemArchiver.findArchived(orderItemId))
 				.map(OrderItemMappingHelper::map)
 				.map(o -> {
 					o.setProductDto(this.restTemplate.getForObject(AppConstant.DiscoveredDomainsApi
@@ -62,24 +94,79 @@ public class OrderItemServiceImpl implements OrderItemService {
 				.orElseThrow(() -> new OrderItemNotFoundException(String.format("OrderItem with id: %s not found", orderItemId)));
 	}
 	
+	/**
+	 * Reads the order's items through the {@code order_id} index, including items already archived, and
+	 * enriches them with one product lookup for the whole order and a single fetch of the order itself.
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<OrderItemDto> findAllByOrderId(final Integer orderId) {
+		log.info("*** OrderItemDto List, service; fetch orderItems by order id *");
+		final List<OrderItemDto> orderItemDtos = Stream.concat(
+				this.orderItemRepository.findAllByOrderIdOrderByProductId(orderId).stream(), 
+				this.orderItemArchiver.findArchivedByOrderId(orderId).stream())
+					.map(OrderItemMappingHelper::map)
+					.collect(Collectors.toUnmodifiableList());
+		if (orderItemDtos.isEmpty())
+			return orderItemDtos;
+		
+		final Map<Integer, ProductDto> productDtos = this.lookupClient.findAllByIds(
+				AppConstant.DiscoveredDomainsApi.PRODUCT_SERVICE_API_URL, 
+				orderItemDtos.stream().map(o -> o.getProductDto().getProductId()).collect(Collectors.toSet()), 
+				ProductDto.class, ProductDto::getProductId);
+		final OrderDto orderDto = this.restTemplate.getForObject(
+				AppConstant.DiscoveredDomainsApi.ORDER_SERVICE_API_URL + "/" + orderId, OrderDto.class);
+		return orderItemDtos.stream()
+					.map(o -> {
+						o.setProductDto(productDtos.get(o.getProductDto().getProductId()));
+						o.setOrderDto(orderDto);
+						return o;
+					})
+					.collect(Collectors.toUnmodifiableList());
+	}
+	
 	@Override
 	public OrderItemDto save(final OrderItemDto orderItemDto) {
 		log.info("*** OrderItemDto, service; save orderItem *");
-		return OrderItemMappingHelper.map(this.orderItemRepository
-				.save(OrderItemMappingHelper.map(orderItemDto)));
+		return OrderItemMappingHelper.map(this.saveAndRollUp(OrderItemMappingHelper.map(orderItemDto)));
 	}
 	
 	@Override
 	public OrderItemDto update(final OrderItemDto orderItemDto) {
 		log.info("*** OrderItemDto, service; update orderItem *");
-		return OrderItemMappingHelper.map(this.orderItemRepository
-				.save(OrderItemMappingHelper.map(orderItemDto)));
+		this.checkNotArchived(new OrderItemId(orderItemDto.getProductId(), orderItemDto.getOrderId()));
+		return OrderItemMappingHelper.map(this.saveAndRollUp(OrderItemMappingHelper.map(orderItemDto)));
 	}
 	
 	@Override
 	public void deleteById(final OrderItemId orderItemId) {
 		log.info("*** Void, service; delete orderItem by id *");
+		this.checkNotArchived(orderItemId);
+		if (!this.orderItemRepository.existsById(orderItemId))
+			throw new OrderItemNotFoundException(String.format("OrderItem with id: %s not found", orderItemId));
+		final Figures before = this.productDemandRollup.before(orderItemId);
 		this.orderItemRepository.deleteById(orderItemId);
+		this.orderItemRepository.flush();
+		this.productDemandRollup.changed(orderItemId, before);
+	}
+	
+	/**
+	 * Archived items are read-only; saving one would bring it back as a live item next to its archived copy.
+	 */
+	private void checkNotArchived(final OrderItemId orderItemId) {
+		if (!this.orderItemRepository.existsById(orderItemId) && this.orderItemArchiver.findArchived(orderItemId).isPresent())
+			throw new ArchivedOrderItemException(String.format("OrderItem with id: %s is archived and can no longer be changed", orderItemId));
+	}
+	
+	/**
+	 * Flushes the item so the demand aggregates can be adjusted from its stored figures in the same transaction.
+	 */
+	private OrderItem saveAndRollUp(final OrderItem orderItem) {
+		final OrderItemId orderItemId = new OrderItemId(orderItem.getProductId(), orderItem.getOrderId());
+		final Figures before = this.productDemandRollup.before(orderItemId);
+		final OrderItem saved = this.orderItemRepository.saveAndFlush(orderItem);
+		this.productDemandRollup.changed(orderItemId, before);
+		return saved;
 	}
 	
 	
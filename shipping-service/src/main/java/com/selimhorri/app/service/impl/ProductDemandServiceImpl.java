@@ -0,0 +1,102 @@
+package com.selimhorri.app.service.impl;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.selimhorri.app.client.LookupClient;
+import com.selimhorri.app.config.demand.ProductDemandProperties;
+import com.selimhorri.app.constant.AppConstant;
+import com.selimhorri.app.dto.DailyDemandDto;
+import com.selimhorri.app.dto.ProductDemandDto;
+import com.selimhorri.app.dto.ProductDto;
+import com.selimhorri.app.exception.wrapper.InvalidDemandQueryException;
+import com.selimhorri.app.service.ProductDemandService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Serves demand from the daily aggregate table only, over half-open {@code [from, to)} day ranges; days
+ * without units are omitted. Top products are enriched with one batched product lookup.
+ */
+@Service
+@Transactional(readOnly = true)
+@Slf4j
+@RequiredArgsConstructor
+public class ProductDemandServiceImpl implements ProductDemandService {
+	
+	private final JdbcTemplate jdbcTemplate;
+	private final LookupClient lookupClient;
+	private final ProductDemandProperties productDemandProperties;
+	
+	@Override
+	public List<ProductDemandDto> findTopProducts(final LocalDate from, final LocalDate to, final Integer limit) {
+		log.info("*** ProductDemandDto List, service; fetch top products by demand *");
+		
+		this.checkRange(from, to);
+		final int top = limit == null
+				? this.productDemandProperties.getDefaultTop()
+				: Math.max(1, Math.min(this.productDemandProperties.getMaxTop(), limit));
+		
+		final List<ProductDemandDto> productDemandDtos = this.jdbcTemplate.query("SELECT product_id, SUM(units) AS units, "
+				+ "SUM(order_lines) AS order_lines FROM product_demand_daily WHERE bucket_date >= ? AND bucket_date < ? "
+				+ "GROUP BY product_id HAVING SUM(units) > 0 ORDER BY units DESC, product_id LIMIT ?", 
+				(resultSet, rowNum) -> ProductDemandDto.builder()
+						.productId(resultSet.getInt("product_id"))
+						.units(resultSet.getLong("units"))
+						.orderLines(resultSet.getLong("order_lines"))
+						.build(), 
+				Date.valueOf(from), Date.valueOf(to), top);
+		
+		final Map<Integer, ProductDto> productDtos = this.lookupClient.findAllByIds(
+				AppConstant.DiscoveredDomainsApi.PRODUCT_SERVICE_API_URL, 
+				productDemandDtos.stream().map(ProductDemandDto::getProductId).collect(Collectors.toList()), 
+				ProductDto.class, ProductDto::getProductId);
+		productDemandDtos.forEach(p -> p.setProductDto(productDtos.get(p.getProductId())));
+		return productDemandDtos;
+	}
+	
+	@Override
+	public List<DailyDemandDto> findDailyDemand(final Integer productId, final LocalDate from, final LocalDate to) {
+		log.info("*** DailyDemandDto List, service; fetch daily demand of product *");
+		
+		this.checkRange(from, to);
+		return this.jdbcTemplate.query("SELECT bucket_date, units, order_lines FROM product_demand_daily "
+				+ "WHERE product_id = ? AND bucket_date >= ? AND bucket_date < ? AND units > 0 ORDER BY bucket_date", 
+				(resultSet, rowNum) -> DailyDemandDto.builder()
+						.bucketDate(resultSet.getDate("bucket_date").toLocalDate())
+						.units(resultSet.getLong("units"))
+						.orderLines(resultSet.getLong("order_lines"))
+						.build(), 
+				productId, Date.valueOf(from), Date.valueOf(to));
+	}
+	
+	private void checkRange(final LocalDate from, final LocalDate to) {
+		if (from == null || to == null || !from.isBefore(to))
+			throw new InvalidDemandQueryException("Demand needs a from date before the to date");
+		if (ChronoUnit.DAYS.between(from, to) > this.productDemandProperties.getMaxDays())
+			throw new InvalidDemandQueryException(String.format("Demand range spans more than %d days", 
+					this.productDemandProperties.getMaxDays()));
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,13 @@
+
+CREATE TABLE order_items_archive (
+	product_id INT(11) NOT NULL,
+	order_id INT(11) NOT NULL,
+	ordered_quantity INT(11),
+	created_at TIMESTAMP NOT NULL,
+	updated_at TIMESTAMP,
+	archived_at TIMESTAMP NOT NULL,
+	PRIMARY KEY (product_id, order_id)
+);
+
+CREATE INDEX idx_order_items_created ON order_items (created_at, order_id, product_id);
+
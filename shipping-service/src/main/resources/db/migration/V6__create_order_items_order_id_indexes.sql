@@ -0,0 +1,5 @@
+
+CREATE INDEX idx_order_items_order ON order_items (order_id, product_id);
+
+CREATE INDEX idx_order_items_archive_order ON order_items_archive (order_id, product_id);
+
@@ -0,0 +1,21 @@
+
+CREATE TABLE product_demand_daily (
+	product_id INT(11) NOT NULL,
+	bucket_date DATE NOT NULL,
+	units BIGINT NOT NULL,
+	order_lines BIGINT NOT NULL,
+	PRIMARY KEY (product_id, bucket_date)
+);
+
+CREATE INDEX idx_product_demand_daily_date ON product_demand_daily (bucket_date, product_id);
+
+CREATE TABLE product_demand_backfill (
+	backfill_id INT(11) NOT NULL PRIMARY KEY,
+	watermark INT(11),
+	cursor_order_id INT(11) NOT NULL,
+	cursor_product_id INT(11) NOT NULL,
+	completed BOOLEAN NOT NULL
+);
+
+INSERT INTO product_demand_backfill (backfill_id, watermark, cursor_order_id, cursor_product_id, completed) VALUES (1, NULL, 0, 0, false);
+
@@ -0,0 +1,127 @@
+package com.selimhorri.app.unit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.selimhorri.app.client.LookupClient;
+import com.selimhorri.app.config.client.ClientProperties;
+import com.selimhorri.app.config.demand.ProductDemandProperties;
+import com.selimhorri.app.config.demand.ProductDemandRollup;
+import com.selimhorri.app.config.demand.ProductDemandRollup.Figures;
+import com.selimhorri.app.domain.id.OrderItemId;
+import com.selimhorri.app.dto.DailyDemandDto;
+import com.selimhorri.app.dto.ProductDemandDto;
+import com.selimhorri.app.dto.ProductDto;
+import com.selimhorri.app.exception.wrapper.InvalidDemandQueryException;
+import com.selimhorri.app.service.impl.ProductDemandServiceImpl;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Migrates an in-memory database, writes order items around a chunked backfill the way the service does,
+ * and checks the daily aggregates always match a full scan of the stored items.
+ */
+class ProductDemandRollupTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private ProductDemandRollup rollup;
+    private ProductDemandServiceImpl productDemandService;
+
+    @BeforeEach
+    void setup() {
+        final DataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:product-demand-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        final ProductDemandProperties properties = new ProductDemandProperties();
+        properties.setBackfillChunkSize(2);
+        rollup = new ProductDemandRollup(jdbcTemplate, transactionTemplate, properties);
+        rollup.initialise();
+
+        final RestTemplate restTemplate = mock(RestTemplate.class);
+        when(restTemplate.getForObject(anyString(), eq(ProductDto.class)))
+                .thenAnswer(invocation -> ProductDto.builder()
+                        .productId(Integer.valueOf(invocation.getArgument(0, String.class).replaceAll(".*/", "")))
+                        .build());
+        productDemandService = new ProductDemandServiceImpl(jdbcTemplate,
+                new LookupClient(restTemplate, new ObjectMapper(), new ClientProperties()), properties);
+    }
+
+    @Test
+    void givenWritesAroundBackfill_whenDemandIsRead_thenItMatchesTheStoredItems() {
+        // seeded items sit below the watermark, so this change is left to the backfill
+        write(1, 1, "UPDATE order_items SET ordered_quantity = 7 WHERE product_id = 1 AND order_id = 1");
+        write(3, 9, "INSERT INTO order_items (product_id, order_id, ordered_quantity) VALUES (3, 9, 4)");
+        write(1, 9, "INSERT INTO order_items (product_id, order_id, ordered_quantity) VALUES (1, 9, 1)");
+
+        rollup.backfill();
+        assertEquals(scan(), topProducts());
+
+        write(3, 9, "UPDATE order_items SET ordered_quantity = 20 WHERE product_id = 3 AND order_id = 9");
+        write(2, 1, "DELETE FROM order_items WHERE product_id = 2 AND order_id = 1");
+        write(1, 2, "UPDATE order_items SET created_at = DATEADD('DAY', -2, created_at) WHERE product_id = 1 AND order_id = 2");
+
+        assertEquals(scan(), topProducts());
+        final List<ProductDemandDto> top = productDemandService.findTopProducts(TODAY, TODAY.plusDays(1), 1);
+        assertEquals(1, top.size());
+        assertEquals(3, top.get(0).getProductId());
+        assertEquals(20L, top.get(0).getUnits());
+        assertEquals(3, top.get(0).getProductDto().getProductId());
+
+        final List<DailyDemandDto> daily = productDemandService.findDailyDemand(1, TODAY.minusDays(7), TODAY.plusDays(1));
+        assertEquals(List.of(
+                DailyDemandDto.builder().bucketDate(TODAY.minusDays(2)).units(1L).orderLines(1L).build(),
+                DailyDemandDto.builder().bucketDate(TODAY).units(8L).orderLines(2L).build()), daily);
+    }
+
+    @Test
+    void givenBadRange_whenFindDemand_thenItIsRejected() {
+        assertThrows(InvalidDemandQueryException.class, () -> productDemandService.findTopProducts(TODAY, TODAY, null));
+        assertThrows(InvalidDemandQueryException.class, () -> productDemandService.findTopProducts(TODAY, TODAY.plusYears(2), null));
+        assertThrows(InvalidDemandQueryException.class, () -> productDemandService.findDailyDemand(1, null, TODAY));
+    }
+
+    private void write(final int productId, final int orderId, final String sql) {
+        final OrderItemId orderItemId = new OrderItemId(productId, orderId);
+        transactionTemplate.executeWithoutResult(status -> {
+            final Figures before = rollup.before(orderItemId);
+            jdbcTemplate.update(sql);
+            rollup.changed(orderItemId, before);
+        });
+    }
+
+    private List<String> topProducts() {
+        return productDemandService.findTopProducts(TODAY.minusDays(7), TODAY.plusDays(1), null).stream()
+                .map(p -> p.getProductId() + ":" + p.getUnits() + ":" + p.getOrderLines())
+                .collect(Collectors.toList());
+    }
+
+    private List<String> scan() {
+        return jdbcTemplate.query("SELECT product_id, SUM(ordered_quantity) AS units, COUNT(*) AS order_lines FROM order_items "
+                        + "GROUP BY product_id ORDER BY units DESC, product_id",
+                (resultSet, rowNum) -> resultSet.getInt("product_id") + ":" + resultSet.getLong("units") + ":"
+                        + resultSet.getLong("order_lines"));
+    }
+
+}
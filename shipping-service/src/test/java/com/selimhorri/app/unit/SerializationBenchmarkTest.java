@@ -0,0 +1,151 @@
+package com.selimhorri.app.unit;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.selimhorri.app.dto.OrderDto;
+import com.selimhorri.app.dto.OrderItemDto;
+import com.selimhorri.app.dto.ProductDto;
+import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the JSON and Smile encodings used between services, with mappers built the same way as the
+ * default message converters. Prints payload bytes and average serialize/deserialize time per payload.
+ */
+class SerializationBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(SerializationBenchmarkTest.class);
+
+    private static final int ITEMS = 500;
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int MEASURED_ROUNDS = 500;
+
+    private ObjectMapper jsonMapper;
+    private ObjectMapper smileMapper;
+
+    private DtoCollectionResponse<ProductDto> products;
+    private List<OrderItemDto> orderItems;
+
+    @BeforeEach
+    void setup() {
+        jsonMapper = Jackson2ObjectMapperBuilder.json().build();
+        smileMapper = Jackson2ObjectMapperBuilder.smile().build();
+
+        products = DtoCollectionResponse.<ProductDto>builder()
+                .collection(IntStream.rangeClosed(1, ITEMS)
+                        .mapToObj(this::product)
+                        .collect(Collectors.toList()))
+                .build();
+
+        orderItems = IntStream.rangeClosed(1, ITEMS)
+                .mapToObj(i -> OrderItemDto.builder()
+                        .productId(i)
+                        .orderId(i % 50 + 1)
+                        .orderedQuantity(i % 7 + 1)
+                        .productDto(product(i))
+                        .orderDto(OrderDto.builder()
+                                .orderId(i % 50 + 1)
+                                .orderDate(LocalDateTime.of(2024, 1, 1, 12, 0).plusMinutes(i))
+                                .orderDesc("Order " + (i % 50 + 1))
+                                .orderFee(19.99 + i)
+                                .build())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void testSmileRoundTripsProductCollection() throws Exception {
+        final byte[] smile = smileMapper.writeValueAsBytes(products);
+
+        final DtoCollectionResponse<ProductDto> decoded = smileMapper.readValue(smile,
+                new TypeReference<DtoCollectionResponse<ProductDto>>() {});
+
+        assertEquals(List.copyOf(products.getCollection()), List.copyOf(decoded.getCollection()));
+    }
+
+    @Test
+    void testSmileRoundTripsOrderItemsWithFormattedDates() throws Exception {
+        final byte[] smile = smileMapper.writeValueAsBytes(orderItems);
+
+        final List<OrderItemDto> decoded = smileMapper.readValue(smile, new TypeReference<List<OrderItemDto>>() {});
+
+        assertEquals(orderItems, decoded);
+    }
+
+    @Test
+    void testSmilePayloadsAreSmallerThanJson() throws Exception {
+        final Measurement productJson = measure(jsonMapper, products, new TypeReference<DtoCollectionResponse<ProductDto>>() {});
+        final Measurement productSmile = measure(smileMapper, products, new TypeReference<DtoCollectionResponse<ProductDto>>() {});
+        final Measurement itemJson = measure(jsonMapper, orderItems, new TypeReference<List<OrderItemDto>>() {});
+        final Measurement itemSmile = measure(smileMapper, orderItems, new TypeReference<List<OrderItemDto>>() {});
+
+        log.debug(String.format("DtoCollectionResponse<ProductDto> x%d json  %s", ITEMS, productJson));
+        log.debug(String.format("DtoCollectionResponse<ProductDto> x%d smile %s", ITEMS, productSmile));
+        log.debug(String.format("List<OrderItemDto> x%d json  %s", ITEMS, itemJson));
+        log.debug(String.format("List<OrderItemDto> x%d smile %s", ITEMS, itemSmile));
+
+        assertTrue(productSmile.bytes < productJson.bytes);
+        assertTrue(itemSmile.bytes < itemJson.bytes);
+    }
+
+    private ProductDto product(final int i) {
+        return ProductDto.builder()
+                .productId(i)
+                .productTitle("Product " + i)
+                .imageUrl("https://cdn.example.com/products/" + i + ".png")
+                .sku("SKU-" + (100000 + i))
+                .priceUnit(9.99 + i)
+                .quantity(i % 100)
+                .build();
+    }
+
+    private <T> Measurement measure(final ObjectMapper mapper, final T value, final TypeReference<T> type) throws Exception {
+        byte[] bytes = mapper.writeValueAsBytes(value);
+        for (int i = 0; i < WARMUP_ROUNDS; i++)
+            mapper.readValue(mapper.writeValueAsBytes(value), type);
+
+        long serializeNanos = 0;
+        long deserializeNanos = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            final long start = System.nanoTime();
+            bytes = mapper.writeValueAsBytes(value);
+            final long serialized = System.nanoTime();
+            mapper.readValue(bytes, type);
+            deserializeNanos += System.nanoTime() - serialized;
+            serializeNanos += serialized - start;
+        }
+        return new Measurement(bytes.length, serializeNanos / MEASURED_ROUNDS, deserializeNanos / MEASURED_ROUNDS);
+    }
+
+    private static final class Measurement {
+
+        private final int bytes;
+        private final long serializeNanos;
+        private final long deserializeNanos;
+
+        private Measurement(final int bytes, final long serializeNanos, final long deserializeNanos) {
+            this.bytes = bytes;
+            this.serializeNanos = serializeNanos;
+            this.deserializeNanos = deserializeNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%7d bytes  serialize %6d us  deserialize %6d us",
+                    bytes, serializeNanos / 1_000, deserializeNanos / 1_000);
+        }
+
+    }
+
+}
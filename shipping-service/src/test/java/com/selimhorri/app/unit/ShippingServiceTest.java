@@ -1,10 +1,16 @@
 package com.selimhorri.app.unit;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.selimhorri.app.client.LookupClient;
+import com.selimhorri.app.config.archive.OrderItemArchiver;
+import com.selimhorri.app.config.client.ClientProperties;
+import com.selimhorri.app.config.demand.ProductDemandRollup;
 import com.selimhorri.app.domain.OrderItem;
 import com.selimhorri.app.domain.id.OrderItemId;
 import com.selimhorri.app.dto.OrderDto;
 import com.selimhorri.app.dto.OrderItemDto;
 import com.selimhorri.app.dto.ProductDto;
+import com.selimhorri.app.exception.wrapper.ArchivedOrderItemException;
 import com.selimhorri.app.exception.wrapper.OrderItemNotFoundException;
 import com.selimhorri.app.helper.OrderItemMappingHelper;
 import com.selimhorri.app.repository.OrderItemRepository;
@@ -18,6 +24,7 @@ import org.springframework.web.client.RestTemplate;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -30,6 +37,12 @@ class OrderItemServiceImplTest {
     @Mock
     private RestTemplate restTemplate;
 
+    @Mock
+    private OrderItemArchiver orderItemArchiver;
+
+    @Mock
+    private ProductDemandRollup productDemandRollup;
+
     @InjectMocks
     private OrderItemServiceImpl orderItemService;
 
@@ -42,6 +55,10 @@ class OrderItemServiceImplTest {
     @BeforeEach
     void setup() {
         MockitoAnnotations.openMocks(this);
+        orderItemService = new OrderItemServiceImpl(orderItemRepository, restTemplate,
+                new LookupClient(restTemplate, new ObjectMapper(), new ClientProperties()), orderItemArchiver, productDemandRollup);
+
+        orderItemId = new OrderItemId(1, 100);
 
         orderItem = OrderItem.builder()
                 .productId(1)
@@ -76,7 +93,7 @@ class OrderItemServiceImplTest {
         when(restTemplate.getForObject(anyString(), eq(ProductDto.class))).thenReturn(productDto);
         when(restTemplate.getForObject(anyString(), eq(OrderDto.class))).thenReturn(orderDto);
 
-        List<OrderItemDto> result = orderItemService.findAll();
+        List<OrderItemDto> result = orderItemService.findAll(OrderItemDto.RELATIONS);
 
         assertFalse(result.isEmpty());
         assertEquals(1, result.size());
@@ -84,6 +101,17 @@ class OrderItemServiceImplTest {
         verify(orderItemRepository, times(1)).findAll();
     }
 
+    @Test
+    void testFindAll_withoutRelations_noLookups() {
+        when(orderItemRepository.findAll()).thenReturn(List.of(orderItem));
+
+        List<OrderItemDto> result = orderItemService.findAll(Set.of());
+
+        assertEquals(orderItem.getProductId(), result.get(0).getProductDto().getProductId());
+        assertEquals(orderItem.getOrderId(), result.get(0).getOrderDto().getOrderId());
+        verifyNoInteractions(restTemplate);
+    }
+
     @Test
     void testFindById_success() {
         when(orderItemRepository.findById(orderItemId)).thenReturn(Optional.of(orderItem));
@@ -105,25 +133,67 @@ class OrderItemServiceImplTest {
         assertThrows(OrderItemNotFoundException.class, () -> orderItemService.findById(orderItemId));
     }
 
+    @Test
+    void testFindAllByOrderId_success() {
+        final OrderItem archivedItem = OrderItem.builder()
+                .productId(2)
+                .orderId(100)
+                .orderedQuantity(1)
+                .build();
+        when(orderItemRepository.findAllByOrderIdOrderByProductId(100)).thenReturn(List.of(orderItem));
+        when(orderItemArchiver.findArchivedByOrderId(100)).thenReturn(List.of(archivedItem));
+        when(restTemplate.getForObject(anyString(), eq(ProductDto.class))).thenReturn(productDto);
+        when(restTemplate.getForObject(anyString(), eq(OrderDto.class))).thenReturn(orderDto);
+
+        List<OrderItemDto> result = orderItemService.findAllByOrderId(100);
+
+        assertEquals(2, result.size());
+        assertEquals("Order for Laptop", result.get(1).getOrderDto().getOrderDesc());
+        verify(restTemplate, times(1)).getForObject(anyString(), eq(OrderDto.class));
+        verify(orderItemRepository, never()).findAll();
+    }
+
+    @Test
+    void testFindAllByOrderId_empty() {
+        when(orderItemRepository.findAllByOrderIdOrderByProductId(100)).thenReturn(List.of());
+        when(orderItemArchiver.findArchivedByOrderId(100)).thenReturn(List.of());
+
+        assertTrue(orderItemService.findAllByOrderId(100).isEmpty());
+        verifyNoInteractions(restTemplate);
+    }
+
     @Test
     void testSave_success() {
-        when(orderItemRepository.save(any(OrderItem.class))).thenReturn(orderItem);
+        when(orderItemRepository.saveAndFlush(any(OrderItem.class))).thenReturn(orderItem);
 
         OrderItemDto result = orderItemService.save(orderItemDto);
 
         assertNotNull(result);
         assertEquals(5, result.getOrderedQuantity());
-        verify(orderItemRepository, times(1)).save(any(OrderItem.class));
+        verify(orderItemRepository, times(1)).saveAndFlush(any(OrderItem.class));
+        verify(productDemandRollup, times(1)).changed(eq(orderItemId), any());
     }
 
     @Test
     void testDeleteById_success() {
+        when(orderItemRepository.existsById(orderItemId)).thenReturn(true);
         doNothing().when(orderItemRepository).deleteById(orderItemId);
 
         orderItemService.deleteById(orderItemId);
 
         verify(orderItemRepository, times(1)).deleteById(orderItemId);
     }
+
+    @Test
+    void testWrite_archivedOrderItem_rejected() {
+        when(orderItemArchiver.findArchived(orderItemId)).thenReturn(Optional.of(orderItem));
+
+        assertThrows(ArchivedOrderItemException.class, () -> orderItemService.update(orderItemDto));
+        assertThrows(ArchivedOrderItemException.class, () -> orderItemService.deleteById(orderItemId));
+
+        verify(orderItemRepository, never()).saveAndFlush(any(OrderItem.class));
+        verify(orderItemRepository, never()).deleteById(any(OrderItemId.class));
+    }
 }
 
 
@@ -0,0 +1,61 @@
+package com.selimhorri.app.config.datasource;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+@Configuration
+@ConditionalOnProperty(prefix = "app.sql-instrumentation", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(SqlInstrumentationProperties.class)
+public class SqlInstrumentationConfig {
+	
+	@Bean
+	public SqlStatementListener sqlStatementListenerBean(final SqlInstrumentationProperties properties,
+			final MeterRegistry meterRegistry) {
+		return new SqlStatementListener(properties, meterRegistry);
+	}
+	
+	@Bean
+	public static BeanPostProcessor dataSourceProxyBeanPostProcessorBean(final ObjectProvider<SqlStatementListener> listener) {
+		return new BeanPostProcessor() {
+			
+			@Override
+			public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+				if (!(bean instanceof DataSource) || bean instanceof ProxyDataSource)
+					return bean;
+				return ProxyDataSourceBuilder.create(beanName, (DataSource) bean)
+						.listener(listener.getObject())
+						.build();
+			}
+			
+		};
+	}
+	
+	@Bean
+	public SqlInstrumentationFilter sqlInstrumentationFilterBean(final SqlInstrumentationProperties properties,
+			final MeterRegistry meterRegistry) {
+		return new SqlInstrumentationFilter(properties, meterRegistry);
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,76 @@
+package com.selimhorri.app.config.datasource;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Opens the per-request statement stats and, once the response is done, publishes the statement count per
+ * route and flags statements repeated often enough to look like an N+1.
+ */
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+@Slf4j
+@RequiredArgsConstructor
+public class SqlInstrumentationFilter extends OncePerRequestFilter {
+	
+	private final SqlInstrumentationProperties properties;
+	private final MeterRegistry meterRegistry;
+	
+	@Override
+	protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+			final FilterChain filterChain) throws ServletException, IOException {
+		
+		final RequestStatementStats stats = RequestStatementStats.begin(request);
+		try {
+			filterChain.doFilter(request, response);
+		}
+		finally {
+			RequestStatementStats.clear();
+			this.publish(stats);
+		}
+	}
+	
+	private void publish(final RequestStatementStats stats) {
+		if (stats.getStatements() == 0)
+			return;
+		
+		final String route = stats.route();
+		DistributionSummary.builder("db.request.statements")
+				.description("JDBC statements executed per request")
+				.tag("route", route)
+				.publishPercentileHistogram()
+				.register(this.meterRegistry)
+				.record(stats.getStatements());
+		
+		stats.repeatedStatements(this.properties.getRepeatedStatementThreshold()).forEach((sql, count) -> {
+			this.meterRegistry.counter("db.request.repeated-statements", "route", route).increment();
+			log.warn("n_plus_one route=\"{}\" repetitions={} statements={} elapsed_ms={} sql=\"{}\"",
+					route, count, stats.getStatements(), stats.getElapsedMillis(), sql);
+		});
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
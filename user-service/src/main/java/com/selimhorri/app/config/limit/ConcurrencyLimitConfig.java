@@ -0,0 +1,53 @@
+package com.selimhorri.app.config.limit;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+@ConditionalOnProperty(prefix = "app.concurrency-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+public class ConcurrencyLimitConfig {
+	
+	@Bean
+	public AdaptiveConcurrencyLimit adaptiveConcurrencyLimitBean(final ConcurrencyLimitProperties properties, 
+			final MeterRegistry meterRegistry) {
+		
+		final var adaptiveConcurrencyLimit = new AdaptiveConcurrencyLimit(properties);
+		Gauge.builder("http.server.concurrency.limit", adaptiveConcurrencyLimit, AdaptiveConcurrencyLimit::getLimit)
+				.register(meterRegistry);
+		Gauge.builder("http.server.concurrency.in-flight", adaptiveConcurrencyLimit, AdaptiveConcurrencyLimit::getInFlight)
+				.register(meterRegistry);
+		
+		return adaptiveConcurrencyLimit;
+	}
+	
+	@Bean
+	public ConcurrencyLimitFilter concurrencyLimitFilterBean(final AdaptiveConcurrencyLimit adaptiveConcurrencyLimit, 
+			final ConcurrencyLimitProperties properties, final MeterRegistry meterRegistry) {
+		return new ConcurrencyLimitFilter(adaptiveConcurrencyLimit, properties, meterRegistry);
+	}
+	
+	@Bean
+	public ConcurrencyLimitEndpoint concurrencyLimitEndpointBean(final AdaptiveConcurrencyLimit adaptiveConcurrencyLimit, 
+			final MeterRegistry meterRegistry) {
+		return new ConcurrencyLimitEndpoint(adaptiveConcurrencyLimit, meterRegistry);
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
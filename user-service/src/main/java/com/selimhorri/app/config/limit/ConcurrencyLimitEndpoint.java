@@ -0,0 +1,40 @@
+package com.selimhorri.app.config.limit;
+
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+
+@Endpoint(id = "concurrency")
+@RequiredArgsConstructor
+public class ConcurrencyLimitEndpoint {
+	
+	private final AdaptiveConcurrencyLimit adaptiveConcurrencyLimit;
+	private final MeterRegistry meterRegistry;
+	
+	@ReadOperation
+	public Map<String, Object> concurrency() {
+		return Map.of(
+				"limit", this.adaptiveConcurrencyLimit.getLimit(),
+				"inFlight", this.adaptiveConcurrencyLimit.getInFlight(),
+				"rejected", this.meterRegistry.find("http.server.concurrency.rejected").counters().stream()
+						.mapToDouble(counter -> counter.count())
+						.sum());
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
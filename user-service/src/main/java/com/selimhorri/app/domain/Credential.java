@@ -24,12 +24,14 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @Entity
 @Table(name = "credentials")
 @NoArgsConstructor
 @AllArgsConstructor
 @EqualsAndHashCode(callSuper = true, exclude = {"user", "verificationTokens"})
+@ToString(exclude = {"verificationTokens"})
 @Data
 @Builder
 public final class Credential extends AbstractMappedEntity implements Serializable {
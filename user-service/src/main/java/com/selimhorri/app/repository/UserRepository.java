@@ -1,13 +1,28 @@
 package com.selimhorri.app.repository;
 
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import com.selimhorri.app.domain.User;
 
 public interface UserRepository extends JpaRepository<User, Integer> {
 	
+	@Override
+	@EntityGraph(attributePaths = "credential")
+	List<User> findAll();
+	
+	@Override
+	@EntityGraph(attributePaths = "credential")
+	Optional<User> findById(final Integer userId);
+	
+	@Override
+	@EntityGraph(attributePaths = "credential")
+	List<User> findAllById(final Iterable<Integer> userIds);
+	
+	@EntityGraph(attributePaths = "credential")
 	Optional<User> findByCredentialUsername(final String username);
 	
 }
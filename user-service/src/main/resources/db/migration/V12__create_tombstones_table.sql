@@ -0,0 +1,26 @@
+
+CREATE TABLE tombstones (
+	tombstone_id BIGINT NOT NULL PRIMARY KEY AUTO_INCREMENT,
+	entity_type VARCHAR(64) NOT NULL,
+	entity_id VARCHAR(255) NOT NULL,
+	deleted_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_tombstones_type_deleted ON tombstones (entity_type, deleted_at, tombstone_id);
+
+UPDATE users SET updated_at = created_at WHERE updated_at IS NULL;
+
+UPDATE address SET updated_at = created_at WHERE updated_at IS NULL;
+
+UPDATE credentials SET updated_at = created_at WHERE updated_at IS NULL;
+
+UPDATE verification_tokens SET updated_at = created_at WHERE updated_at IS NULL;
+
+CREATE INDEX idx_users_updated ON users (updated_at, user_id);
+
+CREATE INDEX idx_address_updated ON address (updated_at, address_id);
+
+CREATE INDEX idx_credentials_updated ON credentials (updated_at, credential_id);
+
+CREATE INDEX idx_verification_tokens_updated ON verification_tokens (updated_at, verification_token_id);
+
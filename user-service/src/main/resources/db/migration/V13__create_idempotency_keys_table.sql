@@ -0,0 +1,15 @@
+
+CREATE TABLE idempotency_keys (
+	idempotency_key VARCHAR(128) NOT NULL PRIMARY KEY,
+	request_hash CHAR(64) NOT NULL,
+	owner CHAR(36) NOT NULL,
+	status VARCHAR(16) NOT NULL,
+	response_status INT(11),
+	response_content_type VARCHAR(255),
+	response_body MEDIUMBLOB,
+	locked_until TIMESTAMP NULL,
+	expires_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_idempotency_keys_expires ON idempotency_keys (expires_at);
+
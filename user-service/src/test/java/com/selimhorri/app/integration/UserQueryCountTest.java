@@ -0,0 +1,91 @@
+package com.selimhorri.app.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.util.stream.IntStream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import com.selimhorri.app.domain.RoleBasedAuthority;
+import com.selimhorri.app.dto.CredentialDto;
+import com.selimhorri.app.dto.UserDto;
+import com.selimhorri.app.helper.UserMappingHelper;
+import com.selimhorri.app.repository.UserRepository;
+import com.selimhorri.app.service.UserService;
+import com.selimhorri.app.service.impl.UserServiceImpl;
+import com.selimhorri.app.util.QueryCountAssertions;
+
+@DataJpaTest
+@Import(UserServiceImpl.class)
+class UserQueryCountTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void givenMoreUsers_whenFindAll_thenStatementCountStaysConstant() {
+        QueryCountAssertions.assertStatementCountIndependentOfRows(entityManagerFactory,
+                () -> {
+                    entityManager.clear();
+                    userService.findAll();
+                },
+                () -> {
+                    IntStream.rangeClosed(1, 10).forEach(i -> userRepository.save(UserMappingHelper.map(user(i))));
+                    entityManager.flush();
+                });
+    }
+
+    @Test
+    void whenFindAll_thenUsersAndCredentialsAreLoadedInOneStatement() {
+        entityManager.clear();
+        QueryCountAssertions.assertStatementCount(entityManagerFactory, 1, () -> userService.findAll());
+    }
+
+    @Test
+    void whenFindById_thenUserAndCredentialAreLoadedInOneStatement() {
+        final Integer userId = userRepository.save(UserMappingHelper.map(user(1))).getUserId();
+        entityManager.flush();
+        entityManager.clear();
+
+        QueryCountAssertions.assertStatementCount(entityManagerFactory, 1, () -> {
+            final UserDto userDto = userService.findById(userId);
+            assertNotNull(userDto.getCredentialDto());
+            assertEquals("querycount1", userDto.getCredentialDto().getUsername());
+        });
+    }
+
+    private UserDto user(final int i) {
+        return UserDto.builder()
+                .firstName("Query" + i)
+                .lastName("Count")
+                .email("querycount" + i + "@example.com")
+                .phone("+21600000000")
+                .credentialDto(CredentialDto.builder()
+                        .username("querycount" + i)
+                        .password("secret")
+                        .roleBasedAuthority(RoleBasedAuthority.ROLE_USER)
+                        .isEnabled(true)
+                        .isAccountNonExpired(true)
+                        .isAccountNonLocked(true)
+                        .isCredentialsNonExpired(true)
+                        .build())
+                .build();
+    }
+
+}
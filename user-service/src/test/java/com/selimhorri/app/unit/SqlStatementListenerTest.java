@@ -0,0 +1,92 @@
+package com.selimhorri.app.unit;
+
+import com.selimhorri.app.config.datasource.RequestStatementStats;
+import com.selimhorri.app.config.datasource.SqlInstrumentationProperties;
+import com.selimhorri.app.config.datasource.SqlStatementListener;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlStatementListenerTest {
+
+    private static final String CREDENTIAL_BY_USER =
+            "select c.credential_id, c.username from credentials c where c.user_id=?";
+
+    private SimpleMeterRegistry meterRegistry;
+    private SqlStatementListener listener;
+    private RequestStatementStats stats;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        listener = new SqlStatementListener(new SqlInstrumentationProperties(), meterRegistry);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/user-service/api/users");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/users");
+        stats = RequestStatementStats.begin(request);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestStatementStats.clear();
+    }
+
+    @Test
+    void testPerRowStatementIsFlaggedAsRepeated() {
+        execute("select u.user_id, u.first_name from users u");
+        for (int i = 0; i < 6; i++)
+            execute(CREDENTIAL_BY_USER);
+
+        Map<String, Integer> repeated = stats.repeatedStatements(new SqlInstrumentationProperties().getRepeatedStatementThreshold());
+
+        assertEquals(7, stats.getStatements());
+        assertEquals(Map.of(CREDENTIAL_BY_USER, 6), repeated);
+    }
+
+    @Test
+    void testInListsAndWhitespaceAreNormalized() {
+        assertEquals(
+                RequestStatementStats.normalize("select * from users where user_id in (?)"),
+                RequestStatementStats.normalize("select *\n  from users where user_id IN (?, ?,?)"));
+    }
+
+    @Test
+    void testStatementTimerIsTaggedWithRoute() {
+        execute(CREDENTIAL_BY_USER);
+        execute("update users set phone=? where user_id=?");
+
+        assertEquals(1, meterRegistry.find("db.statement")
+                .tags("route", "GET /api/users", "operation", "select").timer().count());
+        assertEquals(1, meterRegistry.find("db.statement")
+                .tags("route", "GET /api/users", "operation", "update").timer().count());
+    }
+
+    @Test
+    void testLeadingCommentsAreIgnored() {
+        execute("/* load User */ " + CREDENTIAL_BY_USER);
+        execute("-- batch\n/* update\n com.selimhorri.app.domain.User */ update users set phone=? where user_id=?");
+        execute(CREDENTIAL_BY_USER);
+
+        assertEquals(2, meterRegistry.find("db.statement").tags("operation", "select").timer().count());
+        assertEquals(1, meterRegistry.find("db.statement").tags("operation", "update").timer().count());
+        assertEquals(Map.of(CREDENTIAL_BY_USER, 2), stats.repeatedStatements(2));
+    }
+
+    private void execute(final String sql) {
+        ExecutionInfo executionInfo = new ExecutionInfo();
+        executionInfo.setElapsedTime(1);
+        executionInfo.setSuccess(true);
+        listener.afterQuery(executionInfo, List.of(new QueryInfo(sql)));
+    }
+
+}
@@ -7,9 +7,13 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -21,6 +25,7 @@ import com.selimhorri.app.domain.Credential;
 import com.selimhorri.app.domain.User;
 import com.selimhorri.app.dto.CredentialDto;
 import com.selimhorri.app.dto.UserDto;
+import com.selimhorri.app.exception.wrapper.BatchSizeExceededException;
 import com.selimhorri.app.exception.wrapper.UserObjectNotFoundException;
 import com.selimhorri.app.repository.UserRepository;
 import com.selimhorri.app.service.impl.UserServiceImpl;
@@ -126,4 +131,12 @@ class UserServiceTest {
         // Assert
         verify(this.userRepository, times(1)).deleteById(userId);
     }
-}
\ No newline at end of file
+
+    @Test
+    void givenMoreThanTheBatchLimit_whenFindAllByIds_thenItIsRejected() {
+        List<Integer> userIds = IntStream.rangeClosed(1, 1001).boxed().collect(Collectors.toList());
+
+        assertThrows(BatchSizeExceededException.class, () -> userService.findAllByIds(userIds));
+        verifyNoInteractions(userRepository);
+    }
+}
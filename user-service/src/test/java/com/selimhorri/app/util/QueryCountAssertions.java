@@ -0,0 +1,42 @@
+package com.selimhorri.app.util;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Counts the JDBC statements Hibernate prepares while an action runs, so list reads can be checked for
+ * N+1 shapes: the statement count of a list call must not change when rows are added.
+ */
+public final class QueryCountAssertions {
+
+    private QueryCountAssertions() {
+    }
+
+    public static long countStatements(final EntityManagerFactory entityManagerFactory, final Runnable action) {
+        final Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    public static void assertStatementCount(final EntityManagerFactory entityManagerFactory, final long expected,
+            final Runnable action) {
+        final long actual = countStatements(entityManagerFactory, action);
+        assertEquals(expected, actual, String.format("Expected %d statements but %d were prepared", expected, actual));
+    }
+
+    public static void assertStatementCountIndependentOfRows(final EntityManagerFactory entityManagerFactory,
+            final Runnable listCall, final Runnable addRows) {
+        final long before = countStatements(entityManagerFactory, listCall);
+        addRows.run();
+        final long after = countStatements(entityManagerFactory, listCall);
+        assertEquals(before, after, String.format(
+                "Statement count grew from %d to %d with the row count, the list read has an N+1 shape", before, after));
+    }
+
+}